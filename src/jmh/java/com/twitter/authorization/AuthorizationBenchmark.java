@@ -0,0 +1,76 @@
+package com.twitter.authorization;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of authenticating a secured request: a repeated token served from the verified-token cache,
+ * a token that goes through the full RSA verification, and the parsing of the token alone.
+ *
+ * @author gauri sawant
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+	private String token;
+	private JwtVerifier cachingVerifier;
+	private JwtVerifier nonCachingVerifier;
+
+	@Setup
+	public void setup() throws GeneralSecurityException {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		KeyPair keyPair = generator.generateKeyPair();
+
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		String data = encoder.encodeToString("{\"typ\":\"JWT\",\"alg\":\"RS256\",\"kid\":\"bench\"}".getBytes(StandardCharsets.UTF_8))
+				+ "." + encoder.encodeToString("{\"sub\":\"gasaw\",\"iss\":\"wso2.org/products/am\"}".getBytes(StandardCharsets.UTF_8));
+		Signature signature = Signature.getInstance("SHA256withRSA");
+		signature.initSign(keyPair.getPrivate());
+		signature.update(data.getBytes(StandardCharsets.US_ASCII));
+		token = data + "." + Base64.getEncoder().encodeToString(signature.sign());
+
+		SigningKeyResolver resolver = (kid, x5t) -> keyPair.getPublic();
+		cachingVerifier = new JwtVerifier(resolver);
+		// A zero TTL keeps every token out of the cache
+		nonCachingVerifier = new JwtVerifier(resolver, JwtVerifier.DEFAULT_CACHE_SIZE, 0);
+	}
+
+	@Benchmark
+	public JwtPrincipal authenticateCached() throws GeneralSecurityException {
+		return cachingVerifier.authenticate(token);
+	}
+
+	@Benchmark
+	public JwtPrincipal authenticateUncached() throws GeneralSecurityException {
+		return nonCachingVerifier.authenticate(token);
+	}
+
+	@Benchmark
+	public String parseToken() throws GeneralSecurityException {
+		JwtToken parsed = JwtToken.parse(token);
+		parsed.getKeyId();
+		return parsed.getSubject();
+	}
+}
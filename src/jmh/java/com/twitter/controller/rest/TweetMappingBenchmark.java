@@ -0,0 +1,83 @@
+package com.twitter.controller.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.twitter.dto.TweetRepliesDTO;
+import com.twitter.dto.UserDTO;
+import com.twitter.engagement.EngagementCounters;
+import com.twitter.model.Tweet;
+import com.twitter.model.User;
+import com.twitter.persistence.FollowerReply;
+
+/**
+ * Cost of mapping a user to its DTO and of grouping the follower replies read for a page of tweets,
+ * for growing page sizes, replying followers per author and reply counts.
+ *
+ * @author gauri sawant
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TweetMappingBenchmark {
+
+	@Param({ "1", "50" })
+	public int tweetsPerPage;
+
+	@Param({ "10", "1000", "10000" })
+	public int followersPerUser;
+
+	@Param({ "10", "100", "1000" })
+	public int repliesPerTweet;
+
+	private TweetRESTServiceImpl service;
+	private List<Tweet> tweets;
+	private List<FollowerReply> followerReplies;
+
+	@Setup
+	public void setup() {
+		service = new TweetRESTServiceImpl();
+		service.engagementCounters = new EngagementCounters();
+
+		User author = new User(0L, "author", "Tweet", "Author");
+		tweets = new ArrayList<>(tweetsPerPage);
+		followerReplies = new ArrayList<>(tweetsPerPage * repliesPerTweet);
+		long replyId = 0;
+		for (long tweetId = tweetsPerPage; tweetId > 0; tweetId--) {
+			Tweet tweet = new Tweet(tweetId);
+			tweet.setText("Planning to travel to Delhi(India), any suggestions?");
+			tweet.setUser(author);
+			tweets.add(tweet);
+			for (int i = 0; i < repliesPerTweet; i++) {
+				long userId = 1 + i % followersPerUser;
+				followerReplies.add(new FollowerReply(tweetId, replyId++, "Reply " + i, null, userId, "user" + userId, "Reply", "User"));
+			}
+		}
+	}
+
+	@Benchmark
+	public UserDTO mapUserToDTO() {
+		return service.mapUsertoDTO(tweets.get(0).getUser());
+	}
+
+	@Benchmark
+	public List<TweetRepliesDTO> mapFollowerReplies() {
+		return service.mapFollowerReplies(tweets, followerReplies);
+	}
+}
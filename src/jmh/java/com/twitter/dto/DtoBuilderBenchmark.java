@@ -0,0 +1,55 @@
+package com.twitter.dto;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of BuilderConstraints.build, i.e. building a DTO including its bean validation,
+ * against constructing the same object without validation.
+ *
+ * @author gauri sawant
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoBuilderBenchmark {
+
+	@Benchmark
+	public UserDTO buildUser() {
+		return userBuilder().build();
+	}
+
+	@Benchmark
+	public UserDTO buildUserWithoutValidation() {
+		return userBuilder().getTargetObject();
+	}
+
+	@Benchmark
+	public TweetDTO buildTweetWithUser() {
+		return new TweetDTO.Builder()
+				.tweetId(1L)
+				.tweetText("Planning to travel to Delhi(India), any suggestions?")
+				.user(userBuilder().build())
+				.build();
+	}
+
+	private static UserDTO.Builder userBuilder() {
+		return new UserDTO.Builder()
+				.userId(1L)
+				.userName("gasaw")
+				.firstName("Gauri")
+				.lastName("Sawant");
+	}
+}
@@ -3,6 +3,7 @@ package com.twitter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * @author gauri sawant
@@ -10,6 +11,7 @@ import org.springframework.context.annotation.Configuration;
  */
 @SpringBootApplication
 @Configuration
+@EnableScheduling
 public class TwitterApplication {
 
 	public static void main(String[] args) {
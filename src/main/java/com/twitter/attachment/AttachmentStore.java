@@ -0,0 +1,187 @@
+package com.twitter.attachment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content addressed store of attachments on the local disk. An attachment is stored once under the SHA-256 of
+ * its bytes, which is its id: uploading the same file again stores nothing. Uploads are streamed to a temporary
+ * file through a fixed buffer while they are hashed, and linked to their id once complete, so that a failed upload
+ * never leaves a partial attachment behind. A link never replaces its target, unlike a rename, so that of two
+ * concurrent uploads of the same bytes one stores the file and the other is told it is a duplicate, and a file
+ * being downloaded is never swapped. Files are spread over 256 directories by the first byte of their id.
+ *
+ * Downloads are copied from the file channel with {@link FileChannel#transferTo}, which lets the kernel move the
+ * bytes without the heap when the target is a channel of its own.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class AttachmentStore {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentStore.class);
+	private static final Pattern ATTACHMENT_ID = Pattern.compile("[0-9a-f]{64}");
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	@Value("${twitter.attachments.path:attachments}")
+	String path = "attachments";
+
+	@Value("${twitter.attachments.max-bytes:10485760}")
+	long maxBytes = 10L * 1024 * 1024;
+
+	/**
+	 * Outcome of an upload.
+	 */
+	public static final class Stored {
+		private final String attachmentId;
+		private final long size;
+		private final boolean duplicate;
+
+		Stored(String attachmentId, long size, boolean duplicate) {
+			this.attachmentId = attachmentId;
+			this.size = size;
+			this.duplicate = duplicate;
+		}
+
+		public String getAttachmentId() {
+			return attachmentId;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * @return true if the same bytes were stored already
+		 */
+		public boolean isDuplicate() {
+			return duplicate;
+		}
+	}
+
+	/**
+	 * Streams the body to disk, hashing it on the way.
+	 * @throws AttachmentTooLargeException when the body is longer than the maximum size, nothing is stored then
+	 */
+	public Stored store(InputStream body) throws IOException {
+		Path root = root();
+		Files.createDirectories(root);
+		Path temp = Files.createTempFile(root, "upload", ".tmp");
+		try {
+			MessageDigest digest = sha256();
+			long size = 0;
+			byte[] buffer = new byte[BUFFER_SIZE];
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				for (int read = body.read(buffer); read >= 0; read = body.read(buffer)) {
+					size += read;
+					if (size > maxBytes) {
+						throw new AttachmentTooLargeException("Attachment larger than " + maxBytes + " bytes");
+					}
+					digest.update(buffer, 0, read);
+					out.write(buffer, 0, read);
+				}
+			}
+			String attachmentId = hex(digest.digest());
+			Path target = resolve(attachmentId);
+			if (Files.exists(target)) {
+				return new Stored(attachmentId, size, true);
+			}
+			Files.createDirectories(target.getParent());
+			try {
+				link(target, temp);
+			} catch (FileAlreadyExistsException ex) {
+				// The same bytes were uploaded concurrently
+				return new Stored(attachmentId, size, true);
+			}
+			LOGGER.debug("Attachment {} stored, {} bytes", attachmentId, size);
+			return new Stored(attachmentId, size, false);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * @return the file of the attachment, empty if the id is malformed or unknown
+	 */
+	public Optional<Path> find(String attachmentId) {
+		if (attachmentId == null || !ATTACHMENT_ID.matcher(attachmentId).matches()) {
+			return Optional.empty();
+		}
+		Path file = resolve(attachmentId);
+		return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+	}
+
+	/**
+	 * Copies length bytes of the file from position to the output with {@link FileChannel#transferTo}.
+	 */
+	public static void transfer(Path file, long position, long length, OutputStream output) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			WritableByteChannel target = Channels.newChannel(output);
+			long end = position + length;
+			for (long next = position; next < end; ) {
+				long sent = channel.transferTo(next, end - next, target);
+				if (sent <= 0) {
+					throw new IOException("Attachment " + file.getFileName() + " truncated at byte " + next);
+				}
+				next += sent;
+			}
+		}
+		output.flush();
+	}
+
+	/*
+	 * Fails with FileAlreadyExistsException if the target exists. A file system without hard links falls back to
+	 * a move, which checks the target before renaming without replacing it
+	 */
+	private static void link(Path target, Path temp) throws IOException {
+		try {
+			Files.createLink(target, temp);
+		} catch (UnsupportedOperationException ex) {
+			Files.move(temp, target);
+		}
+	}
+
+	private Path root() {
+		return Paths.get(path).toAbsolutePath();
+	}
+
+	private Path resolve(String attachmentId) {
+		return root().resolve(attachmentId.substring(0, 2)).resolve(attachmentId);
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 not available", ex);
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[2 * i] = HEX[(bytes[i] >> 4) & 0xf];
+			chars[2 * i + 1] = HEX[bytes[i] & 0xf];
+		}
+		return new String(chars);
+	}
+}
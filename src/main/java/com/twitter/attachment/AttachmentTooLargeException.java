@@ -0,0 +1,14 @@
+package com.twitter.attachment;
+
+/**
+ * Thrown when an uploaded attachment is longer than the maximum size, the attachment was not stored.
+ *
+ * @author gauri sawant
+ */
+public class AttachmentTooLargeException extends RuntimeException {
+	private static final long serialVersionUID = 7751326042297851290L;
+
+	public AttachmentTooLargeException(String message) {
+		super(message);
+	}
+}
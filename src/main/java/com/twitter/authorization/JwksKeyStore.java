@@ -0,0 +1,225 @@
+package com.twitter.authorization;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Holds the RSA verification keys published in a JWKS document, pre-parsed and indexed by key id (kid) and
+ * certificate thumbprint (x5t). The document is read from a file path ("file:" prefix optional) or a
+ * "classpath:" resource. When it resolves to a file, the store can poll it and swap in the new key set
+ * atomically, so lookups on the request path stay a plain map read.
+ *
+ * @author gauri sawant
+ */
+public class JwksKeyStore implements SigningKeyResolver {
+
+	public static final String CLASSPATH_PREFIX = "classpath:";
+	private static final String FILE_PREFIX = "file:";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(JwksKeyStore.class);
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final String RSA = "RSA";
+	private static final int SIGNUM = 1;
+
+	private final String location;
+	private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+	private volatile KeySet keySet;
+	private volatile long lastModified;
+	private volatile long lastLength;
+	private ScheduledExecutorService watcher;
+
+	public JwksKeyStore(String location) throws IOException, GeneralSecurityException {
+		this.location = location;
+		File file = resolveFile();
+		if (file != null) {
+			lastModified = file.lastModified();
+			lastLength = file.length();
+		}
+		this.keySet = read();
+		LOGGER.info("Loaded {} JWKS key(s) from {}", keySet.size(), location);
+	}
+
+	/**
+	 * @return the key registered under the kid, or under the x5t thumbprint when the token carries no kid,
+	 * or the first key of the document when the token names neither; null if no key matches
+	 */
+	@Override
+	public PublicKey getKey(String kid, String x5t) {
+		KeySet current = keySet;
+		if (kid != null) {
+			return current.byKid.get(kid);
+		}
+		if (x5t != null) {
+			return current.byThumbprint.get(x5t);
+		}
+		return current.defaultKey;
+	}
+
+	public int size() {
+		return keySet.size();
+	}
+
+	/**
+	 * Called after every successful reload, e.g. to drop tokens verified with keys that were rotated out.
+	 */
+	public void addReloadListener(Runnable listener) {
+		reloadListeners.add(listener);
+	}
+
+	/**
+	 * Starts a daemon thread polling the JWKS file for changes. Classpath resources packed in a jar cannot
+	 * change, so they are not watched.
+	 */
+	public synchronized void startWatching(long intervalSeconds) {
+		if (watcher != null || resolveFile() == null || intervalSeconds <= 0) {
+			return;
+		}
+		watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "jwks-reload");
+			thread.setDaemon(true);
+			return thread;
+		});
+		watcher.scheduleWithFixedDelay(this::reloadIfChanged, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	public synchronized void stopWatching() {
+		if (watcher != null) {
+			watcher.shutdownNow();
+			watcher = null;
+		}
+	}
+
+	/**
+	 * Reloads the key set if the file changed since the last read. A document that cannot be parsed is
+	 * logged and retried on the next poll, the previous keys stay in place meanwhile.
+	 */
+	void reloadIfChanged() {
+		File file = resolveFile();
+		if (file == null) {
+			return;
+		}
+		long modified = file.lastModified();
+		long length = file.length();
+		if (modified == lastModified && length == lastLength) {
+			return;
+		}
+		try {
+			keySet = read();
+			lastModified = modified;
+			lastLength = length;
+			LOGGER.info("Reloaded {} JWKS key(s) from {}", keySet.size(), location);
+			reloadListeners.forEach(Runnable::run);
+		} catch (IOException | GeneralSecurityException | RuntimeException e) {
+			LOGGER.error("Failed to reload JWKS from {}, keeping previous keys", location, e);
+		}
+	}
+
+	private KeySet read() throws IOException, GeneralSecurityException {
+		try (InputStream in = open()) {
+			JsonNode keys = MAPPER.readTree(in).path("keys");
+			KeyFactory keyFactory = KeyFactory.getInstance(RSA);
+			Map<String, PublicKey> byKid = new HashMap<>();
+			Map<String, PublicKey> byThumbprint = new HashMap<>();
+			PublicKey defaultKey = null;
+			int count = 0;
+			for (JsonNode jwk : keys) {
+				if (!RSA.equals(jwk.path("kty").asText())) {
+					continue;
+				}
+				BigInteger modulus = new BigInteger(SIGNUM, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+				BigInteger exponent = new BigInteger(SIGNUM, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+				PublicKey key = keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent));
+				if (jwk.hasNonNull("kid")) {
+					byKid.put(jwk.get("kid").asText(), key);
+				}
+				if (jwk.hasNonNull("x5t")) {
+					byThumbprint.put(jwk.get("x5t").asText(), key);
+				}
+				if (defaultKey == null) {
+					defaultKey = key;
+				}
+				count++;
+			}
+			if (defaultKey == null) {
+				throw new IOException("No RSA keys found in " + location);
+			}
+			return new KeySet(byKid, byThumbprint, defaultKey, count);
+		}
+	}
+
+	private InputStream open() throws IOException {
+		if (location.startsWith(CLASSPATH_PREFIX)) {
+			URL resource = resourceUrl();
+			if (resource == null) {
+				throw new IOException("JWKS resource not found: " + location);
+			}
+			return resource.openStream();
+		}
+		return new FileInputStream(stripFilePrefix());
+	}
+
+	private File resolveFile() {
+		if (!location.startsWith(CLASSPATH_PREFIX)) {
+			return new File(stripFilePrefix());
+		}
+		URL resource = resourceUrl();
+		if (resource == null || !"file".equals(resource.getProtocol())) {
+			return null;
+		}
+		try {
+			return new File(resource.toURI());
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
+	private URL resourceUrl() {
+		return JwksKeyStore.class.getClassLoader().getResource(location.substring(CLASSPATH_PREFIX.length()));
+	}
+
+	private String stripFilePrefix() {
+		return location.startsWith(FILE_PREFIX) ? location.substring(FILE_PREFIX.length()) : location;
+	}
+
+	private static final class KeySet {
+		private final Map<String, PublicKey> byKid;
+		private final Map<String, PublicKey> byThumbprint;
+		private final PublicKey defaultKey;
+		private final int count;
+
+		private KeySet(Map<String, PublicKey> byKid, Map<String, PublicKey> byThumbprint, PublicKey defaultKey, int count) {
+			this.byKid = Collections.unmodifiableMap(byKid);
+			this.byThumbprint = Collections.unmodifiableMap(byThumbprint);
+			this.defaultKey = defaultKey;
+			this.count = count;
+		}
+
+		private int size() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package com.twitter.authorization;
+
+import java.security.Principal;
+
+/**
+ * The caller identified by a verified JWT.
+ *
+ * @author gauri sawant
+ */
+public final class JwtPrincipal implements Principal {
+
+	private final String subject;
+	private final Long expiresAt;
+
+	public JwtPrincipal(String subject, Long expiresAt) {
+		this.subject = subject;
+		this.expiresAt = expiresAt;
+	}
+
+	/**
+	 * @return the sub claim of the token, null if the token carries none
+	 */
+	@Override
+	public String getName() {
+		return subject;
+	}
+
+	/**
+	 * @return the exp claim of the token in epoch millis, null if the token carries none
+	 */
+	public Long getExpiresAt() {
+		return expiresAt;
+	}
+
+	/**
+	 * @return true if the token subject is the given identifier, e.g. a userId path parameter
+	 */
+	public boolean isSubject(String identifier) {
+		return subject != null && subject.equals(identifier);
+	}
+
+	@Override
+	public String toString() {
+		return "JwtPrincipal[" + subject + "]";
+	}
+}
@@ -0,0 +1,43 @@
+package com.twitter.authorization;
+
+import java.security.Principal;
+
+import javax.ws.rs.core.SecurityContext;
+
+/**
+ * Exposes the {@link JwtPrincipal} of a secured request to the resources through {@code @Context SecurityContext}.
+ *
+ * @author gauri sawant
+ */
+public class JwtSecurityContext implements SecurityContext {
+
+	public static final String AUTHENTICATION_SCHEME = "JWT";
+
+	private final JwtPrincipal principal;
+	private final boolean secure;
+
+	public JwtSecurityContext(JwtPrincipal principal, boolean secure) {
+		this.principal = principal;
+		this.secure = secure;
+	}
+
+	@Override
+	public Principal getUserPrincipal() {
+		return principal;
+	}
+
+	@Override
+	public boolean isUserInRole(String role) {
+		return false;
+	}
+
+	@Override
+	public boolean isSecure() {
+		return secure;
+	}
+
+	@Override
+	public String getAuthenticationScheme() {
+		return AUTHENTICATION_SCHEME;
+	}
+}
@@ -0,0 +1,150 @@
+package com.twitter.authorization;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * A compact serialized JWT split into its header, payload and signature segments by a single scan for the
+ * separators. Segments are only Base64 decoded, and the header and claims only parsed, when first asked for.
+ *
+ * @author gauri sawant
+ */
+public final class JwtToken {
+
+	private static final char SEGMENT_SEPARATOR = '.';
+	private static final String MIN_LENGTH_ERROR_MESSAGE = "Array index exceeds the length of array => min: %d, got: %d";
+	private static final int MIN_SEGMENTS = 3;
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final String KID_HEADER = "kid";
+	private static final String X5T_HEADER = "x5t";
+	private static final String SUBJECT_CLAIM = "sub";
+	private static final String EXPIRY_CLAIM = "exp";
+
+	private final String jwt;
+	private final int headerEnd;
+	private final int payloadEnd;
+	private final int signatureEnd;
+
+	private JsonNode header;
+	private JsonNode claims;
+
+	private JwtToken(String jwt, int headerEnd, int payloadEnd, int signatureEnd) {
+		this.jwt = jwt;
+		this.headerEnd = headerEnd;
+		this.payloadEnd = payloadEnd;
+		this.signatureEnd = signatureEnd;
+	}
+
+	/**
+	 * @throws InvalidKeyException when the token does not have non empty header, payload and signature segments
+	 */
+	public static JwtToken parse(String jwt) throws InvalidKeyException {
+		int headerEnd = -1;
+		int payloadEnd = -1;
+		int signatureEnd = jwt.length();
+		int segments = 1;
+		for (int i = 0; i < jwt.length(); i++) {
+			if (jwt.charAt(i) != SEGMENT_SEPARATOR) {
+				continue;
+			}
+			if (headerEnd < 0) {
+				headerEnd = i;
+			} else if (payloadEnd < 0) {
+				payloadEnd = i;
+			} else {
+				// Anything after a fourth separator is not part of the signature
+				signatureEnd = i;
+				break;
+			}
+			segments++;
+		}
+		if (payloadEnd < 0 || signatureEnd == payloadEnd + 1) {
+			throw new InvalidKeyException(String.format(MIN_LENGTH_ERROR_MESSAGE, MIN_SEGMENTS, Math.min(segments, MIN_SEGMENTS - 1)));
+		}
+		return new JwtToken(jwt, headerEnd, payloadEnd, signatureEnd);
+	}
+
+	/**
+	 * @return the bytes covered by the signature: header and payload segments with their separator
+	 */
+	public byte[] getSigningInput() {
+		return jwt.substring(0, payloadEnd).getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * @throws IllegalArgumentException when the signature segment is not Base64
+	 */
+	public byte[] getSignature() {
+		return Base64.getDecoder().decode(jwt.substring(payloadEnd + 1, signatureEnd));
+	}
+
+	public String getKeyId() throws InvalidKeyException {
+		return textOf(getHeader(), KID_HEADER);
+	}
+
+	public String getThumbprint() throws InvalidKeyException {
+		return textOf(getHeader(), X5T_HEADER);
+	}
+
+	/**
+	 * @return the sub claim, or null if the payload has none or cannot be read
+	 */
+	public String getSubject() {
+		return textOf(getClaims(), SUBJECT_CLAIM);
+	}
+
+	/**
+	 * @return the exp claim in epoch millis, or null if the payload has none or cannot be read
+	 */
+	public Long getExpiresAt() {
+		JsonNode exp = getClaims().get(EXPIRY_CLAIM);
+		return exp != null && exp.canConvertToLong() ? TimeUnit.SECONDS.toMillis(exp.asLong()) : null;
+	}
+
+	private JsonNode getHeader() throws InvalidKeyException {
+		if (header == null) {
+			JsonNode node = readSegment(0, headerEnd);
+			if (node == null) {
+				throw new InvalidKeyException("Malformed JWT header");
+			}
+			header = node;
+		}
+		return header;
+	}
+
+	private JsonNode getClaims() {
+		if (claims == null) {
+			JsonNode node = readSegment(headerEnd + 1, payloadEnd);
+			claims = node == null ? MAPPER.createObjectNode() : node;
+		}
+		return claims;
+	}
+
+	/**
+	 * @return the JSON object held by the segment, or null if it is not Base64 encoded JSON object
+	 */
+	private JsonNode readSegment(int start, int end) {
+		while (end > start && jwt.charAt(end - 1) == '=') {
+			end--;
+		}
+		String segment = jwt.substring(start, end);
+		boolean urlSafe = segment.indexOf('-') >= 0 || segment.indexOf('_') >= 0;
+		try {
+			JsonNode node = MAPPER.readTree((urlSafe ? Base64.getUrlDecoder() : Base64.getDecoder()).decode(segment));
+			return node != null && node.isObject() ? node : null;
+		} catch (IOException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static String textOf(JsonNode node, String field) {
+		return node.hasNonNull(field) ? node.get(field).asText() : null;
+	}
+}
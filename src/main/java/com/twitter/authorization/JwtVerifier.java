@@ -0,0 +1,142 @@
+package com.twitter.authorization;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Verifies RS256 signed JWTs against pre-parsed key material, selected by the kid/x5t of the token header.
+ * Signature and digest instances are pooled per thread and tokens that verified successfully are remembered
+ * by their SHA-256 digest, so a client repeating the same token skips parsing and the RSA verification.
+ *
+ * @author gauri sawant
+ */
+public class JwtVerifier {
+
+	static final int DEFAULT_CACHE_SIZE = 10_000;
+	static final long DEFAULT_CACHE_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+	private static final String ALGORITHM = "SHA256withRSA";
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	private final SigningKeyResolver keyResolver;
+	private final VerifiedTokenCache cache;
+	private final ThreadLocal<Signature> signatures;
+	private final ThreadLocal<MessageDigest> digests;
+
+	public JwtVerifier(SigningKeyResolver keyResolver) throws NoSuchAlgorithmException {
+		this(keyResolver, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL_MILLIS, System::currentTimeMillis);
+	}
+
+	public JwtVerifier(SigningKeyResolver keyResolver, int cacheSize, long cacheTtlMillis) throws NoSuchAlgorithmException {
+		this(keyResolver, cacheSize, cacheTtlMillis, System::currentTimeMillis);
+	}
+
+	JwtVerifier(SigningKeyResolver keyResolver, int cacheSize, long cacheTtlMillis, LongSupplier clock) throws NoSuchAlgorithmException {
+		// Fail at construction rather than on the first request if the JCA provider is missing
+		Signature.getInstance(ALGORITHM);
+		MessageDigest.getInstance(DIGEST_ALGORITHM);
+
+		this.keyResolver = keyResolver;
+		this.cache = new VerifiedTokenCache(cacheSize, cacheTtlMillis, clock);
+		this.signatures = ThreadLocal.withInitial(() -> newInstance(ALGORITHM, Signature::getInstance));
+		this.digests = ThreadLocal.withInitial(() -> newInstance(DIGEST_ALGORITHM, MessageDigest::getInstance));
+	}
+
+	/**
+	 * @return the principal of the token if it carries a valid signature, either verified now or found in the
+	 * cache; null if the token is missing or its signature does not match
+	 * @throws InvalidKeyException when the token does not have header, payload and signature segments,
+	 * its header cannot be read or it names a key that is not known
+	 * @throws IllegalArgumentException when the signature segment is not Base64
+	 */
+	public JwtPrincipal authenticate(String jwt) throws InvalidKeyException, SignatureException {
+
+		if (jwt == null || jwt.isEmpty()) {
+			return null;
+		}
+
+		String digest = digest(jwt);
+		JwtPrincipal cached = cache.get(digest);
+		if (cached != null) {
+			return cached;
+		}
+
+		JwtToken token = JwtToken.parse(jwt);
+		if (!verifySignature(resolveKey(token), token.getSigningInput(), token.getSignature())) {
+			return null;
+		}
+
+		JwtPrincipal principal = new JwtPrincipal(token.getSubject(), token.getExpiresAt());
+		cache.put(digest, principal);
+		return principal;
+	}
+
+	/**
+	 * @return true if the token carries a valid signature
+	 * @see #authenticate(String)
+	 */
+	public boolean verify(String jwt) throws InvalidKeyException, SignatureException {
+		return authenticate(jwt) != null;
+	}
+
+	/**
+	 * Drops every remembered token, forcing the next request of each client through a full verification.
+	 */
+	public void invalidateCache() {
+		cache.clear();
+	}
+
+	int cachedTokens() {
+		return cache.size();
+	}
+
+	private PublicKey resolveKey(JwtToken token) throws InvalidKeyException {
+		String kid = token.getKeyId();
+		String x5t = token.getThumbprint();
+		PublicKey publicKey = keyResolver.getKey(kid, x5t);
+		if (publicKey == null) {
+			throw new InvalidKeyException(String.format("Unknown signing key => kid: %s, x5t: %s", kid, x5t));
+		}
+		return publicKey;
+	}
+
+	private boolean verifySignature(PublicKey publicKey, byte[] data, byte[] signatureBytes) throws InvalidKeyException, SignatureException {
+		Signature signature = signatures.get();
+		try {
+			signature.initVerify(publicKey);
+			signature.update(data);
+			return signature.verify(signatureBytes);
+		} catch (SignatureException | RuntimeException e) {
+			// The instance may be left half way through an operation, do not hand it to the next request
+			signatures.remove();
+			throw e;
+		}
+	}
+
+	private String digest(String jwt) {
+		MessageDigest messageDigest = digests.get();
+		messageDigest.reset();
+		return Base64.getEncoder().encodeToString(messageDigest.digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+	}
+
+	private static <T> T newInstance(String algorithm, JcaFactory<T> factory) {
+		try {
+			return factory.getInstance(algorithm);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface JcaFactory<T> {
+		T getInstance(String algorithm) throws NoSuchAlgorithmException;
+	}
+}
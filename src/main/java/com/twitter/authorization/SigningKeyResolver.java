@@ -0,0 +1,18 @@
+package com.twitter.authorization;
+
+import java.security.PublicKey;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@FunctionalInterface
+public interface SigningKeyResolver {
+
+	/**
+	 * @param kid key id from the JWT header, may be null
+	 * @param x5t certificate thumbprint from the JWT header, may be null
+	 * @return the key the token must be verified with, or null if it is unknown
+	 */
+	PublicKey getKey(String kid, String x5t);
+}
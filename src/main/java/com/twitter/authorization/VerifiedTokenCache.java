@@ -0,0 +1,84 @@
+package com.twitter.authorization;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of token digests whose signature has already been verified, mapped to the principal they carry.
+ * Each entry expires at its configured time-to-live or at the token expiry, whichever comes first.
+ *
+ * @author gauri sawant
+ */
+class VerifiedTokenCache {
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final int maxEntries;
+	private final long ttlMillis;
+	private final LongSupplier clock;
+
+	VerifiedTokenCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+		this.maxEntries = maxEntries;
+		this.ttlMillis = ttlMillis;
+		this.clock = clock;
+	}
+
+	/**
+	 * @return the principal of the verified token, or null if the digest is unknown or its entry expired
+	 */
+	JwtPrincipal get(String digest) {
+		Entry entry = entries.get(digest);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.expiresAt <= clock.getAsLong()) {
+			entries.remove(digest, entry);
+			return null;
+		}
+		return entry.principal;
+	}
+
+	/**
+	 * Caches the principal until the TTL elapses, never past the token expiry.
+	 */
+	void put(String digest, JwtPrincipal principal) {
+		long now = clock.getAsLong();
+		long expiresAt = now + ttlMillis;
+		if (principal.getExpiresAt() != null) {
+			expiresAt = Math.min(expiresAt, principal.getExpiresAt());
+		}
+		if (expiresAt <= now) {
+			return;
+		}
+		if (entries.size() >= maxEntries) {
+			evict(now);
+		}
+		entries.put(digest, new Entry(principal, expiresAt));
+	}
+
+	void clear() {
+		entries.clear();
+	}
+
+	int size() {
+		return entries.size();
+	}
+
+	private void evict(long now) {
+		entries.values().removeIf(entry -> entry.expiresAt <= now);
+		if (entries.size() >= maxEntries) {
+			// Every entry is still live, start over rather than paying for an LRU on the read path
+			entries.clear();
+		}
+	}
+
+	private static final class Entry {
+		private final JwtPrincipal principal;
+		private final long expiresAt;
+
+		private Entry(JwtPrincipal principal, long expiresAt) {
+			this.principal = principal;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.twitter.config;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.twitter.authorization.AuthorizationFilter;
+import com.twitter.authorization.JwksKeyStore;
+import com.twitter.authorization.JwtVerifier;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@Configuration
+public class AuthorizationConfig {
+
+	@Value("${twitter.auth.jwks-location:" + AuthorizationFilter.DEFAULT_JWKS_LOCATION + "}")
+	private String jwksLocation;
+
+	@Value("${twitter.auth.jwks-reload-seconds:30}")
+	private long jwksReloadSeconds;
+
+	@Value("${twitter.auth.token-cache-size:10000}")
+	private int tokenCacheSize;
+
+	@Value("${twitter.auth.token-cache-ttl-seconds:300}")
+	private long tokenCacheTtlSeconds;
+
+	@Bean(destroyMethod = "stopWatching")
+	public JwksKeyStore jwksKeyStore() throws IOException, GeneralSecurityException {
+		JwksKeyStore keyStore = new JwksKeyStore(jwksLocation);
+		keyStore.startWatching(jwksReloadSeconds);
+		return keyStore;
+	}
+
+	@Bean
+	public JwtVerifier jwtVerifier(JwksKeyStore jwksKeyStore) throws NoSuchAlgorithmException {
+		JwtVerifier verifier = new JwtVerifier(jwksKeyStore, tokenCacheSize, TimeUnit.SECONDS.toMillis(tokenCacheTtlSeconds));
+		// Tokens signed with a key that was rotated out must not stay valid through the cache
+		jwksKeyStore.addReloadListener(verifier::invalidateCache);
+		return verifier;
+	}
+}
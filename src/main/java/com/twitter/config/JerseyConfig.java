@@ -10,6 +10,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
 
 import com.twitter.authorization.AuthorizationFilter;
+import com.twitter.authorization.JwtVerifier;
+import com.twitter.controller.rest.AttachmentRESTService;
 import com.twitter.controller.rest.TweetRESTService;
 import com.twitter.controller.rest.UserRESTService;
 
@@ -21,15 +23,16 @@ import io.swagger.jaxrs.listing.SwaggerSerializers;
 @Component
 @ApplicationPath("/twitter")
 public class JerseyConfig extends ResourceConfig {
-    public JerseyConfig() {
+    public JerseyConfig(JwtVerifier jwtVerifier) {
         registerEndpoints();
         configureSwagger();
-        register(AuthorizationFilter.class);
+        register(new AuthorizationFilter(jwtVerifier));
     }
 
     private void registerEndpoints() {
 		register(UserRESTService.class);
 		register(TweetRESTService.class);
+		register(AttachmentRESTService.class);
     }
     
     private void configureSwagger() {
@@ -0,0 +1,60 @@
+package com.twitter.controller.rest;
+
+import java.io.InputStream;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import com.twitter.authorization.Secured;
+import com.twitter.dto.AttachmentDTO;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@Api(value = "/attachment")
+@Path(value = "/attachment")
+@Secured
+public interface AttachmentRESTService {
+	String API_VERSION = "1.0";
+
+	@Path("/upload")
+	@Consumes({ MediaType.WILDCARD })
+	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION })
+	@POST
+	@ApiOperation(value = "Upload the raw bytes of an attachment. Its id, the SHA-256 of the bytes, is the attachment name of tweets and replies", response = AttachmentDTO.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = HTTPResponseCodes.CREATED, message = "Attachment stored, the Location header points to its download"),
+			@ApiResponse(code = HTTPResponseCodes.OK, message = "The same attachment was stored already"),
+			@ApiResponse(code = HTTPResponseCodes.PAYLOAD_TOO_LARGE, message = "Attachment larger than the maximum size."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
+	})
+	Response upload(InputStream body);
+
+	@Path("/download/{attachmentId}")
+	@Produces({ MediaType.APPLICATION_OCTET_STREAM })
+	@GET
+	@ApiOperation(value = "Download the bytes of an attachment, or the single byte range of the Range header. The ETag header is the attachment id, the bytes of an id never change")
+	@ApiResponses(value = {
+			@ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+			@ApiResponse(code = HTTPResponseCodes.PARTIAL_CONTENT, message = "The requested byte range, in the Content-Range header."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_MODIFIED, message = "The attachment in If-None-Match."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "Attachment not found."),
+			@ApiResponse(code = HTTPResponseCodes.RANGE_NOT_SATISFIABLE, message = "The byte range starts past the end of the attachment."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.")
+	})
+	Response download(@PathParam("attachmentId") String attachmentId, @HeaderParam("Range") String range,
+			@HeaderParam("If-Range") String ifRange, @HeaderParam("If-None-Match") String ifNoneMatch);
+}
@@ -0,0 +1,110 @@
+package com.twitter.controller.rest;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import com.twitter.attachment.AttachmentStore;
+import com.twitter.attachment.AttachmentTooLargeException;
+import com.twitter.dto.AttachmentDTO;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@Component
+public class AttachmentRESTServiceImpl implements AttachmentRESTService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttachmentRESTServiceImpl.class);
+	// The bytes of an attachment id never change. Private as downloads need a token
+	private static final String IMMUTABLE = "private, max-age=31536000, immutable";
+
+	@Inject
+	AttachmentStore attachmentStore;
+
+	/*
+	 * @see com.twitter.controller.rest.AttachmentRESTService#upload(java.io.InputStream)
+	 * The method streams the body to the content addressed store and returns the id of the attachment
+	 */
+	@Override
+	public Response upload(InputStream body) {
+		try {
+			LOGGER.info(">>upload");
+			AttachmentStore.Stored stored = attachmentStore.store(body);
+			AttachmentDTO attachmentDTO = new AttachmentDTO.Builder()
+					.attachmentId(stored.getAttachmentId())
+					.size(stored.getSize())
+					.duplicate(stored.isDuplicate())
+					.build();
+			LOGGER.info("<<upload :: Attachment {}, {} bytes, duplicate {}", stored.getAttachmentId(), stored.getSize(),
+					stored.isDuplicate());
+			if (stored.isDuplicate()) {
+				return Response.ok(attachmentDTO).build();
+			}
+			return Response.created(URI.create("attachment/download/" + stored.getAttachmentId())).entity(attachmentDTO).build();
+		} catch (AttachmentTooLargeException tex) {
+			LOGGER.info("<<upload :: Failed, {}", tex.getMessage());
+			return Response.status(HttpStatus.PAYLOAD_TOO_LARGE.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<upload :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
+	/*
+	 * @see com.twitter.controller.rest.AttachmentRESTService#download(java.lang.String, java.lang.String, java.lang.String, java.lang.String)
+	 * The method streams the attachment, or the requested range of it, from its file channel to the response.
+	 * The attachment id is the strong ETag of its bytes, so a client holding them gets a 304 and a range is
+	 * served whenever If-Range is absent or that id
+	 */
+	@Override
+	public Response download(String attachmentId, String range, String ifRange, String ifNoneMatch) {
+		try {
+			LOGGER.info(">>download :: attachment {}, range {}", attachmentId, range);
+			Optional<Path> file = attachmentStore.find(attachmentId);
+			if (!file.isPresent()) {
+				LOGGER.info("<<download :: Failed, attachment not found");
+				return Response.status(HttpStatus.NOT_FOUND.value()).build();
+			}
+			if (EntityTags.matches(ifNoneMatch, attachmentId)) {
+				LOGGER.info("<<download :: Not modified");
+				return Response.notModified(attachmentId).header(HttpHeaders.CACHE_CONTROL, IMMUTABLE).build();
+			}
+			long size = Files.size(file.get());
+			boolean current = ifRange == null || ifRange.trim().equals("\"" + attachmentId + "\"");
+			ByteRange byteRange = current ? ByteRange.parse(range, size) : null;
+			if (byteRange == null) {
+				StreamingOutput output = out -> AttachmentStore.transfer(file.get(), 0, size, out);
+				LOGGER.info("<<download :: {} bytes", size);
+				return Response.ok(output).tag(attachmentId).header(HttpHeaders.CACHE_CONTROL, IMMUTABLE)
+						.header("Accept-Ranges", "bytes").header(HttpHeaders.CONTENT_LENGTH, size).build();
+			}
+			if (!byteRange.isSatisfiable()) {
+				LOGGER.info("<<download :: Failed, range {} not satisfiable for {} bytes", range, size);
+				return Response.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()).header("Content-Range", "bytes */" + size)
+						.build();
+			}
+			StreamingOutput output = out -> AttachmentStore.transfer(file.get(), byteRange.first, byteRange.length(), out);
+			LOGGER.info("<<download :: bytes {}-{} of {}", byteRange.first, byteRange.last, size);
+			return Response.status(HttpStatus.PARTIAL_CONTENT.value()).entity(output).tag(attachmentId)
+					.header(HttpHeaders.CACHE_CONTROL, IMMUTABLE).header("Accept-Ranges", "bytes")
+					.header("Content-Range", "bytes " + byteRange.first + "-" + byteRange.last + "/" + size)
+					.header(HttpHeaders.CONTENT_LENGTH, byteRange.length()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<download :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.twitter.controller.rest;
+
+/**
+ * Single byte range of a Range request header, bytes=first-last, bytes=first- or bytes=-suffixLength, clamped to
+ * the size of the file. Multiple ranges, other units and malformed headers are ignored, as RFC 7233 allows, and
+ * the whole file is served instead.
+ *
+ * @author gauri sawant
+ */
+final class ByteRange {
+
+	private static final String UNIT = "bytes=";
+
+	final long first;
+	final long last;
+
+	private ByteRange(long first, long last) {
+		this.first = first;
+		this.last = last;
+	}
+
+	long length() {
+		return last - first + 1;
+	}
+
+	/**
+	 * @return false if the range starts past the end of the file
+	 */
+	boolean isSatisfiable() {
+		return first <= last;
+	}
+
+	/**
+	 * @param range the header, null when not sent
+	 * @return the range to serve, null to serve the whole file
+	 */
+	static ByteRange parse(String range, long size) {
+		if (range == null || !range.regionMatches(true, 0, UNIT, 0, UNIT.length()) || range.indexOf(',') >= 0) {
+			return null;
+		}
+		String spec = range.substring(UNIT.length()).trim();
+		int dash = spec.indexOf('-');
+		if (dash < 0) {
+			return null;
+		}
+		try {
+			if (dash == 0) {
+				long suffixLength = digits(spec.substring(1));
+				return new ByteRange(Math.max(0L, size - suffixLength), suffixLength == 0 ? -1L : size - 1);
+			}
+			long first = digits(spec.substring(0, dash));
+			long last = dash == spec.length() - 1 ? Long.MAX_VALUE : digits(spec.substring(dash + 1));
+			if (last < first) {
+				return null;
+			}
+			return first >= size ? new ByteRange(first, -1L) : new ByteRange(first, Math.min(last, size - 1));
+		} catch (NumberFormatException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * @throws NumberFormatException when the position is not a plain number or overflows
+	 */
+	private static long digits(String position) {
+		if (position.isEmpty() || !position.chars().allMatch(Character::isDigit)) {
+			throw new NumberFormatException("Malformed range position: " + position);
+		}
+		return Long.parseLong(position);
+	}
+}
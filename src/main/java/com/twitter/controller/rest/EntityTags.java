@@ -0,0 +1,51 @@
+package com.twitter.controller.rest;
+
+/**
+ * Matches the If-None-Match header of a conditional GET against the current entity tag of the resource, with the
+ * weak comparison that RFC 7232 prescribes for it: a W/ prefix is ignored and * matches any tag.
+ *
+ * @author gauri sawant
+ */
+final class EntityTags {
+
+	private EntityTags() {
+	}
+
+	/**
+	 * @param ifNoneMatch the header, a list of quoted tags or *, null when not sent
+	 * @param tag the current tag, without quotes
+	 * @return true if the client has the current representation, a malformed header never matches
+	 */
+	static boolean matches(String ifNoneMatch, String tag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		if (ifNoneMatch.trim().equals("*")) {
+			return true;
+		}
+		int position = 0;
+		int length = ifNoneMatch.length();
+		while (position < length) {
+			char c = ifNoneMatch.charAt(position);
+			if (c == ' ' || c == '\t' || c == ',') {
+				position++;
+				continue;
+			}
+			if (ifNoneMatch.startsWith("W/", position)) {
+				position += 2;
+			}
+			if (position >= length || ifNoneMatch.charAt(position) != '"') {
+				return false;
+			}
+			int end = ifNoneMatch.indexOf('"', position + 1);
+			if (end < 0) {
+				return false;
+			}
+			if (ifNoneMatch.regionMatches(position + 1, tag, 0, tag.length()) && end - position - 1 == tag.length()) {
+				return true;
+			}
+			position = end + 1;
+		}
+		return false;
+	}
+}
@@ -6,16 +6,21 @@ package com.twitter.controller.rest;
 public final class HTTPResponseCodes {
 
     public static final int INTERNAL_SERVER_ERROR = 500;
+    public static final int SERVICE_UNAVAILABLE = 503;
     public static final int NOT_AUTHORIZED = 401;
     public static final int FORBIDDEN = 403;
     public static final int BAD_REQUEST = 400;
     public static final int NOT_FOUND = 404;
     public static final int NOT_ALLOWED = 405;
     public static final int CONFLICT = 409;
+    public static final int PAYLOAD_TOO_LARGE = 413;
+    public static final int RANGE_NOT_SATISFIABLE = 416;
     public static final int ACCEPTED = 202;
     public static final int NO_CONTENT = 204;
     public static final int CREATED = 201;
     public static final int OK = 200;
+    public static final int PARTIAL_CONTENT = 206;
+    public static final int NOT_MODIFIED = 304;
     
     public static final String FAULT_CLASS = "HTTP_STATUS";
     public static final String FAULT_PARAMETER = "CODE";
@@ -0,0 +1,36 @@
+package com.twitter.controller.rest;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Opaque page cursor handed out in the Link header of paged tweet lists, wrapping the tweet id the next
+ * page is seeked from. Clients pass it back as is in the before/after query parameter.
+ *
+ * @author gauri sawant
+ */
+final class TweetCursor {
+
+	private TweetCursor() {
+	}
+
+	static String encode(long tweetId) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(tweetId).array());
+	}
+
+	/**
+	 * @throws NumberFormatException when the cursor was not produced by {@link #encode(long)}
+	 */
+	static long decode(String cursor) {
+		byte[] bytes;
+		try {
+			bytes = Base64.getUrlDecoder().decode(cursor);
+		} catch (IllegalArgumentException e) {
+			bytes = null;
+		}
+		if (bytes == null || bytes.length != Long.BYTES) {
+			throw new NumberFormatException("Malformed cursor: " + cursor);
+		}
+		return ByteBuffer.wrap(bytes).getLong();
+	}
+}
@@ -1,19 +1,28 @@
 package com.twitter.controller.rest;
 
+import java.util.List;
+
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 import com.twitter.authorization.Secured;
+import com.twitter.dto.BulkWriteResultDTO;
 import com.twitter.dto.RepliesDTO;
+import com.twitter.dto.TrendDTO;
 import com.twitter.dto.TweetDTO;
 import com.twitter.dto.TweetRepliesDTO;
 
@@ -42,6 +51,7 @@ public interface TweetRESTService {
 			@ApiResponse(code = HTTPResponseCodes.CREATED, message = "User created"),
 			@ApiResponse(code = HTTPResponseCodes.CONFLICT, message = "User Name already exists"),
 			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "User not found."),
+			@ApiResponse(code = HTTPResponseCodes.SERVICE_UNAVAILABLE, message = "Too many writes waiting, try again later."),
 			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
 	})
 	Response createTweet(TweetDTO tweetDTO, @PathParam("userId") String userId);
@@ -57,27 +67,168 @@ public interface TweetRESTService {
 			@ApiResponse(code = HTTPResponseCodes.CREATED, message = "Reply created"),
 			@ApiResponse(code = HTTPResponseCodes.CONFLICT, message = "User Name already exists"),
 			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "User not found."),
+			@ApiResponse(code = HTTPResponseCodes.SERVICE_UNAVAILABLE, message = "Too many writes waiting, try again later."),
 			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
 	})
 	Response addReply(RepliesDTO replyDTO, @PathParam("tweetId") String tweetId, @PathParam("userId") String userId);
+
+	@Path("/createTweets/{userId}")
+	@Consumes( {MediaType.APPLICATION_JSON })
+	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION })
+	@POST
+	@ApiOperation(value = "Create up to 1000 tweets of a user in one call. Every tweet is validated first, the result lists the id or the error of each tweet in order", response = BulkWriteResultDTO[].class)
+	@ApiResponses(value = {
+			@ApiResponse(code = HTTPResponseCodes.OK, message = "Tweets processed, each result holds the status of its tweet: 201, 400 or 500"),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad userId parameter, no tweets or too many tweets."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "User not found."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
+	})
+	Response createTweets(List<TweetDTO> tweetDTOs, @PathParam("userId") String userId);
+
+	@Path("/addReplies/{userId}")
+	@Consumes( {MediaType.APPLICATION_JSON })
+	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION })
+	@POST
+	@ApiOperation(value = "Add up to 1000 replies of a user in one call, each naming its tweet as reply-tweet-id. Every reply is validated first, the result lists the id or the error of each reply in order", response = BulkWriteResultDTO[].class)
+	@ApiResponses(value = {
+			@ApiResponse(code = HTTPResponseCodes.OK, message = "Replies processed, each result holds the status of its reply: 201, 400, 404 when the tweet is not found, or 500"),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad userId parameter, no replies or too many replies."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "User not found."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
+	})
+	Response addReplies(List<RepliesDTO> replyDTOs, @PathParam("userId") String userId);
 	
 	@Path("getTweets/{userId}")
 	@Produces({MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION})
 	@GET
-	@ApiOperation(value = "Get user tweets", response = TweetDTO[].class)
+	@ApiOperation(value = "Get user tweets, newest first. The Link header carries the cursors of the next (older) and prev (newer) pages. The ETag header carries the version of the tweets, sent back in If-None-Match it gets a 304 while they are unchanged", response = TweetDTO[].class)
 	@ApiResponses(value = { @ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_MODIFIED, message = "Tweets unchanged since the version in If-None-Match."),
+			@ApiResponse(code = HTTPResponseCodes.NO_CONTENT, message = "No tweets."),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad userId, limit or cursor parameter."),
 			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "Requested user not found."),
 			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.") })
-	Response getTweetsForUser(@PathParam("userId") String userId);
+	Response getTweetsForUser(@PathParam("userId") String userId, @QueryParam("limit") String limit,
+			@QueryParam("before") String before, @QueryParam("after") String after,
+			@HeaderParam("If-None-Match") String ifNoneMatch, @Context UriInfo uriInfo);
 	
 	
 
 	@Path("getFollowerTweetRepliesForUser/{userId}")
 	@Produces({MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION})
 	@GET
-	@ApiOperation(value = "Get user tweets and follower replies to the tweet", response = TweetRepliesDTO[].class)
+	@ApiOperation(value = "Get user tweets and follower replies to the tweet, newest first. The Link header carries the cursors of the next (older) and prev (newer) pages. The ETag header carries the version of the tweets, sent back in If-None-Match it gets a 304 while they are unchanged", response = TweetRepliesDTO[].class)
+	@ApiResponses(value = { @ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_MODIFIED, message = "Tweets unchanged since the version in If-None-Match."),
+			@ApiResponse(code = HTTPResponseCodes.NO_CONTENT, message = "No tweets."),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad userId, limit or cursor parameter."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "Requested user not found."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.") })
+	Response getFollowerTweetRepliesForUser(@PathParam("userId") String userId, @QueryParam("limit") String limit,
+			@QueryParam("before") String before, @QueryParam("after") String after,
+			@HeaderParam("If-None-Match") String ifNoneMatch, @Context UriInfo uriInfo);
+
+	@Path("getHomeTimeline/{userId}")
+	@Produces({MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION})
+	@GET
+	@ApiOperation(value = "Get the tweets of the user and of the users they follow, newest first. The Link header carries the cursor of the next (older) page", response = TweetDTO[].class)
 	@ApiResponses(value = { @ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+			@ApiResponse(code = HTTPResponseCodes.NO_CONTENT, message = "No tweets."),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad userId, limit or cursor parameter."),
 			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "Requested user not found."),
 			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.") })
-	Response getFollowerTweetRepliesForUser(@PathParam("userId") String userId);
+	Response getHomeTimeline(@PathParam("userId") String userId, @QueryParam("limit") String limit,
+			@QueryParam("before") String before, @Context UriInfo uriInfo);
+
+	@Path("searchTweets")
+	@Produces({MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION})
+	@GET
+	@ApiOperation(value = "Search the text of the tweets, newest first. The words of q are ANDed, a double quoted part is a phrase. The Link header carries the cursor of the next (older) page", response = TweetDTO[].class)
+	@ApiResponses(value = { @ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+			@ApiResponse(code = HTTPResponseCodes.NO_CONTENT, message = "No tweets."),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "No word in q, bad limit or cursor parameter."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.") })
+	Response searchTweets(@QueryParam("q") String query, @QueryParam("limit") String limit,
+			@QueryParam("before") String before, @Context UriInfo uriInfo);
+
+	@Path("searchReplies")
+	@Produces({MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION})
+	@GET
+	@ApiOperation(value = "Search the text of the replies, newest first. The words of q are ANDed, a double quoted part is a phrase. The Link header carries the cursor of the next (older) page", response = RepliesDTO[].class)
+	@ApiResponses(value = { @ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+			@ApiResponse(code = HTTPResponseCodes.NO_CONTENT, message = "No replies."),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "No word in q, bad limit or cursor parameter."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.") })
+	Response searchReplies(@QueryParam("q") String query, @QueryParam("limit") String limit,
+			@QueryParam("before") String before, @Context UriInfo uriInfo);
+
+	@Path("getTrends")
+	@Produces({MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION})
+	@GET
+	@ApiOperation(value = "Get the trending hashtags and mentions of the last 5m, 1h (default) or 24h window, the most tweeted first. Counts are estimates", response = TrendDTO[].class)
+	@ApiResponses(value = { @ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+			@ApiResponse(code = HTTPResponseCodes.NO_CONTENT, message = "No trends."),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad window or limit parameter."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.") })
+	Response getTrends(@QueryParam("window") String window, @QueryParam("limit") String limit);
+
+	@Path("likeTweet/{tweetId}/{userId}")
+	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION })
+	@POST
+	@ResponseStatus(HttpStatus.OK)
+	@ApiOperation(value = "Like a tweet, liking it again is a no-op")
+	@ApiResponses(value = {
+			@ApiResponse(code = HTTPResponseCodes.OK, message = "Tweet liked"),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad tweetId or userId parameter."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "Tweet or user not found."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
+	})
+	Response likeTweet(@PathParam("tweetId") String tweetId, @PathParam("userId") String userId);
+
+	@Path("unlikeTweet/{tweetId}/{userId}")
+	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION })
+	@DELETE
+	@ResponseStatus(HttpStatus.OK)
+	@ApiOperation(value = "Take back the like of a tweet")
+	@ApiResponses(value = {
+			@ApiResponse(code = HTTPResponseCodes.OK, message = "Tweet not liked"),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad tweetId or userId parameter."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "Tweet or user not found."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
+	})
+	Response unlikeTweet(@PathParam("tweetId") String tweetId, @PathParam("userId") String userId);
+
+	@Path("retweet/{tweetId}/{userId}")
+	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION })
+	@POST
+	@ResponseStatus(HttpStatus.OK)
+	@ApiOperation(value = "Retweet a tweet, retweeting it again is a no-op")
+	@ApiResponses(value = {
+			@ApiResponse(code = HTTPResponseCodes.OK, message = "Tweet retweeted"),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad tweetId or userId parameter."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "Tweet or user not found."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
+	})
+	Response retweet(@PathParam("tweetId") String tweetId, @PathParam("userId") String userId);
+
+	@Path("undoRetweet/{tweetId}/{userId}")
+	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION })
+	@DELETE
+	@ResponseStatus(HttpStatus.OK)
+	@ApiOperation(value = "Take back the retweet of a tweet")
+	@ApiResponses(value = {
+			@ApiResponse(code = HTTPResponseCodes.OK, message = "Tweet not retweeted"),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad tweetId or userId parameter."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "Tweet or user not found."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
+	})
+	Response undoRetweet(@PathParam("tweetId") String tweetId, @PathParam("userId") String userId);
+
+	@Path("deleteTweet/{tweetId}")
+	@DELETE
+	@ApiOperation(value = "Delete a tweet with its replies")
+	@ApiResponses(value = { @ApiResponse(code = HTTPResponseCodes.NO_CONTENT, message = "Tweet deleted."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "Tweet not found."),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.") })
+	Response deleteTweet(@PathParam("tweetId") String tweetId);
 }
@@ -1,30 +1,62 @@
 package com.twitter.controller.rest;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
+import javax.ws.rs.core.Link;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.twitter.deletion.UserDeletionService;
+import com.twitter.engagement.EngagementCounters;
+import com.twitter.engagement.EngagementCounters.Action;
+import com.twitter.dto.BulkWriteResultDTO;
 import com.twitter.dto.RepliesDTO;
+import com.twitter.dto.TrendDTO;
 import com.twitter.dto.TweetDTO;
 import com.twitter.dto.TweetRepliesDTO;
 import com.twitter.dto.UserDTO;
+import com.twitter.id.ExistingIds;
+import com.twitter.ingest.WritePipeline;
+import com.twitter.ingest.WriteRejectedException;
 import com.twitter.model.Replies;
 import com.twitter.model.Tweet;
 import com.twitter.model.User;
+import com.twitter.persistence.FollowerReply;
 import com.twitter.persistence.RepliesRepository;
 import com.twitter.persistence.TweetRepository;
 import com.twitter.persistence.UserRepository;
+import com.twitter.search.TextQuery;
+import com.twitter.search.TweetSearchIndex;
+import com.twitter.timeline.HomeTimelineService;
+import com.twitter.trends.TrendingTopics;
+import com.twitter.trends.TrendingTopics.Window;
+import com.twitter.version.ResourceVersions;
 
 /**
  * @author gauri sawant
@@ -34,6 +66,14 @@ import com.twitter.persistence.UserRepository;
 public class TweetRESTServiceImpl implements TweetRESTService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(TweetRESTServiceImpl.class);
+	private static final int DEFAULT_PAGE_LIMIT = 50;
+	private static final int MAX_PAGE_LIMIT = 200;
+	// Index lookups per search page, a page of stale or non matching candidates should not scan the whole index
+	private static final int MAX_SEARCH_ROUNDS = 10;
+	private static final int DEFAULT_TRENDS_LIMIT = 10;
+	private static final int MAX_BULK_ITEMS = 1_000;
+	// Size of the TEXT and ATTACHMENT_FILE_NAME columns
+	private static final int MAX_POST_LENGTH = 255;
 	
 	@Resource
 	TweetRepository tweetRepo;
@@ -43,38 +83,77 @@ public class TweetRESTServiceImpl implements TweetRESTService {
 	
 	@Resource
 	RepliesRepository replyRepo;
+
+	@Resource
+	PlatformTransactionManager transactionManager;
 	
 	@Inject
 	UserRESTServiceImpl userRESTServiceImpl;
 	
 	@Inject
 	TweetRESTServiceImpl tweetServiceImpl;
+	
+	@Inject
+	HomeTimelineService homeTimelineService;
+
+	@Inject
+	UserDeletionService userDeletionService;
+
+	@Inject
+	TweetSearchIndex tweetSearchIndex;
+
+	@Inject
+	TrendingTopics trendingTopics;
+
+	@Inject
+	EngagementCounters engagementCounters;
+
+	@Inject
+	WritePipeline writePipeline;
+
+	@Inject
+	ExistingIds existingIds;
+
+	@Inject
+	ResourceVersions resourceVersions;
 
 	/*
 	 * @see com.twitter.controller.rest.TweetRESTService#createTweet(com.twitter.dto.TweetDTO, java.lang.String)
-	 * The method maps TweetDTO to tweet entity and persists the same.
-	 * Method adds a tweet for existing user
+	 * The method maps TweetDTO to tweet entity and persists the same, in a group commit when enabled.
+	 * Method adds a tweet for existing user, checked against the ids in memory
 	 * The method looks at the user/input validations
 	 */
 	@Override
 	public Response createTweet(TweetDTO tweetDTO, String userId) {
 		try {
 			LOGGER.info(">>createTweet");
-			Tweet tweet = new Tweet();
-			tweet.setAttachmentFileName(tweetDTO.getTweetAttachment());
-			tweet.setText(tweetDTO.getTweetText());
-			Optional<User> user = userRESTServiceImpl.findUser(Long.parseLong(userId));
-			if(user.isPresent()) {
-				tweet.setUser(user.get());
-			} else {
-				
+			long authorId = Long.parseLong(userId);
+			if (!existingIds.isActiveUser(authorId)) {
 				LOGGER.info("<<createTweet :: Failed, userId not found");
 				return Response.status(HttpStatus.NOT_FOUND.value()).build();
 			}
-			
-			tweetRepo.save(tweet);
+			String invalid = tweetDTO == null ? "Tweet missing" : validatePost(tweetDTO.getTweetText(), tweetDTO.getTweetAttachment());
+			if (invalid != null) {
+				LOGGER.info("<<createTweet :: Failed, {}", invalid);
+				return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+			}
+			Tweet tweet = new Tweet();
+			tweet.setAttachmentFileName(tweetDTO.getTweetAttachment());
+			tweet.setText(tweetDTO.getTweetText());
+			// The author is only a foreign key, bound as a reference instead of being loaded
+			tweet.setUser(userRepo.getOne(authorId));
+
+			Tweet saved = writePipeline.write(tweet, tweetRepo::save);
+			existingIds.onTweetCreated(saved.getTweetId(), authorId);
+			resourceVersions.onTweetsChanged(authorId);
+			tweetSearchIndex.onTweetCreated(saved.getTweetId(), saved.getText());
+			trendingTopics.onTweetCreated(saved.getText());
+			homeTimelineService.onTweetsCreated(authorId, saved.getTweetId());
 			LOGGER.info("<<createTweet :: Tweet created for user : {}", userId);
 			return Response.status(HttpStatus.CREATED.value()).build();
+		} catch(WriteRejectedException wex) {
+			LOGGER.info("<<createTweet :: Failed, {}", wex.getMessage());
+			return Response.status(HttpStatus.SERVICE_UNAVAILABLE.value()).build();
 		} catch(NumberFormatException nex) {
 			LOGGER.info("<<createTweet :: Failed, bad userId parameter");
 			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
@@ -87,37 +166,44 @@ public class TweetRESTServiceImpl implements TweetRESTService {
 
 	/*
 	 * @see com.twitter.controller.rest.TweetRESTService#addReply(com.twitter.dto.RepliesDTO, java.lang.String, java.lang.String)
-	 * The method maps ReplyDTO to Replies entity and persists the same.
-	 * Method adds a reply for existing tweet
+	 * The method maps ReplyDTO to Replies entity and persists the same, in a group commit when enabled.
+	 * Method adds a reply for existing tweet, the user and the tweet are checked against the ids in memory
 	 * The method looks at the user/input validations
 	 */
 	@Override
 	public Response addReply(RepliesDTO replyDTO, String tweetId, String userId) {
 		try {
 			LOGGER.info(">>addReply tweetId {}, userId {}",tweetId, userId);
-			Replies reply = new Replies();
-			reply.setAttachmentFileName(replyDTO.getReplyAttachment());
-			reply.setText(replyDTO.getReplyText());
-			
-			Optional<User> user = userRESTServiceImpl.findUser(Long.parseLong(userId));
-			if(user.isPresent()) {
-				reply.setUser(user.get());
-			} else {
+			long replierId = Long.parseLong(userId);
+			long repliedTweetId = Long.parseLong(tweetId);
+			if (!existingIds.isActiveUser(replierId)) {
 				LOGGER.info("<<addReply :: Failed, userId not found");
 				return Response.status(HttpStatus.NOT_FOUND.value()).build();
 			}
-			
-			Optional<Tweet> tweet = findTweetById(Long.parseLong(tweetId));
-			if(tweet.isPresent()) {
-				reply.setTweet(tweet.get());
-			} else {
+			String invalid = replyDTO == null ? "Reply missing" : validatePost(replyDTO.getReplyText(), replyDTO.getReplyAttachment());
+			if (invalid != null) {
+				LOGGER.info("<<addReply :: Failed, {}", invalid);
+				return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+			}
+			if (!existingIds.tweetExists(repliedTweetId)) {
 				LOGGER.info("<<addReply :: Failed, tweet not found");
 				return Response.status(HttpStatus.NOT_FOUND.value()).build();
 			}
-			
-			replyRepo.save(reply);
+			Replies reply = new Replies();
+			reply.setAttachmentFileName(replyDTO.getReplyAttachment());
+			reply.setText(replyDTO.getReplyText());
+			// Both foreign keys are bound as references, the insert of the reply is the only statement
+			reply.setUser(userRepo.getOne(replierId));
+			reply.setTweet(tweetRepo.getOne(repliedTweetId));
+
+			Replies saved = writePipeline.write(reply, replyRepo::save);
+			resourceVersions.onTweetsChanged(existingIds.authorOf(repliedTweetId));
+			tweetSearchIndex.onReplyAdded(saved.getReplyId(), saved.getText());
 			LOGGER.info("<<addReply :: Reply added for user : {}", userId);
 			return Response.status(HttpStatus.CREATED.value()).build();
+		} catch(WriteRejectedException wex) {
+			LOGGER.info("<<addReply :: Failed, {}", wex.getMessage());
+			return Response.status(HttpStatus.SERVICE_UNAVAILABLE.value()).build();
 		} catch(NumberFormatException nex) {
 			LOGGER.info("<<addReply :: Failed, bad userId/tweetId parameter");
 			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
@@ -127,35 +213,194 @@ public class TweetRESTServiceImpl implements TweetRESTService {
 		}
 	}
 
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#createTweets(java.util.List, java.lang.String)
+	 * The method validates every tweet first, then persists the valid ones in chunks of batched inserts, one
+	 * transaction per chunk, and returns the id or the error of each tweet in order
+	 */
+	@Override
+	public Response createTweets(List<TweetDTO> tweetDTOs, String userId) {
+		try {
+			LOGGER.info(">>createTweets");
+			long authorId = Long.parseLong(userId);
+			if (tweetDTOs == null || tweetDTOs.isEmpty() || tweetDTOs.size() > MAX_BULK_ITEMS) {
+				LOGGER.info("<<createTweets :: Failed, 1 to {} tweets expected", MAX_BULK_ITEMS);
+				return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+			}
+			if (!existingIds.isActiveUser(authorId)) {
+				LOGGER.info("<<createTweets :: Failed, userId not found");
+				return Response.status(HttpStatus.NOT_FOUND.value()).build();
+			}
+			User author = userRepo.getOne(authorId);
+			BulkWriteResultDTO[] results = new BulkWriteResultDTO[tweetDTOs.size()];
+			List<Integer> indexes = new ArrayList<>();
+			List<Tweet> tweets = new ArrayList<>();
+			for (int i = 0; i < tweetDTOs.size(); i++) {
+				TweetDTO tweetDTO = tweetDTOs.get(i);
+				String invalid = tweetDTO == null ? "Tweet missing" : validatePost(tweetDTO.getTweetText(), tweetDTO.getTweetAttachment());
+				if (invalid != null) {
+					results[i] = bulkResult(i, HttpStatus.BAD_REQUEST, null, invalid);
+					continue;
+				}
+				Tweet tweet = new Tweet();
+				tweet.setAttachmentFileName(tweetDTO.getTweetAttachment());
+				tweet.setText(tweetDTO.getTweetText());
+				tweet.setUser(author);
+				indexes.add(i);
+				tweets.add(tweet);
+			}
+
+			List<Tweet> saved = writePipeline.writeAll(tweets, tweetRepo::save);
+			long[] created = new long[saved.size()];
+			int createdCount = 0;
+			for (int i = 0; i < saved.size(); i++) {
+				Tweet tweet = saved.get(i);
+				if (tweet == null) {
+					results[indexes.get(i)] = bulkResult(indexes.get(i), HttpStatus.INTERNAL_SERVER_ERROR, null, "Tweet not saved, try again");
+					continue;
+				}
+				existingIds.onTweetCreated(tweet.getTweetId(), authorId);
+				tweetSearchIndex.onTweetCreated(tweet.getTweetId(), tweet.getText());
+				trendingTopics.onTweetCreated(tweet.getText());
+				created[createdCount++] = tweet.getTweetId();
+				results[indexes.get(i)] = bulkResult(indexes.get(i), HttpStatus.CREATED, tweet.getTweetId(), null);
+			}
+			homeTimelineService.onTweetsCreated(authorId, Arrays.copyOf(created, createdCount));
+			resourceVersions.onTweetsChanged(authorId);
+			LOGGER.info("<<createTweets :: {} of {} tweets created for user : {}", saved.stream().filter(Objects::nonNull).count(),
+					tweetDTOs.size(), userId);
+			return Response.ok(Arrays.asList(results)).build();
+		} catch(NumberFormatException nex) {
+			LOGGER.info("<<createTweets :: Failed, bad userId parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<createTweets :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#addReplies(java.util.List, java.lang.String)
+	 * The method validates every reply and checks its tweet in memory first, then persists the valid ones in
+	 * chunks of batched inserts, one transaction per chunk, and returns the id or the error of each reply in order
+	 */
+	@Override
+	public Response addReplies(List<RepliesDTO> replyDTOs, String userId) {
+		try {
+			LOGGER.info(">>addReplies");
+			long replierId = Long.parseLong(userId);
+			if (replyDTOs == null || replyDTOs.isEmpty() || replyDTOs.size() > MAX_BULK_ITEMS) {
+				LOGGER.info("<<addReplies :: Failed, 1 to {} replies expected", MAX_BULK_ITEMS);
+				return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+			}
+			if (!existingIds.isActiveUser(replierId)) {
+				LOGGER.info("<<addReplies :: Failed, userId not found");
+				return Response.status(HttpStatus.NOT_FOUND.value()).build();
+			}
+			User replier = userRepo.getOne(replierId);
+			Map<Long, Tweet> repliedTweets = new HashMap<>();
+			BulkWriteResultDTO[] results = new BulkWriteResultDTO[replyDTOs.size()];
+			List<Integer> indexes = new ArrayList<>();
+			List<Replies> replies = new ArrayList<>();
+			for (int i = 0; i < replyDTOs.size(); i++) {
+				RepliesDTO replyDTO = replyDTOs.get(i);
+				String invalid = replyDTO == null ? "Reply missing"
+						: replyDTO.getTweetId() == null ? "reply-tweet-id missing"
+						: validatePost(replyDTO.getReplyText(), replyDTO.getReplyAttachment());
+				if (invalid != null) {
+					results[i] = bulkResult(i, HttpStatus.BAD_REQUEST, null, invalid);
+					continue;
+				}
+				if (!existingIds.tweetExists(replyDTO.getTweetId())) {
+					results[i] = bulkResult(i, HttpStatus.NOT_FOUND, null, "Tweet " + replyDTO.getTweetId() + " not found");
+					continue;
+				}
+				Replies reply = new Replies();
+				reply.setAttachmentFileName(replyDTO.getReplyAttachment());
+				reply.setText(replyDTO.getReplyText());
+				reply.setUser(replier);
+				reply.setTweet(repliedTweets.computeIfAbsent(replyDTO.getTweetId(), tweetRepo::getOne));
+				indexes.add(i);
+				replies.add(reply);
+			}
+
+			List<Replies> saved = writePipeline.writeAll(replies, replyRepo::save);
+			Set<Long> repliedAuthors = new HashSet<>();
+			for (int i = 0; i < saved.size(); i++) {
+				Replies reply = saved.get(i);
+				if (reply == null) {
+					// The tweet may have been deleted since it was checked
+					results[indexes.get(i)] = bulkResult(indexes.get(i), HttpStatus.INTERNAL_SERVER_ERROR, null, "Reply not saved, try again");
+					continue;
+				}
+				tweetSearchIndex.onReplyAdded(reply.getReplyId(), reply.getText());
+				repliedAuthors.add(existingIds.authorOf(replyDTOs.get(indexes.get(i)).getTweetId()));
+				results[indexes.get(i)] = bulkResult(indexes.get(i), HttpStatus.CREATED, reply.getReplyId(), null);
+			}
+			repliedAuthors.forEach(resourceVersions::onTweetsChanged);
+			LOGGER.info("<<addReplies :: {} of {} replies added for user : {}", saved.stream().filter(Objects::nonNull).count(),
+					replyDTOs.size(), userId);
+			return Response.ok(Arrays.asList(results)).build();
+		} catch(NumberFormatException nex) {
+			LOGGER.info("<<addReplies :: Failed, bad userId parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<addReplies :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
+	/**
+	 * @return why the text and attachment of a bulk item cannot be stored, null if they can
+	 */
+	private static String validatePost(String text, String attachment) {
+		if (text == null || text.trim().isEmpty()) {
+			return "Text missing";
+		}
+		if (text.length() > MAX_POST_LENGTH) {
+			return "Text longer than " + MAX_POST_LENGTH + " characters";
+		}
+		if (attachment != null && attachment.length() > MAX_POST_LENGTH) {
+			return "Attachment longer than " + MAX_POST_LENGTH + " characters";
+		}
+		return null;
+	}
+
+	private static BulkWriteResultDTO bulkResult(int index, HttpStatus status, Long id, String reason) {
+		return new BulkWriteResultDTO.Builder()
+				.index(index)
+				.status(status.value())
+				.id(id)
+				.reason(reason)
+				.build();
+	}
+
 	
 	/*
-	 * @see com.twitter.controller.rest.TweetRESTService#getTweetsForUser(java.lang.String)
-	 * The method fetches all persisted tweets for a user and maps them to TweetDTO (json representation)
+	 * @see com.twitter.controller.rest.TweetRESTService#getTweetsForUser(java.lang.String, java.lang.String, java.lang.String, java.lang.String, java.lang.String, javax.ws.rs.core.UriInfo)
+	 * The method fetches a page of persisted tweets for a user, newest first, and maps them to TweetDTO (json representation).
+	 * A client holding the current version of the tweets gets a 304 before any query runs
 	 */
 	@Override
-	public Response getTweetsForUser(String userId) {
+	public Response getTweetsForUser(String userId, String limit, String before, String after, String ifNoneMatch, UriInfo uriInfo) {
 
 		try {
-			LOGGER.info(">>getTweetsForUser");
-			List<Tweet> tweets = tweetRepo.getTweets(Long.parseLong(userId));
-			List<TweetDTO> result = new ArrayList<>();
-			if (!tweets.isEmpty()) {
-				result = tweets.stream()
-						.map(entry -> new TweetDTO.Builder()
-								.tweetId(entry.getTweetId())
-								.tweetText(entry.getText())
-								.tweetAttachment(entry.getAttachmentFileName())
-								.user(mapUsertoDTO(entry.getUser())).build())
-						.collect(Collectors.toCollection(ArrayList::new));
+			LOGGER.info(">>getTweetsForUser :: userId {}, limit {}, before {}, after {}", userId, limit, before, after);
+			long id = Long.parseLong(userId);
+			int pageSize = parseLimit(limit);
+			String tag = resourceVersions.tweetsTag(id);
+			if (EntityTags.matches(ifNoneMatch, tag)) {
+				LOGGER.info("<<getTweetsForUser :: Not modified");
+				return Response.notModified(tag).build();
 			}
+			TweetPage page = findTweetPage(id, pageSize, before, after);
+			List<TweetDTO> result = page.tweets.stream()
+						.map(this::mapTweettoDTO)
+						.collect(Collectors.toCollection(ArrayList::new));
 			LOGGER.info("<<getTweetsForUser :: list size : {}", result.size());
-			if (!result.isEmpty()) {
-				return Response.ok(result).build();
-			} else {
-				return Response.noContent().build();
-			}
+			return pageResponse(result, page, tag, uriInfo);
 		} catch(NumberFormatException nex) {
-			LOGGER.info("<<getTweetsForUser :: Failed, bad userId parameter");
+			LOGGER.info("<<getTweetsForUser :: Failed, bad userId/limit/cursor parameter");
 			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
 		} catch (Exception ex) {
 			LOGGER.error("<<getTweetsForUser :: Failed {}", ex);
@@ -164,33 +409,266 @@ public class TweetRESTServiceImpl implements TweetRESTService {
 	}
 
 	/*
-	 * @see com.twitter.controller.rest.TweetRESTService#getFollowerTweetRepliesForUser(java.lang.String)
-	 * The method fetches all persisted tweets for a user and replies from the followers.
-	 * The method maps the entities in TweetRepliesDTO json object
+	 * @see com.twitter.controller.rest.TweetRESTService#getFollowerTweetRepliesForUser(java.lang.String, java.lang.String, java.lang.String, java.lang.String, java.lang.String, javax.ws.rs.core.UriInfo)
+	 * The method fetches a page of persisted tweets for a user, newest first, and replies from the followers.
+	 * The method maps the entities in TweetRepliesDTO json object.
+	 * The tweets version covers the replies and the followers too, a current client gets a 304 before any query runs
 	 */
 	@Override
-	public Response getFollowerTweetRepliesForUser(String userId) {
+	public Response getFollowerTweetRepliesForUser(String userId, String limit, String before, String after, String ifNoneMatch,
+			UriInfo uriInfo) {
 		try {
-			LOGGER.info(">>getFollowerTweetRepliesForUser");
-			List<Tweet> tweets = tweetRepo.getTweets(Long.parseLong(userId));
-			List<TweetRepliesDTO> tweetRepliesDTOs = tweets.stream().map(entry -> fetchFollowerReply(entry))
-															.collect(Collectors.toCollection(ArrayList::new));
+			LOGGER.info(">>getFollowerTweetRepliesForUser :: userId {}, limit {}, before {}, after {}", userId, limit, before, after);
+			long id = Long.parseLong(userId);
+			int pageSize = parseLimit(limit);
+			String tag = resourceVersions.tweetsTag(id);
+			if (EntityTags.matches(ifNoneMatch, tag)) {
+				LOGGER.info("<<getFollowerTweetRepliesForUser :: Not modified");
+				return Response.notModified(tag).build();
+			}
+			TweetPage page = findTweetPage(id, pageSize, before, after);
+			List<TweetRepliesDTO> tweetRepliesDTOs = fetchFollowerReplies(page.tweets);
 			
 			LOGGER.info("<<getFollowerTweetRepliesForUser :: list size : {}", tweetRepliesDTOs.size());
-			if (!tweetRepliesDTOs.isEmpty()) {
-				return Response.ok(tweetRepliesDTOs).build();
-			} else {
+			return pageResponse(tweetRepliesDTOs, page, tag, uriInfo);
+		} catch(NumberFormatException nex) {
+			LOGGER.info("<<getFollowerTweetRepliesForUser :: Failed, bad userId/limit/cursor parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<getFollowerTweetRepliesForUser :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+	
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#getHomeTimeline(java.lang.String, java.lang.String, java.lang.String, javax.ws.rs.core.UriInfo)
+	 * The method reads a page of tweet ids from the fan-out timeline of the user and loads those tweets by id.
+	 * Tweets deleted meanwhile are not found and left out of the page, as are the tweets of deleted users
+	 */
+	@Override
+	public Response getHomeTimeline(String userId, String limit, String before, UriInfo uriInfo) {
+		try {
+			LOGGER.info(">>getHomeTimeline :: userId {}, limit {}, before {}", userId, limit, before);
+			long id = Long.parseLong(userId);
+			int pageSize = parseLimit(limit);
+			long beforeId = before == null ? Long.MAX_VALUE : TweetCursor.decode(before);
+			if (userDeletionService.isDeleted(id) || !userRepo.existsById(id)) {
+				LOGGER.info("<<getHomeTimeline :: Failed, userId not found");
+				return Response.status(HttpStatus.NOT_FOUND.value()).build();
+			}
+
+			long[] tweetIds = homeTimelineService.getTimeline(id, beforeId, pageSize);
+			Map<Long, Tweet> tweets = tweetRepo.findAllById(Arrays.stream(tweetIds).boxed().collect(Collectors.toList()))
+					.stream().collect(Collectors.toMap(Tweet::getTweetId, Function.identity()));
+			List<TweetDTO> result = Arrays.stream(tweetIds).mapToObj(tweets::get)
+					.filter(tweet -> tweet != null && !userDeletionService.isDeleted(tweet.getUser().getUserId()))
+					.map(this::mapTweettoDTO)
+					.collect(Collectors.toCollection(ArrayList::new));
+
+			LOGGER.info("<<getHomeTimeline :: list size : {}", result.size());
+			if (result.isEmpty()) {
 				return Response.noContent().build();
 			}
+			ResponseBuilder response = Response.ok(result);
+			// A full page of ids means older ones may follow, even if some of them were deleted meanwhile
+			if (tweetIds.length == pageSize) {
+				response.links(pageLink(uriInfo, "before", tweetIds[tweetIds.length - 1], "next"));
+			}
+			return response.build();
 		} catch(NumberFormatException nex) {
-			LOGGER.info("<<getFollowerTweetRepliesForUser :: Failed, bad userId parameter");
+			LOGGER.info("<<getHomeTimeline :: Failed, bad userId/limit/cursor parameter");
 			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
 		} catch (Exception ex) {
-			LOGGER.error("<<getFollowerTweetRepliesForUser :: Failed {}", ex);
+			LOGGER.error("<<getHomeTimeline :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#searchTweets(java.lang.String, java.lang.String, java.lang.String, javax.ws.rs.core.UriInfo)
+	 * The method looks the words of the query up in the search index and loads the matching tweets by id, newest first.
+	 * Tweets deleted meanwhile, of deleted users or without a phrase of the query are left out of the page
+	 */
+	@Override
+	public Response searchTweets(String query, String limit, String before, UriInfo uriInfo) {
+		try {
+			LOGGER.info(">>searchTweets :: q {}, limit {}, before {}", query, limit, before);
+			TextQuery textQuery = TextQuery.parse(query);
+			int pageSize = parseLimit(limit);
+			SearchPage<Tweet> page = searchPage(pageSize, before,
+					beforeId -> tweetSearchIndex.searchTweets(textQuery, beforeId, pageSize),
+					tweetRepo::findAllById, Tweet::getTweetId,
+					tweet -> !userDeletionService.isDeleted(tweet.getUser().getUserId()) && textQuery.matches(tweet.getText()));
+			List<TweetDTO> result = page.items.stream()
+					.map(this::mapTweettoDTO)
+					.collect(Collectors.toCollection(ArrayList::new));
+			LOGGER.info("<<searchTweets :: list size : {}", result.size());
+			return searchResponse(result, page, uriInfo);
+		} catch(IllegalArgumentException iex) {
+			LOGGER.info("<<searchTweets :: Failed, bad q/limit/cursor parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<searchTweets :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#searchReplies(java.lang.String, java.lang.String, java.lang.String, javax.ws.rs.core.UriInfo)
+	 * The method looks the words of the query up in the search index and loads the matching replies by id, newest first.
+	 * Replies deleted meanwhile, of deleted users or without a phrase of the query are left out of the page
+	 */
+	@Override
+	public Response searchReplies(String query, String limit, String before, UriInfo uriInfo) {
+		try {
+			LOGGER.info(">>searchReplies :: q {}, limit {}, before {}", query, limit, before);
+			TextQuery textQuery = TextQuery.parse(query);
+			int pageSize = parseLimit(limit);
+			SearchPage<Replies> page = searchPage(pageSize, before,
+					beforeId -> tweetSearchIndex.searchReplies(textQuery, beforeId, pageSize),
+					replyRepo::findAllById, Replies::getReplyId,
+					reply -> !userDeletionService.isDeleted(reply.getUser().getUserId()) && textQuery.matches(reply.getText()));
+			List<RepliesDTO> result = page.items.stream()
+					.map(reply -> new RepliesDTO.Builder()
+							.replyId(reply.getReplyId())
+							.replyText(reply.getText())
+							.replyAttachment(reply.getAttachmentFileName())
+							.user(mapUsertoDTO(reply.getUser())).build())
+					.collect(Collectors.toCollection(ArrayList::new));
+			LOGGER.info("<<searchReplies :: list size : {}", result.size());
+			return searchResponse(result, page, uriInfo);
+		} catch(IllegalArgumentException iex) {
+			LOGGER.info("<<searchReplies :: Failed, bad q/limit/cursor parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<searchReplies :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#getTrends(java.lang.String, java.lang.String)
+	 * The method fetches the trending hashtags and mentions of a window from memory
+	 */
+	@Override
+	public Response getTrends(String window, String limit) {
+		try {
+			LOGGER.info(">>getTrends :: window {}, limit {}", window, limit);
+			int size = limit == null ? DEFAULT_TRENDS_LIMIT : Integer.parseInt(limit);
+			if (size <= 0) {
+				throw new NumberFormatException("limit must be positive, got: " + limit);
+			}
+			List<TrendDTO> result = trendingTopics.getTrends(window == null ? Window.ONE_HOUR : Window.of(window), size);
+			LOGGER.info("<<getTrends :: list size : {}", result.size());
+			return result.isEmpty() ? Response.noContent().build() : Response.ok(result).build();
+		} catch(IllegalArgumentException iex) {
+			LOGGER.info("<<getTrends :: Failed, bad window/limit parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<getTrends :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#likeTweet(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public Response likeTweet(String tweetId, String userId) {
+		return engage("likeTweet", Action.LIKE, true, tweetId, userId);
+	}
+
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#unlikeTweet(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public Response unlikeTweet(String tweetId, String userId) {
+		return engage("unlikeTweet", Action.LIKE, false, tweetId, userId);
+	}
+
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#retweet(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public Response retweet(String tweetId, String userId) {
+		return engage("retweet", Action.RETWEET, true, tweetId, userId);
+	}
+
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#undoRetweet(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public Response undoRetweet(String tweetId, String userId) {
+		return engage("undoRetweet", Action.RETWEET, false, tweetId, userId);
+	}
+
+	/*
+	 * @see com.twitter.controller.rest.TweetRESTService#deleteTweet(java.lang.String)
+	 * The method deletes the tweet with its replies and tombstones it in the home timelines.
+	 * The replies and the tweet are deleted with one statement each, without loading them
+	 */
+	@Override
+	public Response deleteTweet(String tweetId) {
+		try {
+			LOGGER.info(">>deleteTweet :: tweetId {}", tweetId);
+			long id = Long.parseLong(tweetId);
+			long authorId = existingIds.authorOf(id);
+			List<Long> replyIds = new ArrayList<>();
+			int deleted = new TransactionTemplate(transactionManager).execute(status -> {
+				replyRepo.getReplyIdsToTweet(id).forEach(replyId -> replyIds.add(replyId.longValue()));
+				replyRepo.deleteRepliesToTweet(id);
+				return tweetRepo.deleteTweetsById(Collections.singletonList(id));
+			});
+			if (deleted == 0) {
+				LOGGER.info("<<deleteTweet :: Failed, tweet not found");
+				return Response.status(HttpStatus.NOT_FOUND.value()).build();
+			}
+			resourceVersions.onTweetsChanged(authorId);
+			homeTimelineService.onTweetDeleted(id);
+			tweetSearchIndex.onTweetDeleted(id);
+			replyIds.forEach(tweetSearchIndex::onReplyDeleted);
+			engagementCounters.onTweetDeleted(id);
+			existingIds.onTweetDeleted(id);
+			LOGGER.info("<<deleteTweet :: Tweet deleted with its replies");
+			return Response.noContent().build();
+		} catch(NumberFormatException nex) {
+			LOGGER.info("<<deleteTweet :: Failed, bad tweetId parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<deleteTweet :: Failed {}", ex);
 			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
 		}
 	}
 	
+	/*
+	 * Takes or takes back the action of the user on the tweet in memory, the counters write it behind.
+	 * Repeating an action is a no-op
+	 */
+	private Response engage(String method, Action action, boolean taken, String tweetId, String userId) {
+		try {
+			LOGGER.info(">>{} :: tweetId {}, userId {}", method, tweetId, userId);
+			long tweet = Long.parseLong(tweetId);
+			long user = Long.parseLong(userId);
+			if (!existingIds.isActiveUser(user) || !existingIds.tweetExists(tweet)) {
+				LOGGER.info("<<{} :: Failed, tweet or user not found", method);
+				return Response.status(HttpStatus.NOT_FOUND.value()).build();
+			}
+			boolean changed = taken ? engagementCounters.add(action, tweet, user) : engagementCounters.remove(action, tweet, user);
+			if (changed) {
+				// The counts are served with the tweets of the author
+				resourceVersions.onTweetsChanged(existingIds.authorOf(tweet));
+			}
+			LOGGER.info("<<{} :: {} count {}, changed {}", method, action, engagementCounters.count(action, tweet), changed);
+			return Response.status(HttpStatus.OK.value()).build();
+		} catch(NumberFormatException nex) {
+			LOGGER.info("<<{} :: Failed, bad tweetId/userId parameter", method);
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<{} :: Failed {}", method, ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
 	/**
 	 * @see com.twitter.controller.rest.TweetRESTService#findTweetById(java.lang.Long)
 	 * The method fetches tweet by Id
@@ -199,44 +677,197 @@ public class TweetRESTServiceImpl implements TweetRESTService {
 		return tweetRepo.findById(tweetId); 
 	}
 	
-	private TweetRepliesDTO fetchFollowerReply(Tweet tweet) {
-		
-		LOGGER.info(">>fetchFollowerReply");
-		TweetDTO tweetDTO = new TweetDTO.Builder()
-									.tweetId(tweet.getTweetId())
-									.tweetText(tweet.getText())
-									.tweetAttachment(tweet.getAttachmentFileName())
-									.user(mapUsertoDTO(tweet.getUser())).build();
+	/*
+	 * Resolves the follower replies of a whole page of tweets with one query joining the replies against
+	 * the followers of each tweet author
+	 */
+	private List<TweetRepliesDTO> fetchFollowerReplies(List<Tweet> tweets) {
+		if (tweets.isEmpty()) {
+			return new ArrayList<>();
+		}
+		List<Long> tweetIds = tweets.stream().map(Tweet::getTweetId).collect(Collectors.toList());
+		return mapFollowerReplies(tweets, replyRepo.getFollowerReplies(tweetIds));
+	}
+
+	/*
+	 * Groups the flat follower replies by tweet with a hash lookup
+	 */
+	// visible for benchmarks
+	List<TweetRepliesDTO> mapFollowerReplies(List<Tweet> tweets, List<FollowerReply> followerReplies) {
 		
-		Set<User> followerUsers = tweet.getUser().getFollowerUser();
-		List<RepliesDTO> repliesDTOs = new ArrayList<>();
-		if(followerUsers != null && !followerUsers.isEmpty()) {
-			List<Long> followerList = followerUsers.stream().map(user -> user.getUserId())
-			.collect(Collectors.toCollection(ArrayList::new));
-			
-			List<Replies> replies = tweet.getReplies();
-			repliesDTOs = replies.stream()
-					.filter(reply -> followerList.contains(reply.getUser().getUserId()))
-					.map(reply -> new RepliesDTO.Builder()
-											.replyId(reply.getReplyId())
-											.replyText(reply.getText())
-											.user(mapUsertoDTO(reply.getUser()))
-											.replyAttachment(reply.getAttachmentFileName())
-											.build())
-											.collect(Collectors.toCollection(ArrayList::new));
-			
+		LOGGER.info(">>mapFollowerReplies");
+		Map<Long, List<RepliesDTO>> repliesByTweet = new HashMap<>();
+		for (FollowerReply reply : followerReplies) {
+			repliesByTweet.computeIfAbsent(reply.getTweetId(), tweetId -> new ArrayList<>())
+					.add(new RepliesDTO.Builder()
+							.replyId(reply.getReplyId())
+							.replyText(reply.getText())
+							.user(new UserDTO.Builder()
+									.firstName(reply.getFirstName())
+									.lastName(reply.getLastName())
+									.userName(reply.getUserName())
+									.userId(reply.getUserId()).build())
+							.replyAttachment(reply.getAttachmentFileName())
+							.build());
 		}
-		LOGGER.info("<<fetchFollowerReply");
-		return new TweetRepliesDTO.Builder().tweetDTO(tweetDTO)
-											.repliesDTOs(repliesDTOs).build();
+		List<TweetRepliesDTO> tweetRepliesDTOs = tweets.stream()
+				.map(tweet -> new TweetRepliesDTO.Builder()
+						.tweetDTO(mapTweettoDTO(tweet))
+						.repliesDTOs(repliesByTweet.getOrDefault(tweet.getTweetId(), new ArrayList<>())).build())
+				.collect(Collectors.toCollection(ArrayList::new));
+		LOGGER.info("<<mapFollowerReplies");
+		return tweetRepliesDTOs;
 	}
 	
-	private UserDTO mapUsertoDTO(User user) {
+	/**
+	 * @param limit page size parameter, the default page size when not given and capped to the maximum
+	 * @throws NumberFormatException when the limit is not a positive number
+	 */
+	private int parseLimit(String limit) {
+		if (limit == null) {
+			return DEFAULT_PAGE_LIMIT;
+		}
+		int pageSize = Integer.parseInt(limit);
+		if (pageSize <= 0) {
+			throw new NumberFormatException("limit must be positive, got: " + limit);
+		}
+		return Math.min(pageSize, MAX_PAGE_LIMIT);
+	}
+
+	/**
+	 * Seeks the page from the cursor on the (USER_ID, TWEET_ID) index, reading one tweet more than the page
+	 * size to tell whether another page follows.
+	 * @throws NumberFormatException when a cursor is malformed or both cursors are given
+	 */
+	private TweetPage findTweetPage(long userId, int pageSize, String before, String after) {
+		if (before != null && after != null) {
+			throw new NumberFormatException("before and after cursors are exclusive");
+		}
+		if (userDeletionService.isDeleted(userId)) {
+			return new TweetPage(Collections.emptyList(), false, false);
+		}
+		if (after != null) {
+			List<Tweet> tweets = tweetRepo.getTweetsAfter(userId, TweetCursor.decode(after), PageRequest.of(0, pageSize + 1));
+			boolean hasNewer = tweets.size() > pageSize;
+			List<Tweet> page = new ArrayList<>(hasNewer ? tweets.subList(0, pageSize) : tweets);
+			Collections.reverse(page);
+			return new TweetPage(page, true, hasNewer);
+		}
+		long beforeId = before == null ? Long.MAX_VALUE : TweetCursor.decode(before);
+		List<Tweet> tweets = tweetRepo.getTweetsBefore(userId, beforeId, PageRequest.of(0, pageSize + 1));
+		boolean hasOlder = tweets.size() > pageSize;
+		return new TweetPage(hasOlder ? tweets.subList(0, pageSize) : tweets, hasOlder, before != null);
+	}
+
+	/**
+	 * @param tag the version of the tweets, read before the page was queried so that a write racing with the
+	 * query can only make the tag older than the page, never newer
+	 */
+	private Response pageResponse(List<?> result, TweetPage page, String tag, UriInfo uriInfo) {
+		if (result.isEmpty()) {
+			return Response.noContent().tag(tag).build();
+		}
+		ResponseBuilder response = Response.ok(result).tag(tag);
+		if (page.hasOlder) {
+			response.links(pageLink(uriInfo, "before", page.tweets.get(page.tweets.size() - 1).getTweetId(), "next"));
+		}
+		if (page.hasNewer) {
+			response.links(pageLink(uriInfo, "after", page.tweets.get(0).getTweetId(), "prev"));
+		}
+		return response.build();
+	}
+
+	/**
+	 * Fills a page from the index candidates, newest first, loading them by id a batch at a time and keeping
+	 * the ones still there and visible.
+	 * @throws NumberFormatException when the cursor is malformed
+	 */
+	private <T> SearchPage<T> searchPage(int pageSize, String before, LongFunction<long[]> search,
+			Function<List<Long>, List<T>> loader, ToLongFunction<T> idOf, Predicate<T> visible) {
+		List<T> items = new ArrayList<>(pageSize);
+		long beforeId = before == null ? Long.MAX_VALUE : TweetCursor.decode(before);
+		for (int round = 0; round < MAX_SEARCH_ROUNDS; round++) {
+			long[] ids = search.apply(beforeId);
+			Map<Long, T> found = loader.apply(Arrays.stream(ids).boxed().collect(Collectors.toList())).stream()
+					.collect(Collectors.toMap(idOf::applyAsLong, Function.identity()));
+			for (long id : ids) {
+				T item = found.get(id);
+				if (item != null && visible.test(item)) {
+					items.add(item);
+					if (items.size() == pageSize) {
+						return new SearchPage<>(items, id);
+					}
+				}
+			}
+			if (ids.length < pageSize) {
+				return new SearchPage<>(items, null);
+			}
+			beforeId = ids[ids.length - 1];
+		}
+		return new SearchPage<>(items, beforeId);
+	}
+
+	private Response searchResponse(List<?> result, SearchPage<?> page, UriInfo uriInfo) {
+		if (result.isEmpty() && page.nextBefore == null) {
+			return Response.noContent().build();
+		}
+		ResponseBuilder response = Response.ok(result);
+		if (page.nextBefore != null) {
+			response.links(pageLink(uriInfo, "before", page.nextBefore, "next"));
+		}
+		return response.build();
+	}
+
+	private Link pageLink(UriInfo uriInfo, String cursorParam, long tweetId, String rel) {
+		UriBuilder uri = uriInfo.getRequestUriBuilder()
+				.replaceQueryParam("before")
+				.replaceQueryParam("after")
+				.replaceQueryParam(cursorParam, TweetCursor.encode(tweetId));
+		return Link.fromUriBuilder(uri).rel(rel).build();
+	}
+
+	/**
+	 * Maps the tweet with its like and retweet counts, which are read from memory
+	 */
+	TweetDTO mapTweettoDTO(Tweet tweet) {
+		return new TweetDTO.Builder()
+				.tweetId(tweet.getTweetId())
+				.tweetText(tweet.getText())
+				.tweetAttachment(tweet.getAttachmentFileName())
+				.user(mapUsertoDTO(tweet.getUser()))
+				.likeCount(engagementCounters.count(Action.LIKE, tweet.getTweetId()))
+				.retweetCount(engagementCounters.count(Action.RETWEET, tweet.getTweetId())).build();
+	}
+
+	// visible for benchmarks
+	UserDTO mapUsertoDTO(User user) {
 		return new UserDTO.Builder()
 				.firstName(user.getFirstName())
 				.lastName(user.getLastName())
 				.userName(user.getUserName())
 				.userId(user.getUserId()).build();
 	}
-	
+
+	private static final class SearchPage<T> {
+		private final List<T> items;
+		// Cursor of the next page, null when the index has no older candidate
+		private final Long nextBefore;
+
+		private SearchPage(List<T> items, Long nextBefore) {
+			this.items = items;
+			this.nextBefore = nextBefore;
+		}
+	}
+
+	private static final class TweetPage {
+		private final List<Tweet> tweets;
+		private final boolean hasOlder;
+		private final boolean hasNewer;
+
+		private TweetPage(List<Tweet> tweets, boolean hasOlder, boolean hasNewer) {
+			this.tweets = tweets;
+			this.hasOlder = hasOlder;
+			this.hasNewer = hasNewer;
+		}
+	}
 }
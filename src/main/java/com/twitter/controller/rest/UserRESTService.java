@@ -1,12 +1,16 @@
 package com.twitter.controller.rest;
 
+import java.io.InputStream;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
@@ -18,7 +22,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 import com.twitter.authorization.Secured;
+import com.twitter.dto.FollowImportReportDTO;
 import com.twitter.dto.UserDTO;
+import com.twitter.dto.UserDeletionDTO;
+import com.twitter.dto.UserNameAvailabilityDTO;
 
 /**
  * @author gauri sawant
@@ -29,6 +36,8 @@ import com.twitter.dto.UserDTO;
 @Secured
 public interface UserRESTService {
 	String API_VERSION = "1.0";
+	String NDJSON = "application/x-ndjson";
+	String CSV = "text/csv";
 	
 	@Path("/createUser")
 	@Consumes( {MediaType.APPLICATION_JSON })
@@ -38,31 +47,67 @@ public interface UserRESTService {
 	@ApiOperation(value = "Create a user")
 	@ApiResponses(value = {
 			@ApiResponse(code = HTTPResponseCodes.CREATED, message = "User created"),
+			@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "User Name missing or too long"),
 			@ApiResponse(code = HTTPResponseCodes.CONFLICT, message = "User Name already exists"),
 			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
 	})
 	Response createUser(UserDTO userDTO);
+
+    @Path("searchUsers")
+    @Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version="+API_VERSION})
+    @GET
+    @ApiOperation(value = "search users by a prefix of their user name, first name or last name, the most followed first", response = UserDTO[].class)
+    @ApiResponses(value = { 
+    		@ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+    		@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Prefix missing or bad limit."),
+            @ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.")
+    		})
+    Response searchUsers(@QueryParam("prefix") String prefix, @QueryParam("limit") String limit);
+
+    @Path("getUserNameAvailability/{userName}")
+    @Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version="+API_VERSION})
+    @GET
+    @ApiOperation(value = "tell whether a user name is free, without querying the database", response = UserNameAvailabilityDTO.class)
+    @ApiResponses(value = { 
+    		@ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+    		@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "User name missing or too long."),
+            @ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.")
+    		})
+    Response getUserNameAvailability(@PathParam("userName") String userName);
 	
     @Path("/getUsers")
     @Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version="+API_VERSION})
     @GET
-    @ApiOperation(value = "Get list of users", response = UserDTO[].class)
+    @ApiOperation(value = "Get list of users. The ETag header carries the version of the list, sent back in If-None-Match it gets a 304 while the list is unchanged", response = UserDTO[].class)
     @ApiResponses(value = { 
     		@ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+    		@ApiResponse(code = HTTPResponseCodes.NOT_MODIFIED, message = "List unchanged since the version in If-None-Match."),
             @ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.")
     		})
-    Response getUsers();
+    Response getUsers(@HeaderParam("If-None-Match") String ifNoneMatch);
 	
     
 	@DELETE
 	@Path("/deleteUser/{userId}")
 	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION })
-	@ApiOperation(value = "Delete user")
+	@ApiOperation(value = "Delete user, hidden at once and purged with tweets, replies and followers in the background")
 	@ApiResponses(value = {
-			@ApiResponse(code = HTTPResponseCodes.NO_CONTENT, message = "The user was deleted successfully."),
+			@ApiResponse(code = HTTPResponseCodes.ACCEPTED, message = "The user was deleted, the purge is tracked at the Location header."),
+			@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "User not found or deleted already."),
 			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later or contact customer support.")
 	})
 	Response deleteUser(@PathParam("userId") String userId);
+
+    @Path("getDeletionStatus/{userId}")
+    @Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version="+API_VERSION})
+    @GET
+    @ApiOperation(value = "get the progress of the purge of a deleted user", response = UserDeletionDTO.class)
+    @ApiResponses(value = { 
+    		@ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+    		@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "The user was never deleted."),
+            @ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.")
+    		})
+    Response getDeletionStatus(@PathParam("userId") String userId);
 	
 	@Path("follow/follower/{followerUserId}/follow/{followedUserId}")
 	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION })
@@ -94,11 +139,56 @@ public interface UserRESTService {
     @Path("getfollowers/{userId}")
     @Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version="+API_VERSION})
     @GET
-    @ApiOperation(value = "get followers for a user", response = UserDTO[].class)
+    @ApiOperation(value = "get followers for a user. The ETag header carries the version of the followers, sent back in If-None-Match it gets a 304 while they are unchanged", response = UserDTO[].class)
     @ApiResponses(value = { 
     		@ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+    		@ApiResponse(code = HTTPResponseCodes.NOT_MODIFIED, message = "Followers unchanged since the version in If-None-Match."),
     		@ApiResponse(code = HTTPResponseCodes.NOT_FOUND, message = "Requested user not found."),
             @ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.")
     		})
-    Response getfollowers(@PathParam("userId") String userId);
+    Response getfollowers(@PathParam("userId") String userId, @HeaderParam("If-None-Match") String ifNoneMatch);
+
+    @Path("getFollowedAmong/{userId}")
+    @Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version="+API_VERSION})
+    @GET
+    @ApiOperation(value = "get the ids among a comma separated list of user ids that a user follows", response = Long[].class)
+    @ApiResponses(value = { 
+    		@ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+    		@ApiResponse(code = HTTPResponseCodes.BAD_REQUEST, message = "Bad userId, or ids missing, malformed or too many."),
+            @ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.")
+    		})
+    Response getFollowedAmong(@PathParam("userId") String userId, @QueryParam("ids") String ids);
+
+    @Path("getMutualFollowers/{userId}/{otherUserId}")
+    @Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version="+API_VERSION})
+    @GET
+    @ApiOperation(value = "get the users following both users", response = UserDTO[].class)
+    @ApiResponses(value = { 
+    		@ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+    		@ApiResponse(code = HTTPResponseCodes.NO_CONTENT, message = "No user follows both users."),
+            @ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.")
+    		})
+    Response getMutualFollowers(@PathParam("userId") String userId, @PathParam("otherUserId") String otherUserId);
+
+    @Path("getFollowersFollowedBy/{userId}/{otherUserId}")
+    @Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version="+API_VERSION})
+    @GET
+    @ApiOperation(value = "get the followers of a user that another user follows", response = UserDTO[].class)
+    @ApiResponses(value = { 
+    		@ApiResponse(code = HTTPResponseCodes.OK, message = "OK."),
+    		@ApiResponse(code = HTTPResponseCodes.NO_CONTENT, message = "The other user follows none of the followers."),
+            @ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Try again later.")
+    		})
+    Response getFollowersFollowedBy(@PathParam("userId") String userId, @PathParam("otherUserId") String otherUserId);
+
+	@Path("importFollows")
+	@Consumes({ NDJSON, CSV })
+	@Produces({ MediaType.APPLICATION_JSON + ";charset=utf-8;version=" + API_VERSION })
+	@POST
+	@ApiOperation(value = "Import follows in bulk, one follower/followed pair per NDJSON line or CSV row", response = FollowImportReportDTO.class)
+	@ApiResponses(value = {
+			@ApiResponse(code = HTTPResponseCodes.OK, message = "Import done, the report holds the counts and the rejected rows"),
+			@ApiResponse(code = HTTPResponseCodes.INTERNAL_SERVER_ERROR, message = "The server experienced a runtime exception while processing the request. Batches committed before stay imported.")
+	})
+	Response importFollows(@HeaderParam("Content-Type") String contentType, InputStream body);
 }
@@ -1,22 +1,42 @@
 package com.twitter.controller.rest;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
+import javax.inject.Inject;
 import javax.ws.rs.core.Response;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.twitter.dto.UserDTO;
+import com.twitter.dto.UserDeletionDTO;
+import com.twitter.dto.UserNameAvailabilityDTO;
+import com.twitter.deletion.UserDeletionService;
+import com.twitter.dto.FollowImportReportDTO;
+import com.twitter.graph.FollowImporter;
+import com.twitter.graph.FollowerGraph;
+import com.twitter.id.ExistingIds;
 import com.twitter.model.User;
+import com.twitter.model.UserPurge;
+import com.twitter.persistence.RepliesRepository;
 import com.twitter.persistence.UserRepository;
+import com.twitter.search.UserSearchIndex;
+import com.twitter.timeline.HomeTimelineService;
+import com.twitter.username.UserNameRegistry;
+import com.twitter.version.ResourceVersions;
 
 
 /**
@@ -28,8 +48,41 @@ public class UserRESTServiceImpl implements UserRESTService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(UserRESTServiceImpl.class);
 	
+	static final int MAX_RELATIONSHIP_IDS = 1000;
+	private static final int DEFAULT_SEARCH_LIMIT = 10;
+	private static final int MAX_SEARCH_LIMIT = 50;
+	// Length of the USER_NAME column
+	static final int MAX_USER_NAME_LENGTH = 255;
+	
 	@Resource
 	UserRepository userRepo;
+
+	@Resource
+	RepliesRepository replyRepo;
+	
+	@Inject
+	HomeTimelineService homeTimelineService;
+	
+	@Inject
+	FollowerGraph followerGraph;
+	
+	@Inject
+	FollowImporter followImporter;
+	
+	@Inject
+	UserDeletionService userDeletionService;
+
+	@Inject
+	UserNameRegistry userNameRegistry;
+
+	@Inject
+	UserSearchIndex userSearchIndex;
+
+	@Inject
+	ExistingIds existingIds;
+
+	@Inject
+	ResourceVersions resourceVersions;
 	
 	
 	/** 
@@ -41,38 +94,94 @@ public class UserRESTServiceImpl implements UserRESTService {
 	public Response createUser(UserDTO userDTO) {
 		try {
 			LOGGER.info(">>createUser");
-			if (userRepo.getUserNameCount(userDTO.getUserName()) == 0) {
-				User user = new User();
-				user.setFirstName(userDTO.getFirstName());
-				user.setLastName(userDTO.getLastName());
-				user.setUserName(userDTO.getUserName());
-				userRepo.save(user);
-				LOGGER.info("<<createUser, {} {}", userDTO.getFirstName(), userDTO.getLastName());
-				return Response.status(HttpStatus.CREATED.value()).build();
-			} else {
-				LOGGER.info("<<createUser :: userName already exists {}", userDTO.getUserName());
+			String userName = userDTO == null ? null : userDTO.getUserName();
+			if (!isValidUserName(userName)) {
+				LOGGER.info("<<createUser :: Failed, userName missing or over {} chars", MAX_USER_NAME_LENGTH);
+				return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+			}
+			if (!userNameRegistry.reserve(userName)) {
+				LOGGER.info("<<createUser :: userName already exists {}", userName);
+				return Response.status(HttpStatus.CONFLICT.value()).build();
+			}
+			User user = new User();
+			user.setFirstName(userDTO.getFirstName());
+			user.setLastName(userDTO.getLastName());
+			user.setUserName(userName);
+			try {
+				User saved = userRepo.save(user);
+				existingIds.onUserCreated(saved.getUserId());
+				resourceVersions.onUsersChanged();
+				userSearchIndex.add(saved);
+			} catch (DataIntegrityViolationException ex) {
+				// Taken in the database though not in the registry, the name stays reserved
+				LOGGER.info("<<createUser :: userName already exists {}", userName);
 				return Response.status(HttpStatus.CONFLICT.value()).build();
+			} catch (RuntimeException ex) {
+				userNameRegistry.release(userName);
+				throw ex;
 			}
+			LOGGER.info("<<createUser, {} {}", userDTO.getFirstName(), userDTO.getLastName());
+			return Response.status(HttpStatus.CREATED.value()).build();
 		} catch (Exception ex) {
 			LOGGER.error("<<createUser :: Failed {}", ex);
 			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
 		}
 	}
+
+	/** 
+	 * @see com.twitter.controller.rest.UserRESTService#getUserNameAvailability(java.lang.String)
+	 * The method tells whether a user name is free, from the user name registry alone
+	 */
+	@Override
+	public Response getUserNameAvailability(String userName) {
+		try {
+			LOGGER.info(">>getUserNameAvailability :: userName {}", userName);
+			if (!isValidUserName(userName)) {
+				LOGGER.info("<<getUserNameAvailability :: Failed, userName missing or over {} chars", MAX_USER_NAME_LENGTH);
+				return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+			}
+			boolean available = userNameRegistry.isAvailable(userName);
+			LOGGER.info("<<getUserNameAvailability :: available {}", available);
+			return Response.ok(new UserNameAvailabilityDTO.Builder().userName(userName).available(available).build()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<getUserNameAvailability :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
 	
 	/** 
 	 * @see com.twitter.controller.rest.UserRESTService#deleteUser(java.lang.String)
 	 * The method had userId as input parameter.
-	 * The method is declared transactional as it clears all the associations of a user - followers, tweets & replies
+	 * The method tombstones the user, hidden from then on, and leaves the purge of the associations of the user
+	 * - followers, tweets & replies - to a background job
 	 */
 	@Override
-	@Transactional
 	public Response deleteUser(String userId) {
 		try {
 			LOGGER.info(">>deleteUser");
-			userRepo.clearFollowers(Long.parseLong(userId));
-			userRepo.deleteById(Long.parseLong(userId));
-			LOGGER.info("<<deleteUser :: User deleted successfully with tweets, followers and replies");
-			return Response.noContent().build();
+			long id = Long.parseLong(userId);
+			if (!userDeletionService.delete(id)) {
+				LOGGER.info("<<deleteUser :: User {} not found", userId);
+				return Response.status(HttpStatus.NOT_FOUND.value()).build();
+			}
+			existingIds.onUserDeleted(id);
+			// Read before the edges are dropped: the user was served among the followers of its followees and with
+			// its replies to their tweets, the authors it replied to are added in case the graph missed a follow.
+			// The authors of the tweets it liked or retweeted are bumped by the purge, which takes the counts back
+			Set<Long> related = new HashSet<>();
+			replyRepo.getRepliedAuthorIds(id).forEach(authorId -> related.add(authorId.longValue()));
+			Arrays.stream(followerGraph.getFollowers(id)).forEach(related::add);
+			long[] followees = followerGraph.getFollowees(id);
+			Arrays.stream(followees).forEach(related::add);
+			resourceVersions.onUserDeleted(id, related);
+			followerGraph.removeUser(id);
+			homeTimelineService.evict(id);
+			userSearchIndex.remove(id);
+			// Its followees lost a follower
+			Arrays.stream(followees).forEach(userSearchIndex::onFollowersChanged);
+			LOGGER.info("<<deleteUser :: User deleted, tweets, followers and replies to be purged");
+			return Response.accepted(toUserDeletionDTO(userDeletionService.getPurge(id).get()))
+					.location(URI.create("user/getDeletionStatus/" + id)).build();
 		} catch(NumberFormatException nex) {
 			LOGGER.info("<<deleteUser :: Failed, bad userId parameter");
 			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
@@ -81,16 +190,48 @@ public class UserRESTServiceImpl implements UserRESTService {
 			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
 		}
 	}
+
+	/** 
+	 * @see com.twitter.controller.rest.UserRESTService#getDeletionStatus(java.lang.String)
+	 * The method fetches the progress of the purge of a deleted user
+	 */
+	@Override
+	public Response getDeletionStatus(String userId) {
+		try {
+			LOGGER.info(">>getDeletionStatus :: userId {}", userId);
+			Optional<UserPurge> purge = userDeletionService.getPurge(Long.parseLong(userId));
+			if (!purge.isPresent()) {
+				LOGGER.info("<<getDeletionStatus :: User {} was not deleted", userId);
+				return Response.status(HttpStatus.NOT_FOUND.value()).build();
+			}
+			LOGGER.info("<<getDeletionStatus :: {}", purge.get().getState());
+			return Response.ok(toUserDeletionDTO(purge.get())).build();
+		} catch(NumberFormatException nex) {
+			LOGGER.info("<<getDeletionStatus :: Failed, bad userId parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<getDeletionStatus :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
 	
 	/** 
-	 * @see com.twitter.controller.rest.UserRESTService#getUsers()
-	 * The method fetches all user entities which are mapped to user json objects
+	 * @see com.twitter.controller.rest.UserRESTService#getUsers(java.lang.String)
+	 * The method fetches all user entities which are mapped to user json objects.
+	 * A client holding the current version of the list gets a 304 before any query runs
 	 */
 	@Override
-	public Response getUsers() {
+	public Response getUsers(String ifNoneMatch) {
 		try {
 			LOGGER.info(">>getUsers");
-			List<UserDTO> userDTOs = userRepo.findAll().stream().map(entry -> new UserDTO.Builder()
+			String tag = resourceVersions.usersTag();
+			if (EntityTags.matches(ifNoneMatch, tag)) {
+				LOGGER.info("<<getUsers :: Not modified");
+				return Response.notModified(tag).build();
+			}
+			List<UserDTO> userDTOs = userRepo.findAll().stream()
+											.filter(entry -> !userDeletionService.isDeleted(entry.getUserId()))
+											.map(entry -> new UserDTO.Builder()
 											.firstName(entry.getFirstName())
 											.lastName(entry.getLastName())
 											.userName(entry.getUserName())
@@ -98,34 +239,67 @@ public class UserRESTServiceImpl implements UserRESTService {
 											.build())
 											.collect(Collectors.toCollection(ArrayList::new));
 			LOGGER.info("<<getUsers :: list size {}", userDTOs.size());
-			return Response.ok(userDTOs).build();
+			return Response.ok(userDTOs).tag(tag).build();
 		} catch (Exception ex) {
 			LOGGER.error("<<getUsers :: Failed {}", ex);
 			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
 		}
 	}
 	
+	/** 
+	 * @see com.twitter.controller.rest.UserRESTService#searchUsers(java.lang.String, java.lang.String)
+	 * The method had a name prefix and an optional limit as input parameters.
+	 * The method fetches the most followed users with a name starting with the prefix from the search index
+	 */
+	@Override
+	public Response searchUsers(String prefix, String limit) {
+		try {
+			LOGGER.info(">>searchUsers :: prefix {}, limit {}", prefix, limit);
+			if (prefix == null || prefix.trim().isEmpty()) {
+				throw new NumberFormatException("prefix missing");
+			}
+			int size = limit == null ? DEFAULT_SEARCH_LIMIT : Integer.parseInt(limit);
+			if (size <= 0) {
+				throw new NumberFormatException("limit must be positive, got: " + limit);
+			}
+			List<UserDTO> userDTOs = userSearchIndex.search(prefix, Math.min(size, MAX_SEARCH_LIMIT));
+			LOGGER.info("<<searchUsers :: list size {}", userDTOs.size());
+			return Response.ok(userDTOs).build();
+		} catch(NumberFormatException nex) {
+			LOGGER.info("<<searchUsers :: Failed, bad prefix/limit parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<searchUsers :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+	
 	/** 
 	 * @see com.twitter.controller.rest.UserRESTService#followUser(java.lang.String, java.lang.String)
 	 * The method had follower UserId and followed UserId as String input parameters.
-	 * The method add a new association for a user, if doesnt exists
+	 * The method add a new association for a user, if doesnt exists, with a single insert into the FOLLOWERS table
 	 */
 	@Override
 	public Response followUser(String followerUserId, String followedUserId) {
 		try {
 			LOGGER.info(">>followUser");
-			Optional<User> followerUserO = findUser(Long.parseLong(followerUserId));
-			Optional<User> followedUserO = findUser(Long.parseLong(followedUserId));
+			Long followerId = Long.parseLong(followerUserId);
+			Long followedId = Long.parseLong(followedUserId);
 			
-			if(followedUserO.isPresent() && followerUserO.isPresent()) {
-				
-				User followedUser = followedUserO.get();
-				User followerUser = followerUserO.get();
+			if(isActive(followedId) && isActive(followerId)) {
 				
-				if(!(followedUser.getUserId().equals(followerUser.getUserId()))) {
-					followedUser.getFollowerUser().add(followerUser);
-					userRepo.save(followedUser);
-					LOGGER.info("<<followUser :: User {} followed {}", followerUser.getUserName(), followedUser.getUserName());
+				if(!followedId.equals(followerId)) {
+					if (followerGraph.isFollowing(followerId, followedId)) {
+						LOGGER.info("<<followUser :: User {} already follows {}", followerId, followedId);
+						return Response.status(HttpStatus.OK.value()).build();
+					}
+					if (insertFollow(followedId, followerId)) {
+						followerGraph.follow(followerId, followedId);
+						homeTimelineService.evict(followerId);
+						resourceVersions.onFollowersChanged(followedId);
+						userSearchIndex.onFollowersChanged(followedId);
+					}
+					LOGGER.info("<<followUser :: User {} followed {}", followerId, followedId);
 					return Response.status(HttpStatus.OK.value()).build();
 				}
 				LOGGER.info("<<followUser same user is forbidden");
@@ -145,21 +319,21 @@ public class UserRESTServiceImpl implements UserRESTService {
 	/** 
 	 * @see com.twitter.controller.rest.UserRESTService#unfollowUser(java.lang.String, java.lang.String)
 	 * The method had follower UserId and followed UserId as String input parameters.
-	 * The method removes association for a user, if exists
+	 * The method removes association for a user, if exists, with a single delete from the FOLLOWERS table
 	 */
 	@Override
 	public Response unfollowUser(String followerUserId, String followedUserId) {
 		try {
 			LOGGER.info(">>unfollowUser");
-			Optional<User> followerUser = findUser(Long.parseLong(followerUserId));
-			Optional<User> followedUser = findUser(Long.parseLong(followedUserId));
-
-			if (followedUser.isPresent() && followerUser.isPresent()) {
-				Long followerId = followerUser.get().getUserId();
-				int followerSize = followedUser.get().getFollowerUser().size();
-				followedUser.get().getFollowerUser().removeIf(entry -> entry.getUserId().equals(followerId));
-				if (followerSize != followedUser.get().getFollowerUser().size()) {
-					userRepo.save(followedUser.get());
+			Long followerId = Long.parseLong(followerUserId);
+			Long followedId = Long.parseLong(followedUserId);
+
+			if (isActive(followedId) && isActive(followerId)) {
+				if (userRepo.unfollow(followedId, followerId) > 0) {
+					followerGraph.unfollow(followerId, followedId);
+					homeTimelineService.evict(followerId);
+					resourceVersions.onFollowersChanged(followedId);
+					userSearchIndex.onFollowersChanged(followedId);
 					LOGGER.info("<<unfollowUser successful");
 					return Response.status(HttpStatus.OK.value()).build();
 				}
@@ -178,29 +352,26 @@ public class UserRESTServiceImpl implements UserRESTService {
 	}
 
 	/** 
-	 * @see com.twitter.controller.rest.UserRESTService#getfollowers(java.lang.String)
-	 * The method fetches all users following the input UserId
+	 * @see com.twitter.controller.rest.UserRESTService#getfollowers(java.lang.String, java.lang.String)
+	 * The method fetches all users following the input UserId, whose ids are read from the follower graph.
+	 * A client holding the current version of the followers gets a 304 before any query runs
 	 */
 	@Override
-	public Response getfollowers(String userId) {
+	public Response getfollowers(String userId, String ifNoneMatch) {
 		try {
 			LOGGER.info(">>getfollowers :: userId {}", userId);
-			Optional<User> user = findUser(Long.parseLong(userId));
-			List<UserDTO> result = new ArrayList<>();
-			if (user.isPresent()) {
-				result = user.get().getFollowerUser().stream().map(entry -> new UserDTO.Builder()
-										.firstName(entry.getFirstName())
-										.lastName(entry.getLastName())
-										.userName(entry.getUserName())
-										.userId(entry.getUserId())
-										.build())
-										.collect(Collectors.toCollection(ArrayList::new));
+			long id = Long.parseLong(userId);
+			String tag = resourceVersions.followersTag(id);
+			if (EntityTags.matches(ifNoneMatch, tag)) {
+				LOGGER.info("<<getfollowers :: Not modified");
+				return Response.notModified(tag).build();
 			}
+			List<UserDTO> result = findUserDTOs(followerGraph.getFollowers(id));
 			LOGGER.info("<<getfollowers :: follower list size {} ", result.size());
 			if (!result.isEmpty()) {
-				return Response.ok(result).build();
+				return Response.ok(result).tag(tag).build();
 			} else {
-				return Response.noContent().build();
+				return Response.noContent().tag(tag).build();
 			}
 		} catch(NumberFormatException nex) {
 			LOGGER.info("<<getfollowers :: Failed, bad userId parameter");
@@ -211,12 +382,167 @@ public class UserRESTServiceImpl implements UserRESTService {
 		}
 	}
 
+	/** 
+	 * @see com.twitter.controller.rest.UserRESTService#getFollowedAmong(java.lang.String, java.lang.String)
+	 * The method had a userId and a comma separated list of user ids as input parameters.
+	 * The method returns the ids of the list the user follows, intersected in the follower graph
+	 */
+	@Override
+	public Response getFollowedAmong(String userId, String ids) {
+		try {
+			LOGGER.info(">>getFollowedAmong :: userId {}", userId);
+			long id = Long.parseLong(userId);
+			if (ids == null || ids.trim().isEmpty()) {
+				throw new NumberFormatException("ids missing");
+			}
+			long[] candidateIds = Arrays.stream(ids.split(",")).map(String::trim).mapToLong(Long::parseLong).toArray();
+			if (candidateIds.length > MAX_RELATIONSHIP_IDS) {
+				throw new NumberFormatException("Over " + MAX_RELATIONSHIP_IDS + " ids");
+			}
+			// User ids are positive, anything else is a malformed request rather than an unknown user
+			if (id <= 0 || Arrays.stream(candidateIds).anyMatch(candidateId -> candidateId <= 0)) {
+				throw new NumberFormatException("Non-positive id");
+			}
+			long[] followedIds = followerGraph.getFollowedAmong(id, candidateIds);
+			LOGGER.info("<<getFollowedAmong :: {} of {} followed", followedIds.length, candidateIds.length);
+			return Response.ok(followedIds).build();
+		} catch(NumberFormatException nex) {
+			LOGGER.info("<<getFollowedAmong :: Failed, bad userId/ids parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.info("<<getFollowedAmong :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
+	/** 
+	 * @see com.twitter.controller.rest.UserRESTService#getMutualFollowers(java.lang.String, java.lang.String)
+	 * The method fetches the users following both input UserIds
+	 */
+	@Override
+	public Response getMutualFollowers(String userId, String otherUserId) {
+		try {
+			LOGGER.info(">>getMutualFollowers :: userId {}, otherUserId {}", userId, otherUserId);
+			List<UserDTO> result = findUserDTOs(followerGraph.getMutualFollowers(Long.parseLong(userId), Long.parseLong(otherUserId)));
+			LOGGER.info("<<getMutualFollowers :: list size {} ", result.size());
+			return result.isEmpty() ? Response.noContent().build() : Response.ok(result).build();
+		} catch(NumberFormatException nex) {
+			LOGGER.info("<<getMutualFollowers :: Failed, bad userId parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.info("<<getMutualFollowers :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
+	/** 
+	 * @see com.twitter.controller.rest.UserRESTService#getFollowersFollowedBy(java.lang.String, java.lang.String)
+	 * The method fetches the followers of the first input UserId that the second one follows
+	 */
+	@Override
+	public Response getFollowersFollowedBy(String userId, String otherUserId) {
+		try {
+			LOGGER.info(">>getFollowersFollowedBy :: userId {}, otherUserId {}", userId, otherUserId);
+			List<UserDTO> result = findUserDTOs(followerGraph.getFollowersFollowedBy(Long.parseLong(userId), Long.parseLong(otherUserId)));
+			LOGGER.info("<<getFollowersFollowedBy :: list size {} ", result.size());
+			return result.isEmpty() ? Response.noContent().build() : Response.ok(result).build();
+		} catch(NumberFormatException nex) {
+			LOGGER.info("<<getFollowersFollowedBy :: Failed, bad userId parameter");
+			return Response.status(HttpStatus.BAD_REQUEST.value()).build();
+		} catch (Exception ex) {
+			LOGGER.info("<<getFollowersFollowedBy :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
+	/** 
+	 * @see com.twitter.controller.rest.UserRESTService#importFollows(java.lang.String, java.io.InputStream)
+	 * The method had the content type and the streamed body of follower/followed pairs as input parameters.
+	 * The method imports the pairs in committed batches and reports the counts and the rejected rows
+	 */
+	@Override
+	public Response importFollows(String contentType, InputStream body) {
+		try {
+			LOGGER.info(">>importFollows :: content type {}", contentType);
+			FollowImporter.Format format = contentType != null && contentType.startsWith(CSV) ? FollowImporter.Format.CSV
+					: FollowImporter.Format.NDJSON;
+			FollowImportReportDTO report = followImporter.importFollows(body, format);
+			LOGGER.info("<<importFollows :: {} imported, {} rejected", report.getImported(), report.getRejected());
+			return Response.ok(report).build();
+		} catch (Exception ex) {
+			LOGGER.error("<<importFollows :: Failed {}", ex);
+			return Response.status(HttpStatus.INTERNAL_SERVER_ERROR.value()).build();
+		}
+	}
+
 	/**
 	 * @see com.twitter.controller.rest.UserRESTService#findUser(java.lang.Long)
-	 * The method fetches user by Id
+	 * The method fetches user by Id, unless the user is deleted
 	 */
 	public Optional<User> findUser(Long id) {
-		return userRepo.findById(id);
+		return userRepo.findById(id).filter(user -> user.getDeletedAt() == null);
+	}
+
+	/**
+	 * The method tells whether the user exists and is not deleted, from the ids in memory
+	 */
+	public boolean isActive(Long id) {
+		return existingIds.isActiveUser(id);
+	}
+
+	/**
+	 * The method fetches user by Id together with the followers, which are otherwise loaded lazily
+	 */
+	public Optional<User> findUserWithFollowers(Long id) {
+		return userRepo.findWithFollowerUserByUserId(id);
+	}
+
+	/**
+	 * Inserts the follow unless it exists. A concurrent follow of the same pair may still win the race
+	 * between the existence check and the insert, the primary key then rejects the second row.
+	 * @return true if this call added the follow
+	 */
+	private boolean insertFollow(Long followedId, Long followerId) {
+		try {
+			return userRepo.follow(followedId, followerId) > 0;
+		} catch (DataIntegrityViolationException ex) {
+			LOGGER.info("followUser :: follow {} -> {} added concurrently", followerId, followedId);
+			return false;
+		}
+	}
+
+	private static boolean isValidUserName(String userName) {
+		return userName != null && !userName.trim().isEmpty() && userName.length() <= MAX_USER_NAME_LENGTH;
+	}
+
+	private static UserDeletionDTO toUserDeletionDTO(UserPurge purge) {
+		return new UserDeletionDTO.Builder()
+				.userId(purge.getUserId())
+				.state(purge.getState().name())
+				.requestedAt(purge.getRequestedAt().toString())
+				.updatedAt(purge.getUpdatedAt().toString())
+				.repliesPurged(purge.getRepliesPurged())
+				.tweetsPurged(purge.getTweetsPurged())
+				.followsPurged(purge.getFollowsPurged())
+				.build();
+	}
+
+	/**
+	 * Loads the users of the ids, sorted by id, and maps them to user DTOs
+	 */
+	private List<UserDTO> findUserDTOs(long[] userIds) {
+		if (userIds.length == 0) {
+			return new ArrayList<>();
+		}
+		return userRepo.findAllById(Arrays.stream(userIds).boxed().collect(Collectors.toList())).stream()
+				.sorted(Comparator.comparing(User::getUserId))
+				.map(entry -> new UserDTO.Builder()
+				.firstName(entry.getFirstName())
+				.lastName(entry.getLastName())
+				.userName(entry.getUserName())
+				.userId(entry.getUserId())
+				.build())
+				.collect(Collectors.toCollection(ArrayList::new));
 	}
 
 }
@@ -0,0 +1,215 @@
+package com.twitter.deletion;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.twitter.engagement.EngagementCounters;
+import com.twitter.id.ExistingIds;
+import com.twitter.model.UserPurge;
+import com.twitter.persistence.RepliesRepository;
+import com.twitter.persistence.TweetRepository;
+import com.twitter.persistence.UserPurgeRepository;
+import com.twitter.persistence.UserRepository;
+import com.twitter.search.TweetSearchIndex;
+import com.twitter.username.UserNameRegistry;
+import com.twitter.version.ResourceVersions;
+
+/**
+ * Two phase user deletion. Deleting a user only tombstones the row and records a purge, the read paths
+ * check {@link #isDeleted(long)} and hide the user from then on. The purge runs in the background, one
+ * bounded batch per tick so that it never holds locks for long: the replies of the user, the replies to the
+ * tweets of the user, the tweets, the follows, and at last the user row, which frees the user name and takes
+ * the likes and retweets of the user with it. Its progress is stored with the purge, so a purge interrupted by
+ * a restart resumes where it stopped.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class UserDeletionService implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UserDeletionService.class);
+
+	@Resource
+	UserRepository userRepo;
+
+	@Resource
+	TweetRepository tweetRepo;
+
+	@Resource
+	RepliesRepository replyRepo;
+
+	@Resource
+	UserPurgeRepository purgeRepo;
+
+	@Resource
+	PlatformTransactionManager transactionManager;
+
+	@Inject
+	UserNameRegistry userNameRegistry;
+
+	@Inject
+	EngagementCounters engagementCounters;
+
+	@Inject
+	ExistingIds existingIds;
+
+	@Inject
+	TweetSearchIndex tweetSearchIndex;
+
+	@Inject
+	ResourceVersions resourceVersions;
+
+	@Value("${twitter.purge.batch-size:1000}")
+	int batchSize = 1_000;
+
+	// Users tombstoned and not purged yet, few enough to be checked on every read
+	private final Set<Long> deletedUsers = ConcurrentHashMap.newKeySet();
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		userRepo.getDeletedUserIds().forEach(userId -> deletedUsers.add(userId.longValue()));
+		LOGGER.info("{} deleted user(s) left to purge", deletedUsers.size());
+	}
+
+	/**
+	 * Tombstones the user and schedules the purge.
+	 * @return false if the user does not exist or was deleted already
+	 */
+	public boolean delete(long userId) {
+		Instant now = Instant.now();
+		boolean tombstoned = new TransactionTemplate(transactionManager).execute(status -> {
+			if (userRepo.tombstone(userId, now) == 0) {
+				return false;
+			}
+			purgeRepo.save(new UserPurge(userId, now));
+			return true;
+		});
+		if (tombstoned) {
+			deletedUsers.add(userId);
+		}
+		return tombstoned;
+	}
+
+	public boolean isDeleted(long userId) {
+		return deletedUsers.contains(userId);
+	}
+
+	public Optional<UserPurge> getPurge(long userId) {
+		return purgeRepo.findById(userId);
+	}
+
+	/**
+	 * Runs one batch of the oldest purge in progress. The fixed delay between two batches throttles the purge.
+	 * Nothing is queried while no deleted user is left to purge.
+	 */
+	@Scheduled(fixedDelayString = "${twitter.purge.interval-ms:200}")
+	public void purgeBatch() {
+		if (deletedUsers.isEmpty()) {
+			return;
+		}
+		try {
+			purgeRepo.findFirstByStateOrderByRequestedAtAsc(UserPurge.State.PURGING).ifPresent(purge -> {
+				PurgeStep step = new TransactionTemplate(transactionManager).execute(status -> purgeStep(purge));
+				// The state in memory follows the rows once they are committed only
+				step.deletedReplyIds.forEach(tweetSearchIndex::onReplyDeleted);
+				for (Long tweetId : step.deletedTweetIds) {
+					existingIds.onTweetDeleted(tweetId);
+					tweetSearchIndex.onTweetDeleted(tweetId);
+					// The likes and retweets of the tweet went with its row
+					engagementCounters.onTweetDeleted(tweetId);
+				}
+				if (step.releasedUserName != null) {
+					userNameRegistry.release(step.releasedUserName);
+				}
+				UserPurge purged = step.purge;
+				if (purged.getState() == UserPurge.State.DONE) {
+					deletedUsers.remove(purged.getUserId());
+					// The counts are served with the tweets of their authors
+					for (Long tweetId : engagementCounters.onUserPurged(purged.getUserId(), step.likedTweetIds,
+							step.retweetedTweetIds)) {
+						long authorId = existingIds.authorOf(tweetId);
+						if (authorId != 0L) {
+							resourceVersions.onTweetsChanged(authorId);
+						}
+					}
+					LOGGER.info("User {} purged, {} replies, {} tweets, {} follows", purged.getUserId(), purged.getRepliesPurged(),
+							purged.getTweetsPurged(), purged.getFollowsPurged());
+				}
+			});
+		} catch (Exception ex) {
+			LOGGER.error("purgeBatch :: Failed, retried with the next batch {}", ex);
+		}
+	}
+
+	/**
+	 * Deletes the next batch of rows of the purge, in the caller's transaction.
+	 */
+	PurgeStep purgeStep(UserPurge purge) {
+		PurgeStep step = new PurgeStep();
+		Long userId = purge.getUserId();
+		// Replies and tweets are deleted by id so that the ids in memory follow the rows
+		List<Long> replyIds = toLongs(replyRepo.getReplyIdsOfUser(userId, batchSize));
+		if (replyIds.isEmpty()) {
+			replyIds = toLongs(replyRepo.getReplyIdsToTweetsOfUser(userId, batchSize));
+		}
+		if (!replyIds.isEmpty()) {
+			purge.setRepliesPurged(purge.getRepliesPurged() + replyRepo.deleteRepliesById(replyIds));
+			step.deletedReplyIds = replyIds;
+		} else {
+			List<Long> tweetIds = toLongs(tweetRepo.getRecentTweetIds(userId, batchSize));
+			if (!tweetIds.isEmpty()) {
+				purge.setTweetsPurged(purge.getTweetsPurged() + tweetRepo.deleteTweetsById(tweetIds));
+				step.deletedTweetIds = tweetIds;
+			} else {
+				int follows = userRepo.deleteFollowsOfUser(userId, batchSize);
+				if (follows > 0) {
+					purge.setFollowsPurged(purge.getFollowsPurged() + follows);
+				} else {
+					userRepo.findById(userId).ifPresent(user -> step.releasedUserName = user.getUserName());
+					// Read before the likes and retweets go with the user row
+					step.likedTweetIds = toLongs(userRepo.getLikedTweetIds(userId));
+					step.retweetedTweetIds = toLongs(userRepo.getRetweetedTweetIds(userId));
+					userRepo.purge(userId);
+					purge.setState(UserPurge.State.DONE);
+				}
+			}
+		}
+		purge.setUpdatedAt(Instant.now());
+		step.purge = purgeRepo.save(purge);
+		return step;
+	}
+
+	private static List<Long> toLongs(List<Number> ids) {
+		return ids.stream().map(Number::longValue).collect(Collectors.toList());
+	}
+
+	/**
+	 * Outcome of one purge batch: the saved purge, and what to forget in memory once the batch is committed.
+	 */
+	static final class PurgeStep {
+		UserPurge purge;
+		List<Long> deletedReplyIds = Collections.emptyList();
+		List<Long> deletedTweetIds = Collections.emptyList();
+		// Set by the last batch, which deletes the user row
+		String releasedUserName;
+		List<Long> likedTweetIds = Collections.emptyList();
+		List<Long> retweetedTweetIds = Collections.emptyList();
+	}
+}
@@ -0,0 +1,76 @@
+package com.twitter.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@ApiModel(description = "Representation of a stored attachment, its id is the SHA-256 of its bytes")
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonDeserialize(builder = AttachmentDTO.Builder.class)
+public class AttachmentDTO {
+
+	@JsonProperty(value = "attachment-id")
+	private final String attachmentId;
+
+	@JsonProperty(value = "size")
+	private final long size;
+
+	@JsonProperty(value = "duplicate")
+	private final boolean duplicate;
+
+	private AttachmentDTO(Builder builder) {
+		this.attachmentId = builder.attachmentId;
+		this.size = builder.size;
+		this.duplicate = builder.duplicate;
+	}
+
+	public String getAttachmentId() {
+		return attachmentId;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public boolean isDuplicate() {
+		return duplicate;
+	}
+
+	public static class Builder extends BuilderConstraints<AttachmentDTO> {
+
+		@JsonProperty(value = "attachment-id")
+		private String attachmentId;
+
+		@JsonProperty(value = "size")
+		private long size;
+
+		@JsonProperty(value = "duplicate")
+		private boolean duplicate;
+
+		public Builder attachmentId(String attachmentId) {
+			this.attachmentId = attachmentId;
+			return this;
+		}
+
+		public Builder size(long size) {
+			this.size = size;
+			return this;
+		}
+
+		public Builder duplicate(boolean duplicate) {
+			this.duplicate = duplicate;
+			return this;
+		}
+
+		@Override
+		public AttachmentDTO getTargetObject() {
+			return new AttachmentDTO(this);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package com.twitter.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@ApiModel(description = "Representation of the outcome of one item of a bulk write")
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonDeserialize(builder = BulkWriteResultDTO.Builder.class)
+public class BulkWriteResultDTO {
+
+	@JsonProperty(value = "index")
+	private final int index;
+
+	@JsonProperty(value = "status")
+	private final int status;
+
+	@JsonProperty(value = "id")
+	private final Long id;
+
+	@JsonProperty(value = "reason")
+	private final String reason;
+
+	private BulkWriteResultDTO(Builder builder) {
+		this.index = builder.index;
+		this.status = builder.status;
+		this.id = builder.id;
+		this.reason = builder.reason;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	public static class Builder extends BuilderConstraints<BulkWriteResultDTO> {
+
+		@JsonProperty(value = "index")
+		private int index;
+
+		@JsonProperty(value = "status")
+		private int status;
+
+		@JsonProperty(value = "id")
+		private Long id;
+
+		@JsonProperty(value = "reason")
+		private String reason;
+
+		public Builder index(int index) {
+			this.index = index;
+			return this;
+		}
+
+		public Builder status(int status) {
+			this.status = status;
+			return this;
+		}
+
+		public Builder id(Long id) {
+			this.id = id;
+			return this;
+		}
+
+		public Builder reason(String reason) {
+			this.reason = reason;
+			return this;
+		}
+
+		@Override
+		public BulkWriteResultDTO getTargetObject() {
+			return new BulkWriteResultDTO(this);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.twitter.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@ApiModel(description = "Representation of a rejected row of a follow import")
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonDeserialize(builder = FollowImportRejectDTO.Builder.class)
+public class FollowImportRejectDTO {
+
+	@JsonProperty(value = "line")
+	private final long line;
+
+	@JsonProperty(value = "reason")
+	private final String reason;
+
+	private FollowImportRejectDTO(Builder builder) {
+		this.line = builder.line;
+		this.reason = builder.reason;
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	public static class Builder extends BuilderConstraints<FollowImportRejectDTO> {
+
+		@JsonProperty(value = "line")
+		private long line;
+
+		@JsonProperty(value = "reason")
+		private String reason;
+
+		public Builder line(long line) {
+			this.line = line;
+			return this;
+		}
+
+		public Builder reason(String reason) {
+			this.reason = reason;
+			return this;
+		}
+
+		@Override
+		public FollowImportRejectDTO getTargetObject() {
+			return new FollowImportRejectDTO(this);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.twitter.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@ApiModel(description = "Representation of the outcome of a follow import")
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonDeserialize(builder = FollowImportReportDTO.Builder.class)
+public class FollowImportReportDTO {
+
+	@JsonProperty(value = "rows")
+	private final long rows;
+
+	@JsonProperty(value = "imported")
+	private final long imported;
+
+	@JsonProperty(value = "duplicates")
+	private final long duplicates;
+
+	@JsonProperty(value = "rejected")
+	private final long rejected;
+
+	@JsonProperty(value = "rejects")
+	private final List<FollowImportRejectDTO> rejects;
+
+	private FollowImportReportDTO(Builder builder) {
+		this.rows = builder.rows;
+		this.imported = builder.imported;
+		this.duplicates = builder.duplicates;
+		this.rejected = builder.rejected;
+		this.rejects = builder.rejects;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getDuplicates() {
+		return duplicates;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public List<FollowImportRejectDTO> getRejects() {
+		return rejects;
+	}
+
+	public static class Builder extends BuilderConstraints<FollowImportReportDTO> {
+
+		@JsonProperty(value = "rows")
+		private long rows;
+
+		@JsonProperty(value = "imported")
+		private long imported;
+
+		@JsonProperty(value = "duplicates")
+		private long duplicates;
+
+		@JsonProperty(value = "rejected")
+		private long rejected;
+
+		@JsonProperty(value = "rejects")
+		private List<FollowImportRejectDTO> rejects;
+
+		public Builder rows(long rows) {
+			this.rows = rows;
+			return this;
+		}
+
+		public Builder imported(long imported) {
+			this.imported = imported;
+			return this;
+		}
+
+		public Builder duplicates(long duplicates) {
+			this.duplicates = duplicates;
+			return this;
+		}
+
+		public Builder rejected(long rejected) {
+			this.rejected = rejected;
+			return this;
+		}
+
+		public Builder rejects(List<FollowImportRejectDTO> rejects) {
+			this.rejects = rejects;
+			return this;
+		}
+
+		@Override
+		public FollowImportReportDTO getTargetObject() {
+			return new FollowImportReportDTO(this);
+		}
+	}
+}
@@ -27,11 +27,15 @@ public class RepliesDTO {
 	@JsonProperty(value = "reply-user")
 	private final UserDTO user;
 
+	@JsonProperty(value = "reply-tweet-id")
+	private final Long tweetId;
+
 	private RepliesDTO(Builder builder) {
 		this.replyId = builder.replyId;
 		this.replyText = builder.replyText;
 		this.replyAttachment = builder.replyAttachment;
 		this.user = builder.user;
+		this.tweetId = builder.tweetId;
 	}
 
 	public Long getReplyId() {
@@ -50,6 +54,13 @@ public class RepliesDTO {
 		return user;
 	}
 
+	/**
+	 * @return the tweet replied to, given per reply of a bulk add only
+	 */
+	public Long getTweetId() {
+		return tweetId;
+	}
+
 	public static class Builder extends BuilderConstraints<RepliesDTO> {
 
 		@JsonProperty(value = "reply-id")
@@ -64,6 +75,9 @@ public class RepliesDTO {
 		@JsonProperty(value = "reply-user")
 		private UserDTO user;
 
+		@JsonProperty(value = "reply-tweet-id")
+		private Long tweetId;
+
 		public Builder replyId(Long replyId) {
 			this.replyId = replyId;
 			return this;
@@ -84,6 +98,11 @@ public class RepliesDTO {
 			return this;
 		}
 
+		public Builder tweetId(Long tweetId) {
+			this.tweetId = tweetId;
+			return this;
+		}
+
 		@Override
 		public RepliesDTO getTargetObject() {
 			return new RepliesDTO(this);
@@ -0,0 +1,60 @@
+package com.twitter.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@ApiModel(description = "Representation of a trending hashtag or mention with the estimated number of tweets having it")
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonDeserialize(builder = TrendDTO.Builder.class)
+public class TrendDTO {
+
+	@JsonProperty(value = "topic")
+	private final String topic;
+
+	@JsonProperty(value = "tweet-count")
+	private final long tweetCount;
+
+	private TrendDTO(Builder builder) {
+		this.topic = builder.topic;
+		this.tweetCount = builder.tweetCount;
+	}
+
+	public String getTopic() {
+		return topic;
+	}
+
+	public long getTweetCount() {
+		return tweetCount;
+	}
+
+	public static class Builder extends BuilderConstraints<TrendDTO> {
+
+		@JsonProperty(value = "topic")
+		private String topic;
+
+		@JsonProperty(value = "tweet-count")
+		private long tweetCount;
+
+		public Builder topic(String topic) {
+			this.topic = topic;
+			return this;
+		}
+
+		public Builder tweetCount(long tweetCount) {
+			this.tweetCount = tweetCount;
+			return this;
+		}
+
+		@Override
+		public TrendDTO getTargetObject() {
+			return new TrendDTO(this);
+		}
+	}
+}
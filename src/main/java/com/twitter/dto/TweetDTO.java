@@ -27,11 +27,19 @@ public class TweetDTO {
 	@JsonProperty(value = "tweet-user")
 	private final UserDTO user;
 
+	@JsonProperty(value = "like-count")
+	private final Long likeCount;
+
+	@JsonProperty(value = "retweet-count")
+	private final Long retweetCount;
+
 	private TweetDTO(Builder builder) {
 		this.tweetId = builder.tweetId;
 		this.tweetText = builder.tweetText;
 		this.tweetAttachment = builder.tweetAttachment;
 		this.user = builder.user;
+		this.likeCount = builder.likeCount;
+		this.retweetCount = builder.retweetCount;
 	}
 
 	public Long getTweetId() {
@@ -50,6 +58,14 @@ public class TweetDTO {
 		return user;
 	}
 
+	public Long getLikeCount() {
+		return likeCount;
+	}
+
+	public Long getRetweetCount() {
+		return retweetCount;
+	}
+
 	public static class Builder extends BuilderConstraints<TweetDTO> {
 
 		@JsonProperty(value = "tweet-id")
@@ -64,6 +80,12 @@ public class TweetDTO {
 		@JsonProperty(value = "tweet-user")
 		private UserDTO user;
 
+		@JsonProperty(value = "like-count")
+		private Long likeCount;
+
+		@JsonProperty(value = "retweet-count")
+		private Long retweetCount;
+
 		public Builder tweetId(Long tweetId) {
 			this.tweetId = tweetId;
 			return this;
@@ -84,6 +106,16 @@ public class TweetDTO {
 			return this;
 		}
 
+		public Builder likeCount(Long likeCount) {
+			this.likeCount = likeCount;
+			return this;
+		}
+
+		public Builder retweetCount(Long retweetCount) {
+			this.retweetCount = retweetCount;
+			return this;
+		}
+
 		@Override
 		public TweetDTO getTargetObject() {
 			return new TweetDTO(this);
@@ -0,0 +1,140 @@
+package com.twitter.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@ApiModel(description = "Representation of the deletion of a User")
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonDeserialize(builder = UserDeletionDTO.Builder.class)
+public class UserDeletionDTO {
+
+	@JsonProperty(value = "user-id")
+	private final Long userId;
+
+	@JsonProperty(value = "state")
+	private final String state;
+
+	@JsonProperty(value = "requested-at")
+	private final String requestedAt;
+
+	@JsonProperty(value = "updated-at")
+	private final String updatedAt;
+
+	@JsonProperty(value = "replies-purged")
+	private final long repliesPurged;
+
+	@JsonProperty(value = "tweets-purged")
+	private final long tweetsPurged;
+
+	@JsonProperty(value = "follows-purged")
+	private final long followsPurged;
+
+	private UserDeletionDTO(Builder builder) {
+		this.userId = builder.userId;
+		this.state = builder.state;
+		this.requestedAt = builder.requestedAt;
+		this.updatedAt = builder.updatedAt;
+		this.repliesPurged = builder.repliesPurged;
+		this.tweetsPurged = builder.tweetsPurged;
+		this.followsPurged = builder.followsPurged;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public String getState() {
+		return state;
+	}
+
+	public String getRequestedAt() {
+		return requestedAt;
+	}
+
+	public String getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public long getRepliesPurged() {
+		return repliesPurged;
+	}
+
+	public long getTweetsPurged() {
+		return tweetsPurged;
+	}
+
+	public long getFollowsPurged() {
+		return followsPurged;
+	}
+
+	public static class Builder extends BuilderConstraints<UserDeletionDTO> {
+
+		@JsonProperty(value = "user-id")
+		private Long userId;
+
+		@JsonProperty(value = "state")
+		private String state;
+
+		@JsonProperty(value = "requested-at")
+		private String requestedAt;
+
+		@JsonProperty(value = "updated-at")
+		private String updatedAt;
+
+		@JsonProperty(value = "replies-purged")
+		private long repliesPurged;
+
+		@JsonProperty(value = "tweets-purged")
+		private long tweetsPurged;
+
+		@JsonProperty(value = "follows-purged")
+		private long followsPurged;
+
+		public Builder userId(Long userId) {
+			this.userId = userId;
+			return this;
+		}
+
+		public Builder state(String state) {
+			this.state = state;
+			return this;
+		}
+
+		public Builder requestedAt(String requestedAt) {
+			this.requestedAt = requestedAt;
+			return this;
+		}
+
+		public Builder updatedAt(String updatedAt) {
+			this.updatedAt = updatedAt;
+			return this;
+		}
+
+		public Builder repliesPurged(long repliesPurged) {
+			this.repliesPurged = repliesPurged;
+			return this;
+		}
+
+		public Builder tweetsPurged(long tweetsPurged) {
+			this.tweetsPurged = tweetsPurged;
+			return this;
+		}
+
+		public Builder followsPurged(long followsPurged) {
+			this.followsPurged = followsPurged;
+			return this;
+		}
+
+		@Override
+		public UserDeletionDTO getTargetObject() {
+			return new UserDeletionDTO(this);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.twitter.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@ApiModel(description = "Representation of the availability of a user name")
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonDeserialize(builder = UserNameAvailabilityDTO.Builder.class)
+public class UserNameAvailabilityDTO {
+
+	@JsonProperty(value = "user-name")
+	private final String userName;
+
+	@JsonProperty(value = "available")
+	private final boolean available;
+
+	private UserNameAvailabilityDTO(Builder builder) {
+		this.userName = builder.userName;
+		this.available = builder.available;
+	}
+
+	public String getUserName() {
+		return userName;
+	}
+
+	public boolean isAvailable() {
+		return available;
+	}
+
+	public static class Builder extends BuilderConstraints<UserNameAvailabilityDTO> {
+
+		@JsonProperty(value = "user-name")
+		private String userName;
+
+		@JsonProperty(value = "available")
+		private boolean available;
+
+		public Builder userName(String userName) {
+			this.userName = userName;
+			return this;
+		}
+
+		public Builder available(boolean available) {
+			this.available = available;
+			return this;
+		}
+
+		@Override
+		public UserNameAvailabilityDTO getTargetObject() {
+			return new UserNameAvailabilityDTO(this);
+		}
+	}
+}
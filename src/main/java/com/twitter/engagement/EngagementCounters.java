@@ -0,0 +1,333 @@
+package com.twitter.engagement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Likes and retweets, counted in memory and written behind. Each tweet with engagement has a cell per action
+ * holding the users who took it, which makes liking twice a no-op, and their count. A cell whose count falls to
+ * zero is retired and removed, so the cells follow the tweets engaged now rather than every tweet ever engaged.
+ * The counts are read from memory only, so tweet lists carry them without querying, and rebuilt from the rows at
+ * startup, so no count is stored next to the rows to drift from them.
+ *
+ * The changes since the last flush are coalesced: per (tweet, user) only the last action is kept. The flusher
+ * writes them periodically in one transaction of batched statements, instead of one row lock per like, and on
+ * shutdown. A failed flush is merged back and retried.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class EngagementCounters implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(EngagementCounters.class);
+
+	public enum Action {
+		LIKE("TWEET_LIKES"), RETWEET("TWEET_RETWEETS");
+
+		private final String table;
+
+		Action(String table) {
+			this.table = table;
+		}
+	}
+
+	@Resource
+	JdbcTemplate jdbcTemplate;
+
+	@Resource
+	PlatformTransactionManager transactionManager;
+
+	@Value("${twitter.engagement.flush-batch-size:1000}")
+	int flushBatchSize = 1_000;
+
+	private final Map<Action, Counters> counters = new ConcurrentHashMap<>();
+
+	public EngagementCounters() {
+		for (Action action : Action.values()) {
+			counters.put(action, new Counters(action));
+		}
+	}
+
+	/**
+	 * Loads who liked and retweeted what once Flyway migrations have run and before the web server takes requests.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		for (Counters action : counters.values()) {
+			jdbcTemplate.query("SELECT TWEET_ID, USER_ID FROM " + action.action.table,
+					(RowCallbackHandler) rs -> action.load(rs.getLong(1), rs.getLong(2)));
+			LOGGER.info("{} count(s) loaded for {} tweet(s)", action.action, action.cells.size());
+		}
+	}
+
+	/**
+	 * @return false if the user had taken the action on the tweet already
+	 */
+	public boolean add(Action action, long tweetId, long userId) {
+		return counters.get(action).update(tweetId, userId, true);
+	}
+
+	/**
+	 * @return false if the user had not taken the action on the tweet
+	 */
+	public boolean remove(Action action, long tweetId, long userId) {
+		return counters.get(action).update(tweetId, userId, false);
+	}
+
+	public boolean has(Action action, long tweetId, long userId) {
+		Cell cell = counters.get(action).cells.get(tweetId);
+		return cell != null && cell.users.contains(userId);
+	}
+
+	public long count(Action action, long tweetId) {
+		Cell cell = counters.get(action).cells.get(tweetId);
+		return cell == null ? 0L : Math.max(cell.count.get(), 0L);
+	}
+
+	/**
+	 * Drops the counts of a deleted tweet, its rows go with the tweet.
+	 */
+	public void onTweetDeleted(long tweetId) {
+		for (Counters action : counters.values()) {
+			action.cells.remove(tweetId);
+		}
+	}
+
+	/**
+	 * Takes back the likes and retweets of a purged user, its rows went with the user so nothing is written.
+	 * Only the cells of the given tweets and of the changes of the user not flushed yet are touched.
+	 * @param likedTweetIds the tweets the user liked, read before its rows were deleted
+	 * @param retweetedTweetIds the tweets the user retweeted, read before its rows were deleted
+	 * @return the tweets whose counts changed
+	 */
+	public Set<Long> onUserPurged(long userId, Collection<Long> likedTweetIds, Collection<Long> retweetedTweetIds) {
+		Set<Long> changed = new HashSet<>();
+		counters.get(Action.LIKE).takeBack(userId, likedTweetIds, changed);
+		counters.get(Action.RETWEET).takeBack(userId, retweetedTweetIds, changed);
+		return changed;
+	}
+
+	int cellCount() {
+		return counters.values().stream().mapToInt(action -> action.cells.size()).sum();
+	}
+
+	int pending() {
+		return counters.values().stream().mapToInt(action -> action.edges.size()).sum();
+	}
+
+	/**
+	 * Writes the changes since the last flush. Flushes are serialized, so that the changes are written once
+	 * this returns. Nothing is queried while nothing changed.
+	 */
+	@PreDestroy
+	@Scheduled(fixedDelayString = "${twitter.engagement.flush-interval-ms:1000}")
+	public synchronized void flush() {
+		for (Counters action : counters.values()) {
+			if (action.edges.isEmpty()) {
+				continue;
+			}
+			try {
+				action.flush();
+			} catch (Exception ex) {
+				LOGGER.error("flush :: {} Failed, retried with the next flush {}", action.action, ex);
+			}
+		}
+	}
+
+	/**
+	 * The cells of one action and its changes not flushed yet.
+	 */
+	private final class Counters {
+		private final Action action;
+		private final String insert;
+		private final String delete;
+		private final ConcurrentMap<Long, Cell> cells = new ConcurrentHashMap<>();
+		// Last action per (tweet, user), true if taken
+		private final ConcurrentMap<Edge, Boolean> edges = new ConcurrentHashMap<>();
+
+		private Counters(Action action) {
+			this.action = action;
+			// The tweet or the user may be deleted before the flush, their rows are not inserted then
+			this.insert = "INSERT INTO " + action.table + " (TWEET_ID, USER_ID) SELECT ?, ? FROM DUAL"
+					+ " WHERE EXISTS (SELECT 1 FROM TWEETS t WHERE t.TWEET_ID = ?) AND EXISTS (SELECT 1 FROM USERS u WHERE u.USER_ID = ?)"
+					+ " AND NOT EXISTS (SELECT 1 FROM " + action.table + " e WHERE e.TWEET_ID = ? AND e.USER_ID = ?)";
+			this.delete = "DELETE FROM " + action.table + " WHERE TWEET_ID = ? AND USER_ID = ?";
+		}
+
+		private void load(long tweetId, long userId) {
+			Cell cell = cells.computeIfAbsent(tweetId, key -> new Cell());
+			if (cell.users.add(userId)) {
+				cell.count.incrementAndGet();
+			}
+		}
+
+		private boolean update(long tweetId, long userId, boolean taken) {
+			while (true) {
+				Cell cell = taken ? cells.computeIfAbsent(tweetId, key -> new Cell()) : cells.get(tweetId);
+				if (cell == null) {
+					return false;
+				}
+				int[] outcome = new int[1];
+				// The bin lock of the edge orders the actions of one user on one tweet with their pending state
+				edges.compute(new Edge(tweetId, userId), (edge, last) -> {
+					outcome[0] = taken ? cell.add(userId) : cell.remove(userId);
+					return outcome[0] == Cell.CHANGED ? Boolean.valueOf(taken) : last;
+				});
+				if (outcome[0] != Cell.RETIRED) {
+					retireIfEmpty(tweetId, cell);
+					return outcome[0] == Cell.CHANGED;
+				}
+				// Replaced by a new cell once the retired one is removed
+				cells.remove(tweetId, cell);
+			}
+		}
+
+		private void takeBack(long userId, Collection<Long> tweetIds, Set<Long> changed) {
+			Set<Long> touched = new HashSet<>(tweetIds);
+			for (Edge edge : edges.keySet()) {
+				if (edge.userId == userId) {
+					touched.add(edge.tweetId);
+				}
+			}
+			for (Long tweetId : touched) {
+				Cell cell = cells.get(tweetId);
+				// Dropping the pending change too, the rows of the user are gone
+				edges.compute(new Edge(tweetId, userId), (edge, last) -> {
+					if (cell != null && cell.remove(userId) == Cell.CHANGED) {
+						changed.add(tweetId);
+					}
+					return null;
+				});
+				if (cell != null) {
+					retireIfEmpty(tweetId, cell);
+				}
+			}
+		}
+
+		private void retireIfEmpty(long tweetId, Cell cell) {
+			if (cell.count.compareAndSet(0L, Cell.RETIRED_COUNT)) {
+				cells.remove(tweetId, cell);
+			}
+		}
+
+		private void flush() {
+			List<Map.Entry<Edge, Boolean>> flushedEdges = new ArrayList<>(edges.entrySet());
+			for (Map.Entry<Edge, Boolean> entry : flushedEdges) {
+				edges.remove(entry.getKey(), entry.getValue());
+			}
+			try {
+				new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+					List<Object[]> inserts = new ArrayList<>();
+					List<Object[]> deletes = new ArrayList<>();
+					for (Map.Entry<Edge, Boolean> entry : flushedEdges) {
+						long tweetId = entry.getKey().tweetId;
+						long userId = entry.getKey().userId;
+						if (entry.getValue()) {
+							inserts.add(new Object[] { tweetId, userId, tweetId, userId, tweetId, userId });
+						} else {
+							deletes.add(new Object[] { tweetId, userId });
+						}
+					}
+					batchUpdate(delete, deletes);
+					batchUpdate(insert, inserts);
+				});
+			} catch (RuntimeException ex) {
+				for (Map.Entry<Edge, Boolean> entry : flushedEdges) {
+					edges.putIfAbsent(entry.getKey(), entry.getValue());
+				}
+				throw ex;
+			}
+			LOGGER.debug("{} flushed, {} row change(s)", action, flushedEdges.size());
+		}
+
+		private void batchUpdate(String sql, List<Object[]> args) {
+			for (int from = 0; from < args.size(); from += flushBatchSize) {
+				jdbcTemplate.batchUpdate(sql, args.subList(from, Math.min(from + flushBatchSize, args.size())));
+			}
+		}
+	}
+
+	/**
+	 * The users who took an action on a tweet. The count is reserved before a user is added, so that a cell
+	 * retired once empty never takes a user: the add fails and is retried on the cell that replaces it.
+	 */
+	private static final class Cell {
+		private static final int UNCHANGED = 0;
+		private static final int CHANGED = 1;
+		private static final int RETIRED = 2;
+		private static final long RETIRED_COUNT = -1L;
+
+		private final Set<Long> users = ConcurrentHashMap.newKeySet();
+		private final AtomicLong count = new AtomicLong();
+
+		// Called under the lock of the edge of the user, so its membership does not change meanwhile
+		private int add(long userId) {
+			if (users.contains(userId)) {
+				return UNCHANGED;
+			}
+			long current;
+			do {
+				current = count.get();
+				if (current == RETIRED_COUNT) {
+					return RETIRED;
+				}
+			} while (!count.compareAndSet(current, current + 1L));
+			users.add(userId);
+			return CHANGED;
+		}
+
+		private int remove(long userId) {
+			if (!users.remove(userId)) {
+				return UNCHANGED;
+			}
+			count.decrementAndGet();
+			return CHANGED;
+		}
+	}
+
+	private static final class Edge {
+		private final long tweetId;
+		private final long userId;
+
+		private Edge(long tweetId, long userId) {
+			this.tweetId = tweetId;
+			this.userId = userId;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Edge)) {
+				return false;
+			}
+			Edge edge = (Edge) other;
+			return tweetId == edge.tweetId && userId == edge.userId;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(tweetId, userId);
+		}
+	}
+}
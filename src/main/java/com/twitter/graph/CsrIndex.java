@@ -0,0 +1,114 @@
+package com.twitter.graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable adjacency lists in compressed sparse row layout: the sorted source ids, the offset of each
+ * source's row and one array holding every row, each row sorted and free of duplicates. An edge costs a
+ * single long, lookups are binary searches.
+ *
+ * @author gauri sawant
+ */
+final class CsrIndex {
+
+	static final CsrIndex EMPTY = new CsrIndex(new long[0], new int[] {0}, new long[0]);
+
+	private static final long[] NO_TARGETS = new long[0];
+
+	private final long[] sources;
+	private final int[] offsets;
+	private final long[] targets;
+
+	private CsrIndex(long[] sources, int[] offsets, long[] targets) {
+		this.sources = sources;
+		this.offsets = offsets;
+		this.targets = targets;
+	}
+
+	/**
+	 * @param from source id of each edge
+	 * @param to target id of each edge
+	 * @param edges number of edges held by the arrays, which may be longer
+	 */
+	static CsrIndex build(long[] from, long[] to, int edges) {
+		if (edges == 0) {
+			return EMPTY;
+		}
+		long[] sorted = Arrays.copyOf(from, edges);
+		Arrays.sort(sorted);
+		int distinct = 0;
+		for (int i = 0; i < edges; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				sorted[distinct++] = sorted[i];
+			}
+		}
+		long[] sources = Arrays.copyOf(sorted, distinct);
+
+		int[] offsets = new int[distinct + 1];
+		for (int i = 0; i < edges; i++) {
+			offsets[Arrays.binarySearch(sources, from[i]) + 1]++;
+		}
+		for (int row = 0; row < distinct; row++) {
+			offsets[row + 1] += offsets[row];
+		}
+		long[] targets = new long[edges];
+		int[] cursors = Arrays.copyOf(offsets, distinct);
+		for (int i = 0; i < edges; i++) {
+			targets[cursors[Arrays.binarySearch(sources, from[i])]++] = to[i];
+		}
+
+		// Sort each row and squeeze out duplicate edges, shifting the rows that follow
+		int write = 0;
+		for (int row = 0; row < distinct; row++) {
+			int start = offsets[row];
+			int end = offsets[row + 1];
+			Arrays.sort(targets, start, end);
+			offsets[row] = write;
+			for (int i = start; i < end; i++) {
+				if (i == start || targets[i] != targets[i - 1]) {
+					targets[write++] = targets[i];
+				}
+			}
+		}
+		offsets[distinct] = write;
+		return new CsrIndex(sources, offsets, write == edges ? targets : Arrays.copyOf(targets, write));
+	}
+
+	boolean contains(long source, long target) {
+		int row = Arrays.binarySearch(sources, source);
+		return row >= 0 && Arrays.binarySearch(targets, offsets[row], offsets[row + 1], target) >= 0;
+	}
+
+	/**
+	 * @return a copy of the sorted row of the source
+	 */
+	long[] row(long source) {
+		int row = Arrays.binarySearch(sources, source);
+		return row < 0 ? NO_TARGETS : Arrays.copyOfRange(targets, offsets[row], offsets[row + 1]);
+	}
+
+	int degree(long source) {
+		int row = Arrays.binarySearch(sources, source);
+		return row < 0 ? 0 : offsets[row + 1] - offsets[row];
+	}
+
+	int edges() {
+		return targets.length;
+	}
+
+	/**
+	 * Calls the consumer with every edge, sources and targets in ascending order.
+	 */
+	void forEach(EdgeConsumer consumer) {
+		for (int row = 0; row < sources.length; row++) {
+			for (int i = offsets[row]; i < offsets[row + 1]; i++) {
+				consumer.accept(sources[row], targets[i]);
+			}
+		}
+	}
+
+	@FunctionalInterface
+	interface EdgeConsumer {
+		void accept(long source, long target);
+	}
+}
@@ -0,0 +1,264 @@
+package com.twitter.graph;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.twitter.dto.FollowImportRejectDTO;
+import com.twitter.dto.FollowImportReportDTO;
+import com.twitter.id.ExistingIds;
+import com.twitter.search.UserSearchIndex;
+import com.twitter.timeline.HomeTimelineService;
+import com.twitter.version.ResourceVersions;
+
+/**
+ * Bulk import of follow edges, one (follower, followed) pair per line, as NDJSON objects with follower-user-id
+ * and followed-user-id fields or as CSV follower,followed rows with an optional header. The body is parsed
+ * line by line as it arrives. Rows are checked against the active user ids in memory, so follows of unknown
+ * and of deleted users are rejected, and inserted with JDBC batches, each batch committed on its own so that
+ * an import of millions of edges neither holds one huge transaction nor loses the batches done when it fails.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class FollowImporter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FollowImporter.class);
+	private static final String INSERT_FOLLOW = "INSERT INTO FOLLOWERS (FOLLOWED_USER_ID, FOLLOWER_USER_ID) SELECT ?, ? FROM DUAL "
+			+ "WHERE NOT EXISTS (SELECT 1 FROM FOLLOWERS f WHERE f.FOLLOWED_USER_ID = ? AND f.FOLLOWER_USER_ID = ?)";
+	private static final JsonFactory JSON = new JsonFactory();
+
+	public enum Format {
+		NDJSON, CSV
+	}
+
+	@Resource
+	JdbcTemplate jdbcTemplate;
+
+	@Resource
+	PlatformTransactionManager transactionManager;
+
+	@Inject
+	FollowerGraph followerGraph;
+
+	@Inject
+	HomeTimelineService homeTimelineService;
+
+	@Inject
+	ExistingIds existingIds;
+
+	@Inject
+	ResourceVersions resourceVersions;
+
+	@Inject
+	UserSearchIndex userSearchIndex;
+
+	@Value("${twitter.import.batch-size:5000}")
+	int batchSize = 5_000;
+
+	@Value("${twitter.import.max-rejects:1000}")
+	int maxRejects = 1_000;
+
+	public FollowImportReportDTO importFollows(InputStream body, Format format) throws IOException {
+		return importFollows(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)), format);
+	}
+
+	FollowImportReportDTO importFollows(BufferedReader reader, Format format) throws IOException {
+		Import run = new Import();
+		String line;
+		while ((line = reader.readLine()) != null) {
+			run.lineNumber++;
+			if (line.trim().isEmpty() || format == Format.CSV && run.lineNumber == 1 && isCsvHeader(line)) {
+				continue;
+			}
+			run.rows++;
+			long[] edge;
+			try {
+				edge = format == Format.CSV ? parseCsv(line) : parseNdjson(line);
+			} catch (IllegalArgumentException | IOException ex) {
+				run.reject("Malformed row: " + ex.getMessage());
+				continue;
+			}
+			if (edge[0] == edge[1]) {
+				run.reject("User " + edge[0] + " cannot follow themselves");
+			} else if (!existingIds.isActiveUser(edge[0])) {
+				run.reject("Unknown follower user " + edge[0]);
+			} else if (!existingIds.isActiveUser(edge[1])) {
+				run.reject("Unknown followed user " + edge[1]);
+			} else {
+				run.add(edge[0], edge[1]);
+				if (run.size == batchSize) {
+					flush(run);
+				}
+			}
+		}
+		flush(run);
+		LOGGER.info("importFollows :: done, {} row(s), {} imported, {} duplicate(s), {} rejected", run.rows, run.imported,
+				run.duplicates, run.rejected);
+		return new FollowImportReportDTO.Builder()
+				.rows(run.rows)
+				.imported(run.imported)
+				.duplicates(run.duplicates)
+				.rejected(run.rejected)
+				.rejects(run.rejects)
+				.build();
+	}
+
+	private void flush(Import run) {
+		if (run.size == 0) {
+			return;
+		}
+		int[] counts;
+		try {
+			counts = new TransactionTemplate(transactionManager).execute(status -> jdbcTemplate.batchUpdate(INSERT_FOLLOW, run));
+		} catch (DataIntegrityViolationException ex) {
+			// A follow of the batch was added concurrently, the batch was rolled back and is replayed row by row
+			LOGGER.info("importFollows :: batch at line {} conflicts with a concurrent follow, inserting row by row", run.lineNumber);
+			counts = new int[run.size];
+			for (int i = 0; i < run.size; i++) {
+				counts[i] = insertRow(run.followed[i], run.followers[i]);
+			}
+		}
+		for (int i = 0; i < run.size; i++) {
+			// Drivers may not tell the count of a batched statement, the graph ignores a follow it already has
+			if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+				run.imported++;
+				followerGraph.follow(run.followers[i], run.followed[i]);
+				homeTimelineService.evict(run.followers[i]);
+				resourceVersions.onFollowersChanged(run.followed[i]);
+				userSearchIndex.onFollowersChanged(run.followed[i]);
+			} else {
+				run.duplicates++;
+			}
+		}
+		LOGGER.info("importFollows :: {} row(s) read, {} imported, {} duplicate(s), {} rejected", run.rows, run.imported,
+				run.duplicates, run.rejected);
+		run.size = 0;
+	}
+
+	private int insertRow(long followedId, long followerId) {
+		try {
+			return jdbcTemplate.update(INSERT_FOLLOW, followedId, followerId, followedId, followerId);
+		} catch (DataIntegrityViolationException ex) {
+			return 0;
+		}
+	}
+
+	private static boolean isCsvHeader(String line) {
+		String trimmed = line.trim();
+		return !trimmed.isEmpty() && !Character.isDigit(trimmed.charAt(0));
+	}
+
+	/**
+	 * @return the follower and the followed user id
+	 */
+	static long[] parseCsv(String line) {
+		int comma = line.indexOf(',');
+		if (comma < 0 || line.indexOf(',', comma + 1) >= 0) {
+			throw new IllegalArgumentException("expected follower,followed");
+		}
+		return new long[] { Long.parseLong(line.substring(0, comma).trim()), Long.parseLong(line.substring(comma + 1).trim()) };
+	}
+
+	/**
+	 * @return the follower and the followed user id
+	 */
+	static long[] parseNdjson(String line) throws IOException {
+		Long followerId = null;
+		Long followedId = null;
+		try (JsonParser parser = JSON.createParser(line)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				throw new IllegalArgumentException("expected a JSON object");
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String field = parser.getCurrentName();
+				parser.nextToken();
+				if ("follower-user-id".equals(field)) {
+					followerId = readId(parser, field);
+				} else if ("followed-user-id".equals(field)) {
+					followedId = readId(parser, field);
+				} else {
+					parser.skipChildren();
+				}
+			}
+		}
+		if (followerId == null || followedId == null) {
+			throw new IllegalArgumentException("expected follower-user-id and followed-user-id");
+		}
+		return new long[] { followerId, followedId };
+	}
+
+	/**
+	 * @return the integer the parser is at, which must fit a long
+	 */
+	private static long readId(JsonParser parser, String field) throws IOException {
+		if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+			throw new IllegalArgumentException(field + " is not an integer");
+		}
+		return parser.getLongValue();
+	}
+
+	/**
+	 * State of one import: the counters, the rejects kept for the report and the pending batch.
+	 */
+	private final class Import implements BatchPreparedStatementSetter {
+		private final long[] followed = new long[batchSize];
+		private final long[] followers = new long[batchSize];
+		private final List<FollowImportRejectDTO> rejects = new ArrayList<>();
+		private int size;
+		private long lineNumber;
+		private long rows;
+		private long imported;
+		private long duplicates;
+		private long rejected;
+
+		private void add(long followerId, long followedId) {
+			followers[size] = followerId;
+			followed[size] = followedId;
+			size++;
+		}
+
+		private void reject(String reason) {
+			rejected++;
+			if (rejects.size() < maxRejects) {
+				rejects.add(new FollowImportRejectDTO.Builder().line(lineNumber).reason(reason).build());
+			}
+		}
+
+		@Override
+		public void setValues(PreparedStatement ps, int i) throws SQLException {
+			ps.setLong(1, followed[i]);
+			ps.setLong(2, followers[i]);
+			ps.setLong(3, followed[i]);
+			ps.setLong(4, followers[i]);
+		}
+
+		@Override
+		public int getBatchSize() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,316 @@
+package com.twitter.graph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Resource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process index of the FOLLOWERS table, in both directions: the followers of a user and the users a user
+ * follows (followees). Each direction is an immutable {@link CsrIndex} snapshot plus a small delta layer
+ * holding the follows and unfollows since the snapshot was built. The delta is merged into a new snapshot
+ * periodically, or as soon as it grows over the merge threshold.
+ *
+ * Reads are lock free: a snapshot and its delta are published together and replaced as a whole on merge.
+ * Writes and merges are serialized.
+ *
+ * Relationship queries intersect the sorted rows directly, see {@link SortedLongs}.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class FollowerGraph implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FollowerGraph.class);
+	private static final String LOAD_QUERY = "SELECT f.FOLLOWED_USER_ID, f.FOLLOWER_USER_ID FROM FOLLOWERS f"
+			+ " JOIN USERS followed ON followed.USER_ID = f.FOLLOWED_USER_ID JOIN USERS follower ON follower.USER_ID = f.FOLLOWER_USER_ID"
+			+ " WHERE followed.DELETED_AT IS NULL AND follower.DELETED_AT IS NULL";
+
+	@Resource
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${twitter.graph.merge-threshold:10000}")
+	int mergeThreshold = 10_000;
+
+	private final Object writeLock = new Object();
+	private volatile Generation generation = new Generation(new Layer(CsrIndex.EMPTY), new Layer(CsrIndex.EMPTY));
+
+	/**
+	 * Loads the FOLLOWERS table, without the follows of deleted users still to be purged, once every
+	 * singleton, Flyway migrations included, is initialized and before the web server takes requests.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		EdgeBuffer edges = new EdgeBuffer();
+		jdbcTemplate.query(LOAD_QUERY, (RowCallbackHandler) rs -> edges.add(rs.getLong(1), rs.getLong(2)));
+		load(edges.followed, edges.followers, edges.size);
+		LOGGER.info("Follower graph loaded with {} edge(s)", edges());
+	}
+
+	void load(long[] followed, long[] followers, int edges) {
+		synchronized (writeLock) {
+			generation = new Generation(new Layer(CsrIndex.build(followed, followers, edges)),
+					new Layer(CsrIndex.build(followers, followed, edges)));
+		}
+	}
+
+	public boolean isFollowing(long followerId, long followedId) {
+		return generation.followers.contains(followedId, followerId);
+	}
+
+	/**
+	 * @return the sorted ids of the users following the user
+	 */
+	public long[] getFollowers(long userId) {
+		return generation.followers.row(userId);
+	}
+
+	/**
+	 * @return the sorted ids of the users the user follows
+	 */
+	public long[] getFollowees(long userId) {
+		return generation.followees.row(userId);
+	}
+
+	/**
+	 * @return the sorted ids among the candidates the user follows, non-positive candidates are never followed
+	 */
+	public long[] getFollowedAmong(long userId, long[] candidateIds) {
+		if (userId <= 0) {
+			return SortedLongs.EMPTY;
+		}
+		long[] candidates = Arrays.stream(candidateIds).filter(id -> id > 0).sorted().distinct().toArray();
+		return SortedLongs.intersect(candidates, generation.followees.row(userId));
+	}
+
+	/**
+	 * @return the sorted ids of the users following both users
+	 */
+	public long[] getMutualFollowers(long userId, long otherUserId) {
+		Generation current = generation;
+		return SortedLongs.intersect(current.followers.row(userId), current.followers.row(otherUserId));
+	}
+
+	/**
+	 * @return the sorted ids of the followers of the user that the other user follows
+	 */
+	public long[] getFollowersFollowedBy(long userId, long otherUserId) {
+		Generation current = generation;
+		return SortedLongs.intersect(current.followers.row(userId), current.followees.row(otherUserId));
+	}
+
+	public int getFollowerCount(long userId) {
+		return generation.followers.degree(userId);
+	}
+
+	public void follow(long followerId, long followedId) {
+		synchronized (writeLock) {
+			Generation current = generation;
+			current.followers.add(followedId, followerId);
+			current.followees.add(followerId, followedId);
+			mergeIfFull(current);
+		}
+	}
+
+	public void unfollow(long followerId, long followedId) {
+		synchronized (writeLock) {
+			Generation current = generation;
+			current.followers.remove(followedId, followerId);
+			current.followees.remove(followerId, followedId);
+			mergeIfFull(current);
+		}
+	}
+
+	/**
+	 * Drops every edge from and to the user, e.g. once the user is deleted.
+	 */
+	public void removeUser(long userId) {
+		synchronized (writeLock) {
+			for (long followerId : getFollowers(userId)) {
+				unfollow(followerId, userId);
+			}
+			for (long followedId : getFollowees(userId)) {
+				unfollow(userId, followedId);
+			}
+		}
+	}
+
+	/**
+	 * Folds the delta layer into a new snapshot.
+	 */
+	@Scheduled(fixedDelayString = "${twitter.graph.merge-interval-ms:30000}")
+	public void merge() {
+		synchronized (writeLock) {
+			Generation current = generation;
+			if (current.followers.deltaSize() == 0 && current.followees.deltaSize() == 0) {
+				return;
+			}
+			generation = new Generation(current.followers.merged(), current.followees.merged());
+			LOGGER.debug("Follower graph delta merged, {} edge(s)", edges());
+		}
+	}
+
+	public int edges() {
+		Generation current = generation;
+		return current.followers.snapshot.edges() + current.followers.deltaSize();
+	}
+
+	int deltaSize() {
+		return generation.followers.deltaSize();
+	}
+
+	private void mergeIfFull(Generation current) {
+		if (current.followers.deltaSize() >= mergeThreshold) {
+			merge();
+		}
+	}
+
+	private static final class Generation {
+		private final Layer followers;
+		private final Layer followees;
+
+		private Generation(Layer followers, Layer followees) {
+			this.followers = followers;
+			this.followees = followees;
+		}
+	}
+
+	/**
+	 * One direction of the graph: a snapshot and the edges added to or removed from it since.
+	 */
+	private static final class Layer {
+		private final CsrIndex snapshot;
+		private final ConcurrentMap<Long, Set<Long>> added = new ConcurrentHashMap<>();
+		private final ConcurrentMap<Long, Set<Long>> removed = new ConcurrentHashMap<>();
+		// Only written under the write lock
+		private volatile int addedCount;
+		private volatile int removedCount;
+
+		private Layer(CsrIndex snapshot) {
+			this.snapshot = snapshot;
+		}
+
+		private boolean contains(long source, long target) {
+			if (contains(added, source, target)) {
+				return true;
+			}
+			return !contains(removed, source, target) && snapshot.contains(source, target);
+		}
+
+		private long[] row(long source) {
+			long[] row = snapshot.row(source);
+			Set<Long> removedTargets = removed.get(source);
+			Set<Long> addedTargets = added.get(source);
+			if (removedTargets == null && addedTargets == null) {
+				return row;
+			}
+			int size = 0;
+			long[] merged = new long[row.length + (addedTargets == null ? 0 : addedTargets.size())];
+			for (long target : row) {
+				if (removedTargets == null || !removedTargets.contains(target)) {
+					merged[size++] = target;
+				}
+			}
+			if (addedTargets != null) {
+				for (Long target : addedTargets) {
+					if (size == merged.length) {
+						merged = Arrays.copyOf(merged, size * 2);
+					}
+					merged[size++] = target;
+				}
+			}
+			merged = Arrays.copyOf(merged, size);
+			Arrays.sort(merged);
+			return merged;
+		}
+
+		private int degree(long source) {
+			Set<Long> removedTargets = removed.get(source);
+			Set<Long> addedTargets = added.get(source);
+			return snapshot.degree(source) - (removedTargets == null ? 0 : removedTargets.size())
+					+ (addedTargets == null ? 0 : addedTargets.size());
+		}
+
+		private void add(long source, long target) {
+			if (discard(removed, source, target)) {
+				removedCount--;
+			} else if (!snapshot.contains(source, target) && added.computeIfAbsent(source, key -> ConcurrentHashMap.newKeySet()).add(target)) {
+				addedCount++;
+			}
+		}
+
+		private void remove(long source, long target) {
+			if (discard(added, source, target)) {
+				addedCount--;
+			} else if (snapshot.contains(source, target) && removed.computeIfAbsent(source, key -> ConcurrentHashMap.newKeySet()).add(target)) {
+				removedCount++;
+			}
+		}
+
+		private int deltaSize() {
+			return addedCount + removedCount;
+		}
+
+		private Layer merged() {
+			EdgeBuffer edges = new EdgeBuffer();
+			snapshot.forEach((source, target) -> {
+				if (!contains(removed, source, target)) {
+					edges.add(source, target);
+				}
+			});
+			for (Map.Entry<Long, Set<Long>> entry : added.entrySet()) {
+				for (Long target : entry.getValue()) {
+					edges.add(entry.getKey(), target);
+				}
+			}
+			return new Layer(CsrIndex.build(edges.followed, edges.followers, edges.size));
+		}
+
+		private static boolean contains(Map<Long, Set<Long>> delta, long source, long target) {
+			Set<Long> targets = delta.get(source);
+			return targets != null && targets.contains(target);
+		}
+
+		private static boolean discard(ConcurrentMap<Long, Set<Long>> delta, long source, long target) {
+			Set<Long> targets = delta.get(source);
+			if (targets == null || !targets.remove(target)) {
+				return false;
+			}
+			if (targets.isEmpty()) {
+				delta.remove(source, targets);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Growable pair of primitive arrays the edges are collected in before building a snapshot.
+	 */
+	private static final class EdgeBuffer {
+		private long[] followed = new long[1024];
+		private long[] followers = new long[1024];
+		private int size;
+
+		private void add(long source, long target) {
+			if (size == followed.length) {
+				followed = Arrays.copyOf(followed, size * 2);
+				followers = Arrays.copyOf(followers, size * 2);
+			}
+			followed[size] = source;
+			followers[size] = target;
+			size++;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.twitter.graph;
+
+import java.util.Arrays;
+
+/**
+ * Intersection of sorted long arrays free of duplicates, such as the rows of a {@link CsrIndex}. Arrays of
+ * similar length are merged; when one is much shorter, each of its ids is galloped for in the longer one, an
+ * exponential then binary search from where the last one ended, which costs O(m log(n / m)) instead of O(m + n).
+ * Unlike a bitmap keyed by the high bits of the ids, it costs nothing more for time ordered ids spread over the
+ * whole long range.
+ *
+ * @author gauri sawant
+ */
+final class SortedLongs {
+
+	static final long[] EMPTY = new long[0];
+
+	// From this length ratio on, galloping through the longer array beats merging both
+	private static final int GALLOP_RATIO = 16;
+
+	private SortedLongs() {
+	}
+
+	/**
+	 * @return the sorted ids held by both arrays
+	 */
+	static long[] intersect(long[] left, long[] right) {
+		long[] shorter = left.length <= right.length ? left : right;
+		long[] longer = shorter == left ? right : left;
+		if (shorter.length == 0) {
+			return EMPTY;
+		}
+		long[] common = new long[shorter.length];
+		int size = 0;
+		if (longer.length / shorter.length >= GALLOP_RATIO) {
+			int from = 0;
+			for (int i = 0; i < shorter.length && from < longer.length; i++) {
+				int found = gallop(longer, from, shorter[i]);
+				if (found >= 0) {
+					common[size++] = shorter[i];
+					from = found + 1;
+				} else {
+					from = -found - 1;
+				}
+			}
+		} else {
+			int i = 0;
+			int j = 0;
+			while (i < shorter.length && j < longer.length) {
+				if (shorter[i] < longer[j]) {
+					i++;
+				} else if (shorter[i] > longer[j]) {
+					j++;
+				} else {
+					common[size++] = shorter[i];
+					i++;
+					j++;
+				}
+			}
+		}
+		return size == common.length ? common : Arrays.copyOf(common, size);
+	}
+
+	/**
+	 * @return the index of the id in the array from the given index on, or -(insertion point) - 1 like
+	 * {@link Arrays#binarySearch(long[], long)}
+	 */
+	private static int gallop(long[] sorted, int from, long id) {
+		int bound = 1;
+		while (from + bound < sorted.length && sorted[from + bound] < id) {
+			bound <<= 1;
+		}
+		return Arrays.binarySearch(sorted, from + (bound >>> 1), Math.min(from + bound + 1, sorted.length), id);
+	}
+}
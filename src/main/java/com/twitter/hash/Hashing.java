@@ -0,0 +1,50 @@
+package com.twitter.hash;
+
+/**
+ * Hash functions shared by the in-memory structures: the probabilistic filters and sketches over strings and
+ * the open addressing tables over ids.
+ *
+ * @author gauri sawant
+ */
+public final class Hashing {
+
+	private Hashing() {
+	}
+
+	/**
+	 * MurmurHash3 finalizer, every input bit affects every output bit. Time ordered ids differ mostly in their
+	 * high and lowest bits, which this spreads over the whole word.
+	 */
+	public static long mix(long value) {
+		long h = value;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/**
+	 * 64 bit FNV-1a of the chars, spread by {@link #mix(long)} so that both halves are usable as independent
+	 * hashes by {@link #index(long, int, long)}.
+	 */
+	public static long hash(CharSequence value) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			h = (h ^ value.charAt(i)) * 0x100000001b3L;
+		}
+		return mix(h);
+	}
+
+	/**
+	 * The i-th of several bucket indexes derived from one hash, as h1 + i * h2 over its two halves
+	 * (Kirsch and Mitzenmacher), instead of computing a hash per index.
+	 * @param i index of the derived hash, from 1
+	 * @return a bucket in [0, buckets)
+	 */
+	public static long index(long hash, int i, long buckets) {
+		int combined = (int) hash + i * (int) (hash >>> 32);
+		return (combined < 0 ? ~combined : combined) % buckets;
+	}
+}
@@ -0,0 +1,91 @@
+package com.twitter.id;
+
+import javax.annotation.Resource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ids of the active users and of the tweets with their author, kept in step with their creation and deletion, so
+ * that the write paths check a foreign key in memory and bind it as a JPA reference instead of loading the entity.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class ExistingIds implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ExistingIds.class);
+	private static final String USER_IDS_QUERY = "SELECT USER_ID FROM USERS WHERE DELETED_AT IS NULL";
+	private static final String TWEET_IDS_QUERY = "SELECT TWEET_ID, USER_ID FROM TWEETS";
+	// Value of the users, whose map is used as a set
+	private static final long PRESENT = 1L;
+
+	@Resource
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${twitter.ids.expected-users:100000}")
+	int expectedUsers = 100_000;
+
+	@Value("${twitter.ids.expected-tweets:1000000}")
+	int expectedTweets = 1_000_000;
+
+	private volatile LongLongHashMap users = new LongLongHashMap(16);
+	// Author by tweet
+	private volatile LongLongHashMap tweets = new LongLongHashMap(16);
+
+	/**
+	 * Loads the ids once Flyway migrations have run and before the web server takes requests.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		LongLongHashMap loadedUsers = new LongLongHashMap(expectedUsers);
+		LongLongHashMap loadedTweets = new LongLongHashMap(expectedTweets);
+		jdbcTemplate.query(USER_IDS_QUERY, (RowCallbackHandler) rs -> loadedUsers.put(rs.getLong(1), PRESENT));
+		jdbcTemplate.query(TWEET_IDS_QUERY, (RowCallbackHandler) rs -> loadedTweets.put(rs.getLong(1), rs.getLong(2)));
+		users = loadedUsers;
+		tweets = loadedTweets;
+		LOGGER.info("{} active user id(s) and {} tweet id(s) loaded", loadedUsers.size(), loadedTweets.size());
+	}
+
+	/**
+	 * @return false if the user does not exist or is deleted
+	 */
+	public boolean isActiveUser(long userId) {
+		return users.containsKey(userId);
+	}
+
+	public boolean tweetExists(long tweetId) {
+		return tweets.containsKey(tweetId);
+	}
+
+	/**
+	 * @return the user id of the author of the tweet, 0 if the tweet does not exist
+	 */
+	public long authorOf(long tweetId) {
+		return tweets.get(tweetId, 0L);
+	}
+
+	public void onUserCreated(long userId) {
+		users.put(userId, PRESENT);
+	}
+
+	/**
+	 * Forgets the user as soon as it is tombstoned.
+	 */
+	public void onUserDeleted(long userId) {
+		users.remove(userId);
+	}
+
+	public void onTweetCreated(long tweetId, long authorId) {
+		tweets.put(tweetId, authorId);
+	}
+
+	public void onTweetDeleted(long tweetId) {
+		tweets.remove(tweetId);
+	}
+}
@@ -0,0 +1,176 @@
+package com.twitter.id;
+
+import java.util.concurrent.locks.StampedLock;
+
+import com.twitter.hash.Hashing;
+
+/**
+ * Map of positive long ids to long values in one open addressing table with linear probing, about 22 bytes an
+ * entry instead of the 80 odd of a boxed map. Writes are serialized, reads are optimistic: they probe without a
+ * lock and only retry under the read lock when a write ran meanwhile. Removals shift the following entries
+ * back, so the table needs no tombstones.
+ *
+ * @author gauri sawant
+ */
+final class LongLongHashMap {
+
+	private static final long FREE = 0L;
+	private static final double MAX_LOAD = 0.75;
+
+	private final StampedLock lock = new StampedLock();
+	private long[] keys;
+	private long[] values;
+	private int size;
+
+	LongLongHashMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+		keys = new long[capacity];
+		values = new long[capacity];
+	}
+
+	boolean containsKey(long id) {
+		return get(id, Long.MIN_VALUE) != Long.MIN_VALUE;
+	}
+
+	/**
+	 * @return the value of the id, or missing if the map does not have the id
+	 */
+	long get(long id, long missing) {
+		if (id <= 0) {
+			return missing;
+		}
+		long stamp = lock.tryOptimisticRead();
+		long value = lookup(id, missing);
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				value = lookup(id, missing);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * @return false if the map had the id already, its value is replaced then
+	 * @throws IllegalArgumentException when the id is not positive
+	 */
+	boolean put(long id, long value) {
+		if (id <= 0) {
+			throw new IllegalArgumentException("ids must be positive, got: " + id);
+		}
+		long stamp = lock.writeLock();
+		try {
+			int slot = probe(keys, id);
+			if (slot >= 0) {
+				values[slot] = value;
+				return false;
+			}
+			if (size + 1 > keys.length * MAX_LOAD) {
+				resize();
+			}
+			insert(keys, values, id, value);
+			size++;
+			return true;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * @return false if the map did not have the id
+	 */
+	boolean remove(long id) {
+		if (id <= 0) {
+			return false;
+		}
+		long stamp = lock.writeLock();
+		try {
+			int slot = probe(keys, id);
+			if (slot < 0) {
+				return false;
+			}
+			int mask = keys.length - 1;
+			int free = slot;
+			keys[free] = FREE;
+			// Shift back the entries of the run that the freed slot would otherwise cut off from their home slot
+			for (int next = (free + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+				int home = home(keys[next], mask);
+				boolean reachable = free <= next ? free < home && home <= next : free < home || home <= next;
+				if (!reachable) {
+					keys[free] = keys[next];
+					values[free] = values[next];
+					keys[next] = FREE;
+					free = next;
+				}
+			}
+			size--;
+			return true;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	int size() {
+		long stamp = lock.readLock();
+		try {
+			return size;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	private long lookup(long id, long missing) {
+		long[] keyTable = keys;
+		long[] valueTable = values;
+		int slot = probe(keyTable, id);
+		// A resize racing with the read may leave the tables of different sizes, the read is retried then
+		return slot >= 0 && slot < valueTable.length ? valueTable[slot] : missing;
+	}
+
+	private void resize() {
+		long[] resizedKeys = new long[keys.length * 2];
+		long[] resizedValues = new long[keys.length * 2];
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != FREE) {
+				insert(resizedKeys, resizedValues, keys[slot], values[slot]);
+			}
+		}
+		keys = resizedKeys;
+		values = resizedValues;
+	}
+
+	/**
+	 * @return the slot of the id, or -1. Bounded by the table size, so that a probe racing with a write ends
+	 */
+	private static int probe(long[] table, long id) {
+		int mask = table.length - 1;
+		int slot = home(id, mask);
+		for (int probes = 0; probes < table.length; probes++) {
+			long key = table[slot];
+			if (key == id) {
+				return slot;
+			}
+			if (key == FREE) {
+				return -1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private static void insert(long[] keyTable, long[] valueTable, long id, long value) {
+		int mask = keyTable.length - 1;
+		int slot = home(id, mask);
+		while (keyTable[slot] != FREE) {
+			slot = (slot + 1) & mask;
+		}
+		keyTable[slot] = id;
+		valueTable[slot] = value;
+	}
+
+	private static int home(long id, int mask) {
+		return (int) Hashing.mix(id) & mask;
+	}
+}
@@ -0,0 +1,67 @@
+package com.twitter.id;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time ordered 64 bit ids: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node id and 12 bits of
+ * sequence within the millisecond, so that ids sort by creation time across nodes and are unique without
+ * asking the database.
+ *
+ * Ids are handed out lock free and strictly increasing per node. The last timestamp and sequence are one
+ * {@link AtomicLong}: an id takes the next sequence of the current millisecond, or of the last one if the
+ * clock went back, and a sequence overflow carries into the next millisecond instead of waiting for it.
+ *
+ * @author gauri sawant
+ */
+public final class SnowflakeIdGenerator {
+
+	/** 2020-01-01T00:00:00Z, leaves room for ids until 2089 */
+	public static final long EPOCH = 1_577_836_800_000L;
+	public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+	private static final int SEQUENCE_BITS = 12;
+	private static final int NODE_BITS = 10;
+	private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+	private static final ConcurrentMap<Integer, SnowflakeIdGenerator> NODES = new ConcurrentHashMap<>();
+
+	private final long node;
+	private final LongSupplier clock;
+	// Milliseconds since the epoch shifted left by the sequence bits, plus the sequence, of the last id
+	private final AtomicLong last = new AtomicLong();
+
+	SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+		if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+			throw new IllegalArgumentException("node id must be between 0 and " + MAX_NODE_ID + ", got: " + nodeId);
+		}
+		this.node = (long) nodeId << SEQUENCE_BITS;
+		this.clock = clock;
+	}
+
+	/**
+	 * @return the generator shared by every id of the node in this process
+	 */
+	public static SnowflakeIdGenerator forNode(int nodeId) {
+		return NODES.computeIfAbsent(nodeId, id -> new SnowflakeIdGenerator(id, System::currentTimeMillis));
+	}
+
+	public long nextId() {
+		long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+		long previous;
+		long next;
+		do {
+			previous = last.get();
+			next = Math.max(now, previous + 1);
+		} while (!last.compareAndSet(previous, next));
+		return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | node | next & SEQUENCE_MASK;
+	}
+
+	/**
+	 * @return the creation time of the id, in milliseconds since 1970
+	 */
+	public static long timestampOf(long id) {
+		return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+	}
+}
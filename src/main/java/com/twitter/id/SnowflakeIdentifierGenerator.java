@@ -0,0 +1,37 @@
+package com.twitter.id;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Hibernate generator of the entity ids, assigned in memory by {@link SnowflakeIdGenerator} when an entity
+ * is persisted. Unlike IDENTITY columns it needs no round trip per insert and lets Hibernate batch inserts.
+ * The node id is the twitter.id.node-id JPA property, unique per running instance.
+ *
+ * @author gauri sawant
+ */
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator, Configurable {
+
+	public static final String NAME = "snowflake";
+	public static final String NODE_ID = "twitter.id.node-id";
+
+	private SnowflakeIdGenerator generator;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+		Object nodeId = serviceRegistry.getService(ConfigurationService.class).getSettings().get(NODE_ID);
+		generator = SnowflakeIdGenerator.forNode(nodeId == null ? 0 : Integer.parseInt(nodeId.toString().trim()));
+	}
+
+	@Override
+	public Serializable generate(SharedSessionContractImplementor session, Object object) {
+		return generator.nextId();
+	}
+}
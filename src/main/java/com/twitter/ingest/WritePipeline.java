@@ -0,0 +1,324 @@
+package com.twitter.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Group commit of new tweets and replies. When enabled, validated entities are queued on a bounded queue and
+ * a single writer thread drains it in micro-batches: it waits for a first write, collects more until the batch
+ * is full or the linger time is up, and saves the whole batch in one transaction, one commit and batched
+ * inserts instead of one per row. A caller returns once the transaction of its batch committed. A batch that
+ * fails is written again row by row, so that one bad row fails only its own caller. A caller that times out
+ * or is interrupted cancels its write while it is still queued, so a write the caller reported as failed is
+ * never committed; once the writer took the write, the caller waits for its outcome instead.
+ *
+ * When disabled, the default, every write is saved and committed on the calling thread.
+ *
+ * Bulk writes, whose request is a batch already, bypass the queue and are saved in chunks on the calling thread.
+ *
+ * @author gauri sawant
+ */
+@Component
+@ManagedResource(objectName = "com.twitter:type=WritePipeline", description = "Group commit of tweets and replies")
+public class WritePipeline implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WritePipeline.class);
+	private static final long IDLE_POLL_MILLIS = 100L;
+
+	@Resource
+	PlatformTransactionManager transactionManager;
+
+	@Value("${twitter.ingest.group-commit:false}")
+	boolean groupCommit;
+
+	@Value("${twitter.ingest.queue-capacity:10000}")
+	int queueCapacity = 10_000;
+
+	@Value("${twitter.ingest.batch-size:200}")
+	int batchSize = 200;
+
+	@Value("${twitter.ingest.linger-ms:5}")
+	long lingerMillis = 5L;
+
+	@Value("${twitter.ingest.write-timeout-ms:10000}")
+	long writeTimeoutMillis = 10_000L;
+
+	@Value("${twitter.ingest.bulk-chunk-size:500}")
+	int bulkChunkSize = 500;
+
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLong writes = new AtomicLong();
+	private volatile int lastBatchSize;
+	private volatile int maxBatchSize;
+	private volatile BlockingQueue<PendingWrite<?>> queue;
+	private volatile Thread writer;
+	private volatile boolean stopping;
+
+	/**
+	 * Starts the writer thread when group commit is enabled.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		if (!groupCommit) {
+			return;
+		}
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		writer = new Thread(this::drain, "tweet-writer");
+		writer.setDaemon(true);
+		writer.start();
+		LOGGER.info("Group commit enabled, batches of up to {} write(s) lingering {} ms", batchSize, lingerMillis);
+	}
+
+	/**
+	 * Saves the entity, in the batch of the writer thread with group commit, and waits for the commit.
+	 * @param save saves the entity and returns the saved one, e.g. the save method of its repository
+	 * @throws WriteRejectedException when the queue is full, the entity was not written
+	 * @throws TimeoutException when the write was still queued after the write timeout, it is cancelled then
+	 * @throws InterruptedException when interrupted while the write was still queued, it is cancelled then
+	 */
+	public <T> T write(T entity, UnaryOperator<T> save) throws InterruptedException, ExecutionException, TimeoutException {
+		BlockingQueue<PendingWrite<?>> pending = queue;
+		if (pending == null) {
+			return save.apply(entity);
+		}
+		PendingWrite<T> write = new PendingWrite<>(entity, save);
+		if (!pending.offer(write)) {
+			throw new WriteRejectedException("Write queue full with " + queueCapacity + " write(s)");
+		}
+		try {
+			return write.done.get(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException | InterruptedException ex) {
+			if (write.cancel()) {
+				pending.remove(write);
+				throw ex;
+			}
+			// The writer is saving the entity, failing now would leave a committed write unreported
+			return awaitClaimed(write, ex instanceof InterruptedException);
+		}
+	}
+
+	private static <T> T awaitClaimed(PendingWrite<T> write, boolean interrupted) throws ExecutionException {
+		boolean interruptedSince = interrupted;
+		try {
+			while (true) {
+				try {
+					return write.done.get();
+				} catch (InterruptedException ex) {
+					interruptedSince = true;
+				}
+			}
+		} finally {
+			if (interruptedSince) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Saves the entities in chunks, each in one transaction whose inserts Hibernate sends in JDBC batches, so that
+	 * a failed chunk neither rolls back the chunks before it nor keeps the others from being written. A chunk that
+	 * fails is written again row by row, like a batch of the writer thread.
+	 * @param save saves the entity and returns the saved one, e.g. the save method of its repository
+	 * @return the saved entities in the order of the given ones, null for the ones that failed
+	 */
+	public <T> List<T> writeAll(List<T> entities, UnaryOperator<T> save) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		List<T> saved = new ArrayList<>(entities.size());
+		for (int from = 0; from < entities.size(); from += bulkChunkSize) {
+			List<T> chunk = entities.subList(from, Math.min(from + bulkChunkSize, entities.size()));
+			try {
+				saved.addAll(transaction.execute(status -> {
+					List<T> savedChunk = new ArrayList<>(chunk.size());
+					for (T entity : chunk) {
+						savedChunk.add(save.apply(entity));
+					}
+					return savedChunk;
+				}));
+			} catch (Exception ex) {
+				LOGGER.warn("writeAll :: chunk of {} write(s) failed, writing them one by one {}", chunk.size(), ex.toString());
+				for (T entity : chunk) {
+					try {
+						saved.add(transaction.execute(status -> save.apply(entity)));
+					} catch (Exception rowEx) {
+						LOGGER.warn("writeAll :: write failed {}", rowEx.toString());
+						saved.add(null);
+					}
+				}
+			}
+		}
+		return saved;
+	}
+
+	@ManagedAttribute(description = "Writes waiting for the writer thread")
+	public int getQueueDepth() {
+		BlockingQueue<PendingWrite<?>> pending = queue;
+		return pending == null ? 0 : pending.size();
+	}
+
+	@ManagedAttribute(description = "Writes of the last batch committed")
+	public int getLastBatchSize() {
+		return lastBatchSize;
+	}
+
+	@ManagedAttribute(description = "Largest batch committed")
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	@ManagedAttribute(description = "Batches committed")
+	public long getBatches() {
+		return batches.get();
+	}
+
+	@ManagedAttribute(description = "Writes committed in batches")
+	public long getWrites() {
+		return writes.get();
+	}
+
+	@ManagedAttribute(description = "Average writes per batch")
+	public double getAverageBatchSize() {
+		long count = batches.get();
+		return count == 0 ? 0.0 : (double) writes.get() / count;
+	}
+
+	/**
+	 * Stops the writer thread once it wrote what is queued.
+	 */
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		stopping = true;
+		Thread current = writer;
+		if (current != null) {
+			current.join(writeTimeoutMillis);
+		}
+	}
+
+	private void drain() {
+		List<PendingWrite<?>> batch = new ArrayList<>(batchSize);
+		while (!stopping || !queue.isEmpty()) {
+			try {
+				// Polled rather than taken, the writer is never interrupted in the middle of a commit
+				PendingWrite<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				long lingerEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+				while (batch.size() < batchSize) {
+					if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+						PendingWrite<?> next = queue.poll(lingerEnd - System.nanoTime(), TimeUnit.NANOSECONDS);
+						if (next == null) {
+							break;
+						}
+						batch.add(next);
+					}
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				LOGGER.warn("drain :: writer interrupted, {} write(s) left in the queue", queue.size());
+				return;
+			}
+			commit(batch);
+			batch.clear();
+		}
+	}
+
+	void commit(List<PendingWrite<?>> queued) {
+		// Writes whose caller gave up while they were queued are dropped, the others can no longer be cancelled
+		List<PendingWrite<?>> batch = new ArrayList<>(queued.size());
+		for (PendingWrite<?> write : queued) {
+			if (write.claim()) {
+				batch.add(write);
+			}
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			List<Object> saved = new TransactionTemplate(transactionManager).execute(status -> {
+				List<Object> entities = new ArrayList<>(batch.size());
+				for (PendingWrite<?> write : batch) {
+					entities.add(write.save());
+				}
+				return entities;
+			});
+			batches.incrementAndGet();
+			writes.addAndGet(batch.size());
+			lastBatchSize = batch.size();
+			maxBatchSize = Math.max(maxBatchSize, batch.size());
+			for (int i = 0; i < batch.size(); i++) {
+				batch.get(i).complete(saved.get(i));
+			}
+		} catch (Exception ex) {
+			LOGGER.warn("commit :: batch of {} write(s) failed, writing them one by one {}", batch.size(), ex.toString());
+			for (PendingWrite<?> write : batch) {
+				try {
+					write.complete(new TransactionTemplate(transactionManager).execute(status -> write.save()));
+				} catch (Exception rowEx) {
+					write.done.completeExceptionally(rowEx);
+				}
+			}
+		}
+	}
+
+	static final class PendingWrite<T> {
+		private static final int QUEUED = 0;
+		private static final int CLAIMED = 1;
+		private static final int CANCELLED = 2;
+
+		private final T entity;
+		private final UnaryOperator<T> save;
+		private final CompletableFuture<T> done = new CompletableFuture<>();
+		private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+		PendingWrite(T entity, UnaryOperator<T> save) {
+			this.entity = entity;
+			this.save = save;
+		}
+
+		/**
+		 * @return false if the caller cancelled the write, which must not be saved then
+		 */
+		private boolean claim() {
+			return state.compareAndSet(QUEUED, CLAIMED);
+		}
+
+		/**
+		 * @return false if the writer claimed the write already, its outcome is to be waited for then
+		 */
+		private boolean cancel() {
+			return state.compareAndSet(QUEUED, CANCELLED);
+		}
+
+		private T save() {
+			return save.apply(entity);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void complete(Object saved) {
+			done.complete((T) saved);
+		}
+	}
+}
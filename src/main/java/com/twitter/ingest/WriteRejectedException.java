@@ -0,0 +1,14 @@
+package com.twitter.ingest;
+
+/**
+ * Thrown when the write queue of the group commit is full, the write was not queued.
+ *
+ * @author gauri sawant
+ */
+public class WriteRejectedException extends RuntimeException {
+	private static final long serialVersionUID = 3625188043710458411L;
+
+	public WriteRejectedException(String message) {
+		super(message);
+	}
+}
@@ -6,7 +6,6 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
@@ -15,6 +14,10 @@ import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.persistence.JoinColumn;
 
+import org.hibernate.annotations.GenericGenerator;
+
+import com.twitter.id.SnowflakeIdentifierGenerator;
+
 import io.swagger.annotations.ApiModel;
 
 /**
@@ -26,14 +29,19 @@ import io.swagger.annotations.ApiModel;
 @ApiModel(description = "Replies")
 @NamedQueries({
     @NamedQuery(name = "Replies.getTweetsWithReplies", query = "SELECT r FROM Replies r "
-    		+ "WHERE r.tweet.tweetId = :tweetId")
+    		+ "WHERE r.tweet.tweetId = :tweetId"),
+    @NamedQuery(name = "Replies.getFollowerReplies", query = "SELECT new com.twitter.persistence.FollowerReply("
+    		+ "t.tweetId, r.replyId, r.text, r.attachmentFileName, u.userId, u.userName, u.firstName, u.lastName) "
+    		+ "FROM Replies r JOIN r.tweet t JOIN r.user u JOIN t.user a "
+    		+ "WHERE t.tweetId IN :tweetIds AND u MEMBER OF a.followerUser AND u.deletedAt IS NULL ORDER BY r.replyId")
 })
 public class Replies implements Serializable {
 	private static final long serialVersionUID = 1482909747968497290L;
 
 	@Id
 	@Column(name = "REPLY_ID", unique = true)
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = SnowflakeIdentifierGenerator.NAME)
+	@GenericGenerator(name = SnowflakeIdentifierGenerator.NAME, strategy = "com.twitter.id.SnowflakeIdentifierGenerator")
 	private Long replyId;
 
 	@Column(name = "TEXT")
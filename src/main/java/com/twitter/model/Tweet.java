@@ -9,7 +9,6 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
@@ -19,6 +18,10 @@ import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.JoinColumn;
 
+import org.hibernate.annotations.GenericGenerator;
+
+import com.twitter.id.SnowflakeIdentifierGenerator;
+
 import io.swagger.annotations.ApiModel;
 
 /**
@@ -36,7 +39,8 @@ public class Tweet implements Serializable {
 
 	@Id
 	@Column(name = "TWEET_ID", unique = true)
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = SnowflakeIdentifierGenerator.NAME)
+	@GenericGenerator(name = SnowflakeIdentifierGenerator.NAME, strategy = "com.twitter.id.SnowflakeIdentifierGenerator")
 	private Long tweetId;
 
 	@Column(name = "TEXT")
@@ -50,7 +54,7 @@ public class Tweet implements Serializable {
 	@JoinColumn(name = "USER_ID", nullable = false)
 	private User user;
 	
-    @OneToMany(cascade = CascadeType.ALL, mappedBy = "tweet", fetch = FetchType.EAGER)
+    @OneToMany(cascade = CascadeType.ALL, mappedBy = "tweet", fetch = FetchType.LAZY)
     private List<Replies> replies = new ArrayList<>();
 
 	public void setTweetId(Long tweetId) {
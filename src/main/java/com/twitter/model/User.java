@@ -1,6 +1,7 @@
 package com.twitter.model;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -11,16 +12,17 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
-import javax.persistence.NamedQueries;
-import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.JoinColumn;
 
+import org.hibernate.annotations.GenericGenerator;
+
+import com.twitter.id.SnowflakeIdentifierGenerator;
+
 import io.swagger.annotations.ApiModel;
 
 /**
@@ -30,18 +32,16 @@ import io.swagger.annotations.ApiModel;
 @Entity
 @Table(name = "USERS")
 @ApiModel(description = "Users")
-@NamedQueries({
-    @NamedQuery(name = "User.getUserNameCount", query = "SELECT count(u) FROM User u WHERE u.userName = :userName")
-})
 public class User implements Serializable {
     private static final long serialVersionUID = 1482309747968497290L;
 
     @Id
     @Column(name = "USER_ID", unique = true)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = SnowflakeIdentifierGenerator.NAME)
+    @GenericGenerator(name = SnowflakeIdentifierGenerator.NAME, strategy = "com.twitter.id.SnowflakeIdentifierGenerator")
     private Long userId;
     
-    @Column(name = "USER_NAME")
+    @Column(name = "USER_NAME", unique = true)
     private String userName;
 
     @Column(name = "FIRST_NAME")
@@ -49,8 +49,12 @@ public class User implements Serializable {
 
     @Column(name = "LAST_NAME")
     private String lastName;
+
+    // Set once the user is deleted, until the purge removes the row
+    @Column(name = "DELETED_AT")
+    private Instant deletedAt;
     
-	@ManyToMany(cascade={CascadeType.PERSIST}, fetch = FetchType.EAGER)
+	@ManyToMany(cascade={CascadeType.PERSIST}, fetch = FetchType.LAZY)
 	@JoinTable(name="FOLLOWERS",
 		joinColumns={@JoinColumn(name="FOLLOWED_USER_ID")},
 		inverseJoinColumns={@JoinColumn(name="FOLLOWER_USER_ID")})
@@ -81,6 +85,10 @@ public class User implements Serializable {
 		this.lastName = lastName;
 	}
 
+	public void setDeletedAt(Instant deletedAt) {
+		this.deletedAt = deletedAt;
+	}
+
 	public void setFollowedUser(Set<User> followedUser) {
 		this.followedUser = followedUser;
 	}
@@ -105,6 +113,10 @@ public class User implements Serializable {
 		return lastName;
 	}
 
+	public Instant getDeletedAt() {
+		return deletedAt;
+	}
+
 	public Set<User> getFollowedUser() {
 		return followedUser;
 	}
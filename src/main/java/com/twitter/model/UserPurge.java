@@ -0,0 +1,112 @@
+package com.twitter.model;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * Progress of the purge of a deleted user, kept after the purge is done to answer status requests.
+ *
+ * @author gauri sawant
+ *
+ */
+@Entity
+@Table(name = "USER_PURGES")
+@ApiModel(description = "User purges")
+public class UserPurge implements Serializable {
+	private static final long serialVersionUID = 3170894211409271853L;
+
+	public enum State {
+		PURGING, DONE
+	}
+
+	@Id
+	@Column(name = "USER_ID")
+	private Long userId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(name = "STATE")
+	private State state;
+
+	@Column(name = "REQUESTED_AT")
+	private Instant requestedAt;
+
+	@Column(name = "UPDATED_AT")
+	private Instant updatedAt;
+
+	@Column(name = "REPLIES_PURGED")
+	private long repliesPurged;
+
+	@Column(name = "TWEETS_PURGED")
+	private long tweetsPurged;
+
+	@Column(name = "FOLLOWS_PURGED")
+	private long followsPurged;
+
+	public UserPurge() {
+		super();
+	}
+
+	public UserPurge(Long userId, Instant requestedAt) {
+		this.userId = userId;
+		this.state = State.PURGING;
+		this.requestedAt = requestedAt;
+		this.updatedAt = requestedAt;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	public void setState(State state) {
+		this.state = state;
+	}
+
+	public Instant getRequestedAt() {
+		return requestedAt;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	public long getRepliesPurged() {
+		return repliesPurged;
+	}
+
+	public void setRepliesPurged(long repliesPurged) {
+		this.repliesPurged = repliesPurged;
+	}
+
+	public long getTweetsPurged() {
+		return tweetsPurged;
+	}
+
+	public void setTweetsPurged(long tweetsPurged) {
+		this.tweetsPurged = tweetsPurged;
+	}
+
+	public long getFollowsPurged() {
+		return followsPurged;
+	}
+
+	public void setFollowsPurged(long followsPurged) {
+		this.followsPurged = followsPurged;
+	}
+}
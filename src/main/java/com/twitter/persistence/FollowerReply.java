@@ -0,0 +1,63 @@
+package com.twitter.persistence;
+
+/**
+ * Flat projection of a reply written by a follower of the tweet author, together with the replying user.
+ * Read by {@link RepliesRepository#getFollowerReplies(java.util.Collection)} for a whole page of tweets.
+ *
+ * @author gauri sawant
+ */
+public class FollowerReply {
+
+	private final Long tweetId;
+	private final Long replyId;
+	private final String text;
+	private final String attachmentFileName;
+	private final Long userId;
+	private final String userName;
+	private final String firstName;
+	private final String lastName;
+
+	public FollowerReply(Long tweetId, Long replyId, String text, String attachmentFileName, Long userId,
+			String userName, String firstName, String lastName) {
+		this.tweetId = tweetId;
+		this.replyId = replyId;
+		this.text = text;
+		this.attachmentFileName = attachmentFileName;
+		this.userId = userId;
+		this.userName = userName;
+		this.firstName = firstName;
+		this.lastName = lastName;
+	}
+
+	public Long getTweetId() {
+		return tweetId;
+	}
+
+	public Long getReplyId() {
+		return replyId;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public String getAttachmentFileName() {
+		return attachmentFileName;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public String getUserName() {
+		return userName;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+}
@@ -1,5 +1,6 @@
 package com.twitter.persistence;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -7,6 +8,8 @@ import java.util.List;
  *
  */
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.twitter.model.Replies;
@@ -15,7 +18,48 @@ public interface RepliesRepository extends JpaRepository<Replies, Long> {
 
 	List<Replies> getTweetsWithReplies(@Param("tweetId") Long tweetId);
 
-	/*@Modifying
-	@Query("DELETE FROM Replies r WHERE r.user.userId = ?1")
-	void deleteUserReplies(@Param("userId") Long userId);*/
+	/**
+	 * @return the replies to the tweets that were written by followers of the tweet author, in reply order
+	 */
+	List<FollowerReply> getFollowerReplies(@Param("tweetIds") Collection<Long> tweetIds);
+
+	/**
+	 * @return the ids of the authors of the tweets the user replied to
+	 */
+	@Query(value="SELECT DISTINCT t.USER_ID FROM REPLIES r JOIN TWEETS t ON t.TWEET_ID = r.TWEET_ID WHERE r.USER_ID = ?1", nativeQuery=true)
+	List<Number> getRepliedAuthorIds(@Param("userId") Long userId);
+
+	/**
+	 * @return the ids of the replies to the tweet
+	 */
+	@Query(value="SELECT REPLY_ID FROM REPLIES WHERE TWEET_ID = ?1", nativeQuery=true)
+	List<Number> getReplyIdsToTweet(@Param("tweetId") Long tweetId);
+
+	/**
+	 * Deletes the replies to the tweet without loading them.
+	 * @return the number of replies deleted
+	 */
+	@Modifying
+	@Query(value="DELETE FROM REPLIES WHERE TWEET_ID = ?1", nativeQuery=true)
+	int deleteRepliesToTweet(@Param("tweetId") Long tweetId);
+
+	/**
+	 * @return the ids of up to limit replies written by the user
+	 */
+	@Query(value="SELECT REPLY_ID FROM REPLIES WHERE USER_ID = ?1 LIMIT ?2", nativeQuery=true)
+	List<Number> getReplyIdsOfUser(@Param("userId") Long userId, @Param("limit") int limit);
+
+	/**
+	 * @return the ids of up to limit replies to the tweets of the user
+	 */
+	@Query(value="SELECT REPLY_ID FROM REPLIES WHERE TWEET_ID IN (SELECT t.TWEET_ID FROM TWEETS t WHERE t.USER_ID = ?1) LIMIT ?2", nativeQuery=true)
+	List<Number> getReplyIdsToTweetsOfUser(@Param("userId") Long userId, @Param("limit") int limit);
+
+	/**
+	 * Deletes the replies by id.
+	 * @return the number of replies deleted
+	 */
+	@Modifying
+	@Query(value="DELETE FROM REPLIES WHERE REPLY_ID IN (?1)", nativeQuery=true)
+	int deleteRepliesById(@Param("replyIds") List<Long> replyIds);
 }
@@ -2,7 +2,11 @@ package com.twitter.persistence;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.twitter.model.Tweet;
@@ -15,7 +19,40 @@ public interface TweetRepository extends JpaRepository<Tweet, Long> {
 
 	List<Tweet> getTweets(@Param("userId") Long userId);
 
-	/*@Modifying
-	@Query("DELETE FROM Tweet t WHERE t.user.userId = ?1")
-	void deleteUserTweets(@Param("userId") Long userId);*/
+	/**
+	 * Fetch plan of the home timeline: the tweets of the page and their authors in one statement.
+	 */
+	@Override
+	@EntityGraph(attributePaths = "user")
+	List<Tweet> findAllById(Iterable<Long> tweetIds);
+
+	/**
+	 * Seeks on the (USER_ID, TWEET_ID) index, newest first. Pass Long.MAX_VALUE as before for the first page.
+	 */
+	@EntityGraph(attributePaths = "user")
+	@Query("SELECT t FROM Tweet t WHERE t.user.userId = :userId AND t.tweetId < :before ORDER BY t.tweetId DESC")
+	List<Tweet> getTweetsBefore(@Param("userId") Long userId, @Param("before") Long before, Pageable page);
+
+	/**
+	 * Seeks on the (USER_ID, TWEET_ID) index, oldest first, i.e. the tweets closest to the cursor come first.
+	 */
+	@EntityGraph(attributePaths = "user")
+	@Query("SELECT t FROM Tweet t WHERE t.user.userId = :userId AND t.tweetId > :after ORDER BY t.tweetId ASC")
+	List<Tweet> getTweetsAfter(@Param("userId") Long userId, @Param("after") Long after, Pageable page);
+
+	@Query(value = "SELECT t.TWEET_ID FROM TWEETS t WHERE t.USER_ID = :userId"
+			+ " OR t.USER_ID IN (SELECT f.FOLLOWED_USER_ID FROM FOLLOWERS f WHERE f.FOLLOWER_USER_ID = :userId)"
+			+ " ORDER BY t.TWEET_ID DESC LIMIT :limit", nativeQuery = true)
+	List<Number> getHomeTimelineTweetIds(@Param("userId") Long userId, @Param("limit") int limit);
+
+	@Query(value = "SELECT t.TWEET_ID FROM TWEETS t WHERE t.USER_ID = :userId ORDER BY t.TWEET_ID DESC LIMIT :limit", nativeQuery = true)
+	List<Number> getRecentTweetIds(@Param("userId") Long userId, @Param("limit") int limit);
+
+	/**
+	 * Deletes the tweets by id, whose replies have to be deleted first.
+	 * @return the number of tweets deleted
+	 */
+	@Modifying
+	@Query(value = "DELETE FROM TWEETS WHERE TWEET_ID IN (?1)", nativeQuery = true)
+	int deleteTweetsById(@Param("tweetIds") List<Long> tweetIds);
 }
@@ -0,0 +1,19 @@
+package com.twitter.persistence;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.twitter.model.UserPurge;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public interface UserPurgeRepository extends JpaRepository<UserPurge, Long> {
+
+	/**
+	 * @return the oldest purge in the state, purges run one after the other
+	 */
+	Optional<UserPurge> findFirstByStateOrderByRequestedAtAsc(UserPurge.State state);
+}
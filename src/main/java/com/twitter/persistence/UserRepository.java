@@ -1,9 +1,15 @@
 package com.twitter.persistence;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.twitter.model.User;
 
@@ -12,10 +18,58 @@ import com.twitter.model.User;
  *
  */
 public interface UserRepository extends JpaRepository<User, Long> {
+
+	/**
+	 * Fetch plan of the follower list: the user and its followers in one statement.
+	 */
+	@EntityGraph(attributePaths = "followerUser")
+	Optional<User> findWithFollowerUserByUserId(Long userId);
 	
-	int getUserNameCount(@Param("userName") String userName);
-	
+	/**
+	 * Deletes up to limit follows from or to the user.
+	 * @return the number of follows deleted, less than limit once none is left
+	 */
+	@Modifying
+	@Query(value="DELETE FROM FOLLOWERS WHERE FOLLOWED_USER_ID = ?1 OR FOLLOWER_USER_ID = ?1 LIMIT ?2", nativeQuery=true)
+	int deleteFollowsOfUser(@Param("userId") Long userId, @Param("limit") int limit);
+
+	/**
+	 * Marks the user deleted, the row itself is removed by the purge.
+	 * @return 1 if the user was tombstoned, 0 if the user does not exist or was deleted already
+	 */
+	@Modifying
+	@Query("UPDATE User u SET u.deletedAt = :deletedAt WHERE u.userId = :userId AND u.deletedAt IS NULL")
+	int tombstone(@Param("userId") Long userId, @Param("deletedAt") Instant deletedAt);
+
+	@Modifying
+	@Query(value="DELETE FROM USERS WHERE USER_ID = ?1", nativeQuery=true)
+	int purge(@Param("userId") Long userId);
+
+	@Query(value="SELECT USER_ID FROM USERS WHERE DELETED_AT IS NOT NULL", nativeQuery=true)
+	List<Number> getDeletedUserIds();
+
+	@Query(value="SELECT TWEET_ID FROM TWEET_LIKES WHERE USER_ID = ?1", nativeQuery=true)
+	List<Number> getLikedTweetIds(@Param("userId") Long userId);
+
+	@Query(value="SELECT TWEET_ID FROM TWEET_RETWEETS WHERE USER_ID = ?1", nativeQuery=true)
+	List<Number> getRetweetedTweetIds(@Param("userId") Long userId);
+
+
+	/**
+	 * Adds the follow unless it exists, in one statement and without loading either user.
+	 * @return 1 if the follow was added, 0 if it existed
+	 */
+	@Transactional
+	@Modifying
+	@Query(value="INSERT INTO FOLLOWERS (FOLLOWED_USER_ID, FOLLOWER_USER_ID) SELECT ?1, ?2 FROM DUAL "
+			+ "WHERE NOT EXISTS (SELECT 1 FROM FOLLOWERS f WHERE f.FOLLOWED_USER_ID = ?1 AND f.FOLLOWER_USER_ID = ?2)", nativeQuery=true)
+	int follow(@Param("followedUserId") Long followedUserId, @Param("followerUserId") Long followerUserId);
+
+	/**
+	 * @return 1 if the follow was removed, 0 if it did not exist
+	 */
+	@Transactional
 	@Modifying
-	@Query(value="DELETE FROM FOLLOWERS f WHERE f.FOLLOWED_USER_ID = ?1 OR f.FOLLOWER_USER_ID = ?1", nativeQuery=true)
-	void clearFollowers(@Param("userId") Long userId);
+	@Query(value="DELETE FROM FOLLOWERS f WHERE f.FOLLOWED_USER_ID = ?1 AND f.FOLLOWER_USER_ID = ?2", nativeQuery=true)
+	int unfollow(@Param("followedUserId") Long followedUserId, @Param("followerUserId") Long followerUserId);
 }
@@ -0,0 +1,295 @@
+package com.twitter.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Sorted list of the ids of the documents containing a term, stored as the varint encoded gaps between
+ * consecutive ids. Ids are mostly added in ascending order and appended in place; an id added out of order,
+ * e.g. by two inserts committing out of order, rewrites the list.
+ *
+ * Every {@link #SKIP_INTERVAL} postings a skip entry keeps the id starting the block and the offset of the gap
+ * after it, so that a {@link Cursor} walks the list newest first from any id decoding only the blocks it visits.
+ *
+ * Reads are lock free: an append writes past the end of the bytes any reader knows of, then publishes the
+ * new end. Writes are serialized.
+ *
+ * @author gauri sawant
+ */
+final class PostingsList {
+
+	static final int SKIP_INTERVAL = 128;
+
+	private volatile Encoded encoded = Encoded.EMPTY;
+
+	synchronized boolean add(long id) {
+		Encoded current = encoded;
+		if (current.count > 0 && id <= current.last) {
+			long[] ids = current.decode();
+			int index = Arrays.binarySearch(ids, id);
+			if (index >= 0) {
+				return false;
+			}
+			int insertion = -index - 1;
+			long[] inserted = new long[ids.length + 1];
+			System.arraycopy(ids, 0, inserted, 0, insertion);
+			inserted[insertion] = id;
+			System.arraycopy(ids, insertion, inserted, insertion + 1, ids.length - insertion);
+			encoded = Encoded.of(inserted, inserted.length);
+			return true;
+		}
+		byte[] bytes = current.bytes;
+		if (current.length + 10 > bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(16, bytes.length * 2));
+		}
+		int length = writeVarint(bytes, current.length, id - current.last);
+		long[] skipIds = current.skipIds;
+		int[] skipOffsets = current.skipOffsets;
+		if (current.count % SKIP_INTERVAL == 0) {
+			int block = current.count / SKIP_INTERVAL;
+			if (block == skipIds.length) {
+				skipIds = Arrays.copyOf(skipIds, Math.max(4, block * 2));
+				skipOffsets = Arrays.copyOf(skipOffsets, skipIds.length);
+			}
+			skipIds[block] = id;
+			skipOffsets[block] = length;
+		}
+		encoded = new Encoded(bytes, length, current.count + 1, id, skipIds, skipOffsets);
+		return true;
+	}
+
+	/**
+	 * @return a cursor over the ids as of now, newest first
+	 */
+	Cursor cursor() {
+		return new Cursor(encoded);
+	}
+
+	/**
+	 * @return the ids, ascending
+	 */
+	long[] toArray() {
+		return encoded.decode();
+	}
+
+	int size() {
+		return encoded.count;
+	}
+
+	int byteSize() {
+		return encoded.length;
+	}
+
+	/**
+	 * Rewrites the list without the removed ids, unless it holds none of them.
+	 * @return the number of ids left
+	 */
+	synchronized int removeAll(Set<Long> removed) {
+		Encoded current = encoded;
+		Encoded remaining = current.without(removed);
+		if (remaining.count < current.count) {
+			encoded = remaining;
+		}
+		return remaining.count;
+	}
+
+	/**
+	 * Writes the list without the removed ids.
+	 */
+	void write(DataOutput out, Set<Long> removed) throws IOException {
+		Encoded current = encoded.without(removed);
+		out.writeInt(current.count);
+		out.writeLong(current.last);
+		out.writeInt(current.length);
+		out.write(current.bytes, 0, current.length);
+	}
+
+	static PostingsList read(DataInput in) throws IOException {
+		int count = in.readInt();
+		long last = in.readLong();
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		PostingsList postings = new PostingsList();
+		// Skip entries are not written, re-encoding the read gaps rebuilds them
+		postings.encoded = Encoded.of(new Encoded(bytes, bytes.length, count, last, null, null).decode(), count);
+		return postings;
+	}
+
+	private static int writeVarint(byte[] bytes, int offset, long value) {
+		while ((value & ~0x7FL) != 0) {
+			bytes[offset++] = (byte) (value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+		bytes[offset++] = (byte) value;
+		return offset;
+	}
+
+	/**
+	 * Walks the ids below a bound newest first, seeking by skip entry and decoding one block at a time.
+	 */
+	static final class Cursor {
+		static final long END = -1L;
+
+		private final Encoded encoded;
+		private final long[] block = new long[SKIP_INTERVAL];
+		// Index of the decoded block, the number of blocks before the first seek
+		private int blockIndex;
+		private int blockSize;
+		// Position of the current id in the decoded block
+		private int position;
+
+		private Cursor(Encoded encoded) {
+			this.encoded = encoded;
+			this.blockIndex = encoded.blocks();
+		}
+
+		int size() {
+			return encoded.count;
+		}
+
+		/**
+		 * Moves to the largest id at most target. Targets must not increase from one call to the next.
+		 * @return that id, {@link #END} if there is none
+		 */
+		long seek(long target) {
+			if (blockSize > 0 && block[0] <= target) {
+				position = floor(block, position + 1, target);
+				return block[position];
+			}
+			// Last block starting at or below the target, before the decoded one
+			int low = 0;
+			int high = blockIndex - 1;
+			int found = -1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				if (encoded.skipIds[middle] <= target) {
+					found = middle;
+					low = middle + 1;
+				} else {
+					high = middle - 1;
+				}
+			}
+			if (found < 0) {
+				blockIndex = 0;
+				blockSize = 0;
+				return END;
+			}
+			blockIndex = found;
+			blockSize = encoded.decodeBlock(found, block);
+			position = floor(block, blockSize, target);
+			return block[position];
+		}
+
+		/*
+		 * Index of the largest of the first size ids at most target, the first id being at most target
+		 */
+		private static int floor(long[] ids, int size, long target) {
+			int index = Arrays.binarySearch(ids, 0, size, target);
+			return index >= 0 ? index : -index - 2;
+		}
+	}
+
+	private static final class Encoded {
+		private static final Encoded EMPTY = new Encoded(new byte[0], 0, 0, 0L, new long[0], new int[0]);
+
+		private final byte[] bytes;
+		private final int length;
+		private final int count;
+		private final long last;
+		// Per block of SKIP_INTERVAL postings, its first id and the offset of the gap following it. Appends
+		// fill the entries past the blocks of the published lists, so the arrays are shared with older ones
+		private final long[] skipIds;
+		private final int[] skipOffsets;
+
+		private Encoded(byte[] bytes, int length, int count, long last, long[] skipIds, int[] skipOffsets) {
+			this.bytes = bytes;
+			this.length = length;
+			this.count = count;
+			this.last = last;
+			this.skipIds = skipIds;
+			this.skipOffsets = skipOffsets;
+		}
+
+		private static Encoded of(long[] ids, int size) {
+			byte[] bytes = new byte[size * 10];
+			int blocks = (size + SKIP_INTERVAL - 1) / SKIP_INTERVAL;
+			long[] skipIds = new long[blocks];
+			int[] skipOffsets = new int[blocks];
+			int length = 0;
+			long previous = 0L;
+			for (int i = 0; i < size; i++) {
+				length = writeVarint(bytes, length, ids[i] - previous);
+				previous = ids[i];
+				if (i % SKIP_INTERVAL == 0) {
+					skipIds[i / SKIP_INTERVAL] = ids[i];
+					skipOffsets[i / SKIP_INTERVAL] = length;
+				}
+			}
+			return new Encoded(bytes, length, size, previous, skipIds, skipOffsets);
+		}
+
+		private int blocks() {
+			return (count + SKIP_INTERVAL - 1) / SKIP_INTERVAL;
+		}
+
+		/**
+		 * Decodes the ids of the block into ids.
+		 * @return the number of ids of the block
+		 */
+		private int decodeBlock(int block, long[] ids) {
+			int size = Math.min(SKIP_INTERVAL, count - block * SKIP_INTERVAL);
+			long id = skipIds[block];
+			ids[0] = id;
+			int offset = skipOffsets[block];
+			for (int i = 1; i < size; i++) {
+				long gap = 0L;
+				int shift = 0;
+				byte b;
+				do {
+					b = bytes[offset++];
+					gap |= (long) (b & 0x7F) << shift;
+					shift += 7;
+				} while (b < 0);
+				id += gap;
+				ids[i] = id;
+			}
+			return size;
+		}
+
+		private Encoded without(Set<Long> removed) {
+			if (removed.isEmpty()) {
+				return this;
+			}
+			long[] ids = decode();
+			int size = 0;
+			for (long id : ids) {
+				if (!removed.contains(id)) {
+					ids[size++] = id;
+				}
+			}
+			return size == count ? this : of(ids, size);
+		}
+
+		private long[] decode() {
+			long[] ids = new long[count];
+			long id = 0L;
+			int offset = 0;
+			for (int i = 0; i < count; i++) {
+				long gap = 0L;
+				int shift = 0;
+				byte b;
+				do {
+					b = bytes[offset++];
+					gap |= (long) (b & 0x7F) << shift;
+					shift += 7;
+				} while (b < 0);
+				id += gap;
+				ids[i] = id;
+			}
+			return ids;
+		}
+	}
+}
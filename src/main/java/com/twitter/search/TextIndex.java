@@ -0,0 +1,158 @@
+package com.twitter.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Inverted index of the text of one kind of document, tweets or replies: a {@link PostingsList} of document
+ * ids per term. Removed documents are left in the postings and skipped by queries until the next compaction,
+ * which strips them from the postings and forgets them. The index is compacted before it is written and once
+ * enough documents were removed.
+ *
+ * @author gauri sawant
+ */
+final class TextIndex {
+
+	// Removed documents past which the postings are compacted, each compaction decodes every list once
+	static final int COMPACT_THRESHOLD = 10_000;
+
+	private final ConcurrentMap<String, PostingsList> postings = new ConcurrentHashMap<>();
+	private final Set<Long> removed = ConcurrentHashMap.newKeySet();
+	private final AtomicLong maxId = new AtomicLong();
+
+	void add(long id, String text) {
+		for (String term : new LinkedHashSet<>(Tokenizer.tokens(text))) {
+			// Added under the bin lock, so that a compaction never drops a list as empty while an id goes in
+			postings.compute(term, (key, list) -> {
+				PostingsList added = list == null ? new PostingsList() : list;
+				added.add(id);
+				return added;
+			});
+		}
+		maxId.accumulateAndGet(id, Math::max);
+	}
+
+	void remove(long id) {
+		if (removed.add(id) && removed.size() >= COMPACT_THRESHOLD) {
+			compact();
+		}
+	}
+
+	/**
+	 * Strips the removed documents from the postings and forgets them, dropping the terms left in no document.
+	 * Documents removed during the compaction are kept for the next one.
+	 */
+	synchronized void compact() {
+		if (removed.isEmpty()) {
+			return;
+		}
+		Set<Long> compacted = new HashSet<>(removed);
+		for (String term : postings.keySet()) {
+			postings.computeIfPresent(term, (key, list) -> list.removeAll(compacted) == 0 ? null : list);
+		}
+		// Only now that no list holds them, queries may stop skipping them
+		removed.removeAll(compacted);
+	}
+
+	int removed() {
+		return removed.size();
+	}
+
+	/**
+	 * Walks the postings of the terms newest first from beforeId, the shortest list leading and the others
+	 * seeking to its ids by skip entry, and stops at the limit: the blocks older than the last match are
+	 * never decoded.
+	 * @return the ids of the documents having every term, below beforeId, newest first
+	 */
+	long[] search(Iterable<String> terms, long beforeId, int limit) {
+		PostingsList[] lists = lists(terms);
+		if (lists == null || limit <= 0 || beforeId <= 0) {
+			return new long[0];
+		}
+		PostingsList.Cursor[] cursors = new PostingsList.Cursor[lists.length];
+		for (int i = 0; i < lists.length; i++) {
+			cursors[i] = lists[i].cursor();
+		}
+		// Shortest list first, it leads with the fewest candidates
+		Arrays.sort(cursors, Comparator.comparingInt(PostingsList.Cursor::size));
+		long[] result = new long[Math.min(limit, cursors[0].size())];
+		int size = 0;
+		long candidate = cursors[0].seek(beforeId - 1);
+		while (candidate != PostingsList.Cursor.END && size < result.length) {
+			long next = candidate;
+			for (int i = 1; i < cursors.length && next == candidate; i++) {
+				next = cursors[i].seek(candidate);
+			}
+			if (next == candidate) {
+				if (!removed.contains(candidate)) {
+					result[size++] = candidate;
+				}
+				next = candidate - 1;
+			}
+			// Every list misses the ids between next and candidate
+			candidate = next == PostingsList.Cursor.END ? next : cursors[0].seek(next);
+		}
+		return size == result.length ? result : Arrays.copyOf(result, size);
+	}
+
+	long maxId() {
+		return maxId.get();
+	}
+
+	int terms() {
+		return postings.size();
+	}
+
+	void clear() {
+		postings.clear();
+		removed.clear();
+		maxId.set(0L);
+	}
+
+	void write(DataOutput out) throws IOException {
+		compact();
+		out.writeLong(maxId.get());
+		List<Map.Entry<String, PostingsList>> terms = new ArrayList<>(postings.entrySet());
+		out.writeInt(terms.size());
+		for (Map.Entry<String, PostingsList> entry : terms) {
+			out.writeUTF(entry.getKey());
+			entry.getValue().write(out, removed);
+		}
+	}
+
+	void read(DataInput in) throws IOException {
+		clear();
+		maxId.set(in.readLong());
+		int terms = in.readInt();
+		for (int i = 0; i < terms; i++) {
+			postings.put(in.readUTF(), PostingsList.read(in));
+		}
+	}
+
+	/**
+	 * @return the postings of the terms, null if a term is in no document
+	 */
+	private PostingsList[] lists(Iterable<String> terms) {
+		List<PostingsList> lists = new ArrayList<>();
+		for (String term : terms) {
+			PostingsList list = postings.get(term);
+			if (list == null) {
+				return null;
+			}
+			lists.add(list);
+		}
+		return lists.isEmpty() ? null : lists.toArray(new PostingsList[0]);
+	}
+}
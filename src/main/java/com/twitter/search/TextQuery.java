@@ -0,0 +1,65 @@
+package com.twitter.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parsed search query: the words are ANDed, a double quoted part is a phrase, its words have to follow each
+ * other. The index matches every word, the phrases are checked against the text of the candidates.
+ *
+ * @author gauri sawant
+ */
+public final class TextQuery {
+
+	private final List<String> terms;
+	private final List<List<String>> phrases;
+
+	private TextQuery(List<String> terms, List<List<String>> phrases) {
+		this.terms = terms;
+		this.phrases = phrases;
+	}
+
+	/**
+	 * @throws IllegalArgumentException when the query has no searchable word
+	 */
+	public static TextQuery parse(String query) {
+		Set<String> terms = new LinkedHashSet<>();
+		List<List<String>> phrases = new ArrayList<>();
+		String[] parts = query == null ? new String[0] : query.split("\"", -1);
+		for (int i = 0; i < parts.length; i++) {
+			List<String> tokens = Tokenizer.tokens(parts[i]);
+			terms.addAll(tokens);
+			// Odd parts are between quotes, a phrase of a single word is just a word
+			if (i % 2 == 1 && tokens.size() > 1) {
+				phrases.add(tokens);
+			}
+		}
+		if (terms.isEmpty()) {
+			throw new IllegalArgumentException("No word to search in: " + query);
+		}
+		return new TextQuery(Collections.unmodifiableList(new ArrayList<>(terms)), phrases);
+	}
+
+	List<String> terms() {
+		return terms;
+	}
+
+	/**
+	 * @return true if the text has every word and every phrase of the query
+	 */
+	public boolean matches(String text) {
+		List<String> tokens = Tokenizer.tokens(text);
+		if (!tokens.containsAll(terms)) {
+			return false;
+		}
+		for (List<String> phrase : phrases) {
+			if (Collections.indexOfSubList(tokens, phrase) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,42 @@
+package com.twitter.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits text into lower cased terms, runs of letters and digits. Hashtag and mention signs are separators,
+ * #travel and travel are the same term.
+ *
+ * @author gauri sawant
+ */
+final class Tokenizer {
+
+	static final int MAX_TERM_LENGTH = 64;
+
+	private Tokenizer() {
+	}
+
+	/**
+	 * @return the terms in text order, with repetitions
+	 */
+	static List<String> tokens(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null) {
+			return tokens;
+		}
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean inTerm = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if (inTerm && start < 0) {
+				start = i;
+			} else if (!inTerm && start >= 0) {
+				if (i - start <= MAX_TERM_LENGTH) {
+					tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				}
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+}
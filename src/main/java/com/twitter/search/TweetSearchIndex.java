@@ -0,0 +1,169 @@
+package com.twitter.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Full-text index of the tweets and of the replies, kept in step with their creation and deletion.
+ * Queries return the ids of the matching documents, newest first; the caller loads them, drops the ones
+ * deleted meanwhile and checks the phrases of the query.
+ *
+ * When a snapshot path is configured the index is written to it periodically and on shutdown, and read back
+ * at startup: only the documents added after the snapshot are indexed from the database then. A snapshot
+ * ahead of the database, e.g. of another database, is dropped and the index rebuilt.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class TweetSearchIndex implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TweetSearchIndex.class);
+	private static final int MAGIC = 0x54534958;
+	private static final int VERSION = 1;
+	private static final String TWEETS_QUERY = "SELECT TWEET_ID, TEXT FROM TWEETS WHERE TWEET_ID > ?";
+	private static final String REPLIES_QUERY = "SELECT REPLY_ID, TEXT FROM REPLIES WHERE REPLY_ID > ?";
+	private static final String MAX_TWEET_ID_QUERY = "SELECT COALESCE(MAX(TWEET_ID), 0) FROM TWEETS";
+	private static final String MAX_REPLY_ID_QUERY = "SELECT COALESCE(MAX(REPLY_ID), 0) FROM REPLIES";
+
+	@Resource
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${twitter.search.snapshot-path:}")
+	String snapshotPath = "";
+
+	private final TextIndex tweets = new TextIndex();
+	private final TextIndex replies = new TextIndex();
+
+	/**
+	 * Restores the snapshot, if any, and indexes the tweets and replies it misses once Flyway migrations have
+	 * run and before the web server takes requests.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		if (restore() && (tweets.maxId() > maxId(MAX_TWEET_ID_QUERY) || replies.maxId() > maxId(MAX_REPLY_ID_QUERY))) {
+			LOGGER.warn("Search index snapshot {} is ahead of the database, rebuilding the index", snapshotPath);
+			tweets.clear();
+			replies.clear();
+		}
+		long tweetsFrom = tweets.maxId();
+		long repliesFrom = replies.maxId();
+		jdbcTemplate.query(TWEETS_QUERY, (RowCallbackHandler) rs -> tweets.add(rs.getLong(1), rs.getString(2)), tweetsFrom);
+		jdbcTemplate.query(REPLIES_QUERY, (RowCallbackHandler) rs -> replies.add(rs.getLong(1), rs.getString(2)), repliesFrom);
+		LOGGER.info("Search index ready with {} tweet term(s) and {} reply term(s), indexed from tweet {} and reply {}",
+				tweets.terms(), replies.terms(), tweetsFrom, repliesFrom);
+	}
+
+	public void onTweetCreated(long tweetId, String text) {
+		tweets.add(tweetId, text);
+	}
+
+	public void onTweetDeleted(long tweetId) {
+		tweets.remove(tweetId);
+	}
+
+	public void onReplyAdded(long replyId, String text) {
+		replies.add(replyId, text);
+	}
+
+	public void onReplyDeleted(long replyId) {
+		replies.remove(replyId);
+	}
+
+	/**
+	 * @return the ids of the tweets below beforeId having every word of the query, newest first
+	 */
+	public long[] searchTweets(TextQuery query, long beforeId, int limit) {
+		return tweets.search(query.terms(), beforeId, limit);
+	}
+
+	/**
+	 * @return the ids of the replies below beforeId having every word of the query, newest first
+	 */
+	public long[] searchReplies(TextQuery query, long beforeId, int limit) {
+		return replies.search(query.terms(), beforeId, limit);
+	}
+
+	/**
+	 * Writes the index to the snapshot path, through a temporary file so that a crash never leaves half a
+	 * snapshot behind.
+	 */
+	@PreDestroy
+	@Scheduled(fixedDelayString = "${twitter.search.snapshot-interval-ms:300000}")
+	public void snapshot() {
+		if (snapshotPath.isEmpty()) {
+			return;
+		}
+		try {
+			Path target = Paths.get(snapshotPath).toAbsolutePath();
+			Files.createDirectories(target.getParent());
+			Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				write(out);
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			LOGGER.debug("Search index snapshot written to {}", target);
+		} catch (IOException ex) {
+			LOGGER.error("snapshot :: Failed {}", ex);
+		}
+	}
+
+	void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		tweets.write(data);
+		replies.write(data);
+		data.flush();
+	}
+
+	void read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+			throw new IOException("Not a search index snapshot of version " + VERSION);
+		}
+		tweets.read(data);
+		replies.read(data);
+	}
+
+	private boolean restore() {
+		if (snapshotPath.isEmpty() || !Files.isRegularFile(Paths.get(snapshotPath))) {
+			return false;
+		}
+		try (InputStream in = Files.newInputStream(Paths.get(snapshotPath))) {
+			read(in);
+			LOGGER.info("Search index snapshot restored from {}", snapshotPath);
+			return true;
+		} catch (IOException ex) {
+			LOGGER.warn("Search index snapshot {} unreadable, rebuilding the index {}", snapshotPath, ex);
+			tweets.clear();
+			replies.clear();
+			return false;
+		}
+	}
+
+	private long maxId(String query) {
+		Long maxId = jdbcTemplate.queryForObject(query, Long.class);
+		return maxId == null ? 0L : maxId;
+	}
+}
@@ -0,0 +1,330 @@
+package com.twitter.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import com.twitter.dto.UserDTO;
+import com.twitter.graph.FollowerGraph;
+import com.twitter.model.User;
+
+/**
+ * In-process prefix index of the user name, first name and last name of the users that are not deleted. Each
+ * lower cased name is a key of a concurrent skip list, suffixed with the user id so that users sharing a name
+ * keep their own key; a prefix query is a range scan of the list. The matches are ranked by follower count,
+ * read from the {@link FollowerGraph}, and the best ones kept in a bounded heap, so that a query never touches
+ * the database.
+ *
+ * A short prefix may match a large share of the users, so that a scan in name order bounded to the configured
+ * number of keys would rank only the first names of the alphabet. The users are kept ranked by follower count
+ * under each prefix up to the configured short length instead, and a short query reads the best of them first.
+ * The ranking is updated on creates, deletes and follow changes. The range scan and its bound serve the longer
+ * prefixes only.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class UserSearchIndex implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UserSearchIndex.class);
+	// The follower count matches the graph, which leaves out the follows of deleted users still to be purged
+	private static final String USERS_QUERY = "SELECT u.USER_ID, u.USER_NAME, u.FIRST_NAME, u.LAST_NAME,"
+			+ " (SELECT COUNT(*) FROM FOLLOWERS f JOIN USERS follower ON follower.USER_ID = f.FOLLOWER_USER_ID"
+			+ " WHERE f.FOLLOWED_USER_ID = u.USER_ID AND follower.DELETED_AT IS NULL)"
+			+ " FROM USERS u WHERE u.DELETED_AT IS NULL";
+	private static final char SEPARATOR = '\u0000';
+
+	@Resource
+	JdbcTemplate jdbcTemplate;
+
+	@Inject
+	FollowerGraph followerGraph;
+
+	@Value("${twitter.search.max-scan:10000}")
+	int maxScan = 10_000;
+
+	@Value("${twitter.search.short-prefix-length:2}")
+	int shortPrefixLength = 2;
+
+	private final ConcurrentSkipListMap<String, Long> terms = new ConcurrentSkipListMap<>();
+	private final Map<Long, Entry> users = new ConcurrentHashMap<>();
+	// The users under each short prefix of their names, the most followed first
+	private final ConcurrentMap<String, ConcurrentSkipListSet<Ranked>> ranked = new ConcurrentHashMap<>();
+
+	/**
+	 * Loads the users once Flyway migrations have run and before the web server takes requests.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		jdbcTemplate.query(USERS_QUERY, (RowCallbackHandler) rs -> add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+				rs.getInt(5)));
+		LOGGER.info("User search index loaded with {} user(s)", users.size());
+	}
+
+	public void add(User user) {
+		add(user.getUserId(), user.getUserName(), user.getFirstName(), user.getLastName(),
+				followerGraph.getFollowerCount(user.getUserId()));
+	}
+
+	public void remove(long userId) {
+		Entry entry = users.remove(userId);
+		if (entry != null) {
+			for (String term : entry.terms) {
+				terms.remove(key(term, userId));
+			}
+			synchronized (entry) {
+				unrank(entry);
+			}
+		}
+	}
+
+	/**
+	 * Moves the user to its current follower count, read from the {@link FollowerGraph}, in the short prefix
+	 * rankings. To be called once the graph has the follow or unfollow.
+	 */
+	public void onFollowersChanged(long userId) {
+		Entry entry = users.get(userId);
+		if (entry == null) {
+			return;
+		}
+		synchronized (entry) {
+			int followers = followerGraph.getFollowerCount(userId);
+			// Removed meanwhile, or moved already by a concurrent change
+			if (users.get(userId) != entry || followers == entry.followers) {
+				return;
+			}
+			unrank(entry);
+			entry.followers = followers;
+			rank(entry);
+		}
+	}
+
+	/**
+	 * @param query one or more name prefixes separated by spaces, each has to prefix one of the names of a user
+	 * @return up to limit matching users, the most followed first
+	 */
+	public List<UserDTO> search(String query, int limit) {
+		String[] prefixes = query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+		String longest = prefixes[0];
+		for (String prefix : prefixes) {
+			if (prefix.length() > longest.length()) {
+				longest = prefix;
+			}
+		}
+		if (longest.length() <= shortPrefixLength) {
+			return searchRanked(longest, prefixes, limit);
+		}
+		PriorityQueue<Match> best = new PriorityQueue<>(limit + 1);
+		Set<Long> seen = new HashSet<>();
+		int scanned = 0;
+		for (Long userId : terms.subMap(longest, true, longest + Character.MAX_VALUE, true).values()) {
+			if (++scanned > maxScan) {
+				break;
+			}
+			Entry entry = users.get(userId);
+			if (entry == null || !seen.add(userId) || !entry.matches(prefixes)) {
+				continue;
+			}
+			best.add(new Match(entry, followerGraph.getFollowerCount(userId)));
+			if (best.size() > limit) {
+				best.poll();
+			}
+		}
+		List<UserDTO> result = new ArrayList<>(best.size());
+		while (!best.isEmpty()) {
+			result.add(toUserDTO(best.poll().entry));
+		}
+		Collections.reverse(result);
+		return result;
+	}
+
+	int size() {
+		return users.size();
+	}
+
+	/*
+	 * Reads the users under the prefix the most followed first, the first ones matching every prefix are the best
+	 */
+	private List<UserDTO> searchRanked(String longest, String[] prefixes, int limit) {
+		List<UserDTO> result = new ArrayList<>(limit);
+		ConcurrentSkipListSet<Ranked> candidates = ranked.get(longest);
+		if (candidates == null) {
+			return result;
+		}
+		int scanned = 0;
+		for (Ranked candidate : candidates) {
+			if (result.size() == limit || ++scanned > maxScan) {
+				break;
+			}
+			Entry entry = users.get(candidate.userId);
+			if (entry != null && entry.matches(prefixes)) {
+				result.add(toUserDTO(entry));
+			}
+		}
+		return result;
+	}
+
+	private void add(long userId, String userName, String firstName, String lastName, int followers) {
+		remove(userId);
+		Entry entry = new Entry(userId, userName, firstName, lastName, shortPrefixLength);
+		entry.followers = followers;
+		synchronized (entry) {
+			users.put(userId, entry);
+			for (String term : entry.terms) {
+				terms.put(key(term, userId), userId);
+			}
+			rank(entry);
+		}
+	}
+
+	// Called holding the lock of the entry, the rankings are updated in the bin lock of their prefix
+	private void rank(Entry entry) {
+		Ranked key = new Ranked(entry.followers, entry.userId);
+		for (String prefix : entry.shortPrefixes) {
+			ranked.compute(prefix, (term, set) -> {
+				ConcurrentSkipListSet<Ranked> rankedUsers = set == null ? new ConcurrentSkipListSet<>() : set;
+				rankedUsers.add(key);
+				return rankedUsers;
+			});
+		}
+	}
+
+	private void unrank(Entry entry) {
+		Ranked key = new Ranked(entry.followers, entry.userId);
+		for (String prefix : entry.shortPrefixes) {
+			ranked.computeIfPresent(prefix, (term, set) -> {
+				set.remove(key);
+				return set.isEmpty() ? null : set;
+			});
+		}
+	}
+
+	private static UserDTO toUserDTO(Entry entry) {
+		return new UserDTO.Builder()
+				.userId(entry.userId)
+				.userName(entry.userName)
+				.firstName(entry.firstName)
+				.lastName(entry.lastName)
+				.build();
+	}
+
+	private static String key(String term, long userId) {
+		return term + SEPARATOR + userId;
+	}
+
+	private static final class Entry {
+		private final long userId;
+		private final String userName;
+		private final String firstName;
+		private final String lastName;
+		private final String[] terms;
+		private final Set<String> shortPrefixes = new HashSet<>();
+		// The follower count the user is ranked with, guarded by the lock of the entry
+		private int followers;
+
+		private Entry(long userId, String userName, String firstName, String lastName, int shortPrefixLength) {
+			this.userId = userId;
+			this.userName = userName;
+			this.firstName = firstName;
+			this.lastName = lastName;
+			Set<String> distinct = new HashSet<>();
+			for (String name : new String[] { userName, firstName, lastName }) {
+				if (name != null && !name.trim().isEmpty()) {
+					distinct.add(name.trim().toLowerCase(Locale.ROOT));
+				}
+			}
+			this.terms = distinct.toArray(new String[0]);
+			for (String term : terms) {
+				for (int length = 1; length <= Math.min(shortPrefixLength, term.length()); length++) {
+					shortPrefixes.add(term.substring(0, length));
+				}
+			}
+		}
+
+		private boolean matches(String[] prefixes) {
+			for (String prefix : prefixes) {
+				boolean matched = false;
+				for (String term : terms) {
+					matched |= term.startsWith(prefix);
+				}
+				if (!matched) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Orders the best user first in the short prefix rankings: more followers, then the lower user id, the order
+	 * of the results of a range scan.
+	 */
+	private static final class Ranked implements Comparable<Ranked> {
+		private final int followers;
+		private final long userId;
+
+		private Ranked(int followers, long userId) {
+			this.followers = followers;
+			this.userId = userId;
+		}
+
+		@Override
+		public int compareTo(Ranked other) {
+			if (followers != other.followers) {
+				return Integer.compare(other.followers, followers);
+			}
+			return Long.compare(userId, other.userId);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Ranked && compareTo((Ranked) other) == 0;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(userId) * 31 + followers;
+		}
+	}
+
+	/**
+	 * Orders the worst match first, the head of the bounded heap: fewer followers, then the higher user id.
+	 */
+	private static final class Match implements Comparable<Match> {
+		private final Entry entry;
+		private final int followers;
+
+		private Match(Entry entry, int followers) {
+			this.entry = entry;
+			this.followers = followers;
+		}
+
+		@Override
+		public int compareTo(Match other) {
+			if (followers != other.followers) {
+				return Integer.compare(followers, other.followers);
+			}
+			return Long.compare(other.entry.userId, entry.userId);
+		}
+	}
+}
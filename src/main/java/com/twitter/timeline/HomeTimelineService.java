@@ -0,0 +1,249 @@
+package com.twitter.timeline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.twitter.graph.FollowerGraph;
+import com.twitter.persistence.TweetRepository;
+
+/**
+ * Hybrid fan-out home timelines. Every user that read their timeline since startup (a warm user) owns a
+ * bounded ring buffer of tweet ids, newest first, and a new tweet id is pushed into the buffers of its author
+ * and the author's followers. Reading a page is then a copy out of one buffer, with no joins.
+ *
+ * Authors with more followers than the fan-out threshold are not fanned out, that would touch too many
+ * buffers per tweet. Their recent tweets are kept in one list per author instead, and merged into the page
+ * of each reader following them at read time.
+ *
+ * Cold users are rebuilt from the database on their first read, outside of any map lock: the empty buffer is
+ * published first so that tweets created during the rebuild are pushed into it, and the tweets read from the
+ * database are then inserted in order around them. Concurrent readers of the same user wait for that one
+ * rebuild. Past the configured number of warm users, the least recently read ones go cold again. Deleted
+ * tweets are tombstoned instead of being searched for in every buffer.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class HomeTimelineService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HomeTimelineService.class);
+
+	@Resource
+	TweetRepository tweetRepo;
+
+	@Inject
+	FollowerGraph followerGraph;
+
+	@Value("${twitter.timeline.capacity:800}")
+	int capacity = 800;
+
+	@Value("${twitter.timeline.max-tombstones:100000}")
+	int maxTombstones = 100_000;
+
+	@Value("${twitter.timeline.fanout-threshold:10000}")
+	int fanoutThreshold = 10_000;
+
+	@Value("${twitter.timeline.max-warm:100000}")
+	int maxWarmTimelines = 100_000;
+
+	private final ConcurrentMap<Long, HomeTimeline> timelines = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Long, LongRingBuffer> authorTimelines = new ConcurrentHashMap<>();
+	// Once an author went over the threshold they stay merged at read time, their older tweets are in the
+	// buffers already and only the new ones are missing there
+	private final Set<Long> celebrities = ConcurrentHashMap.newKeySet();
+	private final ConcurrentSkipListSet<Long> tombstones = new ConcurrentSkipListSet<>();
+	private final AtomicLong reads = new AtomicLong();
+	private final Object evictionLock = new Object();
+
+	/**
+	 * Pushes the tweets into the timeline of their author and, unless the author has more followers than the
+	 * fan-out threshold, of every follower whose timeline is warm. Cold timelines are skipped, they will read
+	 * the tweets from the database when rebuilt. The followers of an author over the threshold are counted,
+	 * never copied.
+	 * @param tweetIds ids of the new tweets of the author, oldest first
+	 */
+	public void onTweetsCreated(long authorId, long... tweetIds) {
+		for (long tweetId : tweetIds) {
+			push(authorId, tweetId);
+			LongRingBuffer authorTweets = authorTimelines.get(authorId);
+			if (authorTweets != null) {
+				authorTweets.push(tweetId);
+			}
+		}
+		int followerCount = followerGraph.getFollowerCount(authorId);
+		if (followerCount > fanoutThreshold) {
+			if (celebrities.add(authorId)) {
+				LOGGER.info("User {} has {} followers, their tweets are merged at read time", authorId, followerCount);
+			}
+			return;
+		}
+		long[] followerIds = followerGraph.getFollowers(authorId);
+		for (long followerId : followerIds) {
+			for (long tweetId : tweetIds) {
+				push(followerId, tweetId);
+			}
+		}
+		LOGGER.debug("{} tweet(s) fanned out to {} follower(s) of user {}", tweetIds.length, followerIds.length, authorId);
+	}
+
+	public void onTweetDeleted(long tweetId) {
+		tombstones.add(tweetId);
+		// Tombstones of the oldest tweets have most likely been pushed out of every buffer already
+		while (tombstones.size() > maxTombstones) {
+			tombstones.pollFirst();
+		}
+	}
+
+	/**
+	 * @param userId the reader
+	 * @param before exclusive tweet id upper bound, Long.MAX_VALUE for the newest page
+	 * @param limit page size
+	 * @return ids of the tweets of the user and of the users they follow, newest first
+	 */
+	public long[] getTimeline(long userId, long before, int limit) {
+		HomeTimeline timeline = warm(userId);
+		long[] followees = timeline.followees.join();
+		long[] fannedOut = timeline.entries.page(before, limit, tombstones::contains);
+
+		List<long[]> sources = null;
+		for (Long celebrity : celebrities) {
+			if (Arrays.binarySearch(followees, celebrity) < 0) {
+				continue;
+			}
+			if (sources == null) {
+				sources = new ArrayList<>();
+				sources.add(fannedOut);
+			}
+			sources.add(authorTimeline(celebrity).page(before, limit, tombstones::contains));
+		}
+		return sources == null ? fannedOut : TimelineMerger.merge(sources, limit);
+	}
+
+	/**
+	 * Drops the timeline of the user, e.g. after they followed or unfollowed someone, so that the next read
+	 * rebuilds it from the database.
+	 */
+	public void evict(long userId) {
+		timelines.remove(userId);
+		authorTimelines.remove(userId);
+	}
+
+	int warmTimelines() {
+		return timelines.size();
+	}
+
+	boolean isCelebrity(long userId) {
+		return celebrities.contains(userId);
+	}
+
+	private void push(long userId, long tweetId) {
+		// A timeline being rebuilt is in the map already, the tweet lands in its buffer next to the database ones
+		HomeTimeline timeline = timelines.get(userId);
+		if (timeline != null) {
+			timeline.entries.push(tweetId);
+		}
+	}
+
+	private HomeTimeline warm(long userId) {
+		HomeTimeline timeline = timelines.get(userId);
+		if (timeline == null) {
+			HomeTimeline created = new HomeTimeline(new LongRingBuffer(capacity));
+			timeline = timelines.putIfAbsent(userId, created);
+			if (timeline == null) {
+				timeline = created;
+				rebuild(userId, created);
+				if (timelines.size() > maxWarmTimelines) {
+					evictLeastRecentlyRead();
+				}
+			}
+		}
+		timeline.lastRead = reads.incrementAndGet();
+		return timeline;
+	}
+
+	private void rebuild(long userId, HomeTimeline timeline) {
+		try {
+			long[] followees = followerGraph.getFollowees(userId);
+			List<Number> newestFirst = tweetRepo.getHomeTimelineTweetIds(userId, capacity);
+			for (int i = newestFirst.size() - 1; i >= 0; i--) {
+				timeline.entries.push(newestFirst.get(i).longValue());
+			}
+			timeline.followees.complete(followees);
+			LOGGER.debug("Home timeline of user {} rebuilt with {} tweet(s) of {} followee(s)", userId, timeline.entries.size(),
+					followees.length);
+		} catch (RuntimeException ex) {
+			timelines.remove(userId, timeline);
+			timeline.followees.completeExceptionally(ex);
+			throw ex;
+		}
+	}
+
+	/**
+	 * Sends the least recently read timelines back to cold, a tenth of the limit more than needed so that the
+	 * scan is paid for once every so many rebuilds rather than on each of them.
+	 */
+	private void evictLeastRecentlyRead() {
+		synchronized (evictionLock) {
+			int excess = timelines.size() - maxWarmTimelines;
+			if (excess <= 0) {
+				return;
+			}
+			long[] lastReads = timelines.values().stream().mapToLong(timeline -> timeline.lastRead).sorted().toArray();
+			long cutoff = lastReads[Math.min(excess + maxWarmTimelines / 10, lastReads.length) - 1];
+			timelines.values().removeIf(timeline -> timeline.lastRead <= cutoff);
+			LOGGER.debug("Home timelines read last before {} evicted, {} left warm", cutoff, timelines.size());
+		}
+	}
+
+	/**
+	 * Loads the recent tweets of the author outside of the map lock, into a list published empty so that the
+	 * tweets created meanwhile are not lost. A concurrent reader may merge the list before it is filled, its page
+	 * then lacks the older tweets of the author once.
+	 */
+	private LongRingBuffer authorTimeline(long authorId) {
+		LongRingBuffer tweets = authorTimelines.get(authorId);
+		if (tweets == null) {
+			LongRingBuffer created = new LongRingBuffer(capacity);
+			tweets = authorTimelines.putIfAbsent(authorId, created);
+			if (tweets == null) {
+				tweets = created;
+				try {
+					List<Number> newestFirst = tweetRepo.getRecentTweetIds(authorId, capacity);
+					for (int i = newestFirst.size() - 1; i >= 0; i--) {
+						created.push(newestFirst.get(i).longValue());
+					}
+				} catch (RuntimeException ex) {
+					authorTimelines.remove(authorId, created);
+					throw ex;
+				}
+			}
+		}
+		return tweets;
+	}
+
+	private final class HomeTimeline {
+		private final LongRingBuffer entries;
+		// Completed by the rebuild, which concurrent readers of the same user wait for
+		private final CompletableFuture<long[]> followees = new CompletableFuture<>();
+		private volatile long lastRead = reads.incrementAndGet();
+
+		private HomeTimeline(LongRingBuffer entries) {
+			this.entries = entries;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package com.twitter.timeline;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Fixed capacity ring of primitive longs holding the most recent ids pushed, oldest ones being overwritten.
+ * Ids are expected to be pushed in increasing order, reads return them newest first.
+ *
+ * @author gauri sawant
+ */
+public class LongRingBuffer {
+
+	private final long[] values;
+	private int head;
+	private int size;
+
+	public LongRingBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive, got: " + capacity);
+		}
+		this.values = new long[capacity];
+	}
+
+	/**
+	 * Appends the id unless it is already held. A push that is not newer than the newest entry (e.g. racing
+	 * with a rebuild that already read the id from the database) is inserted in order.
+	 */
+	public synchronized void push(long value) {
+		if (size > 0 && value <= newest()) {
+			insertInOrder(value);
+			return;
+		}
+		values[head] = value;
+		head = (head + 1) % values.length;
+		if (size < values.length) {
+			size++;
+		}
+	}
+
+	/**
+	 * @param before exclusive upper bound, Long.MAX_VALUE for the newest page
+	 * @param limit maximum number of ids returned
+	 * @param skip ids to leave out of the page, e.g. tombstoned tweets
+	 * @return up to limit ids lower than before, newest first
+	 */
+	public synchronized long[] page(long before, int limit, LongPredicate skip) {
+		long[] page = new long[Math.min(limit, size)];
+		int count = 0;
+		for (int i = 0; i < size && count < page.length; i++) {
+			long value = values[index(i)];
+			if (value < before && !skip.test(value)) {
+				page[count++] = value;
+			}
+		}
+		return count == page.length ? page : Arrays.copyOf(page, count);
+	}
+
+	public synchronized int size() {
+		return size;
+	}
+
+	public int capacity() {
+		return values.length;
+	}
+
+	/**
+	 * @return the physical slot of the i-th newest entry
+	 */
+	private int index(int i) {
+		int index = head - 1 - i;
+		return index < 0 ? index + values.length : index;
+	}
+
+	private long newest() {
+		return values[index(0)];
+	}
+
+	private void insertInOrder(long value) {
+		int position = 0;
+		while (position < size && values[index(position)] > value) {
+			position++;
+		}
+		if (position < size && values[index(position)] == value) {
+			return;
+		}
+		if (position == size && size == values.length) {
+			// Older than everything held by a full buffer
+			return;
+		}
+		// Shift the newer entries one slot up, dropping the oldest entry if the buffer is full
+		if (size < values.length) {
+			size++;
+		}
+		head = (head + 1) % values.length;
+		for (int i = 0; i < position; i++) {
+			values[index(i)] = values[index(i + 1)];
+		}
+		values[index(position)] = value;
+	}
+}
@@ -0,0 +1,64 @@
+package com.twitter.timeline;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Heap based k-way merge of tweet id lists that are each sorted newest (highest id) first.
+ *
+ * @author gauri sawant
+ */
+final class TimelineMerger {
+
+	private TimelineMerger() {
+	}
+
+	/**
+	 * @return the newest limit ids over all sources, newest first, each id once
+	 */
+	static long[] merge(List<long[]> sources, int limit) {
+		PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, sources.size()));
+		for (long[] source : sources) {
+			if (source.length > 0) {
+				heap.add(new Cursor(source));
+			}
+		}
+		long[] merged = new long[limit];
+		int count = 0;
+		while (count < limit && !heap.isEmpty()) {
+			Cursor cursor = heap.poll();
+			long value = cursor.current();
+			// The same tweet may be both fanned out to the reader and read from its author's list
+			if (count == 0 || merged[count - 1] != value) {
+				merged[count++] = value;
+			}
+			if (cursor.advance()) {
+				heap.add(cursor);
+			}
+		}
+		return count == limit ? merged : Arrays.copyOf(merged, count);
+	}
+
+	private static final class Cursor implements Comparable<Cursor> {
+		private final long[] values;
+		private int position;
+
+		private Cursor(long[] values) {
+			this.values = values;
+		}
+
+		private long current() {
+			return values[position];
+		}
+
+		private boolean advance() {
+			return ++position < values.length;
+		}
+
+		@Override
+		public int compareTo(Cursor other) {
+			return Long.compare(other.current(), current());
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.twitter.trends;
+
+import com.twitter.hash.Hashing;
+
+/**
+ * Count-min sketch of string counts with conservative update: an add only raises the counters that are at
+ * the current estimate. Estimates never undercount, they overcount by the collisions of a string in its
+ * least loaded row. Memory is depth x width counters whatever the number of distinct strings.
+ *
+ * Not thread safe, the caller serializes access.
+ *
+ * @author gauri sawant
+ */
+final class CountMinSketch {
+
+	private final int[][] counters;
+	private final int width;
+
+	CountMinSketch(int depth, int width) {
+		this.counters = new int[depth][width];
+		this.width = width;
+	}
+
+	/**
+	 * @return the estimate of the string once counted
+	 */
+	int add(String value) {
+		long hash = Hashing.hash(value);
+		int estimate = estimate(hash);
+		int counted = estimate == Integer.MAX_VALUE ? estimate : estimate + 1;
+		for (int row = 0; row < counters.length; row++) {
+			int column = column(hash, row);
+			if (counters[row][column] < counted) {
+				counters[row][column] = counted;
+			}
+		}
+		return counted;
+	}
+
+	int estimate(String value) {
+		return estimate(Hashing.hash(value));
+	}
+
+	private int estimate(long hash) {
+		int estimate = Integer.MAX_VALUE;
+		for (int row = 0; row < counters.length; row++) {
+			estimate = Math.min(estimate, counters[row][column(hash, row)]);
+		}
+		return estimate;
+	}
+
+	private int column(long hash, int row) {
+		return (int) Hashing.index(hash, row + 1, width);
+	}
+}
@@ -0,0 +1,36 @@
+package com.twitter.trends;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts the hashtags and mentions of a tweet, lower cased and with their sign: #travel, @gasaw.
+ *
+ * @author gauri sawant
+ */
+public final class TopicExtractor {
+
+	private static final Pattern TOPIC = Pattern.compile("(?<![\\w#@])([#@])(\\w{1,64})(?!\\w)", Pattern.UNICODE_CHARACTER_CLASS);
+
+	private TopicExtractor() {
+	}
+
+	/**
+	 * @return the distinct topics of the text, in text order
+	 */
+	public static List<String> extract(String text) {
+		Set<String> topics = new LinkedHashSet<>();
+		if (text != null) {
+			Matcher matcher = TOPIC.matcher(text);
+			while (matcher.find()) {
+				topics.add(matcher.group(1) + matcher.group(2).toLowerCase(Locale.ROOT));
+			}
+		}
+		return new ArrayList<>(topics);
+	}
+}
@@ -0,0 +1,265 @@
+package com.twitter.trends;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.twitter.dto.TrendDTO;
+
+/**
+ * Trending hashtags and mentions over sliding windows of 5 minutes, 1 hour and 24 hours. Each window is a ring
+ * of time buckets (1 minute, 5 minutes and 1 hour wide), each bucket a {@link CountMinSketch} of the topics
+ * tweeted in it plus its heaviest topics, so memory is bounded by the number of buckets whatever the number
+ * of distinct topics. A window slides a bucket at a time: the 1 hour window is the last 12 five minute buckets,
+ * the current one included.
+ *
+ * The trends of a window are the heaviest topics of its buckets ranked by their summed estimates. They are
+ * ranked in the background once per refresh interval, a request only reads the last ranking from memory.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class TrendingTopics implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TrendingTopics.class);
+
+	public enum Window {
+		FIVE_MINUTES("5m", 60_000L, 5), ONE_HOUR("1h", 300_000L, 12), ONE_DAY("24h", 3_600_000L, 24);
+
+		private final String label;
+		private final long bucketMillis;
+		private final int buckets;
+
+		Window(String label, long bucketMillis, int buckets) {
+			this.label = label;
+			this.bucketMillis = bucketMillis;
+			this.buckets = buckets;
+		}
+
+		/**
+		 * @throws IllegalArgumentException when the label is none of 5m, 1h and 24h
+		 */
+		public static Window of(String label) {
+			for (Window window : values()) {
+				if (window.label.equals(label)) {
+					return window;
+				}
+			}
+			throw new IllegalArgumentException("Unknown trends window: " + label);
+		}
+	}
+
+	@Value("${twitter.trends.sketch-depth:4}")
+	int sketchDepth = 4;
+
+	@Value("${twitter.trends.sketch-width:2048}")
+	int sketchWidth = 2048;
+
+	@Value("${twitter.trends.top-k:100}")
+	int topK = 100;
+
+	LongSupplier clock = System::currentTimeMillis;
+
+	private final Map<Window, Ring> rings = new EnumMap<>(Window.class);
+	// Replaced as a whole by each refresh, read without locking
+	private volatile Map<Window, List<TrendDTO>> trends = Collections.emptyMap();
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		for (Window window : Window.values()) {
+			rings.put(window, new Ring(window.bucketMillis, window.buckets));
+		}
+		LOGGER.info("Trending topics kept over {} windows of {}x{} sketches", rings.size(), sketchDepth, sketchWidth);
+	}
+
+	/**
+	 * Counts the hashtags and mentions of a tweet just created, once each.
+	 */
+	public void onTweetCreated(String text) {
+		List<String> topics = TopicExtractor.extract(text);
+		if (topics.isEmpty()) {
+			return;
+		}
+		long now = clock.getAsLong();
+		for (Ring ring : rings.values()) {
+			ring.current(now).add(topics);
+		}
+	}
+
+	/**
+	 * @return up to limit topics of the window, the most tweeted first, as of the last refresh
+	 */
+	public List<TrendDTO> getTrends(Window window, int limit) {
+		List<TrendDTO> topics = trends.getOrDefault(window, Collections.emptyList());
+		return topics.subList(0, Math.min(limit, topics.size()));
+	}
+
+	/**
+	 * Ranks the trends of every window. Refreshes are serialized, so that no two rankings run at once.
+	 */
+	@Scheduled(fixedDelayString = "${twitter.trends.refresh-ms:5000}")
+	public synchronized void refresh() {
+		long now = clock.getAsLong();
+		Map<Window, List<TrendDTO>> ranked = new EnumMap<>(Window.class);
+		for (Map.Entry<Window, Ring> ring : rings.entrySet()) {
+			ranked.put(ring.getKey(), rank(ring.getValue().window(now)));
+		}
+		trends = ranked;
+	}
+
+	private List<TrendDTO> rank(List<Bucket> buckets) {
+		Set<String> candidates = new HashSet<>();
+		for (Bucket bucket : buckets) {
+			candidates.addAll(bucket.heaviest());
+		}
+		Map<String, Long> counts = new HashMap<>();
+		for (Bucket bucket : buckets) {
+			bucket.addEstimates(candidates, counts);
+		}
+		List<Map.Entry<String, Long>> ranked = new ArrayList<>(counts.entrySet());
+		ranked.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+		List<TrendDTO> topics = new ArrayList<>(Math.min(topK, ranked.size()));
+		for (Map.Entry<String, Long> entry : ranked.subList(0, Math.min(topK, ranked.size()))) {
+			topics.add(new TrendDTO.Builder().topic(entry.getKey()).tweetCount(entry.getValue()).build());
+		}
+		return Collections.unmodifiableList(topics);
+	}
+
+	/**
+	 * The buckets of a window, indexed by their start time divided by their width modulo their number.
+	 */
+	private final class Ring {
+		private final long bucketMillis;
+		private final Bucket[] buckets;
+
+		private Ring(long bucketMillis, int size) {
+			this.bucketMillis = bucketMillis;
+			this.buckets = new Bucket[size];
+		}
+
+		private synchronized Bucket current(long now) {
+			long epoch = now / bucketMillis;
+			int index = (int) (epoch % buckets.length);
+			if (buckets[index] == null || buckets[index].epoch != epoch) {
+				buckets[index] = new Bucket(epoch);
+			}
+			return buckets[index];
+		}
+
+		private synchronized List<Bucket> window(long now) {
+			long epoch = now / bucketMillis;
+			List<Bucket> window = new ArrayList<>(buckets.length);
+			for (Bucket bucket : buckets) {
+				if (bucket != null && bucket.epoch > epoch - buckets.length && bucket.epoch <= epoch) {
+					window.add(bucket);
+				}
+			}
+			return window;
+		}
+	}
+
+	/**
+	 * The topics of one time bucket: their counts in a sketch and the top-K of them by estimate in an indexed
+	 * min-heap, whose root is the lightest of the top-K. A topic in the top-K is found by its position and
+	 * moved as its estimate grows, a topic heavier than the root replaces it, either in O(log K).
+	 */
+	private final class Bucket {
+		private final long epoch;
+		private final CountMinSketch sketch = new CountMinSketch(sketchDepth, sketchWidth);
+		private final String[] heap = new String[topK];
+		private final int[] estimates = new int[topK];
+		private final Map<String, Integer> positions = new HashMap<>();
+		private int size;
+
+		private Bucket(long epoch) {
+			this.epoch = epoch;
+		}
+
+		private synchronized void add(List<String> topics) {
+			for (String topic : topics) {
+				int estimate = sketch.add(topic);
+				Integer position = positions.get(topic);
+				if (position != null) {
+					// An estimate only grows
+					estimates[position] = estimate;
+					siftDown(position);
+				} else if (size < heap.length) {
+					place(size++, topic, estimate);
+					siftUp(size - 1);
+				} else if (size > 0 && estimate > estimates[0]) {
+					positions.remove(heap[0]);
+					place(0, topic, estimate);
+					siftDown(0);
+				}
+			}
+		}
+
+		private void siftUp(int position) {
+			while (position > 0) {
+				int parent = (position - 1) / 2;
+				if (estimates[parent] <= estimates[position]) {
+					return;
+				}
+				swap(position, parent);
+				position = parent;
+			}
+		}
+
+		private void siftDown(int position) {
+			while (true) {
+				int lightest = position;
+				for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+					if (estimates[child] < estimates[lightest]) {
+						lightest = child;
+					}
+				}
+				if (lightest == position) {
+					return;
+				}
+				swap(position, lightest);
+				position = lightest;
+			}
+		}
+
+		private void swap(int first, int second) {
+			String topic = heap[first];
+			int estimate = estimates[first];
+			place(first, heap[second], estimates[second]);
+			place(second, topic, estimate);
+		}
+
+		private void place(int position, String topic, int estimate) {
+			heap[position] = topic;
+			estimates[position] = estimate;
+			positions.put(topic, position);
+		}
+
+		private synchronized Set<String> heaviest() {
+			return new HashSet<>(Arrays.asList(heap).subList(0, size));
+		}
+
+		private synchronized void addEstimates(Set<String> topics, Map<String, Long> counts) {
+			for (String topic : topics) {
+				int estimate = sketch.estimate(topic);
+				if (estimate > 0) {
+					counts.merge(topic, (long) estimate, Long::sum);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.twitter.username;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.twitter.hash.Hashing;
+
+/**
+ * Bloom filter of strings over a lock free bit set. {@link #mightContain(String)} never misses a string that
+ * was put, it answers true for a string never put with about the false positive rate the filter was sized for,
+ * a rate which grows once more strings than expected are put.
+ *
+ * @author gauri sawant
+ */
+final class BloomFilter {
+
+	private final AtomicLongArray words;
+	private final long bits;
+	private final int hashes;
+
+	/**
+	 * @param expected number of strings the filter is sized for
+	 * @param falsePositiveRate false positive rate for the expected number of strings, e.g. 0.01
+	 */
+	BloomFilter(long expected, double falsePositiveRate) {
+		long n = Math.max(expected, 1L);
+		long m = Math.max(64L, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+		this.words = new AtomicLongArray((int) Math.min((m + 63) >>> 6, Integer.MAX_VALUE));
+		this.bits = (long) words.length() << 6;
+		this.hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+	}
+
+	void put(String value) {
+		long hash = Hashing.hash(value);
+		for (int i = 1; i <= hashes; i++) {
+			long bit = Hashing.index(hash, i, bits);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long current;
+			while (((current = words.get(word)) & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+				// Another bit of the word was set concurrently, retried with its new value
+			}
+		}
+	}
+
+	boolean mightContain(String value) {
+		long hash = Hashing.hash(value);
+		for (int i = 1; i <= hashes; i++) {
+			long bit = Hashing.index(hash, i, bits);
+			if ((words.get((int) (bit >>> 6)) & 1L << bit) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	int hashes() {
+		return hashes;
+	}
+}
@@ -0,0 +1,85 @@
+package com.twitter.username;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Resource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process registry of the user names taken, loaded once at startup and kept in step with sign-ups and
+ * purges. A Bloom filter answers most lookups of a free name without hashing into the set, the set of names
+ * confirms the names the filter might contain. Names are reserved with an atomic add to the set, so two
+ * concurrent sign-ups of a name in this process never both reach the database; the unique constraint on
+ * USERS.USER_NAME settles anything the registry does not know of.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class UserNameRegistry implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(UserNameRegistry.class);
+	private static final String USER_NAMES_QUERY = "SELECT USER_NAME FROM USERS WHERE USER_NAME IS NOT NULL";
+	private static final String USER_COUNT_QUERY = "SELECT COUNT(*) FROM USERS";
+
+	@Resource
+	JdbcTemplate jdbcTemplate;
+
+	@Value("${twitter.username.expected-users:1000000}")
+	long expectedUsers = 1_000_000L;
+
+	@Value("${twitter.username.false-positive-rate:0.01}")
+	double falsePositiveRate = 0.01;
+
+	private final Set<String> names = ConcurrentHashMap.newKeySet();
+	private volatile BloomFilter filter;
+
+	/**
+	 * Loads the user names once Flyway migrations have run and before the web server takes requests. The
+	 * filter is sized for twice the users there are, or the expected users if more.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		Long users = jdbcTemplate.queryForObject(USER_COUNT_QUERY, Long.class);
+		BloomFilter loaded = new BloomFilter(Math.max(expectedUsers, users == null ? 0L : users * 2), falsePositiveRate);
+		jdbcTemplate.query(USER_NAMES_QUERY, (RowCallbackHandler) rs -> {
+			String userName = rs.getString(1);
+			loaded.put(userName);
+			names.add(userName);
+		});
+		filter = loaded;
+		LOGGER.info("User name registry loaded with {} name(s)", names.size());
+	}
+
+	public boolean isAvailable(String userName) {
+		return !filter.mightContain(userName) || !names.contains(userName);
+	}
+
+	/**
+	 * Takes the name for a sign-up about to be inserted.
+	 * @return false if the name is taken
+	 */
+	public boolean reserve(String userName) {
+		// The filter comes first, a name in the set is never missed by the filter
+		filter.put(userName);
+		return names.add(userName);
+	}
+
+	/**
+	 * Gives the name back, once its user is purged or its sign-up failed.
+	 */
+	public void release(String userName) {
+		names.remove(userName);
+	}
+
+	int size() {
+		return names.size();
+	}
+}
@@ -0,0 +1,86 @@
+package com.twitter.version;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Versions of what the cacheable read endpoints serve, bumped by the write paths, from which the endpoints derive
+ * strong ETags without a query: a conditional GET whose tag is still current is answered 304 before any
+ * repository runs. Each user has a version of its tweets, which covers their like and retweet counts and the
+ * replies to them, and a version of its followers. The user list has a single version of its own, so that a
+ * signup leaves the tags of every other list alone.
+ *
+ * Versions live in memory only, so every tag carries the start time of the instance and no tag outlives a restart.
+ *
+ * @author gauri sawant
+ */
+@Component
+public class ResourceVersions {
+
+	private final String instance = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+	private final AtomicLong users = new AtomicLong();
+	private final ConcurrentMap<Long, AtomicLong> tweets = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Long, AtomicLong> followers = new ConcurrentHashMap<>();
+
+	/**
+	 * A tweet of the user was created or deleted, liked or retweeted, or replied to.
+	 */
+	public void onTweetsChanged(long userId) {
+		bump(tweets, userId);
+	}
+
+	/**
+	 * The user was followed or unfollowed, which changes the follower replies to its tweets too.
+	 */
+	public void onFollowersChanged(long userId) {
+		bump(followers, userId);
+		bump(tweets, userId);
+	}
+
+	/**
+	 * A user was created.
+	 */
+	public void onUsersChanged() {
+		users.incrementAndGet();
+	}
+
+	/**
+	 * The user was tombstoned, which hides it from the user list and from the lists of the users it was served
+	 * with. Its own versions are bumped rather than forgotten, so that no tag of it is handed out twice.
+	 * @param related the users whose followers or follower replies showed the user
+	 */
+	public void onUserDeleted(long userId, Collection<Long> related) {
+		users.incrementAndGet();
+		onFollowersChanged(userId);
+		related.forEach(this::onFollowersChanged);
+	}
+
+	public String tweetsTag(long userId) {
+		return tag("t", version(tweets, userId));
+	}
+
+	public String followersTag(long userId) {
+		return tag("f", version(followers, userId));
+	}
+
+	public String usersTag() {
+		return tag("u", users.get());
+	}
+
+	private String tag(String kind, long version) {
+		return kind + "-" + instance + "-" + version;
+	}
+
+	private static void bump(ConcurrentMap<Long, AtomicLong> versions, long userId) {
+		versions.computeIfAbsent(userId, key -> new AtomicLong()).incrementAndGet();
+	}
+
+	private static long version(ConcurrentMap<Long, AtomicLong> versions, long userId) {
+		AtomicLong version = versions.get(userId);
+		return version == null ? 0L : version.get();
+	}
+}
@@ -0,0 +1 @@
+  create index idx_tweets_user_tweet on tweets(user_id, tweet_id);
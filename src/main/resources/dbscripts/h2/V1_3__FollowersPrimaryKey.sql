@@ -0,0 +1,8 @@
+  -- Duplicate follow rows have to go before the pair can become the primary key
+  create table followers_distinct as select distinct followed_user_id, follower_user_id from followers;
+  delete from followers;
+  insert into followers (followed_user_id, follower_user_id) select followed_user_id, follower_user_id from followers_distinct;
+  drop table followers_distinct;
+
+  alter table followers add constraint pk_followers primary key (followed_user_id, follower_user_id);
+  create index idx_followers_follower on followers(follower_user_id, followed_user_id);
@@ -0,0 +1,16 @@
+  alter table users add column deleted_at timestamp;
+
+  create table user_purges (
+	user_id bigint not null,
+	state varchar(16) not null,
+	requested_at timestamp not null,
+	updated_at timestamp not null,
+	replies_purged bigint default 0 not null,
+	tweets_purged bigint default 0 not null,
+	follows_purged bigint default 0 not null,
+	primary key (user_id)
+  );
+
+  create index idx_replies_user on replies(user_id);
+  create index idx_replies_tweet on replies(tweet_id);
+  create index idx_user_purges_state on user_purges(state, requested_at);
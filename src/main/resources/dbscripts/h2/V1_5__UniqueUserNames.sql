@@ -0,0 +1,6 @@
+
+  -- Later duplicates of a user name are renamed after their id before the name can be made unique
+  update users u set user_name = user_name || '#' || user_id
+	where exists (select 1 from users o where o.user_name = u.user_name and o.user_id < u.user_id);
+
+  alter table users add constraint uk_users_user_name unique (user_name);
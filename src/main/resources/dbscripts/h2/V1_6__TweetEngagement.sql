@@ -0,0 +1,18 @@
+  create table tweet_likes (
+	tweet_id bigint not null,
+	user_id bigint not null,
+	primary key (tweet_id, user_id),
+	constraint fk_tweet_likes_tweet foreign key (tweet_id) references tweets(tweet_id) on delete cascade,
+	constraint fk_tweet_likes_user foreign key (user_id) references users(user_id) on delete cascade
+  );
+
+  create table tweet_retweets (
+	tweet_id bigint not null,
+	user_id bigint not null,
+	primary key (tweet_id, user_id),
+	constraint fk_tweet_retweets_tweet foreign key (tweet_id) references tweets(tweet_id) on delete cascade,
+	constraint fk_tweet_retweets_user foreign key (user_id) references users(user_id) on delete cascade
+  );
+
+  create index idx_tweet_likes_user on tweet_likes(user_id);
+  create index idx_tweet_retweets_user on tweet_retweets(user_id);
@@ -0,0 +1,5 @@
+  -- Ids are assigned by the application (time ordered 64 bit ids), the columns no longer generate them.
+  -- Ids assigned so far are far below the first generated one, so the id order remains the creation order.
+  alter table users alter column user_id bigint not null;
+  alter table tweets alter column tweet_id bigint not null;
+  alter table replies alter column reply_id bigint not null;
@@ -0,0 +1,136 @@
+package com.twitter.attachment;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class AttachmentStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private AttachmentStore attachmentStore;
+
+	@Before
+	public void setup() {
+		attachmentStore = new AttachmentStore();
+		attachmentStore.path = folder.getRoot().getPath();
+		attachmentStore.maxBytes = 200_000L;
+	}
+
+	@Test
+	public void shouldStoreUnderSha256OfBytes() throws IOException {
+
+		AttachmentStore.Stored stored = attachmentStore.store(stream("abc".getBytes(StandardCharsets.UTF_8)));
+		assertThat(stored.getAttachmentId(), is("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"));
+		assertThat(stored.getSize(), is(3L));
+		assertThat(stored.isDuplicate(), is(false));
+		assertThat(new String(Files.readAllBytes(attachmentStore.find(stored.getAttachmentId()).get()), StandardCharsets.UTF_8),
+				is("abc"));
+	}
+
+	@Test
+	public void shouldStoreDuplicatesOnce() throws IOException {
+
+		byte[] bytes = new byte[150_000];
+		new Random(7L).nextBytes(bytes);
+		AttachmentStore.Stored first = attachmentStore.store(stream(bytes));
+		AttachmentStore.Stored second = attachmentStore.store(stream(bytes));
+
+		assertThat(second.getAttachmentId(), is(first.getAttachmentId()));
+		assertThat(second.isDuplicate(), is(true));
+		File shard = attachmentStore.find(first.getAttachmentId()).get().getParent().toFile();
+		assertThat(shard.list().length, is(1));
+		// No temporary upload file left behind
+		assertThat(folder.getRoot().list().length, is(1));
+	}
+
+	@Test
+	public void shouldStoreConcurrentDuplicatesOnce() throws Exception {
+
+		byte[] bytes = new byte[150_000];
+		new Random(11L).nextBytes(bytes);
+		int uploads = 8;
+		String attachmentId;
+		ExecutorService executor = Executors.newFixedThreadPool(uploads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<AttachmentStore.Stored>> stored = new ArrayList<>();
+			for (int i = 0; i < uploads; i++) {
+				stored.add(executor.submit(() -> {
+					start.await();
+					return attachmentStore.store(stream(bytes));
+				}));
+			}
+			start.countDown();
+			int created = 0;
+			for (Future<AttachmentStore.Stored> upload : stored) {
+				created += upload.get().isDuplicate() ? 0 : 1;
+			}
+			assertThat(created, is(1));
+			attachmentId = stored.get(0).get().getAttachmentId();
+		} finally {
+			executor.shutdown();
+		}
+		Path file = attachmentStore.find(attachmentId).get();
+		assertThat(Files.readAllBytes(file).length, is(bytes.length));
+		assertThat(file.getParent().toFile().list().length, is(1));
+		assertThat(folder.getRoot().list().length, is(1));
+	}
+
+	@Test
+	public void shouldNotStoreAttachmentsLargerThanMaximum() throws IOException {
+
+		try {
+			attachmentStore.store(stream(new byte[200_001]));
+			throw new AssertionError("attachment stored");
+		} catch (AttachmentTooLargeException ex) {
+			assertThat(folder.getRoot().list().length, is(0));
+		}
+	}
+
+	@Test
+	public void shouldNotFindMalformedOrUnknownIds() {
+
+		assertThat(attachmentStore.find("../../etc/passwd").isPresent(), is(false));
+		assertThat(attachmentStore.find("BA7816BF8F01CFEA414140DE5DAE2223B00361A396177A9CB410FF61F20015AD").isPresent(), is(false));
+		assertThat(attachmentStore.find("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad").isPresent(), is(false));
+	}
+
+	@Test
+	public void shouldTransferPartOfFile() throws IOException {
+
+		Path file = attachmentStore.find(attachmentStore.store(stream("0123456789".getBytes(StandardCharsets.UTF_8)))
+				.getAttachmentId()).get();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		AttachmentStore.transfer(file, 2, 5, out);
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8), is("23456"));
+	}
+
+	private static ByteArrayInputStream stream(byte[] bytes) {
+		return new ByteArrayInputStream(bytes);
+	}
+}
@@ -1,5 +1,7 @@
 package com.twitter.authorization;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
@@ -7,9 +9,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.SecurityContext;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -36,6 +40,15 @@ public class AuthorizationFilterTest {
 		verify(context,times(0)).abortWith(any());
 	}
 
+	@Test
+	public void shouldPublishTokenSubjectAsPrincipal() {
+		when(context.getHeaderString(anyString())).thenReturn(HEADER);
+		filter.filter(context);
+		ArgumentCaptor<SecurityContext> securityContext = ArgumentCaptor.forClass(SecurityContext.class);
+		verify(context).setSecurityContext(securityContext.capture());
+		assertThat(securityContext.getValue().getUserPrincipal().getName(), is("pgaik@nets.eu"));
+	}
+
 	@Test
 	public void shouldReturnWithUnauthorizedForHeader() {
 		when(context.getHeaderString(anyString())).thenReturn("1"+HEADER);
@@ -0,0 +1,81 @@
+package com.twitter.authorization;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class JwksKeyStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void shouldLoadBundledKeyByThumbprintAndAsDefault() throws IOException, GeneralSecurityException {
+		JwksKeyStore keyStore = new JwksKeyStore(AuthorizationFilter.DEFAULT_JWKS_LOCATION);
+		assertThat(keyStore.size(), is(1));
+		assertThat(keyStore.getKey(null, "MGZiNmE5YWZhNjVjNzE1MWI2YjRkOTg3ZDZhMTFjOGNhOThkNmE4YQ"), is(notNullValue()));
+		assertThat(keyStore.getKey(null, null), is(notNullValue()));
+		assertThat(keyStore.getKey("unknown", null), is(nullValue()));
+	}
+
+	@Test
+	public void shouldSwapKeysWhenFileChanges() throws IOException, GeneralSecurityException {
+		File jwks = folder.newFile("jwks.json");
+		writeJwks(jwks, "key-1");
+		JwksKeyStore keyStore = new JwksKeyStore("file:" + jwks.getAbsolutePath());
+		AtomicInteger reloads = new AtomicInteger();
+		keyStore.addReloadListener(reloads::incrementAndGet);
+		assertThat(keyStore.getKey("key-1", null), is(notNullValue()));
+
+		writeJwks(jwks, "key-2");
+		jwks.setLastModified(jwks.lastModified() + 1000);
+		keyStore.reloadIfChanged();
+
+		assertThat(keyStore.getKey("key-1", null), is(nullValue()));
+		assertThat(keyStore.getKey("key-2", null), is(notNullValue()));
+		assertThat(reloads.get(), is(1));
+	}
+
+	@Test
+	public void shouldKeepKeysWhenReloadedFileIsInvalid() throws IOException, GeneralSecurityException {
+		File jwks = folder.newFile("jwks.json");
+		writeJwks(jwks, "key-1");
+		JwksKeyStore keyStore = new JwksKeyStore(jwks.getAbsolutePath());
+
+		Files.write(jwks.toPath(), "{\"keys\":[".getBytes(StandardCharsets.UTF_8));
+		jwks.setLastModified(jwks.lastModified() + 1000);
+		keyStore.reloadIfChanged();
+
+		assertThat(keyStore.getKey("key-1", null), is(notNullValue()));
+	}
+
+	private static void writeJwks(File file, String kid) throws IOException, GeneralSecurityException {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		RSAPublicKey key = (RSAPublicKey) generator.generateKeyPair().getPublic();
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		String jwks = "{\"keys\":[{\"kty\":\"RSA\",\"kid\":\"" + kid + "\""
+				+ ",\"n\":\"" + encoder.encodeToString(key.getModulus().toByteArray()) + "\""
+				+ ",\"e\":\"" + encoder.encodeToString(key.getPublicExponent().toByteArray()) + "\"}]}";
+		Files.write(file.toPath(), jwks.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,56 @@
+package com.twitter.authorization;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.util.Base64;
+
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class JwtTokenTest {
+
+	@Test
+	public void shouldSplitSegmentsAndReadClaims() throws InvalidKeyException {
+		String data = encode("{\"alg\":\"RS256\",\"kid\":\"key-1\"}") + "." + encode("{\"sub\":\"gasaw\",\"exp\":1}");
+		JwtToken token = JwtToken.parse(data + ".AAAA");
+		assertThat(new String(token.getSigningInput(), StandardCharsets.US_ASCII), is(data));
+		assertThat(token.getSignature().length, is(3));
+		assertThat(token.getKeyId(), is("key-1"));
+		assertThat(token.getThumbprint(), is(nullValue()));
+		assertThat(token.getSubject(), is("gasaw"));
+		assertThat(token.getExpiresAt(), is(1000L));
+	}
+
+	@Test
+	public void shouldTolerateUnreadableClaims() throws InvalidKeyException {
+		JwtToken token = JwtToken.parse(encode("{\"alg\":\"RS256\"}") + ".%%%.AAAA");
+		assertThat(token.getSubject(), is(nullValue()));
+		assertThat(token.getExpiresAt(), is(nullValue()));
+	}
+
+	@Test(expected = InvalidKeyException.class)
+	public void shouldRejectUnreadableHeader() throws InvalidKeyException {
+		JwtToken.parse("%%%." + encode("{}") + ".AAAA").getKeyId();
+	}
+
+	@Test(expected = InvalidKeyException.class)
+	public void shouldRejectMissingSignature() throws InvalidKeyException {
+		JwtToken.parse(encode("{}") + "." + encode("{}") + ".");
+	}
+
+	@Test(expected = InvalidKeyException.class)
+	public void shouldRejectSingleSegment() throws InvalidKeyException {
+		JwtToken.parse(encode("{}"));
+	}
+
+	private static String encode(String json) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+	}
+}
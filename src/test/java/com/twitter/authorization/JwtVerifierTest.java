@@ -0,0 +1,121 @@
+package com.twitter.authorization;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class JwtVerifierTest {
+
+	private static final long NOW = TimeUnit.DAYS.toMillis(20_000);
+	private static final long TTL = TimeUnit.MINUTES.toMillis(5);
+
+	private static KeyPair keyPair;
+
+	private final AtomicLong clock = new AtomicLong(NOW);
+	private JwtVerifier verifier;
+
+	@BeforeClass
+	public static void generateKeys() throws GeneralSecurityException {
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		keyPair = generator.generateKeyPair();
+	}
+
+	@Before
+	public void setup() throws GeneralSecurityException {
+		verifier = new JwtVerifier((kid, x5t) -> kid == null ? keyPair.getPublic() : null, 2, TTL, clock::get);
+	}
+
+	@Test
+	public void shouldVerifyAndCacheSignedToken() throws GeneralSecurityException {
+		String token = sign("{\"sub\":\"gasaw\"}");
+		assertThat(verifier.verify(token), is(true));
+		assertThat(verifier.cachedTokens(), is(1));
+		assertThat(verifier.verify(token), is(true));
+		assertThat(verifier.cachedTokens(), is(1));
+	}
+
+	@Test
+	public void shouldReturnPrincipalFromClaims() throws GeneralSecurityException {
+		long exp = TimeUnit.MILLISECONDS.toSeconds(NOW) + 60;
+		String token = sign("{\"sub\":\"gasaw\",\"exp\":" + exp + "}");
+		JwtPrincipal principal = verifier.authenticate(token);
+		assertThat(principal.getName(), is("gasaw"));
+		assertThat(principal.getExpiresAt(), is(TimeUnit.SECONDS.toMillis(exp)));
+		assertThat(verifier.authenticate(token).getName(), is("gasaw"));
+	}
+
+	@Test
+	public void shouldNotCacheRejectedToken() throws GeneralSecurityException {
+		String token = sign("{\"sub\":\"gasaw\"}");
+		String other = sign("{\"sub\":\"sgore\"}");
+		String tampered = token.substring(0, token.lastIndexOf('.')) + other.substring(other.lastIndexOf('.'));
+		assertThat(verifier.verify(tampered), is(false));
+		assertThat(verifier.cachedTokens(), is(0));
+	}
+
+	@Test
+	public void shouldExpireCachedTokenAfterTtl() throws GeneralSecurityException {
+		String token = sign("{\"sub\":\"gasaw\"}");
+		verifier.verify(token);
+		clock.addAndGet(TTL);
+		assertThat(verifier.verify(token), is(true));
+		assertThat(verifier.cachedTokens(), is(1));
+	}
+
+	@Test
+	public void shouldNotCacheTokenBeyondExpClaim() throws GeneralSecurityException {
+		long exp = TimeUnit.MILLISECONDS.toSeconds(NOW) - 1;
+		String token = sign("{\"sub\":\"gasaw\",\"exp\":" + exp + "}");
+		assertThat(verifier.verify(token), is(true));
+		assertThat(verifier.cachedTokens(), is(0));
+	}
+
+	@Test
+	public void shouldStayWithinCacheBound() throws GeneralSecurityException {
+		verifier.verify(sign("{\"sub\":\"a\"}"));
+		verifier.verify(sign("{\"sub\":\"b\"}"));
+		verifier.verify(sign("{\"sub\":\"c\"}"));
+		assertThat(verifier.cachedTokens() <= 2, is(true));
+	}
+
+	@Test(expected = java.security.InvalidKeyException.class)
+	public void shouldRejectTokenWithoutSignatureSegment() throws GeneralSecurityException {
+		verifier.verify("eyJhbGciOiJSUzI1NiJ9.eyJzdWIiOiJnYXNhdyJ9");
+	}
+
+	@Test(expected = java.security.InvalidKeyException.class)
+	public void shouldRejectTokenSignedWithUnknownKey() throws GeneralSecurityException {
+		verifier.verify(sign("{\"alg\":\"RS256\",\"kid\":\"retired\"}", "{\"sub\":\"gasaw\"}"));
+	}
+
+	private static String sign(String payload) throws GeneralSecurityException {
+		return sign("{\"alg\":\"RS256\"}", payload);
+	}
+
+	private static String sign(String header, String payload) throws GeneralSecurityException {
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		String data = encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+				+ encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+		Signature signature = Signature.getInstance("SHA256withRSA");
+		signature.initSign(keyPair.getPrivate());
+		signature.update(data.getBytes(StandardCharsets.US_ASCII));
+		return data + "." + Base64.getEncoder().encodeToString(signature.sign());
+	}
+}
@@ -0,0 +1,167 @@
+package com.twitter.component_test.rest;
+
+import static com.jayway.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Random;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.FileSystemUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.restassured.RestAssured;
+import com.jayway.restassured.response.Response;
+import com.twitter.TwitterApplication;
+import com.twitter.dto.AttachmentDTO;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TwitterApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = ClassMode.AFTER_CLASS)
+public class AttachmentRestServiceTest {
+
+	private static final String HEADER_KEY = "x-jwt-assertion";
+	private static final String HEADER_VALUE = "eyJ0eXAiOiJKV1QiLCJhbGciOiJSUzI1NiIsIng1dCI6Ik1HWmlObUU1WVdaaE5qVmpOekUxTVdJMllqUmtPVGczWkRaaE1URmpPR05oT1Roa05tRTRZUSJ9.eyJzdWIiOiJwZ2Fpa0BuZXRzLmV1IiwiaHR0cDpcL1wvd3NvMi5vcmdcL2NsYWltc1wvYXBwbGljYXRpb250aWVyIjoiVW5saW1pdGVkIiwiaHR0cDpcL1wvd3NvMi5vcmdcL2NsYWltc1wva2V5dHlwZSI6IlBST0RVQ1RJT04iLCJodHRwOlwvXC93c28yLm9yZ1wvY2xhaW1zXC92ZXJzaW9uIjoiMS4yIiwiaXNzIjoid3NvMi5vcmdcL3Byb2R1Y3RzXC9hbSIsImh0dHA6XC9cL3dzbzIub3JnXC9jbGFpbXNcL2FwcGxpY2F0aW9ubmFtZSI6Ik5BQS1BZG1pbi1VSSIsImh0dHA6XC9cL3dzbzIub3JnXC9jbGFpbXNcL2VuZHVzZXIiOiJwZ2Fpa0BuZXRzLmV1QGNhcmJvbi5zdXBlciIsImh0dHA6XC9cL3dzbzIub3JnXC9jbGFpbXNcL2VuZHVzZXJUZW5hbnRJZCI6Ii0xMjM0IiwiaHR0cDpcL1wvd3NvMi5vcmdcL2NsYWltc1wvYXBwbGljYXRpb25VVUlkIjoiMTc0NmM2MjctYmM5NS00MTEzLTg4ZjAtOWU1Y2IwM2M2ZjUyIiwiaHR0cDpcL1wvd3NvMi5vcmdcL2NsYWltc1wvc3Vic2NyaWJlciI6Ik5FVFMuRVVcL2lsb3JpQG5ldHMuZXUiLCJodHRwOlwvXC93c28yLm9yZ1wvY2xhaW1zXC90aWVyIjoiR29sZCIsImV4cCI6MTU1NzMxMDYxMSwiaHR0cDpcL1wvd3NvMi5vcmdcL2NsYWltc1wvYXBwbGljYXRpb25pZCI6IjEzNjEiLCJodHRwOlwvXC93c28yLm9yZ1wvY2xhaW1zXC91c2VydHlwZSI6IkFQUExJQ0FUSU9OX1VTRVIiLCJNdWx0aUF0dHJpYnV0ZVNlcGFyYXRvciI6W10sImVtYWlsIjoicGdhaWtAbmV0cy5ldSIsImh0dHA6XC9cL3dzbzIub3JnXC9jbGFpbXNcL2FwaWNvbnRleHQiOiJcL21zXC9hYXBheVwvcmVwb3J0aW5nXC8xLjIifQ==.NBZG8Yea0DCU1gLKYXFQC15ThfGLoQ5Jfhc290hoHD9Umjs3OqB8GmZUkfS8zjFMgfj7rD8b9G8Z1Ytnduox3d+uzi3sfisbFidw2T4pXm1j/J+RVoehe5K4unISnhtedzAokpJsUlKa6HHUzu8mREF2XKNzhNiSP/8nsU7uyysSpfQbu7AancVOMAL6P2zBGld+UcRz0vQlWigBTJr1N3XGyIU54FvRCu15JT+SLYX6jDH6w80BAohj/lay/FzBz+cZxOlSftc2/KFQyR5ZM4rbHDkacFXKeawgla1Odztm+83gknr2zhDxFhao1kmmeM6LGMi3NcEtizUAiwzAUrhQNRCSEwv4sN1Up2IAiSlDJu4ttZ2J+Y6LjIKaA7nELcTJcQyPXeG70sgt3IKnMjujrOrw6D6N5eLrZ9J9+tIgb1YnmafqpvpdysF09bI01vo8K7qggKFy745a412jFGhVikgf8E4+yrOlk8eHZXM7UZrxJOBzO4izQeevtEIhvZ/EyYmFbGjnvh1szNaCvwICZvihbsEbz+rp3uR020JJJoy5pNh2alcGwMyL7r4cVZksuJ10xGhgOwn7aCMjxj/nIPcYCFmJ7uwtqckwol1s00w0nZJ352OVlAH8xKLlOsFN5jAvh0oevnMWKRgm7s9WuHKGXv0nAuAq8Y7ZvpI=";
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@LocalServerPort
+	protected int port;
+
+	@BeforeClass
+	public static void clearAttachments() throws IOException {
+		// Uploads expect a 201 for bytes the store has not seen, whatever earlier runs left in the store
+		FileSystemUtils.deleteRecursively(Paths.get("target", "attachments"));
+	}
+
+	@Before
+	public void setup() {
+		RestAssured.baseURI = "http://localhost";
+		RestAssured.basePath = "/twitter";
+		RestAssured.port = port;
+	}
+
+	@Test
+	public void shouldUploadOnceAndDownloadAttachment() throws JsonMappingException, JsonProcessingException {
+
+		byte[] bytes = new byte[300_000];
+		new Random(11L).nextBytes(bytes);
+		AttachmentDTO first = upload(bytes, 201);
+		AttachmentDTO second = upload(bytes, 200);
+		assertThat(second.getAttachmentId()).isEqualTo(first.getAttachmentId());
+		assertThat(second.isDuplicate()).isTrue();
+		assertThat(first.getSize()).isEqualTo(300_000L);
+
+		byte[] downloaded = given().when()
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/attachment/download/" + first.getAttachmentId())
+				.then()
+				.statusCode(200)
+				.header("Content-Length", "300000")
+				.extract()
+				.asByteArray();
+		assertThat(downloaded).isEqualTo(bytes);
+	}
+
+	@Test
+	public void shouldDownloadByteRanges() throws JsonMappingException, JsonProcessingException {
+
+		byte[] bytes = "0123456789".getBytes(StandardCharsets.UTF_8);
+		String attachmentId = upload(bytes, 201).getAttachmentId();
+		String path = "/attachment/download/" + attachmentId;
+
+		assertThat(download(path, "bytes=2-5", 206, "bytes 2-5/10")).isEqualTo("2345");
+		assertThat(download(path, "bytes=7-", 206, "bytes 7-9/10")).isEqualTo("789");
+		assertThat(download(path, "bytes=-3", 206, "bytes 7-9/10")).isEqualTo("789");
+		assertThat(download(path, "bytes=5-100", 206, "bytes 5-9/10")).isEqualTo("56789");
+		// Multiple ranges are not supported, the whole attachment is served
+		assertThat(download(path, "bytes=0-1,4-5", 200, null)).isEqualTo("0123456789");
+		download(path, "bytes=10-", 416, "bytes */10");
+
+		given().when()
+				.header(HEADER_KEY, HEADER_VALUE)
+				.header("Range", "bytes=2-5")
+				.header("If-Range", "\"" + String.join("", Collections.nCopies(64, "0")) + "\"")
+				.get(path)
+				.then()
+				.statusCode(200)
+				.header("ETag", "\"" + attachmentId + "\"")
+				.header("Accept-Ranges", "bytes");
+		given().when()
+				.header(HEADER_KEY, HEADER_VALUE)
+				.header("If-None-Match", "\"" + attachmentId + "\"")
+				.get(path)
+				.then()
+				.statusCode(304);
+	}
+
+	@Test
+	public void shouldNotDownloadUnknownAttachment() {
+
+		given().when()
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/attachment/download/" + String.join("", Collections.nCopies(64, "0")))
+				.then()
+				.statusCode(404);
+	}
+
+	@Test
+	public void shouldNotUploadAttachmentLargerThanMaximum() {
+
+		given().when()
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body(new byte[1_048_577])
+				.post("/attachment/upload")
+				.then()
+				.statusCode(413);
+	}
+
+	private static String download(String path, String range, int status, String contentRange) {
+		Response response = given().when()
+				.header(HEADER_KEY, HEADER_VALUE)
+				.header("Range", range)
+				.get(path)
+				.then()
+				.statusCode(status)
+				.extract()
+				.response();
+		assertThat(response.getHeader("Content-Range")).isEqualTo(contentRange);
+		return new String(response.asByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private AttachmentDTO upload(byte[] bytes, int status) throws JsonMappingException, JsonProcessingException {
+		Response response = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body(bytes)
+				.post("/attachment/upload")
+				.then()
+				.statusCode(status)
+				.extract()
+				.response();
+		return objectMapper.readValue(response.getBody().asString(), AttachmentDTO.class);
+	}
+}
@@ -0,0 +1,135 @@
+package com.twitter.component_test.rest;
+
+import static com.jayway.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.annotation.Resource;
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.restassured.RestAssured;
+import com.jayway.restassured.response.Response;
+import com.twitter.TwitterApplication;
+import com.twitter.dto.BulkWriteResultDTO;
+
+/**
+ * The tweet and reply writes through the queued group-commit path of the write pipeline, which the other
+ * component tests leave off as by default.
+ *
+ * @author gauri sawant
+ *
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = TwitterApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = "twitter.ingest.group-commit=true")
+@DirtiesContext(classMode = ClassMode.AFTER_CLASS)
+public class GroupCommitRestServiceTest {
+
+	private static final String HEADER_KEY = "x-jwt-assertion";
+	private static final String HEADER_VALUE = "eyJ0eXAiOiJKV1QiLCJhbGciOiJSUzI1NiIsIng1dCI6Ik1HWmlObUU1WVdaaE5qVmpOekUxTVdJMllqUmtPVGczWkRaaE1URmpPR05oT1Roa05tRTRZUSJ9.eyJzdWIiOiJwZ2Fpa0BuZXRzLmV1IiwiaHR0cDpcL1wvd3NvMi5vcmdcL2NsYWltc1wvYXBwbGljYXRpb250aWVyIjoiVW5saW1pdGVkIiwiaHR0cDpcL1wvd3NvMi5vcmdcL2NsYWltc1wva2V5dHlwZSI6IlBST0RVQ1RJT04iLCJodHRwOlwvXC93c28yLm9yZ1wvY2xhaW1zXC92ZXJzaW9uIjoiMS4yIiwiaXNzIjoid3NvMi5vcmdcL3Byb2R1Y3RzXC9hbSIsImh0dHA6XC9cL3dzbzIub3JnXC9jbGFpbXNcL2FwcGxpY2F0aW9ubmFtZSI6Ik5BQS1BZG1pbi1VSSIsImh0dHA6XC9cL3dzbzIub3JnXC9jbGFpbXNcL2VuZHVzZXIiOiJwZ2Fpa0BuZXRzLmV1QGNhcmJvbi5zdXBlciIsImh0dHA6XC9cL3dzbzIub3JnXC9jbGFpbXNcL2VuZHVzZXJUZW5hbnRJZCI6Ii0xMjM0IiwiaHR0cDpcL1wvd3NvMi5vcmdcL2NsYWltc1wvYXBwbGljYXRpb25VVUlkIjoiMTc0NmM2MjctYmM5NS00MTEzLTg4ZjAtOWU1Y2IwM2M2ZjUyIiwiaHR0cDpcL1wvd3NvMi5vcmdcL2NsYWltc1wvc3Vic2NyaWJlciI6Ik5FVFMuRVVcL2lsb3JpQG5ldHMuZXUiLCJodHRwOlwvXC93c28yLm9yZ1wvY2xhaW1zXC90aWVyIjoiR29sZCIsImV4cCI6MTU1NzMxMDYxMSwiaHR0cDpcL1wvd3NvMi5vcmdcL2NsYWltc1wvYXBwbGljYXRpb25pZCI6IjEzNjEiLCJodHRwOlwvXC93c28yLm9yZ1wvY2xhaW1zXC91c2VydHlwZSI6IkFQUExJQ0FUSU9OX1VTRVIiLCJNdWx0aUF0dHJpYnV0ZVNlcGFyYXRvciI6W10sImVtYWlsIjoicGdhaWtAbmV0cy5ldSIsImh0dHA6XC9cL3dzbzIub3JnXC9jbGFpbXNcL2FwaWNvbnRleHQiOiJcL21zXC9hYXBheVwvcmVwb3J0aW5nXC8xLjIifQ==.NBZG8Yea0DCU1gLKYXFQC15ThfGLoQ5Jfhc290hoHD9Umjs3OqB8GmZUkfS8zjFMgfj7rD8b9G8Z1Ytnduox3d+uzi3sfisbFidw2T4pXm1j/J+RVoehe5K4unISnhtedzAokpJsUlKa6HHUzu8mREF2XKNzhNiSP/8nsU7uyysSpfQbu7AancVOMAL6P2zBGld+UcRz0vQlWigBTJr1N3XGyIU54FvRCu15JT+SLYX6jDH6w80BAohj/lay/FzBz+cZxOlSftc2/KFQyR5ZM4rbHDkacFXKeawgla1Odztm+83gknr2zhDxFhao1kmmeM6LGMi3NcEtizUAiwzAUrhQNRCSEwv4sN1Up2IAiSlDJu4ttZ2J+Y6LjIKaA7nELcTJcQyPXeG70sgt3IKnMjujrOrw6D6N5eLrZ9J9+tIgb1YnmafqpvpdysF09bI01vo8K7qggKFy745a412jFGhVikgf8E4+yrOlk8eHZXM7UZrxJOBzO4izQeevtEIhvZ/EyYmFbGjnvh1szNaCvwICZvihbsEbz+rp3uR020JJJoy5pNh2alcGwMyL7r4cVZksuJ10xGhgOwn7aCMjxj/nIPcYCFmJ7uwtqckwol1s00w0nZJ352OVlAH8xKLlOsFN5jAvh0oevnMWKRgm7s9WuHKGXv0nAuAq8Y7ZvpI=";
+
+	@Resource
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@LocalServerPort
+	protected int port;
+
+	@Before
+	public void setup() {
+		RestAssured.baseURI = "http://localhost";
+		RestAssured.basePath = "/twitter";
+		RestAssured.port = port;
+	}
+
+	@Test
+	public void shouldCreateTweetAndReplyInGroupCommit() {
+
+		given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body("{\"tweet-text\": \"Tweet committed in a group\"}")
+				.post("/tweet/createTweet/3")
+				.then()
+				.statusCode(201);
+
+		Long tweetId = jdbcTemplate.queryForObject("SELECT TWEET_ID FROM TWEETS WHERE TEXT = ?", Long.class,
+				"Tweet committed in a group");
+
+		given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body("{\"reply-text\": \"Reply committed in a group\"}")
+				.post("/tweet/addReply/" + tweetId + "/4")
+				.then()
+				.statusCode(201);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM REPLIES WHERE TWEET_ID = ? AND USER_ID = 4", Long.class,
+				tweetId)).isEqualTo(1L);
+	}
+
+	@Test
+	public void shouldNotAddReplyWhenTweetNotFound() {
+
+		given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body("{\"reply-text\": \"Reply to no tweet\"}")
+				.post("/tweet/addReply/2000/4")
+				.then()
+				.statusCode(404);
+	}
+
+	@Test
+	public void shouldCreateTweetsAndRepliesInBulkInGroupCommit() throws JsonMappingException, JsonProcessingException {
+
+		Response tweets = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body("[{\"tweet-text\": \"First of a group\"}, {\"tweet-text\": \"Last of a group\"}]")
+				.post("/tweet/createTweets/3")
+				.then()
+				.statusCode(200)
+				.extract()
+				.response();
+
+		BulkWriteResultDTO[] tweetResults = objectMapper.readValue(tweets.getBody().asString(), BulkWriteResultDTO[].class);
+		assertThat(tweetResults).extracting(BulkWriteResultDTO::getStatus).containsExactly(201, 201);
+
+		Response replies = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body("[{\"reply-text\": \"Reply in a group\", \"reply-tweet-id\": " + tweetResults[1].getId() + "}]")
+				.post("/tweet/addReplies/4")
+				.then()
+				.statusCode(200)
+				.extract()
+				.response();
+
+		BulkWriteResultDTO[] replyResults = objectMapper.readValue(replies.getBody().asString(), BulkWriteResultDTO[].class);
+		assertThat(replyResults).extracting(BulkWriteResultDTO::getStatus).containsExactly(201);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM REPLIES WHERE TWEET_ID = ?", Long.class,
+				tweetResults[1].getId())).isEqualTo(1L);
+	}
+}
@@ -2,6 +2,7 @@ package com.twitter.component_test.rest;
 
 import static com.jayway.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
@@ -13,6 +14,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -24,8 +26,15 @@ import com.jayway.restassured.RestAssured;
 import com.jayway.restassured.response.Response;
 import com.twitter.TwitterApplication;
 import com.twitter.controller.rest.UserRESTServiceImpl;
+import com.twitter.dto.BulkWriteResultDTO;
+import com.twitter.dto.RepliesDTO;
+import com.twitter.dto.TrendDTO;
 import com.twitter.dto.TweetDTO;
+import com.twitter.dto.TweetRepliesDTO;
+import com.twitter.engagement.EngagementCounters;
+import com.twitter.id.SnowflakeIdGenerator;
 import com.twitter.persistence.UserRepository;
+import com.twitter.trends.TrendingTopics;
 
 /**
  * @author gauri sawant
@@ -56,6 +65,15 @@ public class TweetRestServiceTest {
 	@Inject
 	UserRESTServiceImpl userRESTServiceImpl;
 
+	@Inject
+	EngagementCounters engagementCounters;
+
+	@Inject
+	TrendingTopics trendingTopics;
+
+	@Resource
+	private JdbcTemplate jdbcTemplate;
+
 	@Autowired
 	private ObjectMapper objectMapper;
 
@@ -145,6 +163,87 @@ public class TweetRestServiceTest {
 	}
 	
 	
+	@Test
+	public void shouldNotModifyTweetsUntilRepliedTo() {
+
+		String tag = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/tweet/getTweets/1")
+				.then()
+				.statusCode(200)
+				.extract()
+				.header("ETag");
+		assertThat(tag).isNotNull();
+
+		given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.header("If-None-Match", tag)
+				.get("/tweet/getTweets/1")
+				.then()
+				.statusCode(304)
+				.header("ETag", tag);
+
+		given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body(replyPayload)
+				.post("/tweet/addReply/1/2")
+				.then()
+				.statusCode(201);
+
+		String replied = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.header("If-None-Match", tag)
+				.get("/tweet/getTweets/1")
+				.then()
+				.statusCode(200)
+				.extract()
+				.header("ETag");
+		assertThat(replied).isNotEqualTo(tag);
+	}
+
+	@Test
+	public void shouldCreateTweetsAndRepliesInBulk() throws JsonMappingException, JsonProcessingException {
+
+		Response tweets = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body("[{\"tweet-text\": \"First of a batch\"}, {\"tweet-text\": \"\"}, {\"tweet-text\": \"Last of a batch\"}]")
+				.post("/tweet/createTweets/4")
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		BulkWriteResultDTO[] tweetResults = objectMapper.readValue(tweets.getBody().asString(), BulkWriteResultDTO[].class);
+		assertThat(tweetResults).extracting(BulkWriteResultDTO::getStatus).containsExactly(201, 400, 201);
+		assertThat(tweetResults[0].getId()).isNotNull();
+
+		Response replies = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body("[{\"reply-text\": \"Reply in a batch\", \"reply-tweet-id\": " + tweetResults[0].getId() + "},"
+						+ " {\"reply-text\": \"Reply to no tweet\", \"reply-tweet-id\": 2000}]")
+				.post("/tweet/addReplies/4")
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		BulkWriteResultDTO[] replyResults = objectMapper.readValue(replies.getBody().asString(), BulkWriteResultDTO[].class);
+		assertThat(replyResults).extracting(BulkWriteResultDTO::getStatus).containsExactly(201, 404);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM REPLIES WHERE TWEET_ID = ?", Long.class,
+				tweetResults[0].getId())).isEqualTo(1L);
+	}
+
 	@Test
 	public void shouldAddReplyForTweetUser() throws JsonMappingException, JsonProcessingException {
 
@@ -241,4 +340,201 @@ public class TweetRestServiceTest {
 				.body().extract()
 				.response();
 	}
+
+	@Test
+	public void shouldFanOutNewTweetToFollowerHomeTimeline() throws JsonMappingException, JsonProcessingException {
+
+		// Warm up the timeline of the follower before the tweet is created
+		given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/tweet/getHomeTimeline/2")
+				.then()
+				.statusCode(200);
+
+		given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body(tweetPayload)
+				.post("/tweet/createTweet/1")
+				.then()
+				.statusCode(201);
+
+		Response response = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/tweet/getHomeTimeline/2?limit=1")
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		TweetDTO[] tweetDTOs = objectMapper.readValue(response.getBody().asString(), TweetDTO[].class);
+		assertThat(tweetDTOs.length).isEqualTo(1);
+		assertThat(tweetDTOs[0].getUser().getUserId()).isEqualTo(1L);
+		assertThat(tweetDTOs[0].getTweetText()).isEqualTo("Tweet Added for User");
+	}
+
+	@Test
+	public void shouldPageTweetsWithCursorLinks() throws JsonMappingException, JsonProcessingException {
+
+		Response firstPage = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/tweet/getTweets/1?limit=1")
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		TweetDTO[] tweetDTOs = objectMapper.readValue(firstPage.getBody().asString(), TweetDTO[].class);
+		assertThat(tweetDTOs.length).isEqualTo(1);
+		String next = javax.ws.rs.core.Link.valueOf(firstPage.getHeader("Link")).getUri().toString();
+		assertThat(next).contains("before=");
+
+		Response secondPage = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.urlEncodingEnabled(false)
+				.get(next.substring(next.indexOf("/tweet/")))
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		TweetDTO[] olderDTOs = objectMapper.readValue(secondPage.getBody().asString(), TweetDTO[].class);
+		assertThat(olderDTOs.length).isEqualTo(1);
+		assertThat(olderDTOs[0].getTweetId()).isLessThan(tweetDTOs[0].getTweetId());
+	}
+
+	@Test
+	public void shouldCountLikesAndRetweetsAndWriteThemBehind() throws JsonMappingException, JsonProcessingException {
+
+		for (String path : new String[] { "/tweet/likeTweet/2/2", "/tweet/likeTweet/2/3", "/tweet/likeTweet/2/3", "/tweet/retweet/2/4" }) {
+			given().when()
+					.header(HEADER_KEY, HEADER_VALUE)
+					.post(path)
+					.then()
+					.statusCode(200);
+		}
+		given().when()
+				.header(HEADER_KEY, HEADER_VALUE)
+				.post("/tweet/likeTweet/2000/2")
+				.then()
+				.statusCode(404);
+
+		Response response = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/tweet/searchTweets?q=delhi")
+				.then()
+				.statusCode(200)
+				.extract()
+				.response();
+
+		TweetDTO[] tweetDTOs = objectMapper.readValue(response.getBody().asString(), TweetDTO[].class);
+		assertThat(tweetDTOs[0].getLikeCount()).isEqualTo(2L);
+		assertThat(tweetDTOs[0].getRetweetCount()).isEqualTo(1L);
+
+		engagementCounters.flush();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TWEET_LIKES WHERE TWEET_ID = 2", Long.class)).isEqualTo(2L);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TWEET_RETWEETS WHERE TWEET_ID = 2", Long.class)).isEqualTo(1L);
+
+		given().when()
+				.header(HEADER_KEY, HEADER_VALUE)
+				.delete("/tweet/unlikeTweet/2/3")
+				.then()
+				.statusCode(200);
+		engagementCounters.flush();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM TWEET_LIKES WHERE TWEET_ID = 2", Long.class)).isEqualTo(1L);
+	}
+
+	@Test
+	public void shouldSearchTweetsNewestFirst() throws JsonMappingException, JsonProcessingException {
+
+		given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body("{\"tweet-text\": \"Looking for a #travel buddy\", \"tweet-attachment\": \"\"}")
+				.post("/tweet/createTweet/3")
+				.then()
+				.statusCode(201);
+
+		Response response = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/tweet/searchTweets?q=TRAVEL")
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		TweetDTO[] tweetDTOs = objectMapper.readValue(response.getBody().asString(), TweetDTO[].class);
+		assertThat(tweetDTOs).extracting(TweetDTO::getTweetText)
+				.containsExactly("Looking for a #travel buddy", "Planning to travel to Delhi(India), any suggestions?");
+		// Ids of new tweets are time ordered, above the ids of the master data
+		assertThat(SnowflakeIdGenerator.timestampOf(tweetDTOs[0].getTweetId())).isCloseTo(System.currentTimeMillis(), within(60_000L));
+
+		given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/tweet/searchTweets?q=\"delhi travel\"")
+				.then()
+				.statusCode(204);
+	}
+
+	@Test
+	public void shouldTrendHashtagsOfNewTweets() throws JsonMappingException, JsonProcessingException {
+
+		for (int i = 0; i < 2; i++) {
+			given().when()
+					.accept(MediaType.APPLICATION_JSON)
+					.contentType(MediaType.APPLICATION_JSON)
+					.header(HEADER_KEY, HEADER_VALUE)
+					.body("{\"tweet-text\": \"Off to #Goa with @sgore\", \"tweet-attachment\": \"\"}")
+					.post("/tweet/createTweet/1")
+					.then()
+					.statusCode(201);
+		}
+		trendingTopics.refresh();
+
+		Response response = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/tweet/getTrends?window=5m")
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		TrendDTO[] trendDTOs = objectMapper.readValue(response.getBody().asString(), TrendDTO[].class);
+		assertThat(trendDTOs).extracting(TrendDTO::getTopic).contains("#goa", "@sgore");
+	}
+
+	@Test
+	public void shouldGetOnlyFollowerRepliesForUserTweets() throws JsonMappingException, JsonProcessingException {
+
+		Response response = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/tweet/getFollowerTweetRepliesForUser/1")
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		TweetRepliesDTO[] tweetRepliesDTOs = objectMapper.readValue(response.getBody().asString(), TweetRepliesDTO[].class);
+		TweetRepliesDTO travelTweet = java.util.Arrays.stream(tweetRepliesDTOs)
+				.filter(entry -> entry.getTweetDTO().getTweetId() == 2L).findFirst().get();
+		// Tweet 2 was replied by users 2, 3 and 4, only user 2 follows user 1
+		assertThat(travelTweet.getRepliesDTOs()).extracting(RepliesDTO::getUser).extracting("userId").containsExactly(2L);
+	}
 }
@@ -2,6 +2,7 @@ package com.twitter.component_test.rest;
 
 import static com.jayway.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
 
 import java.util.Optional;
 
@@ -26,6 +27,7 @@ import com.jayway.restassured.RestAssured;
 import com.jayway.restassured.response.Response;
 import com.twitter.TwitterApplication;
 import com.twitter.controller.rest.UserRESTServiceImpl;
+import com.twitter.dto.FollowImportReportDTO;
 import com.twitter.dto.UserDTO;
 import com.twitter.model.User;
 import com.twitter.persistence.UserRepository;
@@ -149,6 +151,21 @@ public class UserRestServiceTest {
 		assertThat(userDTOs.length).isEqualTo(5);
 	}
 	
+	@Test
+	public void shouldNotCreateUserWithoutUsername() {
+
+		for (String payload : new String[] {"{\"first-name\": \"Asha\"}", "{\"user-name\": \" \"}", ""}) {
+			given().when()
+					.accept(MediaType.APPLICATION_JSON)
+					.contentType(MediaType.APPLICATION_JSON)
+					.header(HEADER_KEY, HEADER_VALUE)
+					.body(payload)
+					.post("/user/createUser")
+					.then()
+					.statusCode(400);
+		}
+	}
+
 	@Test
 	public void shouldNotCreateUserIfUsernameExists() throws JsonMappingException, JsonProcessingException {
 
@@ -165,6 +182,47 @@ public class UserRestServiceTest {
 				.response();
 	}
 	
+	@Test
+	public void shouldSearchUsersByNamePrefix() throws JsonMappingException, JsonProcessingException {
+
+		Response response = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/user/searchUsers?prefix=sa")
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		UserDTO[] userDTOs = objectMapper.readValue(response.getBody().asString(), UserDTO[].class);
+		assertThat(userDTOs).extracting(UserDTO::getUserName).containsExactlyInAnyOrder("gasaw", "sgore");
+	}
+	
+	@Test
+	public void shouldGetUserNameAvailability() {
+
+		Boolean taken = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/user/getUserNameAvailability/gasaw")
+				.then()
+				.statusCode(200)
+				.extract()
+				.path("available");
+		assertThat(taken).isEqualTo(false);
+
+		Boolean free = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.get("/user/getUserNameAvailability/nobody")
+				.then()
+				.statusCode(200)
+				.extract()
+				.path("available");
+		assertThat(free).isEqualTo(true);
+	}
+	
 	@Test
 	public void shouldFollowUser() throws JsonMappingException, JsonProcessingException {
 
@@ -179,7 +237,7 @@ public class UserRestServiceTest {
 				.body().extract()
 				.response();
 		
-		Optional<User> user = userRESTServiceImpl.findUser(1L);
+		Optional<User> user = userRESTServiceImpl.findUserWithFollowers(1L);
 		assertThat(user.get().getFollowerUser()).isNotNull();
 		assertThat(user.get().getFollowerUser().size()).isEqualTo(2);
 	}
@@ -230,7 +288,7 @@ public class UserRestServiceTest {
 				.body().extract()
 				.response();
 		
-		Optional<User> user = userRESTServiceImpl.findUser(1L);
+		Optional<User> user = userRESTServiceImpl.findUserWithFollowers(1L);
 		assertThat(user.get().getFollowerUser().size()).isEqualTo(0);
 	}
 	
@@ -314,7 +372,47 @@ public class UserRestServiceTest {
 	}
 	
 	@Test
-	public void shouldDeleteUser() throws JsonMappingException, JsonProcessingException {
+	public void shouldGetFollowedAmongIds() throws JsonMappingException, JsonProcessingException {
+
+		Response response = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(HEADER_KEY, HEADER_VALUE)
+				.queryParam("ids", "3,1,99")
+				.get("/user/getFollowedAmong/2")
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		long[] followedIds = objectMapper.readValue(response.getBody().asString(), long[].class);
+		assertThat(followedIds).containsExactly(1L);
+	}
+	
+	@Test
+	public void shouldImportFollowsFromCsv() throws JsonMappingException, JsonProcessingException {
+
+		Response response = given().when()
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType("text/csv")
+				.header(HEADER_KEY, HEADER_VALUE)
+				.body("follower,followed\n3,2\n3,3\n99,2\n")
+				.post("/user/importFollows")
+				.then()
+				.statusCode(200)
+				.log()
+				.body().extract()
+				.response();
+
+		FollowImportReportDTO report = objectMapper.readValue(response.getBody().asString(), FollowImportReportDTO.class);
+		assertThat(report.getRows()).isEqualTo(3);
+		assertThat(report.getImported() + report.getDuplicates()).isEqualTo(1);
+		assertThat(report.getRejected()).isEqualTo(2);
+	}
+	
+	@Test
+	public void shouldDeleteUser() throws JsonMappingException, JsonProcessingException, InterruptedException {
 
 		given().when()
 				.accept(MediaType.APPLICATION_JSON)
@@ -322,13 +420,28 @@ public class UserRestServiceTest {
 				.header(HEADER_KEY, HEADER_VALUE)
 				.delete("/user/deleteUser/4")
 				.then()
-				.statusCode(204)
+				.statusCode(202)
+				.header("Location", endsWith("user/getDeletionStatus/4"))
 				.log()
 				.body().extract()
 				.response();
 
 		Optional<User> user = userRESTServiceImpl.findUser(4L);
 		assertThat(user.isPresent()).isEqualTo(false);
+
+		String state = null;
+		for (int attempt = 0; attempt < 50 && !"DONE".equals(state); attempt++) {
+			Thread.sleep(100);
+			state = given().when()
+					.accept(MediaType.APPLICATION_JSON)
+					.header(HEADER_KEY, HEADER_VALUE)
+					.get("/user/getDeletionStatus/4")
+					.then()
+					.statusCode(200)
+					.extract()
+					.path("state");
+		}
+		assertThat(state).isEqualTo("DONE");
 	}
 	
 	@Test
@@ -340,7 +453,7 @@ public class UserRestServiceTest {
 				.header(HEADER_KEY, HEADER_VALUE)
 				.delete("/user/deleteUser/99")
 				.then()
-				.statusCode(500)
+				.statusCode(404)
 				.log()
 				.body().extract()
 				.response();
@@ -4,33 +4,64 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.CoreMatchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
+import javax.ws.rs.core.Link;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.twitter.deletion.UserDeletionService;
+import com.twitter.engagement.EngagementCounters;
+import com.twitter.engagement.EngagementCounters.Action;
+import com.twitter.dto.BulkWriteResultDTO;
 import com.twitter.dto.RepliesDTO;
+import com.twitter.dto.TrendDTO;
 import com.twitter.dto.TweetDTO;
 import com.twitter.dto.TweetRepliesDTO;
+import com.twitter.id.ExistingIds;
+import com.twitter.ingest.WritePipeline;
+import com.twitter.ingest.WriteRejectedException;
 import com.twitter.model.Replies;
 import com.twitter.model.Tweet;
 import com.twitter.model.User;
+import com.twitter.persistence.FollowerReply;
 import com.twitter.persistence.RepliesRepository;
 import com.twitter.persistence.TweetRepository;
+import com.twitter.persistence.UserRepository;
+import com.twitter.search.TextQuery;
+import com.twitter.search.TweetSearchIndex;
+import com.twitter.timeline.HomeTimelineService;
+import com.twitter.trends.TrendingTopics;
+import com.twitter.trends.TrendingTopics.Window;
+import com.twitter.version.ResourceVersions;
 
 /**
  * @author gauri sawant
@@ -51,48 +82,179 @@ public class TweetRESTServiceImplTest {
 	
 	@Mock
 	UserRESTServiceImpl userRESTServiceImpl;
+	
+	@Mock
+	private UserRepository userRepo;
+	
+	@Mock
+	private HomeTimelineService homeTimelineService;
+	
+	
+	@Mock
+	private UserDeletionService userDeletionService;
+	
+	@Mock
+	private TweetSearchIndex tweetSearchIndex;
+
+	@Mock
+	private TrendingTopics trendingTopics;
+
+	@Mock
+	private EngagementCounters engagementCounters;
+
+	@Mock
+	private WritePipeline writePipeline;
+
+	@Mock
+	private ExistingIds existingIds;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Spy
+	private ResourceVersions resourceVersions = new ResourceVersions();
+
+	@Mock
+	private UriInfo uriInfo;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setup() throws Exception {
+		lenient().when(writePipeline.write(any(), any())).thenAnswer(invocation -> invocation.getArgument(1, UnaryOperator.class)
+				.apply(invocation.getArgument(0)));
+		lenient().when(writePipeline.writeAll(any(), any())).thenAnswer(invocation -> ((List<Object>) invocation.getArgument(0))
+				.stream().map(invocation.getArgument(1, UnaryOperator.class)).collect(Collectors.toList()));
+	}
 
 	@Test
 	public void shouldCreateNewTweet() {
 		
-		User user = createTweetUser(1L, "userName", "firstName", "lastName");
 		Tweet tweet = createTweet(1L, "tweetText", "tweetfileName",1L);
 		when(tweetRepo.save(any(Tweet.class))).thenReturn(tweet);
-		when(userRESTServiceImpl.findUser(anyLong())).thenReturn(Optional.of(user));
+		when(existingIds.isActiveUser(1L)).thenReturn(true);
 		TweetDTO tweetDTO = createTweetDTO("tweetText", "tweetfileName");
 		Response response = tweetRESTServiceImpl.createTweet(tweetDTO, "1");
 		verify(tweetRepo).save(any(Tweet.class));
+		verify(userRepo).getOne(1L);
+		verify(userRESTServiceImpl, never()).findUser(anyLong());
+		verify(existingIds).onTweetCreated(1L, 1L);
+		verify(homeTimelineService).onTweetsCreated(1L, 1L);
+		verify(tweetSearchIndex).onTweetCreated(1L, "tweetText");
+		verify(trendingTopics).onTweetCreated("tweetText");
 		assertThat(response.getStatus(), is(201));
 	}
 	
 	
+	@Test
+	public void shouldNotCreateTweetWhenWriteQueueIsFull() throws Exception {
+
+		when(existingIds.isActiveUser(1L)).thenReturn(true);
+		doThrow(new WriteRejectedException("full")).when(writePipeline).write(any(Tweet.class), any());
+		Response response = tweetRESTServiceImpl.createTweet(createTweetDTO("tweetText", "tweetfileName"), "1");
+		verify(tweetSearchIndex, never()).onTweetCreated(anyLong(), any());
+		assertThat(response.getStatus(), is(503));
+	}
+
 	@Test
 	public void shouldNotCreateTweetWhenUserNotFound() {
 		
-		when(userRESTServiceImpl.findUser(anyLong())).thenReturn(null);
+		when(existingIds.isActiveUser(anyLong())).thenReturn(false);
 		TweetDTO tweetDTO = createTweetDTO("tweetText", "tweetfileName");
 		Response response = tweetRESTServiceImpl.createTweet(tweetDTO, "1");
 		verify(tweetRepo, never()).save(any(Tweet.class));
-		assertThat(response.getStatus(), is(500));
+		assertThat(response.getStatus(), is(404));
+	}
+
+	@Test
+	public void shouldNotCreateTweetOrReplyWithInvalidText() throws Exception {
+
+		when(existingIds.isActiveUser(1L)).thenReturn(true);
+		char[] tooLong = new char[256];
+		Arrays.fill(tooLong, 'a');
+		assertThat(tweetRESTServiceImpl.createTweet(createTweetDTO(" ", null), "1").getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.createTweet(createTweetDTO(new String(tooLong), null), "1").getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.createTweet(null, "1").getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.addReply(createReplyDTO(null, null), "1", "1").getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.addReply(createReplyDTO("replyText", new String(tooLong)), "1", "1").getStatus(), is(400));
+		verify(writePipeline, never()).write(any(), any());
 	}
 	
 
 	@Test
 	public void shouldAddNewReply() {
 		
-		User user = createTweetUser(1L, "userName", "firstName", "lastName");
-		Tweet tweet = createTweet(1L, "tweetText", "tweetfileName", 1L);
 		Replies reply = createReply(1L, "replyText", "replyfileName", 2L);
 		when(replyRepo.save(any(Replies.class))).thenReturn(reply);
-		when(userRESTServiceImpl.findUser(anyLong())).thenReturn(Optional.of(user));
-		when(tweetRepo.findById(anyLong())).thenReturn(Optional.of(tweet));
+		when(existingIds.isActiveUser(1L)).thenReturn(true);
+		when(existingIds.tweetExists(1L)).thenReturn(true);
 		RepliesDTO replyDTO = createReplyDTO("replyText", "replyfileName");
 		Response response = tweetRESTServiceImpl.addReply(replyDTO, "1", "1");
 		verify(replyRepo).save(any(Replies.class));
+		verify(userRepo).getOne(1L);
+		verify(tweetRepo).getOne(1L);
+		verify(tweetRepo, never()).findById(anyLong());
+		verify(tweetSearchIndex).onReplyAdded(1L, "replyText");
 		assertThat(response.getStatus(), is(201));
 	}
 	
 	
+	@Test
+	public void shouldCreateValidTweetsAndReportInvalidOnes() {
+
+		Tweet tweet = createTweet(7L, "tweetText", null, 1L);
+		when(existingIds.isActiveUser(1L)).thenReturn(true);
+		when(tweetRepo.save(any(Tweet.class))).thenReturn(tweet, (Tweet) null);
+		char[] tooLong = new char[256];
+		Arrays.fill(tooLong, 'a');
+
+		Response response = tweetRESTServiceImpl.createTweets(Arrays.asList(createTweetDTO("tweetText", null),
+				createTweetDTO(" ", null), createTweetDTO(new String(tooLong), null), createTweetDTO("notSaved", null)), "1");
+		List<BulkWriteResultDTO> results = (List<BulkWriteResultDTO>) response.getEntity();
+		assertThat(results.stream().map(BulkWriteResultDTO::getStatus).collect(Collectors.toList()), is(Arrays.asList(201, 400, 400, 500)));
+		assertThat(results.get(0).getId(), is(7L));
+		assertThat(results.get(2).getIndex(), is(2));
+		verify(tweetRepo, times(2)).save(any(Tweet.class));
+		verify(userRepo).getOne(1L);
+		verify(existingIds).onTweetCreated(7L, 1L);
+		verify(homeTimelineService).onTweetsCreated(1L, 7L);
+		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldNotCreateTweetsWhenTooManyOrUserNotFound() {
+
+		List<TweetDTO> tooMany = Collections.nCopies(1_001, createTweetDTO("tweetText", null));
+		assertThat(tweetRESTServiceImpl.createTweets(tooMany, "1").getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.createTweets(Collections.emptyList(), "1").getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.createTweets(Arrays.asList(createTweetDTO("tweetText", null)), "PP").getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.createTweets(Arrays.asList(createTweetDTO("tweetText", null)), "1").getStatus(), is(404));
+		verify(writePipeline, never()).writeAll(any(), any());
+	}
+
+	@Test
+	public void shouldAddRepliesToTheirTweets() {
+
+		when(existingIds.isActiveUser(1L)).thenReturn(true);
+		when(existingIds.tweetExists(3L)).thenReturn(true);
+		when(tweetRepo.getOne(3L)).thenReturn(createTweet(3L, "tweetText", null, 2L));
+		when(replyRepo.save(any(Replies.class))).thenAnswer(invocation -> {
+			Replies reply = invocation.getArgument(0);
+			reply.setReplyId(reply.getText().length() + 0L);
+			return reply;
+		});
+
+		Response response = tweetRESTServiceImpl.addReplies(Arrays.asList(createReplyDTO("replyText", null, 3L),
+				createReplyDTO("replyText", null, 4L), createReplyDTO("replyText", null, null),
+				createReplyDTO("otherReplyText", null, 3L)), "1");
+		List<BulkWriteResultDTO> results = (List<BulkWriteResultDTO>) response.getEntity();
+		assertThat(results.stream().map(BulkWriteResultDTO::getStatus).collect(Collectors.toList()), is(Arrays.asList(201, 404, 400, 201)));
+		verify(replyRepo, times(2)).save(any(Replies.class));
+		verify(tweetRepo).getOne(3L);
+		verify(tweetSearchIndex).onReplyAdded(14L, "otherReplyText");
+		assertThat(results.get(3).getId(), is(14L));
+		assertThat(response.getStatus(), is(200));
+	}
+
 	@Test
 	public void shouldGetTweetsForUser() {
 		
@@ -102,16 +264,130 @@ public class TweetRESTServiceImplTest {
 		List<Tweet> tweetList = new ArrayList<>(); 
 		tweetList.add(tweet1);
 		tweetList.add(tweet2);
-		when(tweetRepo.getTweets(anyLong())).thenReturn(tweetList);
+		when(tweetRepo.getTweetsBefore(anyLong(), anyLong(), any())).thenReturn(tweetList);
 		
-		Response response = tweetRESTServiceImpl.getTweetsForUser("1");
+		Response response = tweetRESTServiceImpl.getTweetsForUser("1", null, null, null, null, uriInfo);
 		assertThat(((List<TweetDTO>) response.getEntity()).size(), is(2));
 		assertThat(response.getStatus(), is(200));
 	}
+
+	@Test
+	public void shouldNotQueryTweetsWhenNotModified() {
+
+		when(tweetRepo.getTweetsBefore(anyLong(), anyLong(), any())).thenReturn(Arrays.asList(createTweet(1L, "tweetText1", null, 1L)));
+		String tag = tweetRESTServiceImpl.getTweetsForUser("1", null, null, null, null, uriInfo).getEntityTag().getValue();
+
+		Response response = tweetRESTServiceImpl.getTweetsForUser("1", null, null, null, "\"" + tag + "\"", uriInfo);
+		assertThat(response.getStatus(), is(304));
+		assertThat(tweetRESTServiceImpl.getFollowerTweetRepliesForUser("1", null, null, null, "\"" + tag + "\"", uriInfo).getStatus(), is(304));
+		verify(tweetRepo, times(1)).getTweetsBefore(anyLong(), anyLong(), any());
+		verify(replyRepo, never()).getFollowerReplies(any());
+	}
+
+	@Test
+	public void shouldChangeTweetsTagOfAuthorWhenTweetLiked() {
+
+		when(existingIds.isActiveUser(2L)).thenReturn(true);
+		when(existingIds.tweetExists(1L)).thenReturn(true);
+		when(existingIds.authorOf(1L)).thenReturn(1L);
+		when(engagementCounters.add(Action.LIKE, 1L, 2L)).thenReturn(true, false);
+		String tag = resourceVersions.tweetsTag(1L);
+
+		tweetRESTServiceImpl.likeTweet("1", "2");
+		String liked = resourceVersions.tweetsTag(1L);
+		assertThat(liked, is(not(tag)));
+		// Liking again changes no count
+		tweetRESTServiceImpl.likeTweet("1", "2");
+		assertThat(resourceVersions.tweetsTag(1L), is(liked));
+	}
+
+	@Test
+	public void shouldMapTweetsWithEngagementCounts() {
+
+		when(engagementCounters.count(Action.LIKE, 1L)).thenReturn(3L);
+		when(engagementCounters.count(Action.RETWEET, 1L)).thenReturn(1L);
+		TweetDTO tweetDTO = tweetRESTServiceImpl.mapTweettoDTO(createTweet(1L, "tweetText", null, 1L));
+		assertThat(tweetDTO.getLikeCount(), is(3L));
+		assertThat(tweetDTO.getRetweetCount(), is(1L));
+	}
+
+	@Test
+	public void shouldLikeAndRetweetInMemory() {
+
+		when(existingIds.isActiveUser(2L)).thenReturn(true);
+		when(existingIds.tweetExists(1L)).thenReturn(true);
+		when(engagementCounters.add(Action.LIKE, 1L, 2L)).thenReturn(true);
+
+		assertThat(tweetRESTServiceImpl.likeTweet("1", "2").getStatus(), is(200));
+		assertThat(tweetRESTServiceImpl.unlikeTweet("1", "2").getStatus(), is(200));
+		assertThat(tweetRESTServiceImpl.retweet("1", "2").getStatus(), is(200));
+		assertThat(tweetRESTServiceImpl.undoRetweet("1", "2").getStatus(), is(200));
+		verify(engagementCounters).add(Action.LIKE, 1L, 2L);
+		verify(engagementCounters).remove(Action.LIKE, 1L, 2L);
+		verify(engagementCounters).add(Action.RETWEET, 1L, 2L);
+		verify(engagementCounters).remove(Action.RETWEET, 1L, 2L);
+		verify(tweetRepo, never()).save(any(Tweet.class));
+	}
+
+	@Test
+	public void shouldNotLikeTweetWhenTweetOrUserNotFound() {
+
+		when(existingIds.isActiveUser(2L)).thenReturn(true);
+		when(existingIds.tweetExists(100L)).thenReturn(false);
+
+		assertThat(tweetRESTServiceImpl.likeTweet("100", "2").getStatus(), is(404));
+		assertThat(tweetRESTServiceImpl.retweet("1", "3").getStatus(), is(404));
+		assertThat(tweetRESTServiceImpl.likeTweet("1", "PP").getStatus(), is(400));
+		verify(engagementCounters, never()).add(any(Action.class), anyLong(), anyLong());
+	}
+	
+	@Test
+	public void shouldLinkNextPageWhenMoreTweetsThanLimit() {
+		
+		List<Tweet> tweetList = new ArrayList<>();
+		tweetList.add(createTweet(9L, "tweetText9", "tweetfileName9", 1L));
+		tweetList.add(createTweet(7L, "tweetText7", "tweetfileName7", 1L));
+		tweetList.add(createTweet(4L, "tweetText4", "tweetfileName4", 1L));
+		when(tweetRepo.getTweetsBefore(eq(1L), eq(Long.MAX_VALUE), any())).thenReturn(tweetList);
+		when(uriInfo.getRequestUriBuilder()).thenReturn(UriBuilder.fromUri("http://localhost/twitter/tweet/getTweets/1?limit=2"));
+		
+		Response response = tweetRESTServiceImpl.getTweetsForUser("1", "2", null, null, null, uriInfo);
+		List<TweetDTO> tweetDTOs = (List<TweetDTO>) response.getEntity();
+		assertThat(tweetDTOs.size(), is(2));
+		assertThat(tweetDTOs.get(1).getTweetId(), is(7L));
+		
+		Link next = response.getLink("next");
+		assertThat(next.getUri().getQuery(), containsString("limit=2"));
+		assertThat(next.getUri().getQuery(), containsString("before=" + TweetCursor.encode(7L)));
+		assertThat(response.getLink("prev"), is(nullValue()));
+	}
+	
+	@Test
+	public void shouldReturnNewerPageNewestFirstForAfterCursor() {
+		
+		List<Tweet> tweetList = new ArrayList<>();
+		tweetList.add(createTweet(8L, "tweetText8", "tweetfileName8", 1L));
+		tweetList.add(createTweet(9L, "tweetText9", "tweetfileName9", 1L));
+		when(tweetRepo.getTweetsAfter(eq(1L), eq(7L), any())).thenReturn(tweetList);
+		when(uriInfo.getRequestUriBuilder()).thenReturn(UriBuilder.fromUri("http://localhost/twitter/tweet/getTweets/1"));
+		
+		Response response = tweetRESTServiceImpl.getTweetsForUser("1", null, null, TweetCursor.encode(7L), null, uriInfo);
+		List<TweetDTO> tweetDTOs = (List<TweetDTO>) response.getEntity();
+		assertThat(tweetDTOs.get(0).getTweetId(), is(9L));
+		assertThat(response.getLink("next").getUri().getQuery(), is("before=" + TweetCursor.encode(8L)));
+		assertThat(response.getLink("prev"), is(nullValue()));
+	}
+	
+	@Test
+	public void shouldNotGetTweetsForIncorrectCursor() {
+		assertThat(tweetRESTServiceImpl.getTweetsForUser("1", null, "not-a-cursor", null, null, uriInfo).getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.getTweetsForUser("1", null, TweetCursor.encode(1L), TweetCursor.encode(2L), null, uriInfo).getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.getTweetsForUser("1", "0", null, null, null, uriInfo).getStatus(), is(400));
+	}
 	
 	@Test
 	public void shouldNotGetTweetsForIncorrectUserId() {
-		Response response = tweetRESTServiceImpl.getTweetsForUser("PP");
+		Response response = tweetRESTServiceImpl.getTweetsForUser("PP", null, null, null, null, uriInfo);
 		assertThat(response.getStatus(), is(400));
 	}
 	
@@ -119,30 +395,27 @@ public class TweetRESTServiceImplTest {
 	public void shouldGetTweetsAndFollowerRepliesForUser() {
 
 		Tweet tweet1 = createTweet(1L, "tweetText1", "tweetfileName1", 1L);
-		Replies replies = createReply(1L, "replyText", "replyfileName", 2L);
-
-		// Add Followers
-		User followerUser = new User();
-		followerUser.setUserId(2L);
-		followerUser.setUserName("userName2");
-
-		Set<User> userSet = new HashSet<>();
-		userSet.add(followerUser);
-
-		tweet1.getUser().setFollowerUser(userSet);
-		
-		//Add replies
-		List<Replies> replyList = new ArrayList<>();
-		replyList.add(replies);
-		tweet1.setReplies(replyList);
+		Tweet tweet2 = createTweet(2L, "tweetText2", "tweetfileName2", 1L);
 
 		List<Tweet> tweetList = new ArrayList<>();
+		tweetList.add(tweet2);
 		tweetList.add(tweet1);
 
-		when(tweetRepo.getTweets(anyLong())).thenReturn(tweetList);
+		// Replies of follower 2, flattened by the repository query for the whole page
+		List<FollowerReply> followerReplies = new ArrayList<>();
+		followerReplies.add(new FollowerReply(1L, 1L, "replyText1", null, 2L, "userName2", "firstName", "lastName"));
+		followerReplies.add(new FollowerReply(1L, 3L, "replyText3", null, 2L, "userName2", "firstName", "lastName"));
 
-		Response response = tweetRESTServiceImpl.getFollowerTweetRepliesForUser("1");
-		assertThat(((List<TweetRepliesDTO>) response.getEntity()).size(), is(1));
+		when(tweetRepo.getTweetsBefore(anyLong(), anyLong(), any())).thenReturn(tweetList);
+		when(replyRepo.getFollowerReplies(Arrays.asList(2L, 1L))).thenReturn(followerReplies);
+
+		Response response = tweetRESTServiceImpl.getFollowerTweetRepliesForUser("1", null, null, null, null, uriInfo);
+		List<TweetRepliesDTO> tweetRepliesDTOs = (List<TweetRepliesDTO>) response.getEntity();
+		assertThat(tweetRepliesDTOs.size(), is(2));
+		assertThat(tweetRepliesDTOs.get(0).getRepliesDTOs().size(), is(0));
+		assertThat(tweetRepliesDTOs.get(1).getRepliesDTOs().size(), is(2));
+		assertThat(tweetRepliesDTOs.get(1).getRepliesDTOs().get(1).getReplyId(), is(3L));
+		assertThat(tweetRepliesDTOs.get(1).getRepliesDTOs().get(1).getUser().getUserId(), is(2L));
 		assertThat(response.getStatus(), is(200));
 	}
 	
@@ -159,9 +432,9 @@ public class TweetRESTServiceImplTest {
 		List<Tweet> tweetList = new ArrayList<>();
 		tweetList.add(tweet1);
 
-		when(tweetRepo.getTweets(anyLong())).thenReturn(tweetList);
+		when(tweetRepo.getTweetsBefore(anyLong(), anyLong(), any())).thenReturn(tweetList);
 
-		Response response = tweetRESTServiceImpl.getFollowerTweetRepliesForUser("1");
+		Response response = tweetRESTServiceImpl.getFollowerTweetRepliesForUser("1", null, null, null, null, uriInfo);
 		List<TweetRepliesDTO> tweetRepliesDTO = (List<TweetRepliesDTO>) response.getEntity();
 		assertThat((tweetRepliesDTO).size(), is(1));
 		
@@ -174,8 +447,8 @@ public class TweetRESTServiceImplTest {
 	@Test
 	public void shouldNotGetTweetsAndRepliesForUserIfTweetsNotPresent() {
 
-		when(tweetRepo.getTweets(anyLong())).thenReturn(null);
-		Response response = tweetRESTServiceImpl.getFollowerTweetRepliesForUser("1");
+		when(tweetRepo.getTweetsBefore(anyLong(), anyLong(), any())).thenReturn(null);
+		Response response = tweetRESTServiceImpl.getFollowerTweetRepliesForUser("1", null, null, null, null, uriInfo);
 		List<TweetRepliesDTO> tweetRepliesDTO = (List<TweetRepliesDTO>) response.getEntity();
 		assertThat((tweetRepliesDTO), is(nullValue()));
 		assertThat(response.getStatus(), is(500));
@@ -185,17 +458,142 @@ public class TweetRESTServiceImplTest {
 	@Test
 	public void shouldNotGetTweetsAndRepliesForIncorrectUserId() {
 
-		Response response = tweetRESTServiceImpl.getFollowerTweetRepliesForUser("PP");
+		Response response = tweetRESTServiceImpl.getFollowerTweetRepliesForUser("PP", null, null, null, null, uriInfo);
 		List<TweetRepliesDTO> tweetRepliesDTO = (List<TweetRepliesDTO>) response.getEntity();
 		assertThat((tweetRepliesDTO), is(nullValue()));
 		assertThat(response.getStatus(), is(400));
 	}
 
+	
+	@Test
+	public void shouldGetHomeTimelineInTimelineOrder() {
+
+		when(userRepo.existsById(2L)).thenReturn(true);
+		when(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 50)).thenReturn(new long[] {3L, 1L});
+		when(tweetRepo.findAllById(any())).thenReturn(Arrays.asList(createTweet(1L, "tweetText1", "tweetfileName1", 1L),
+				createTweet(3L, "tweetText3", "tweetfileName3", 1L)));
+
+		Response response = tweetRESTServiceImpl.getHomeTimeline("2", null, null, uriInfo);
+		List<TweetDTO> tweetDTOs = (List<TweetDTO>) response.getEntity();
+		assertThat(tweetDTOs.size(), is(2));
+		assertThat(tweetDTOs.get(0).getTweetId(), is(3L));
+		assertThat(tweetDTOs.get(1).getTweetId(), is(1L));
+		assertThat(response.getStatus(), is(200));
+	}
+	
+	@Test
+	public void shouldNotGetHomeTimelineWhenUserNotFound() {
+
+		when(userRepo.existsById(anyLong())).thenReturn(false);
+		Response response = tweetRESTServiceImpl.getHomeTimeline("10", null, null, uriInfo);
+		verify(homeTimelineService, never()).getTimeline(anyLong(), anyLong(), anyInt());
+		assertThat(response.getStatus(), is(404));
+	}
+	
+	@Test
+	public void shouldNotGetHomeTimelineForIncorrectLimit() {
+
+		assertThat(tweetRESTServiceImpl.getHomeTimeline("1", "LL", null, uriInfo).getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.getHomeTimeline("1", "0", null, uriInfo).getStatus(), is(400));
+	}
+	
+	@Test
+	public void shouldDeleteTweetAndTombstoneIt() {
+
+		when(replyRepo.getReplyIdsToTweet(1L)).thenReturn(Arrays.<Number>asList(4L, 5L));
+		when(tweetRepo.deleteTweetsById(Arrays.asList(1L))).thenReturn(1);
+		Response response = tweetRESTServiceImpl.deleteTweet("1");
+		verify(replyRepo).deleteRepliesToTweet(1L);
+		verify(tweetRepo, never()).findById(anyLong());
+		verify(homeTimelineService).onTweetDeleted(1L);
+		verify(tweetSearchIndex).onTweetDeleted(1L);
+		verify(tweetSearchIndex).onReplyDeleted(4L);
+		verify(tweetSearchIndex).onReplyDeleted(5L);
+		verify(engagementCounters).onTweetDeleted(1L);
+		assertThat(response.getStatus(), is(204));
+	}
+	
+	@Test
+	public void shouldSearchTweetsNewestFirstSkippingDeletedOnes() {
+
+		when(tweetSearchIndex.searchTweets(any(TextQuery.class), eq(Long.MAX_VALUE), eq(50))).thenReturn(new long[] {3L, 2L, 1L});
+		when(tweetRepo.findAllById(Arrays.asList(3L, 2L, 1L))).thenReturn(Arrays.asList(createTweet(1L, "hello there", null, 1L),
+				createTweet(3L, "Hello world", null, 2L)));
+
+		Response response = tweetRESTServiceImpl.searchTweets("hello", null, null, uriInfo);
+		List<TweetDTO> tweetDTOs = (List<TweetDTO>) response.getEntity();
+		assertThat(tweetDTOs.size(), is(2));
+		assertThat(tweetDTOs.get(0).getTweetId(), is(3L));
+		assertThat(tweetDTOs.get(1).getTweetId(), is(1L));
+		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldSearchTweetsByPhrase() {
+
+		when(tweetSearchIndex.searchTweets(any(TextQuery.class), eq(Long.MAX_VALUE), eq(50))).thenReturn(new long[] {3L, 1L});
+		when(tweetRepo.findAllById(Arrays.asList(3L, 1L))).thenReturn(Arrays.asList(createTweet(1L, "world, hello", null, 1L),
+				createTweet(3L, "Hello world", null, 2L)));
+
+		Response response = tweetRESTServiceImpl.searchTweets("\"hello world\"", null, null, uriInfo);
+		List<TweetDTO> tweetDTOs = (List<TweetDTO>) response.getEntity();
+		assertThat(tweetDTOs.size(), is(1));
+		assertThat(tweetDTOs.get(0).getTweetId(), is(3L));
+	}
+
+	@Test
+	public void shouldSearchReplies() {
+
+		when(tweetSearchIndex.searchReplies(any(TextQuery.class), eq(Long.MAX_VALUE), eq(50))).thenReturn(new long[] {1L});
+		when(replyRepo.findAllById(Arrays.asList(1L))).thenReturn(Arrays.asList(createReply(1L, "Try Delhi", null, 2L)));
+
+		Response response = tweetRESTServiceImpl.searchReplies("delhi", null, null, uriInfo);
+		List<RepliesDTO> repliesDTOs = (List<RepliesDTO>) response.getEntity();
+		assertThat(repliesDTOs.size(), is(1));
+		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldNotSearchTweetsWithoutWord() {
+
+		assertThat(tweetRESTServiceImpl.searchTweets(" #!", null, null, uriInfo).getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.searchTweets("hello", null, "notACursor", uriInfo).getStatus(), is(400));
+		verify(tweetSearchIndex, never()).searchTweets(any(TextQuery.class), anyLong(), anyInt());
+	}
+
+	@Test
+	public void shouldGetTrendsOfDefaultWindow() {
+
+		when(trendingTopics.getTrends(Window.ONE_HOUR, 10)).thenReturn(Arrays.asList(new TrendDTO.Builder().topic("#travel").tweetCount(3L).build()));
+		Response response = tweetRESTServiceImpl.getTrends(null, null);
+		assertThat(((List<TrendDTO>) response.getEntity()).get(0).getTopic(), is("#travel"));
+		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldNotGetTrendsOfUnknownWindow() {
+
+		assertThat(tweetRESTServiceImpl.getTrends("7d", null).getStatus(), is(400));
+		assertThat(tweetRESTServiceImpl.getTrends("5m", "-1").getStatus(), is(400));
+		verify(trendingTopics, never()).getTrends(any(Window.class), anyInt());
+	}
+
+	@Test
+	public void shouldNotDeleteTweetWhenNotFound() {
+
+		Response response = tweetRESTServiceImpl.deleteTweet("100");
+		verify(homeTimelineService, never()).onTweetDeleted(anyLong());
+		assertThat(response.getStatus(), is(404));
+	}
 
 	private RepliesDTO createReplyDTO(String replyText, String replyfileName) {
 		return new RepliesDTO.Builder().replyText(replyText).replyAttachment(replyfileName).build();
 	}
 
+	private RepliesDTO createReplyDTO(String replyText, String replyfileName, Long tweetId) {
+		return new RepliesDTO.Builder().replyText(replyText).replyAttachment(replyfileName).tweetId(tweetId).build();
+	}
+
 	private User createTweetUser(long id, String userName, String firstName, String lastName) {
 		User user = new User();
 		user.setUserId(id);
@@ -2,13 +2,23 @@ package com.twitter.controller.rest;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -20,11 +30,26 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import com.twitter.deletion.UserDeletionService;
 import com.twitter.dto.UserDTO;
+import com.twitter.dto.UserDeletionDTO;
+import com.twitter.dto.UserNameAvailabilityDTO;
+import com.twitter.dto.FollowImportReportDTO;
+import com.twitter.graph.FollowImporter;
+import com.twitter.graph.FollowerGraph;
+import com.twitter.id.ExistingIds;
 import com.twitter.model.User;
+import com.twitter.model.UserPurge;
+import com.twitter.persistence.RepliesRepository;
 import com.twitter.persistence.UserRepository;
+import com.twitter.search.UserSearchIndex;
+import com.twitter.timeline.HomeTimelineService;
+import com.twitter.username.UserNameRegistry;
+import com.twitter.version.ResourceVersions;
 
 /**
  * @author gauri sawant
@@ -39,62 +64,207 @@ public class UserRESTServiceImplTest {
 	@Mock
 	private UserRepository userRepo;
 
+	@Mock
+	private RepliesRepository replyRepo;
+
+	@Mock
+	private HomeTimelineService homeTimelineService;
+
+	@Mock
+	private FollowerGraph followerGraph;
+
+	@Mock
+	private FollowImporter followImporter;
+
+	@Mock
+	private UserDeletionService userDeletionService;
+
+	@Mock
+	private UserNameRegistry userNameRegistry;
+
+	@Mock
+	private UserSearchIndex userSearchIndex;
+
+	@Mock
+	private ExistingIds existingIds;
+
+	@Spy
+	private ResourceVersions resourceVersions = new ResourceVersions();
+
 	@Test
 	public void shouldCreateNewUser() {
 
 		User user = createUser(5L, "userName", "firstName", "lastName");
+		when(userNameRegistry.reserve("userName")).thenReturn(true);
 		when(userRepo.save(any(User.class))).thenReturn(user);
 		UserDTO userDTO = createUserDTO("firstName", "lastName", "userName");
 		Response response = userRESTServiceImpl.createUser(userDTO);
 		verify(userRepo).save(any(User.class));
+		verify(userSearchIndex).add(user);
+		verify(existingIds).onUserCreated(5L);
 		assertThat(response.getStatus(), is(201));
 	}
 	
 	@Test
 	public void shouldNotCreateNewUserWhenSameUserName() {
 
-		when(userRepo.getUserNameCount(anyString())).thenReturn(1);
 		UserDTO userDTO = createUserDTO("firstName", "lastName", "userName");
 		Response response = userRESTServiceImpl.createUser(userDTO);
-		verify(userRepo).getUserNameCount(anyString());
+		verify(userNameRegistry).reserve("userName");
 		verify(userRepo, never()).save(any(User.class));
 		assertThat(response.getStatus(), is(409));
 	}
-	
+
+	@Test
+	public void shouldNotCreateNewUserWithoutUserName() {
+
+		char[] tooLong = new char[UserRESTServiceImpl.MAX_USER_NAME_LENGTH + 1];
+		Arrays.fill(tooLong, 'a');
+		assertThat(userRESTServiceImpl.createUser(createUserDTO("firstName", "lastName", new String(tooLong))).getStatus(), is(400));
+		// No request body
+		assertThat(userRESTServiceImpl.createUser(null).getStatus(), is(400));
+		assertThat(userRESTServiceImpl.getUserNameAvailability(" ").getStatus(), is(400));
+		verifyNoInteractions(userNameRegistry, userRepo);
+	}
+
+	@Test
+	public void shouldNotCreateNewUserWhenUniqueConstraintViolated() {
+
+		when(userNameRegistry.reserve("userName")).thenReturn(true);
+		when(userRepo.save(any(User.class))).thenThrow(DataIntegrityViolationException.class);
+		UserDTO userDTO = createUserDTO("firstName", "lastName", "userName");
+		Response response = userRESTServiceImpl.createUser(userDTO);
+		verify(userNameRegistry, never()).release(anyString());
+		assertThat(response.getStatus(), is(409));
+	}
+
 	@Test
 	public void shouldThrowInternalErrorIfException() {
 
+		when(userNameRegistry.reserve("userName")).thenReturn(true);
 		when(userRepo.save(any(User.class))).thenThrow(NullPointerException.class);
 		UserDTO userDTO = createUserDTO("firstName", "lastName", "userName");
 		Response response = userRESTServiceImpl.createUser(userDTO);
 		verify(userRepo).save(any(User.class));
+		verify(userNameRegistry).release("userName");
 		assertThat(response.getStatus(), is(500));
 	}
+
+	@Test
+	public void shouldSearchUsers() {
+
+		when(userSearchIndex.search("ga", 50)).thenReturn(Arrays.asList(createUserDTO("Gauri", "Sawant", "gasaw")));
+		Response response = userRESTServiceImpl.searchUsers("ga", "500");
+		assertThat(((List<UserDTO>) response.getEntity()).size(), is(1));
+		verifyNoInteractions(userRepo);
+		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldNotSearchUsersWithoutPrefix() {
+
+		assertThat(userRESTServiceImpl.searchUsers(" ", null).getStatus(), is(400));
+		assertThat(userRESTServiceImpl.searchUsers("ga", "0").getStatus(), is(400));
+		verify(userSearchIndex, never()).search(anyString(), anyInt());
+	}
+
+	@Test
+	public void shouldGetUserNameAvailability() {
+
+		when(userNameRegistry.isAvailable("userName")).thenReturn(true);
+		Response response = userRESTServiceImpl.getUserNameAvailability("userName");
+		assertThat(((UserNameAvailabilityDTO) response.getEntity()).isAvailable(), is(true));
+		verifyNoInteractions(userRepo);
+		assertThat(response.getStatus(), is(200));
+	}
 	
 	@Test
 	public void shouldDeleteUser() {
 		
+		when(userDeletionService.delete(1L)).thenReturn(true);
+		when(userDeletionService.getPurge(1L)).thenReturn(Optional.of(new UserPurge(1L, Instant.now())));
+		when(followerGraph.getFollowers(1L)).thenReturn(new long[] {2L});
+		when(followerGraph.getFollowees(1L)).thenReturn(new long[] {3L});
+		when(replyRepo.getRepliedAuthorIds(1L)).thenReturn(Arrays.asList(4L));
+		String unrelated = resourceVersions.followersTag(5L);
+		String followee = resourceVersions.followersTag(3L);
+		String repliedAuthor = resourceVersions.tweetsTag(4L);
 		Response response = userRESTServiceImpl.deleteUser("1");
-		verify(userRepo).clearFollowers(anyLong());
-		verify(userRepo).deleteById(anyLong());
-		assertThat(response.getStatus(), is(204));
+		assertThat(resourceVersions.followersTag(5L), is(unrelated));
+		assertThat(resourceVersions.followersTag(3L), is(not(followee)));
+		assertThat(resourceVersions.tweetsTag(4L), is(not(repliedAuthor)));
+		verify(followerGraph).removeUser(1L);
+		verify(homeTimelineService).evict(1L);
+		verify(userSearchIndex).remove(1L);
+		verify(userSearchIndex).onFollowersChanged(3L);
+		verify(existingIds).onUserDeleted(1L);
+		verify(userRepo, never()).deleteById(anyLong());
+		assertThat(((UserDeletionDTO) response.getEntity()).getState(), is("PURGING"));
+		assertThat(response.getLocation().toString(), is("user/getDeletionStatus/1"));
+		assertThat(response.getStatus(), is(202));
+	}
+
+	@Test
+	public void shouldNotDeleteUserWhenUserNotFound() {
+		
+		Response response = userRESTServiceImpl.deleteUser("1");
+		verify(followerGraph, never()).removeUser(anyLong());
+		assertThat(response.getStatus(), is(404));
 	}
-	
 	
 	@Test
 	public void shouldNotDeleteUserWhenNumberFormatException() {
 		
 		Response response = userRESTServiceImpl.deleteUser("notANumber");
-		verify(userRepo, never()).clearFollowers(anyLong());
-		verify(userRepo, never()).deleteById(anyLong());
+		verify(userDeletionService, never()).delete(anyLong());
 		assertThat(response.getStatus(), is(400));
 	}
 
+	@Test
+	public void shouldGetDeletionStatus() {
+
+		UserPurge purge = new UserPurge(1L, Instant.now());
+		purge.setState(UserPurge.State.DONE);
+		purge.setTweetsPurged(3L);
+		when(userDeletionService.getPurge(1L)).thenReturn(Optional.of(purge));
+		Response response = userRESTServiceImpl.getDeletionStatus("1");
+		assertThat(((UserDeletionDTO) response.getEntity()).getState(), is("DONE"));
+		assertThat(((UserDeletionDTO) response.getEntity()).getTweetsPurged(), is(3L));
+		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldNotGetDeletionStatusWhenUserNotDeleted() {
+
+		when(userDeletionService.getPurge(1L)).thenReturn(Optional.empty());
+		assertThat(userRESTServiceImpl.getDeletionStatus("1").getStatus(), is(404));
+	}
+
+	@Test
+	public void shouldHideDeletedUsers() {
+
+		List<User> users = createUserList();
+		when(userRepo.findAll()).thenReturn(users);
+		when(userDeletionService.isDeleted(users.get(0).getUserId())).thenReturn(true);
+		Response response = userRESTServiceImpl.getUsers(null);
+		assertThat(((List<UserDTO>) response.getEntity()).size(), is(1));
+	}
+
+	@Test
+	public void shouldNotFollowDeletedUser() {
+
+		// Deleted users are dropped from the active ids when tombstoned
+		when(existingIds.isActiveUser(6L)).thenReturn(false);
+		Response response = userRESTServiceImpl.followUser("5", "6");
+		verify(userRepo, never()).follow(anyLong(), anyLong());
+		assertThat(response.getStatus(), is(404));
+	}
+
 	@Test
 	public void shouldGetAllUsers() {
 
 		when(userRepo.findAll()).thenReturn(createUserList());
-		Response response = userRESTServiceImpl.getUsers();
+		Response response = userRESTServiceImpl.getUsers(null);
 		verify(userRepo).findAll();
 		assertThat(((List<UserDTO>) response.getEntity()).size(), is(2));
 		assertThat(response.getStatus(), is(200));
@@ -103,51 +273,84 @@ public class UserRESTServiceImplTest {
 	@Test
 	public void shouldFollowUser() {
 
-		User follower = createUser(5L, "userName1", "firstName1", "lastName1");
-		User followed = createUser(6L, "userName2", "firstName2", "lastName2");
-		Set<User> set = new HashSet<>();
-		set.add(follower);
-		followed.setFollowerUser(set);
-		when(userRepo.findById(anyLong())).thenReturn(Optional.of(follower), Optional.of(followed));
-		when(userRepo.save(any(User.class))).thenReturn(followed);
+		when(existingIds.isActiveUser(anyLong())).thenReturn(true);
+		when(userRepo.follow(6L, 5L)).thenReturn(1);
 		Response response = userRESTServiceImpl.followUser("5", "6");
-		verify(userRepo).save(any(User.class));
+		verify(userRepo).follow(6L, 5L);
+		verify(userRepo, never()).save(any(User.class));
+		verify(followerGraph).follow(5L, 6L);
+		verify(userSearchIndex).onFollowersChanged(6L);
+		assertThat(response.getStatus(), is(200));
+
+	}
+
+	@Test
+	public void shouldNotInsertWhenAlreadyFollowing() {
+
+		when(existingIds.isActiveUser(anyLong())).thenReturn(true);
+		when(followerGraph.isFollowing(5L, 6L)).thenReturn(true);
+		Response response = userRESTServiceImpl.followUser("5", "6");
+		verify(userRepo, never()).follow(anyLong(), anyLong());
+		verify(followerGraph, never()).follow(anyLong(), anyLong());
 		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldFollowUserIdempotentlyWhenFollowAddedConcurrently() {
+
+		when(existingIds.isActiveUser(anyLong())).thenReturn(true);
+		when(userRepo.follow(6L, 5L)).thenThrow(DataIntegrityViolationException.class);
+		Response response = userRESTServiceImpl.followUser("5", "6");
+		verify(followerGraph, never()).follow(anyLong(), anyLong());
+		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldNotFollowUserWhenUserNotFound() {
 
+		when(existingIds.isActiveUser(6L)).thenReturn(false);
+		Response response = userRESTServiceImpl.followUser("5", "6");
+		verify(userRepo, never()).follow(anyLong(), anyLong());
+		assertThat(response.getStatus(), is(404));
 	}
 	
 	@Test
 	public void shouldNotFollowUserWhenException() {
 		
-		when(userRepo.findById(anyLong())).thenReturn(null, null);
+		when(existingIds.isActiveUser(anyLong())).thenThrow(NullPointerException.class);
 		Response response = userRESTServiceImpl.followUser("5", "6");
-		verify(userRepo, never()).save(any(User.class));
+		verify(userRepo, never()).follow(anyLong(), anyLong());
 		assertThat(response.getStatus(), is(500));
 	}
 
 	@Test
 	public void shouldUnFollowUser() {
 
-		User follower = createUser(5L, "userName1", "firstName1", "lastName1");
-		User followed = createUser(6L, "userName2", "firstName2", "lastName2");
-		Set<User> set = followed.getFollowerUser();
-		set.add(follower);
-		followed.setFollowerUser(set);
-
-		when(userRepo.findById(anyLong())).thenReturn(Optional.of(follower), Optional.of(followed));
-		when(userRepo.save(any(User.class))).thenReturn(followed);
+		when(existingIds.isActiveUser(anyLong())).thenReturn(true);
+		when(userRepo.unfollow(6L, 5L)).thenReturn(1);
 		Response response = userRESTServiceImpl.unfollowUser("5", "6");
-		verify(userRepo).save(any(User.class));
+		verify(userRepo).unfollow(6L, 5L);
+		verify(userRepo, never()).save(any(User.class));
+		verify(followerGraph).unfollow(5L, 6L);
 		assertThat(response.getStatus(), is(200));
 
 	}
+
+	@Test
+	public void shouldNotUnFollowUserWhenNotFollowing() {
+
+		when(existingIds.isActiveUser(anyLong())).thenReturn(true);
+		Response response = userRESTServiceImpl.unfollowUser("5", "6");
+		verify(followerGraph, never()).unfollow(anyLong(), anyLong());
+		assertThat(response.getStatus(), is(403));
+	}
 	
 	@Test
 	public void shouldNotUnFollowUserWhenException() {
 		
-		when(userRepo.findById(anyLong())).thenReturn(null, null);
+		when(existingIds.isActiveUser(anyLong())).thenThrow(NullPointerException.class);
 		Response response = userRESTServiceImpl.unfollowUser("5", "6");
-		verify(userRepo, never()).save(any(User.class));
+		verify(userRepo, never()).unfollow(anyLong(), anyLong());
 		assertThat(response.getStatus(), is(500));
 	}
 	
@@ -156,36 +359,118 @@ public class UserRESTServiceImplTest {
 		
 		User follower1 = createUser(5L, "userName1", "firstName1", "lastName1");
 		User follower2 = createUser(4L, "userName3", "firstName3", "lastName3");
-		User followed = createUser(6L, "userName2", "firstName2", "lastName2");
-		Set<User> set = followed.getFollowerUser();
-		set.add(follower2);
-		set.add(follower1);
-		followed.setFollowerUser(set);
-		when(userRepo.findById(anyLong())).thenReturn(Optional.of(followed));
-		Response response = userRESTServiceImpl.getfollowers("6");
-		verify(userRepo).findById(anyLong());
+		when(followerGraph.getFollowers(6L)).thenReturn(new long[] {4L, 5L});
+		when(userRepo.findAllById(Arrays.asList(4L, 5L))).thenReturn(Arrays.asList(follower1, follower2));
+		Response response = userRESTServiceImpl.getfollowers("6", null);
+		verify(userRepo).findAllById(Arrays.asList(4L, 5L));
 		assertThat(((List<UserDTO>) response.getEntity()).size(), is(2));
+		assertThat(((List<UserDTO>) response.getEntity()).get(0).getUserId(), is(4L));
 		assertThat(response.getStatus(), is(200));
 	}
 	
+	@Test
+	public void shouldNotQueryFollowersWhenNotModified() {
+
+		when(existingIds.isActiveUser(anyLong())).thenReturn(true);
+		when(userRepo.follow(6L, 3L)).thenReturn(1);
+		when(followerGraph.getFollowers(6L)).thenReturn(new long[0]);
+		String tag = userRESTServiceImpl.getfollowers("6", null).getEntityTag().getValue();
+
+		Response response = userRESTServiceImpl.getfollowers("6", "\"other\", W/\"" + tag + "\"");
+		assertThat(response.getStatus(), is(304));
+		assertThat(response.getEntityTag().getValue(), is(tag));
+		verify(followerGraph, times(1)).getFollowers(6L);
+
+		userRESTServiceImpl.followUser("3", "6");
+		assertThat(userRESTServiceImpl.getfollowers("6", "\"" + tag + "\"").getStatus(), is(204));
+	}
+
+	@Test
+	public void shouldNotQueryUsersWhenNotModified() {
+
+		when(userRepo.findAll()).thenReturn(createUserList());
+		String tag = userRESTServiceImpl.getUsers(null).getEntityTag().getValue();
+
+		assertThat(userRESTServiceImpl.getUsers("\"" + tag + "\"").getStatus(), is(304));
+		assertThat(userRESTServiceImpl.getUsers("*").getStatus(), is(304));
+		verify(userRepo, times(1)).findAll();
+	}
+
 	@Test
 	public void shouldNotGetFollowersWhenNumberFormatException() {
 		
-		verify(userRepo, never()).findById(anyLong());
-		Response response = userRESTServiceImpl.getfollowers("notANumber");
+		Response response = userRESTServiceImpl.getfollowers("notANumber", null);
+		verify(followerGraph, never()).getFollowers(anyLong());
 		assertThat(response.getStatus(), is(400));
 	}
 	
 	@Test
 	public void shouldReturnNoContentWhenFollowersNotFound() {
 		
-		User followed = createUser(6L, "userName2", "firstName2", "lastName2");
-		when(userRepo.findById(anyLong())).thenReturn(Optional.of(followed));
-		Response response = userRESTServiceImpl.getfollowers("6");
-		verify(userRepo).findById(anyLong());
+		when(followerGraph.getFollowers(6L)).thenReturn(new long[0]);
+		Response response = userRESTServiceImpl.getfollowers("6", null);
+		verify(userRepo, never()).findAllById(any());
+		assertThat(response.getStatus(), is(204));
+	}
+	
+	@Test
+	public void shouldGetFollowedAmongIds() {
+
+		when(followerGraph.getFollowedAmong(eq(6L), any(long[].class))).thenReturn(new long[] {4L});
+		Response response = userRESTServiceImpl.getFollowedAmong("6", "4, 5");
+		verify(followerGraph).getFollowedAmong(6L, new long[] {4L, 5L});
+		assertThat((long[]) response.getEntity(), is(new long[] {4L}));
+		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldNotGetFollowedAmongWhenIdsMalformed() {
+
+		assertThat(userRESTServiceImpl.getFollowedAmong("6", "4,x").getStatus(), is(400));
+		assertThat(userRESTServiceImpl.getFollowedAmong("6", null).getStatus(), is(400));
+		assertThat(userRESTServiceImpl.getFollowedAmong("6", "4,-5").getStatus(), is(400));
+		assertThat(userRESTServiceImpl.getFollowedAmong("0", "4").getStatus(), is(400));
+		verify(followerGraph, never()).getFollowedAmong(anyLong(), any(long[].class));
+	}
+
+	@Test
+	public void shouldGetMutualFollowers() {
+
+		User follower = createUser(5L, "userName1", "firstName1", "lastName1");
+		when(followerGraph.getMutualFollowers(6L, 7L)).thenReturn(new long[] {5L});
+		when(userRepo.findAllById(Arrays.asList(5L))).thenReturn(Arrays.asList(follower));
+		Response response = userRESTServiceImpl.getMutualFollowers("6", "7");
+		assertThat(((List<UserDTO>) response.getEntity()).size(), is(1));
+		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldReturnNoContentWhenNoFollowerFollowedBy() {
+
+		when(followerGraph.getFollowersFollowedBy(6L, 7L)).thenReturn(new long[0]);
+		Response response = userRESTServiceImpl.getFollowersFollowedBy("6", "7");
+		verify(userRepo, never()).findAllById(any());
 		assertThat(response.getStatus(), is(204));
 	}
 	
+	@Test
+	public void shouldImportFollowsInFormatOfContentType() throws IOException {
+
+		InputStream body = new ByteArrayInputStream("5,6".getBytes());
+		when(followImporter.importFollows(body, FollowImporter.Format.CSV)).thenReturn(new FollowImportReportDTO.Builder().imported(1).build());
+		Response response = userRESTServiceImpl.importFollows("text/csv; charset=UTF-8", body);
+		assertThat(((FollowImportReportDTO) response.getEntity()).getImported(), is(1L));
+		assertThat(response.getStatus(), is(200));
+	}
+
+	@Test
+	public void shouldNotImportFollowsWhenException() throws IOException {
+
+		when(followImporter.importFollows(any(), any())).thenThrow(IOException.class);
+		Response response = userRESTServiceImpl.importFollows(UserRESTService.NDJSON, new ByteArrayInputStream(new byte[0]));
+		assertThat(response.getStatus(), is(500));
+	}
+	
 	private UserDTO createUserDTO(String firstName, String lastName, String userName) {
 		return new UserDTO.Builder().firstName(firstName).lastName(lastName).userName(userName).build();
 	}
@@ -0,0 +1,219 @@
+package com.twitter.deletion;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import com.twitter.engagement.EngagementCounters;
+import com.twitter.id.ExistingIds;
+import com.twitter.model.User;
+import com.twitter.model.UserPurge;
+import com.twitter.persistence.RepliesRepository;
+import com.twitter.persistence.TweetRepository;
+import com.twitter.persistence.UserPurgeRepository;
+import com.twitter.persistence.UserRepository;
+import com.twitter.search.TweetSearchIndex;
+import com.twitter.username.UserNameRegistry;
+import com.twitter.version.ResourceVersions;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UserDeletionServiceTest {
+
+	@InjectMocks
+	private UserDeletionService userDeletionService;
+
+	@Mock
+	private UserRepository userRepo;
+
+	@Mock
+	private TweetRepository tweetRepo;
+
+	@Mock
+	private RepliesRepository replyRepo;
+
+	@Mock
+	private UserPurgeRepository purgeRepo;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private UserNameRegistry userNameRegistry;
+
+	@Mock
+	private EngagementCounters engagementCounters;
+
+	@Mock
+	private ExistingIds existingIds;
+
+	@Mock
+	private TweetSearchIndex tweetSearchIndex;
+
+	@Mock
+	private ResourceVersions resourceVersions;
+
+	@Before
+	public void setup() {
+		userDeletionService.batchSize = 2;
+	}
+
+	@Test
+	public void shouldTombstoneUserAndSchedulePurge() {
+
+		when(userRepo.tombstone(eq(1L), any(Instant.class))).thenReturn(1);
+		assertThat(userDeletionService.delete(1L), is(true));
+		verify(purgeRepo).save(any(UserPurge.class));
+		assertThat(userDeletionService.isDeleted(1L), is(true));
+	}
+
+	@Test
+	public void shouldNotDeleteUnknownUser() {
+
+		assertThat(userDeletionService.delete(1L), is(false));
+		verify(purgeRepo, never()).save(any(UserPurge.class));
+		assertThat(userDeletionService.isDeleted(1L), is(false));
+	}
+
+	@Test
+	public void shouldLoadDeletedUsersLeftToPurge() {
+
+		when(userRepo.getDeletedUserIds()).thenReturn(Arrays.<Number>asList(3L, 4));
+		userDeletionService.afterSingletonsInstantiated();
+		assertThat(userDeletionService.isDeleted(3L), is(true));
+		assertThat(userDeletionService.isDeleted(4L), is(true));
+	}
+
+	@Test
+	public void shouldPurgeRepliesThenTweetsThenFollowsThenUser() {
+
+		UserPurge purge = new UserPurge(1L, Instant.now());
+		when(purgeRepo.save(purge)).thenReturn(purge);
+		when(replyRepo.getReplyIdsOfUser(1L, 2)).thenReturn(Arrays.<Number>asList(11L, 12L), Arrays.<Number>asList());
+		when(replyRepo.getReplyIdsToTweetsOfUser(1L, 2)).thenReturn(Arrays.<Number>asList(13L), Arrays.<Number>asList());
+		when(replyRepo.deleteRepliesById(Arrays.asList(11L, 12L))).thenReturn(2);
+		when(replyRepo.deleteRepliesById(Arrays.asList(13L))).thenReturn(1);
+		when(tweetRepo.getRecentTweetIds(1L, 2)).thenReturn(Arrays.<Number>asList(8L, 5L), Arrays.<Number>asList());
+		when(tweetRepo.deleteTweetsById(Arrays.asList(8L, 5L))).thenReturn(2);
+		when(userRepo.deleteFollowsOfUser(1L, 2)).thenReturn(1, 0);
+
+		assertThat(userDeletionService.purgeStep(purge).deletedReplyIds, is(Arrays.asList(11L, 12L)));
+		assertThat(userDeletionService.purgeStep(purge).deletedReplyIds, is(Arrays.asList(13L)));
+		assertThat(purge.getRepliesPurged(), is(3L));
+		verify(tweetRepo, never()).getRecentTweetIds(anyLong(), eq(2));
+
+		assertThat(userDeletionService.purgeStep(purge).deletedTweetIds, is(Arrays.asList(8L, 5L)));
+		assertThat(purge.getTweetsPurged(), is(2L));
+		verify(existingIds, never()).onTweetDeleted(anyLong());
+		verify(userRepo, never()).deleteFollowsOfUser(anyLong(), eq(2));
+
+		userDeletionService.purgeStep(purge);
+		assertThat(purge.getFollowsPurged(), is(1L));
+		verify(userRepo, never()).purge(anyLong());
+		assertThat(purge.getState(), is(UserPurge.State.PURGING));
+
+		User user = new User();
+		user.setUserName("userName");
+		when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+		assertThat(userDeletionService.purgeStep(purge).releasedUserName, is("userName"));
+		verify(userNameRegistry, never()).release(anyString());
+		verify(userRepo).purge(1L);
+		assertThat(purge.getState(), is(UserPurge.State.DONE));
+	}
+
+	@Test
+	public void shouldForgetDeletedUserOncePurged() {
+
+		when(userRepo.tombstone(eq(1L), any(Instant.class))).thenReturn(1);
+		userDeletionService.delete(1L);
+		UserPurge purge = new UserPurge(1L, Instant.now());
+		when(purgeRepo.findFirstByStateOrderByRequestedAtAsc(UserPurge.State.PURGING)).thenReturn(Optional.of(purge));
+		when(purgeRepo.save(purge)).thenReturn(purge);
+		when(userRepo.getLikedTweetIds(1L)).thenReturn(Arrays.<Number>asList(7L, 9L));
+		when(userRepo.getRetweetedTweetIds(1L)).thenReturn(Arrays.<Number>asList(9L));
+
+		userDeletionService.purgeBatch();
+		assertThat(purge.getState(), is(UserPurge.State.DONE));
+		assertThat(userDeletionService.isDeleted(1L), is(false));
+		verify(engagementCounters).onUserPurged(1L, Arrays.asList(7L, 9L), Arrays.asList(9L));
+	}
+
+	@Test
+	public void shouldBumpTweetsOfAuthorsWhoseCountsThePurgeChanged() {
+
+		when(userRepo.tombstone(eq(1L), any(Instant.class))).thenReturn(1);
+		userDeletionService.delete(1L);
+		UserPurge purge = new UserPurge(1L, Instant.now());
+		when(purgeRepo.findFirstByStateOrderByRequestedAtAsc(UserPurge.State.PURGING)).thenReturn(Optional.of(purge));
+		when(purgeRepo.save(purge)).thenReturn(purge);
+		when(userRepo.getLikedTweetIds(1L)).thenReturn(Arrays.<Number>asList(7L, 9L));
+		when(engagementCounters.onUserPurged(1L, Arrays.asList(7L, 9L), Collections.emptyList()))
+				.thenReturn(new HashSet<>(Arrays.asList(7L, 9L)));
+		when(existingIds.authorOf(7L)).thenReturn(3L);
+
+		userDeletionService.purgeBatch();
+		verify(resourceVersions).onTweetsChanged(3L);
+		verify(resourceVersions, never()).onTweetsChanged(0L);
+	}
+
+	@Test
+	public void shouldForgetPurgedTweetsAndReleaseNameAfterCommitOnly() {
+
+		when(userRepo.tombstone(eq(1L), any(Instant.class))).thenReturn(1);
+		userDeletionService.delete(1L);
+		UserPurge purge = new UserPurge(1L, Instant.now());
+		when(purgeRepo.findFirstByStateOrderByRequestedAtAsc(UserPurge.State.PURGING)).thenReturn(Optional.of(purge));
+		when(purgeRepo.save(purge)).thenReturn(purge);
+		when(tweetRepo.getRecentTweetIds(1L, 2)).thenReturn(Arrays.<Number>asList(8L));
+		when(tweetRepo.deleteTweetsById(Arrays.asList(8L))).thenReturn(1);
+		doThrow(new TransactionSystemException("commit failed")).doNothing().when(transactionManager).commit(any());
+
+		userDeletionService.purgeBatch();
+		verify(existingIds, never()).onTweetDeleted(anyLong());
+		verify(tweetSearchIndex, never()).onTweetDeleted(anyLong());
+		verify(engagementCounters, never()).onTweetDeleted(anyLong());
+
+		userDeletionService.purgeBatch();
+		verify(existingIds).onTweetDeleted(8L);
+		verify(tweetSearchIndex).onTweetDeleted(8L);
+		verify(engagementCounters).onTweetDeleted(8L);
+
+		User user = new User();
+		user.setUserName("userName");
+		when(userRepo.findById(1L)).thenReturn(Optional.of(user));
+		when(tweetRepo.getRecentTweetIds(1L, 2)).thenReturn(Arrays.<Number>asList());
+		doThrow(new TransactionSystemException("commit failed")).doNothing().when(transactionManager).commit(any());
+		userDeletionService.purgeBatch();
+		verify(userNameRegistry, never()).release(anyString());
+		assertThat(userDeletionService.isDeleted(1L), is(true));
+
+		userDeletionService.purgeBatch();
+		verify(userNameRegistry).release("userName");
+		assertThat(userDeletionService.isDeleted(1L), is(false));
+	}
+}
@@ -0,0 +1,142 @@
+package com.twitter.engagement;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.twitter.engagement.EngagementCounters.Action;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EngagementCountersTest {
+
+	@InjectMocks
+	private EngagementCounters engagementCounters;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Before
+	public void setup() {
+		engagementCounters.flushBatchSize = 2;
+	}
+
+	@Test
+	public void shouldCountEachUserOnce() {
+
+		assertThat(engagementCounters.add(Action.LIKE, 1L, 2L), is(true));
+		assertThat(engagementCounters.add(Action.LIKE, 1L, 2L), is(false));
+		assertThat(engagementCounters.add(Action.LIKE, 1L, 3L), is(true));
+		assertThat(engagementCounters.add(Action.RETWEET, 1L, 2L), is(true));
+		assertThat(engagementCounters.remove(Action.RETWEET, 5L, 2L), is(false));
+
+		assertThat(engagementCounters.count(Action.LIKE, 1L), is(2L));
+		assertThat(engagementCounters.count(Action.RETWEET, 1L), is(1L));
+		assertThat(engagementCounters.has(Action.LIKE, 1L, 3L), is(true));
+		assertThat(engagementCounters.count(Action.LIKE, 5L), is(0L));
+	}
+
+	@Test
+	public void shouldNotQueryWhileNothingChanged() {
+
+		engagementCounters.flush();
+		verifyNoInteractions(jdbcTemplate, transactionManager);
+	}
+
+	@Test
+	public void shouldCoalesceChangesIntoBatches() {
+
+		engagementCounters.add(Action.LIKE, 1L, 2L);
+		engagementCounters.remove(Action.LIKE, 1L, 2L);
+		engagementCounters.add(Action.LIKE, 1L, 2L);
+		engagementCounters.add(Action.LIKE, 1L, 3L);
+		engagementCounters.remove(Action.LIKE, 1L, 3L);
+		engagementCounters.add(Action.LIKE, 1L, 4L);
+		engagementCounters.flush();
+
+		assertThat(batch("DELETE FROM TWEET_LIKES"), contains(Arrays.asList(1L, 3L)));
+		assertThat(batch("INSERT INTO TWEET_LIKES").size(), is(2));
+		assertThat(engagementCounters.pending(), is(0));
+		assertThat(engagementCounters.count(Action.LIKE, 1L), is(2L));
+	}
+
+	@Test
+	public void shouldKeepChangesOfFailedFlush() {
+
+		when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+		engagementCounters.add(Action.RETWEET, 1L, 2L);
+		engagementCounters.flush();
+
+		assertThat(engagementCounters.pending(), is(1));
+		assertThat(engagementCounters.count(Action.RETWEET, 1L), is(1L));
+	}
+
+	@Test
+	public void shouldTakeBackEngagementsOfPurgedUser() {
+
+		engagementCounters.add(Action.LIKE, 1L, 2L);
+		engagementCounters.add(Action.LIKE, 3L, 2L);
+		engagementCounters.add(Action.LIKE, 3L, 4L);
+		engagementCounters.add(Action.RETWEET, 3L, 2L);
+		engagementCounters.flush();
+		// Liked after the last flush, not among the rows read by the purge
+		engagementCounters.add(Action.LIKE, 5L, 2L);
+		assertThat(engagementCounters.onUserPurged(2L, Arrays.asList(1L, 3L), Arrays.asList(3L)),
+				is(new HashSet<>(Arrays.asList(1L, 3L, 5L))));
+		engagementCounters.onTweetDeleted(1L);
+
+		assertThat(engagementCounters.count(Action.LIKE, 3L), is(1L));
+		assertThat(engagementCounters.count(Action.RETWEET, 3L), is(0L));
+		assertThat(engagementCounters.count(Action.LIKE, 5L), is(0L));
+		assertThat(engagementCounters.has(Action.LIKE, 1L, 2L), is(false));
+		assertThat(engagementCounters.cellCount(), is(1));
+		assertThat(engagementCounters.pending(), is(0));
+	}
+
+	@Test
+	public void shouldRemoveCellOnceCountFallsToZero() {
+
+		engagementCounters.add(Action.LIKE, 1L, 2L);
+		engagementCounters.remove(Action.LIKE, 1L, 2L);
+		assertThat(engagementCounters.cellCount(), is(0));
+
+		assertThat(engagementCounters.add(Action.LIKE, 1L, 3L), is(true));
+		assertThat(engagementCounters.count(Action.LIKE, 1L), is(1L));
+		assertThat(engagementCounters.cellCount(), is(1));
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<List<Object>> batch(String statement) {
+		ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+		verify(jdbcTemplate).batchUpdate(startsWith(statement), args.capture());
+		return args.getValue().stream().map(Arrays::asList).collect(Collectors.toList());
+	}
+}
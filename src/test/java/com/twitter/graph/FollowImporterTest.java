@@ -0,0 +1,132 @@
+package com.twitter.graph;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.twitter.dto.FollowImportReportDTO;
+import com.twitter.id.ExistingIds;
+import com.twitter.search.UserSearchIndex;
+import com.twitter.timeline.HomeTimelineService;
+import com.twitter.version.ResourceVersions;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FollowImporterTest {
+
+	@InjectMocks
+	private FollowImporter followImporter;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private FollowerGraph followerGraph;
+
+	@Mock
+	private HomeTimelineService homeTimelineService;
+
+	@Mock
+	private ResourceVersions resourceVersions;
+
+	@Mock
+	private ExistingIds existingIds;
+
+	@Mock
+	private UserSearchIndex userSearchIndex;
+
+	@Before
+	public void setup() {
+		followImporter.batchSize = 2;
+		lenient().when(existingIds.isActiveUser(longThat(userId -> userId >= 1L && userId <= 4L))).thenReturn(true);
+	}
+
+	@Test
+	public void shouldImportCsvInBatchesAndRejectBadRows() throws IOException {
+
+		when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenReturn(new int[] {1, 0}, new int[] {1});
+		FollowImportReportDTO report = importFollows("follower,followed\n2,1\n3,1\n\n4,4\n9,1\n1,x\n4,1\n", FollowImporter.Format.CSV);
+
+		assertThat(report.getRows(), is(6L));
+		assertThat(report.getImported(), is(2L));
+		assertThat(report.getDuplicates(), is(1L));
+		assertThat(report.getRejected(), is(3L));
+		assertThat(report.getRejects().get(0).getLine(), is(5L));
+		assertThat(report.getRejects().get(1).getReason(), is("Unknown follower user 9"));
+		verify(jdbcTemplate, times(2)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+		verify(followerGraph).follow(2L, 1L);
+		verify(followerGraph, never()).follow(3L, 1L);
+		verify(followerGraph).follow(4L, 1L);
+		verify(homeTimelineService).evict(4L);
+		verify(resourceVersions, times(2)).onFollowersChanged(1L);
+		verify(userSearchIndex, times(2)).onFollowersChanged(1L);
+	}
+
+	@Test
+	public void shouldImportNdjson() throws IOException {
+
+		when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenReturn(new int[] {1});
+		FollowImportReportDTO report = importFollows("{\"follower-user-id\": 3, \"source\": {\"x\": 1}, \"followed-user-id\": 2}\n"
+				+ "{\"follower-user-id\": 3}\n[3, 2]\n", FollowImporter.Format.NDJSON);
+
+		assertThat(report.getImported(), is(1L));
+		assertThat(report.getRejected(), is(2L));
+		verify(followerGraph).follow(3L, 2L);
+	}
+
+	@Test
+	public void shouldRejectNonIntegerNdjsonIdsAsMalformed() throws IOException {
+
+		FollowImportReportDTO report = importFollows("{\"follower-user-id\": \"abc\", \"followed-user-id\": 2}\n"
+				+ "{\"follower-user-id\": 3, \"followed-user-id\": null}\n"
+				+ "{\"follower-user-id\": \"3\", \"followed-user-id\": 2.5}\n", FollowImporter.Format.NDJSON);
+
+		assertThat(report.getRejected(), is(3L));
+		assertThat(report.getRejects().get(0).getReason(), is("Malformed row: follower-user-id is not an integer"));
+		assertThat(report.getRejects().get(1).getReason(), is("Malformed row: followed-user-id is not an integer"));
+		verify(existingIds, never()).isActiveUser(anyLong());
+	}
+
+	@Test
+	public void shouldKeepOnlyMaxRejects() throws IOException {
+
+		followImporter.maxRejects = 1;
+		FollowImportReportDTO report = importFollows("1,9\n9,1\n", FollowImporter.Format.CSV);
+
+		assertThat(report.getRejected(), is(2L));
+		assertThat(report.getRejects().size(), is(1));
+		verify(followerGraph, never()).follow(anyLong(), anyLong());
+	}
+
+	private FollowImportReportDTO importFollows(String body, FollowImporter.Format format) throws IOException {
+		return followImporter.importFollows(new BufferedReader(new StringReader(body)), format);
+	}
+}
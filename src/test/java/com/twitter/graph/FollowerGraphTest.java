@@ -0,0 +1,99 @@
+package com.twitter.graph;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class FollowerGraphTest {
+
+	private FollowerGraph followerGraph;
+
+	@Before
+	public void setup() {
+		followerGraph = new FollowerGraph();
+		// Users 2, 3 and 4 follow 1, user 3 follows 2, one duplicate row
+		followerGraph.load(new long[] {1L, 1L, 1L, 2L, 1L}, new long[] {3L, 2L, 4L, 3L, 2L}, 5);
+	}
+
+	@Test
+	public void shouldLoadBothDirectionsSortedWithoutDuplicates() {
+
+		assertThat(followerGraph.getFollowers(1L), is(new long[] {2L, 3L, 4L}));
+		assertThat(followerGraph.getFollowees(3L), is(new long[] {1L, 2L}));
+		assertThat(followerGraph.getFollowers(4L), is(new long[0]));
+		assertThat(followerGraph.isFollowing(2L, 1L), is(true));
+		assertThat(followerGraph.isFollowing(1L, 2L), is(false));
+		assertThat(followerGraph.edges(), is(4));
+	}
+
+	@Test
+	public void shouldReadDeltaBeforeMerge() {
+
+		followerGraph.follow(4L, 2L);
+		followerGraph.unfollow(3L, 1L);
+		followerGraph.follow(3L, 1L);
+		followerGraph.unfollow(2L, 1L);
+
+		assertThat(followerGraph.getFollowers(1L), is(new long[] {3L, 4L}));
+		assertThat(followerGraph.getFollowers(2L), is(new long[] {3L, 4L}));
+		assertThat(followerGraph.getFollowees(4L), is(new long[] {1L, 2L}));
+		assertThat(followerGraph.getFollowerCount(1L), is(2));
+		assertThat(followerGraph.isFollowing(2L, 1L), is(false));
+		assertThat(followerGraph.deltaSize(), is(2));
+	}
+
+	@Test
+	public void shouldMergeDeltaIntoSnapshot() {
+
+		followerGraph.follow(4L, 2L);
+		followerGraph.unfollow(2L, 1L);
+		followerGraph.merge();
+
+		assertThat(followerGraph.deltaSize(), is(0));
+		assertThat(followerGraph.getFollowers(1L), is(new long[] {3L, 4L}));
+		assertThat(followerGraph.getFollowees(4L), is(new long[] {1L, 2L}));
+		assertThat(followerGraph.edges(), is(4));
+	}
+
+	@Test
+	public void shouldMergeOnceDeltaReachesThreshold() {
+
+		followerGraph.mergeThreshold = 2;
+		followerGraph.follow(4L, 2L);
+		assertThat(followerGraph.deltaSize(), is(1));
+		followerGraph.follow(4L, 3L);
+		assertThat(followerGraph.deltaSize(), is(0));
+		assertThat(followerGraph.getFollowees(4L), is(new long[] {1L, 2L, 3L}));
+	}
+
+	@Test
+	public void shouldRemoveEveryEdgeOfUser() {
+
+		followerGraph.removeUser(3L);
+		assertThat(followerGraph.getFollowers(1L), is(new long[] {2L, 4L}));
+		assertThat(followerGraph.getFollowers(2L), is(new long[0]));
+		assertThat(followerGraph.getFollowees(3L), is(new long[0]));
+	}
+
+	@Test
+	public void shouldAnswerRelationshipQueriesFromSnapshotAndDelta() {
+
+		assertThat(followerGraph.getFollowedAmong(3L, new long[] {4L, 2L, 1L, 2L}), is(new long[] {1L, 2L}));
+		assertThat(followerGraph.getFollowedAmong(3L, new long[] {-1L, Long.MIN_VALUE, 2L}), is(new long[] {2L}));
+		assertThat(followerGraph.getMutualFollowers(1L, 2L), is(new long[] {3L}));
+		assertThat(followerGraph.getFollowersFollowedBy(1L, 4L), is(new long[0]));
+
+		followerGraph.follow(4L, 2L);
+		followerGraph.follow(4L, 3L);
+		assertThat(followerGraph.getMutualFollowers(1L, 2L), is(new long[] {3L, 4L}));
+		assertThat(followerGraph.getFollowersFollowedBy(1L, 4L), is(new long[] {2L, 3L}));
+		followerGraph.merge();
+		assertThat(followerGraph.getFollowedAmong(4L, new long[] {1L, 2L, 3L, 5L}), is(new long[] {1L, 2L, 3L}));
+	}
+}
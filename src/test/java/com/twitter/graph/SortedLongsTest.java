@@ -0,0 +1,48 @@
+package com.twitter.graph;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class SortedLongsTest {
+
+	@Test
+	public void shouldMergeArraysOfSimilarLength() {
+
+		long[] left = {1L, 3L, 5L, 70_000L};
+		long[] right = {3L, 4L, 5L, 80_000L};
+		assertThat(SortedLongs.intersect(left, right), is(new long[] {3L, 5L}));
+		assertThat(SortedLongs.intersect(left, SortedLongs.EMPTY), is(new long[0]));
+	}
+
+	@Test
+	public void shouldGallopThroughLongerArray() {
+
+		long[] even = LongStream.range(0, 20_000).map(i -> i * 2).toArray();
+		long[] few = {-4L, 2L, 3L, 9_998L, 39_998L, 40_000L};
+		assertThat(SortedLongs.intersect(few, even), is(new long[] {2L, 9_998L, 39_998L}));
+		assertThat(SortedLongs.intersect(even, few), is(new long[] {2L, 9_998L, 39_998L}));
+	}
+
+	@Test
+	public void shouldIntersectTimeOrderedIdsLikeSets() {
+
+		// Ids shaped like the Snowflake ones, a millisecond timestamp from bit 22 on
+		Random random = new Random(3L);
+		long[] large = random.longs(5_000, 1L << 40, 1L << 62).sorted().distinct().toArray();
+		long[] small = LongStream.concat(Arrays.stream(large).filter(id -> id % 7 == 0), random.longs(50, 1L << 40, 1L << 62))
+				.sorted().distinct().toArray();
+		long[] expected = Arrays.stream(small).filter(id -> Arrays.binarySearch(large, id) >= 0).toArray();
+		assertThat(SortedLongs.intersect(small, large), is(expected));
+		assertThat(SortedLongs.intersect(large, large), is(large));
+	}
+}
@@ -0,0 +1,37 @@
+package com.twitter.hash;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class HashingTest {
+
+	@Test
+	public void shouldSpreadTimeOrderedIdsOverLowBits() {
+
+		// Ids a millisecond apart, the low bits of the raw ids are all zero
+		long distinct = LongStream.range(0, 1_024).map(i -> (1_000_000L + i) << 22).map(Hashing::mix).map(h -> h & 1_023)
+				.distinct().count();
+		assertThat(distinct > 600, is(true));
+	}
+
+	@Test
+	public void shouldHashStringsAndDeriveIndexesInRange() {
+
+		assertThat(Hashing.hash("travel"), is(Hashing.hash(new StringBuilder("travel"))));
+		assertThat(Hashing.hash("travel"), is(not(Hashing.hash("travels"))));
+		long hash = Hashing.hash("delhi");
+		IntStream.rangeClosed(1, 8).forEach(i -> assertThat(Hashing.index(hash, i, 13L), lessThan(13L)));
+		assertThat(Hashing.index(-1L, 1, 7L) >= 0, is(true));
+	}
+}
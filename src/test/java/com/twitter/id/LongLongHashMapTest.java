@@ -0,0 +1,84 @@
+package com.twitter.id;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class LongLongHashMapTest {
+
+	@Test
+	public void shouldPutAndRemoveIds() {
+
+		LongLongHashMap ids = new LongLongHashMap(4);
+		assertThat(ids.put(7L, 70L), is(true));
+		assertThat(ids.put(7L, 71L), is(false));
+		assertThat(ids.get(7L, 0L), is(71L));
+		assertThat(ids.containsKey(7L), is(true));
+		assertThat(ids.containsKey(8L), is(false));
+		assertThat(ids.get(8L, -1L), is(-1L));
+		assertThat(ids.containsKey(0L), is(false));
+		assertThat(ids.remove(7L), is(true));
+		assertThat(ids.remove(7L), is(false));
+		assertThat(ids.size(), is(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectIdsNotPositive() {
+
+		new LongLongHashMap(4).put(0L, 1L);
+	}
+
+	@Test
+	public void shouldMatchHashMapThroughResizesAndRemovals() {
+
+		LongLongHashMap ids = new LongLongHashMap(16);
+		Map<Long, Long> expected = new HashMap<>();
+		Random random = new Random(42L);
+		for (int i = 0; i < 50_000; i++) {
+			// Few distinct ids, so that runs of colliding entries are removed from often
+			long id = 1L + random.nextInt(5_000);
+			if (random.nextBoolean()) {
+				assertThat(ids.put(id, i), is(expected.put(id, (long) i) == null));
+			} else {
+				assertThat(ids.remove(id), is(expected.remove(id) != null));
+			}
+		}
+		assertThat(ids.size(), is(expected.size()));
+		for (long id = 1L; id <= 5_000L; id++) {
+			assertThat(ids.get(id, -1L), is(expected.getOrDefault(id, -1L)));
+		}
+	}
+
+	@Test
+	public void shouldFindIdsWhileAnotherThreadWrites() throws InterruptedException {
+
+		LongLongHashMap ids = new LongLongHashMap(16);
+		for (long id = 1L; id <= 1_000L; id++) {
+			ids.put(id, id * 10L);
+		}
+		Thread writer = new Thread(() -> {
+			for (long id = 1_001L; id <= 100_000L; id++) {
+				ids.put(id, id * 10L);
+				ids.remove(id - 500L > 1_000L ? id - 500L : id);
+			}
+		});
+		writer.start();
+		boolean allFound = true;
+		while (writer.isAlive()) {
+			for (long id = 1L; id <= 1_000L; id++) {
+				allFound &= ids.get(id, 0L) == id * 10L;
+			}
+		}
+		writer.join();
+		assertThat(allFound, is(true));
+	}
+}
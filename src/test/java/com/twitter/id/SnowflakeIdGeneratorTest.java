@@ -0,0 +1,71 @@
+package com.twitter.id;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class SnowflakeIdGeneratorTest {
+
+	private long now = SnowflakeIdGenerator.EPOCH + 1_000L;
+
+	@Test
+	public void shouldEncodeTimestampNodeAndSequence() {
+
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, () -> now);
+		long first = generator.nextId();
+		long second = generator.nextId();
+
+		assertThat(first, is(1_000L << 22 | 5L << 12));
+		assertThat(second, is(first + 1));
+		assertThat(SnowflakeIdGenerator.timestampOf(second), is(now));
+	}
+
+	@Test
+	public void shouldStayMonotonicWhenClockGoesBack() {
+
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> now);
+		long before = generator.nextId();
+		now -= 500L;
+		long after = generator.nextId();
+		assertThat(after, greaterThan(before));
+		assertThat(SnowflakeIdGenerator.timestampOf(after), is(now + 500L));
+	}
+
+	@Test
+	public void shouldCarrySequenceOverflowIntoNextMillisecond() {
+
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, () -> now);
+		long last = 0L;
+		for (int i = 0; i < 4097; i++) {
+			long id = generator.nextId();
+			assertThat(id, greaterThan(last));
+			last = id;
+		}
+		assertThat(SnowflakeIdGenerator.timestampOf(last), is(now + 1L));
+		assertThat(last & 0x3FF000L, is(1L << 12));
+	}
+
+	@Test
+	public void shouldHandOutUniqueIdsConcurrently() {
+
+		SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, System::currentTimeMillis);
+		Set<Long> ids = ConcurrentHashMap.newKeySet();
+		IntStream.range(0, 100_000).parallel().forEach(i -> ids.add(generator.nextId()));
+		assertThat(ids.size(), is(100_000));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectNodeIdOutOfRange() {
+		new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1, () -> now);
+	}
+}
@@ -0,0 +1,195 @@
+package com.twitter.ingest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class WritePipelineTest {
+
+	@InjectMocks
+	private WritePipeline writePipeline;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private ExecutorService callers;
+
+	@Before
+	public void setup() {
+		callers = Executors.newFixedThreadPool(8);
+		writePipeline.groupCommit = true;
+		writePipeline.batchSize = 100;
+		writePipeline.lingerMillis = 50L;
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		callers.shutdownNow();
+		writePipeline.shutdown();
+	}
+
+	@Test
+	public void shouldSaveOnCallingThreadWhenDisabled() throws Exception {
+
+		writePipeline.groupCommit = false;
+		writePipeline.afterSingletonsInstantiated();
+		assertThat(writePipeline.write("tweet", text -> text + " saved"), is("tweet saved"));
+		verifyNoInteractions(transactionManager);
+	}
+
+	@Test
+	public void shouldCommitConcurrentWritesInBatches() throws Exception {
+
+		writePipeline.afterSingletonsInstantiated();
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			String text = "tweet" + i;
+			results.add(callers.submit(() -> writePipeline.write(text, saved -> saved + " saved")));
+		}
+		for (int i = 0; i < 40; i++) {
+			assertThat(results.get(i).get(5, TimeUnit.SECONDS), is("tweet" + i + " saved"));
+		}
+		assertThat(writePipeline.getWrites(), is(40L));
+		assertThat(writePipeline.getBatches(), lessThan(40L));
+		assertThat(writePipeline.getQueueDepth(), is(0));
+		verify(transactionManager, atLeastOnce()).commit(any());
+	}
+
+	@Test
+	public void shouldFailOnlyTheBadWriteOfBatch() throws Exception {
+
+		writePipeline.afterSingletonsInstantiated();
+		Future<String> good = callers.submit(() -> writePipeline.write("good", saved -> saved));
+		Future<String> bad = callers.submit(() -> writePipeline.write("bad", saved -> {
+			throw new IllegalStateException("constraint violated");
+		}));
+
+		assertThat(good.get(5, TimeUnit.SECONDS), is("good"));
+		try {
+			bad.get(5, TimeUnit.SECONDS);
+		} catch (ExecutionException ex) {
+			assertThat(ex.getCause().getCause(), instanceOf(IllegalStateException.class));
+			return;
+		}
+		throw new AssertionError("bad write succeeded");
+	}
+
+	@Test
+	public void shouldWriteAllInChunksAndFailOnlyBadWrites() {
+
+		writePipeline.bulkChunkSize = 2;
+		List<String> saved = writePipeline.writeAll(Arrays.asList("tweet0", "bad", "tweet2", "tweet3", "tweet4"), text -> {
+			if ("bad".equals(text)) {
+				throw new IllegalStateException("constraint violated");
+			}
+			return text + " saved";
+		});
+
+		assertThat(saved, contains("tweet0 saved", null, "tweet2 saved", "tweet3 saved", "tweet4 saved"));
+		// Three chunks, the first one rolled back and written again row by row
+		verify(transactionManager, times(3)).commit(any());
+		verify(transactionManager, times(2)).rollback(any());
+	}
+
+	@Test
+	public void shouldRejectWritesWhenQueueIsFull() throws Exception {
+
+		writePipeline.queueCapacity = 1;
+		writePipeline.batchSize = 1;
+		writePipeline.afterSingletonsInstantiated();
+		CountDownLatch saving = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> blocked = callers.submit(() -> writePipeline.write("first", saved -> {
+			saving.countDown();
+			await(release);
+			return saved;
+		}));
+		saving.await(5, TimeUnit.SECONDS);
+		Future<String> queued = callers.submit(() -> writePipeline.write("second", saved -> saved));
+		while (writePipeline.getQueueDepth() == 0) {
+			Thread.sleep(1L);
+		}
+
+		try {
+			writePipeline.write("third", saved -> saved);
+			throw new AssertionError("third write queued");
+		} catch (WriteRejectedException ex) {
+			release.countDown();
+		}
+		assertThat(blocked.get(5, TimeUnit.SECONDS), is("first"));
+		assertThat(queued.get(5, TimeUnit.SECONDS), is("second"));
+	}
+
+	@Test
+	public void shouldNotCommitWriteThatTimedOutInQueue() throws Exception {
+
+		writePipeline.batchSize = 1;
+		writePipeline.writeTimeoutMillis = 100L;
+		writePipeline.afterSingletonsInstantiated();
+		CountDownLatch saving = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicBoolean secondSaved = new AtomicBoolean();
+		Future<String> blocked = callers.submit(() -> writePipeline.write("first", saved -> {
+			saving.countDown();
+			await(release);
+			return saved;
+		}));
+		saving.await(5, TimeUnit.SECONDS);
+
+		try {
+			writePipeline.write("second", saved -> {
+				secondSaved.set(true);
+				return saved;
+			});
+			throw new AssertionError("second write did not time out");
+		} catch (TimeoutException ex) {
+			release.countDown();
+		}
+		// The first write timed out too, while being saved, so its caller waited for the commit
+		assertThat(blocked.get(5, TimeUnit.SECONDS), is("first"));
+		Thread.sleep(200L);
+		assertThat(secondSaved.get(), is(false));
+		assertThat(writePipeline.getWrites(), is(1L));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.twitter.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class PostingsListTest {
+
+	@Test
+	public void shouldEncodeGapsAsVarints() {
+
+		PostingsList postings = new PostingsList();
+		postings.add(1L);
+		postings.add(2L);
+		postings.add(130L);
+		postings.add(1L << 40);
+		assertThat(postings.toArray(), is(new long[] {1L, 2L, 130L, 1L << 40}));
+		// 1 and 1 take a byte each, 128 two bytes, the last gap six
+		assertThat(postings.byteSize(), is(10));
+	}
+
+	@Test
+	public void shouldInsertOutOfOrderIdsOnce() {
+
+		PostingsList postings = new PostingsList();
+		postings.add(5L);
+		postings.add(9L);
+		assertThat(postings.add(7L), is(true));
+		assertThat(postings.add(9L), is(false));
+		assertThat(postings.add(7L), is(false));
+		postings.add(12L);
+		assertThat(postings.toArray(), is(new long[] {5L, 7L, 9L, 12L}));
+	}
+
+	@Test
+	public void shouldSeekNewestFirstAcrossBlocks() throws IOException {
+
+		PostingsList postings = new PostingsList();
+		for (long id = 1; id <= 3 * PostingsList.SKIP_INTERVAL; id++) {
+			postings.add(id * 2);
+		}
+		PostingsList.Cursor cursor = postings.cursor();
+		assertThat(cursor.seek(Long.MAX_VALUE), is(6L * PostingsList.SKIP_INTERVAL));
+		assertThat(cursor.seek(501L), is(500L));
+		assertThat(cursor.seek(500L), is(500L));
+		assertThat(cursor.seek(257L), is(256L));
+		assertThat(cursor.seek(3L), is(2L));
+		assertThat(cursor.seek(1L), is(PostingsList.Cursor.END));
+		assertThat(cursor.seek(0L), is(PostingsList.Cursor.END));
+
+		// Out of order ids and read lists rebuild the skip entries
+		postings.add(255L);
+		assertThat(postings.cursor().seek(255L), is(255L));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		postings.write(new DataOutputStream(bytes), Collections.emptySet());
+		PostingsList read = PostingsList.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		PostingsList.Cursor readCursor = read.cursor();
+		assertThat(readCursor.seek(700L), is(700L));
+		assertThat(readCursor.seek(255L), is(255L));
+		assertThat(readCursor.seek(254L), is(254L));
+	}
+
+	@Test
+	public void shouldWriteWithoutRemovedIds() throws IOException {
+
+		PostingsList postings = new PostingsList();
+		for (long id = 1; id <= 300; id++) {
+			postings.add(id * 3);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		postings.write(new DataOutputStream(bytes), Collections.singleton(6L));
+		PostingsList read = PostingsList.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertThat(read.size(), is(299));
+		assertThat(read.toArray()[1], is(9L));
+		read.add(1_000L);
+		assertThat(read.toArray()[299], is(1_000L));
+	}
+}
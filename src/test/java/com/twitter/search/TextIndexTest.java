@@ -0,0 +1,77 @@
+package com.twitter.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class TextIndexTest {
+
+	@Test
+	public void shouldCompactRemovedDocuments() {
+
+		TextIndex index = new TextIndex();
+		index.add(1L, "travel light");
+		index.add(2L, "travel far");
+		index.remove(1L);
+		index.compact();
+		assertThat(index.removed(), is(0));
+		assertThat(index.terms(), is(2));
+		assertThat(index.search(TextQuery.parse("travel").terms(), Long.MAX_VALUE, 10), is(new long[] {2L}));
+
+		for (long id = 3; id < 3 + TextIndex.COMPACT_THRESHOLD; id++) {
+			index.add(id, "travel far");
+			index.remove(id);
+		}
+		assertThat(index.removed(), is(0));
+		assertThat(index.search(TextQuery.parse("far").terms(), Long.MAX_VALUE, 10), is(new long[] {2L}));
+	}
+
+	@Test
+	public void shouldIntersectNewestFirstFromCursor() {
+
+		TextIndex index = new TextIndex();
+		List<Long> both = new ArrayList<>();
+		for (long id = 1; id <= 2_000; id++) {
+			boolean travel = id % 2 == 0;
+			boolean far = id % 3 == 0;
+			index.add(id, (travel ? "travel " : "") + (far ? "far" : "light"));
+			if (travel && far && id < 1_500) {
+				both.add(id);
+			}
+		}
+		index.remove(1_494L);
+		both.remove(1_494L);
+		Collections.reverse(both);
+
+		long[] found = index.search(TextQuery.parse("far travel").terms(), 1_500L, 100);
+		assertThat(found.length, is(100));
+		for (int i = 0; i < found.length; i++) {
+			assertThat(found[i], is(both.get(i)));
+		}
+		assertThat(index.search(TextQuery.parse("far travel").terms(), 13L, 10), is(new long[] {12L, 6L}));
+		assertThat(index.search(TextQuery.parse("travel").terms(), 1L, 10), is(new long[0]));
+	}
+
+	@Test
+	public void shouldCompactBeforeWriting() throws IOException {
+
+		TextIndex index = new TextIndex();
+		index.add(1L, "travel light");
+		index.remove(1L);
+		index.write(new DataOutputStream(new ByteArrayOutputStream()));
+		assertThat(index.removed(), is(0));
+		assertThat(index.terms(), is(0));
+	}
+}
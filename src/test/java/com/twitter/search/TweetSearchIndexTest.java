@@ -0,0 +1,86 @@
+package com.twitter.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class TweetSearchIndexTest {
+
+	private TweetSearchIndex tweetSearchIndex;
+
+	@Before
+	public void setup() {
+		tweetSearchIndex = new TweetSearchIndex();
+		tweetSearchIndex.onTweetCreated(1L, "Hello there!!");
+		tweetSearchIndex.onTweetCreated(2L, "Planning to travel to Delhi(India), any suggestions?");
+		tweetSearchIndex.onTweetCreated(3L, "#Travel plans: Delhi then Agra");
+		tweetSearchIndex.onTweetCreated(4L, "hello again, travel buddies");
+		tweetSearchIndex.onReplyAdded(1L, "Visit Delhi in winter");
+	}
+
+	@Test
+	public void shouldAndWordsNewestFirst() {
+
+		assertThat(tweetSearchIndex.searchTweets(TextQuery.parse("travel"), Long.MAX_VALUE, 10), is(new long[] {4L, 3L, 2L}));
+		assertThat(tweetSearchIndex.searchTweets(TextQuery.parse("DELHI travel"), Long.MAX_VALUE, 10), is(new long[] {3L, 2L}));
+		assertThat(tweetSearchIndex.searchTweets(TextQuery.parse("delhi hello"), Long.MAX_VALUE, 10), is(new long[0]));
+		assertThat(tweetSearchIndex.searchTweets(TextQuery.parse("rome"), Long.MAX_VALUE, 10), is(new long[0]));
+		assertThat(tweetSearchIndex.searchReplies(TextQuery.parse("delhi"), Long.MAX_VALUE, 10), is(new long[] {1L}));
+	}
+
+	@Test
+	public void shouldPageBeforeCursor() {
+
+		assertThat(tweetSearchIndex.searchTweets(TextQuery.parse("travel"), Long.MAX_VALUE, 2), is(new long[] {4L, 3L}));
+		assertThat(tweetSearchIndex.searchTweets(TextQuery.parse("travel"), 3L, 2), is(new long[] {2L}));
+	}
+
+	@Test
+	public void shouldSkipDeletedTweets() {
+
+		tweetSearchIndex.onTweetDeleted(3L);
+		assertThat(tweetSearchIndex.searchTweets(TextQuery.parse("travel"), Long.MAX_VALUE, 10), is(new long[] {4L, 2L}));
+		tweetSearchIndex.onReplyDeleted(1L);
+		assertThat(tweetSearchIndex.searchReplies(TextQuery.parse("delhi"), Long.MAX_VALUE, 10), is(new long[0]));
+	}
+
+	@Test
+	public void shouldMatchPhrasesOnText() {
+
+		TextQuery query = TextQuery.parse("\"travel delhi\"");
+		assertThat(tweetSearchIndex.searchTweets(query, Long.MAX_VALUE, 10), is(new long[] {3L, 2L}));
+		assertThat(query.matches("#Travel plans: Delhi then Agra"), is(false));
+		assertThat(TextQuery.parse("\"travel to delhi\"").matches("Planning to travel to Delhi(India)"), is(true));
+		assertThat(TextQuery.parse("\"travel to delhi\"").matches("Delhi to travel"), is(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectQueryWithoutWord() {
+		TextQuery.parse(" ?! ");
+	}
+
+	@Test
+	public void shouldRestoreSnapshotWithoutDeletedTweets() throws IOException {
+
+		tweetSearchIndex.onTweetDeleted(2L);
+		ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+		tweetSearchIndex.write(snapshot);
+
+		TweetSearchIndex restored = new TweetSearchIndex();
+		restored.read(new ByteArrayInputStream(snapshot.toByteArray()));
+		assertThat(restored.searchTweets(TextQuery.parse("travel"), Long.MAX_VALUE, 10), is(new long[] {4L, 3L}));
+		assertThat(restored.searchReplies(TextQuery.parse("winter"), Long.MAX_VALUE, 10), is(new long[] {1L}));
+		restored.onTweetCreated(5L, "travel light");
+		assertThat(restored.searchTweets(TextQuery.parse("travel"), Long.MAX_VALUE, 10), is(new long[] {5L, 4L, 3L}));
+	}
+}
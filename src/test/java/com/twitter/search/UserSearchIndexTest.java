@@ -0,0 +1,113 @@
+package com.twitter.search;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.twitter.dto.UserDTO;
+import com.twitter.graph.FollowerGraph;
+import com.twitter.model.User;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UserSearchIndexTest {
+
+	@InjectMocks
+	private UserSearchIndex userSearchIndex;
+
+	@Mock
+	private FollowerGraph followerGraph;
+
+	@Before
+	public void setup() {
+		lenient().when(followerGraph.getFollowerCount(anyLong())).thenReturn(0);
+		userSearchIndex.add(createUser(1L, "gasaw", "Gauri", "Sawant"));
+		userSearchIndex.add(createUser(2L, "sgore", "Sanket", "Gore"));
+		userSearchIndex.add(createUser(3L, "skulk", "Shardul", "Kulkarni"));
+		userSearchIndex.add(createUser(4L, "sanjay", "Sanjay", null));
+	}
+
+	@Test
+	public void shouldMatchAnyNameCaseInsensitively() {
+
+		assertThat(userNames(userSearchIndex.search("SA", 10)), contains("gasaw", "sgore", "sanjay"));
+		assertThat(userNames(userSearchIndex.search("kul", 10)), contains("skulk"));
+		assertThat(userSearchIndex.search("x", 10), is(empty()));
+	}
+
+	@Test
+	public void shouldRankByFollowerCountAndKeepTopK() {
+
+		when(followerGraph.getFollowerCount(4L)).thenReturn(7);
+		when(followerGraph.getFollowerCount(2L)).thenReturn(3);
+		userSearchIndex.onFollowersChanged(4L);
+		userSearchIndex.onFollowersChanged(2L);
+		assertThat(userNames(userSearchIndex.search("sa", 2)), contains("sanjay", "sgore"));
+		assertThat(userNames(userSearchIndex.search("san", 2)), contains("sanjay", "sgore"));
+	}
+
+	@Test
+	public void shouldRankShortPrefixByFollowerCountBeyondScanLimit() {
+
+		userSearchIndex.maxScan = 1;
+		when(followerGraph.getFollowerCount(5L)).thenReturn(9);
+		userSearchIndex.add(createUser(5L, "szymon", "Szymon", null));
+		assertThat(userNames(userSearchIndex.search("s", 1)), contains("szymon"));
+
+		when(followerGraph.getFollowerCount(5L)).thenReturn(0);
+		when(followerGraph.getFollowerCount(3L)).thenReturn(4);
+		userSearchIndex.onFollowersChanged(5L);
+		userSearchIndex.onFollowersChanged(3L);
+		assertThat(userNames(userSearchIndex.search("s", 1)), contains("skulk"));
+
+		userSearchIndex.remove(3L);
+		assertThat(userNames(userSearchIndex.search("s", 1)), contains("gasaw"));
+	}
+
+	@Test
+	public void shouldRequireEveryPrefixOfQuery() {
+
+		assertThat(userNames(userSearchIndex.search("sa go", 10)), contains("sgore"));
+		assertThat(userNames(userSearchIndex.search("gauri saw", 10)), contains("gasaw"));
+	}
+
+	@Test
+	public void shouldStayFreshThroughCreatesAndDeletes() {
+
+		userSearchIndex.remove(2L);
+		userSearchIndex.add(createUser(1L, "gasaw", "Gauri", "Patil"));
+		assertThat(userNames(userSearchIndex.search("sa", 10)), contains("sanjay"));
+		assertThat(userNames(userSearchIndex.search("pat", 10)), contains("gasaw"));
+		assertThat(userSearchIndex.size(), is(3));
+	}
+
+	private static List<String> userNames(List<UserDTO> users) {
+		return users.stream().map(UserDTO::getUserName).collect(Collectors.toList());
+	}
+
+	private static User createUser(Long id, String userName, String firstName, String lastName) {
+		User user = new User();
+		user.setUserId(id);
+		user.setUserName(userName);
+		user.setFirstName(firstName);
+		user.setLastName(lastName);
+		return user;
+	}
+}
@@ -0,0 +1,200 @@
+package com.twitter.timeline;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import com.twitter.graph.FollowerGraph;
+import com.twitter.persistence.TweetRepository;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class HomeTimelineServiceTest {
+
+	private static final long[] EMPTY = new long[0];
+
+	@InjectMocks
+	private HomeTimelineService homeTimelineService;
+
+	@Mock
+	private TweetRepository tweetRepo;
+
+	@Mock
+	private FollowerGraph followerGraph;
+
+	@Before
+	public void setup() {
+		homeTimelineService.capacity = 3;
+		homeTimelineService.fanoutThreshold = 2;
+		lenient().when(followerGraph.getFollowees(anyLong())).thenReturn(EMPTY);
+	}
+
+	@Test
+	public void shouldRebuildColdTimelineFromDatabaseOnce() {
+
+		when(tweetRepo.getHomeTimelineTweetIds(2L, 3)).thenReturn(Arrays.asList(5L, 3L, 1L));
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10), is(new long[] {5L, 3L, 1L}));
+		assertThat(homeTimelineService.getTimeline(2L, 5L, 10), is(new long[] {3L, 1L}));
+		verify(tweetRepo, times(1)).getHomeTimelineTweetIds(anyLong(), anyInt());
+	}
+
+	@Test
+	public void shouldFanOutToWarmTimelinesOnly() {
+
+		when(tweetRepo.getHomeTimelineTweetIds(2L, 3)).thenReturn(Collections.emptyList());
+		homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10);
+
+		tweet(1L, 7L, 2L, 3L);
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10), is(new long[] {7L}));
+		assertThat(homeTimelineService.warmTimelines(), is(1));
+		verify(tweetRepo, never()).getHomeTimelineTweetIds(3L, 3);
+	}
+
+	@Test
+	public void shouldKeepOnlyNewestTweetsWithinCapacity() {
+
+		when(tweetRepo.getHomeTimelineTweetIds(2L, 3)).thenReturn(Collections.emptyList());
+		homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10);
+		for (long tweetId = 1; tweetId <= 5; tweetId++) {
+			tweet(1L, tweetId, 2L);
+		}
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10), is(new long[] {5L, 4L, 3L}));
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 2), is(new long[] {5L, 4L}));
+	}
+
+	@Test
+	public void shouldSkipTombstonedTweets() {
+
+		when(tweetRepo.getHomeTimelineTweetIds(2L, 3)).thenReturn(Arrays.asList(5L, 3L, 1L));
+		homeTimelineService.onTweetDeleted(3L);
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10), is(new long[] {5L, 1L}));
+	}
+
+	@Test
+	public void shouldRebuildEvictedTimeline() {
+
+		when(tweetRepo.getHomeTimelineTweetIds(2L, 3)).thenReturn(Collections.emptyList(), Collections.singletonList(4L));
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10), is(EMPTY));
+		homeTimelineService.evict(2L);
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10), is(new long[] {4L}));
+	}
+
+	@Test
+	public void shouldKeepTweetCreatedDuringRebuild() {
+
+		when(followerGraph.getFollowerCount(1L)).thenReturn(1);
+		when(followerGraph.getFollowers(1L)).thenReturn(new long[] {2L});
+		when(tweetRepo.getHomeTimelineTweetIds(2L, 3)).thenAnswer(invocation -> {
+			// Committed after the query read the timeline, and one that the query read already
+			homeTimelineService.onTweetsCreated(1L, 9L);
+			homeTimelineService.onTweetsCreated(1L, 5L);
+			return Arrays.asList(5L, 3L);
+		});
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10), is(new long[] {9L, 5L, 3L}));
+	}
+
+	@Test
+	public void shouldEvictLeastRecentlyReadTimelines() {
+
+		homeTimelineService.maxWarmTimelines = 2;
+		when(tweetRepo.getHomeTimelineTweetIds(anyLong(), anyInt())).thenReturn(Collections.emptyList());
+		homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10);
+		homeTimelineService.getTimeline(3L, Long.MAX_VALUE, 10);
+		homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10);
+		homeTimelineService.getTimeline(4L, Long.MAX_VALUE, 10);
+		assertThat(homeTimelineService.warmTimelines(), is(2));
+
+		homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10);
+		homeTimelineService.getTimeline(3L, Long.MAX_VALUE, 10);
+		verify(tweetRepo, times(1)).getHomeTimelineTweetIds(2L, 3);
+		verify(tweetRepo, times(2)).getHomeTimelineTweetIds(3L, 3);
+	}
+
+	@Test
+	public void shouldIgnoreTweetAlreadyReadByRebuild() {
+
+		LongRingBuffer timeline = new LongRingBuffer(3);
+		timeline.push(1L);
+		timeline.push(4L);
+		timeline.push(4L);
+		timeline.push(2L);
+		assertThat(timeline.page(Long.MAX_VALUE, 10, id -> false), is(new long[] {4L, 2L, 1L}));
+		timeline.push(3L);
+		assertThat(timeline.page(Long.MAX_VALUE, 10, id -> false), is(new long[] {4L, 3L, 2L}));
+		timeline.push(1L);
+		assertThat(timeline.size(), is(3));
+	}
+
+	@Test
+	public void shouldMergeTweetsOfAuthorsOverThresholdAtReadTime() {
+
+		when(followerGraph.getFollowees(2L)).thenReturn(new long[] {1L, 9L});
+		when(tweetRepo.getHomeTimelineTweetIds(2L, 3)).thenReturn(Arrays.asList(6L, 4L));
+		homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10);
+
+		// User 9 has three followers, over the threshold of two
+		tweet(9L, 7L, 2L, 3L, 4L);
+		tweet(1L, 8L, 2L);
+		assertThat(homeTimelineService.isCelebrity(9L), is(true));
+		assertThat(homeTimelineService.warmTimelines(), is(1));
+
+		// The author list of user 9 is loaded on the first read and holds a tweet already fanned out before
+		when(tweetRepo.getRecentTweetIds(9L, 3)).thenReturn(Arrays.asList(7L, 4L));
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10), is(new long[] {8L, 7L, 6L, 4L}));
+		assertThat(homeTimelineService.getTimeline(2L, 8L, 2), is(new long[] {7L, 6L}));
+
+		tweet(9L, 10L, 2L, 3L, 4L);
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 1), is(new long[] {10L}));
+	}
+
+	@Test
+	public void shouldNotMergeAuthorsNotFollowed() {
+
+		when(tweetRepo.getHomeTimelineTweetIds(2L, 3)).thenReturn(Collections.singletonList(1L));
+		tweet(9L, 7L, 3L, 4L, 5L);
+		assertThat(homeTimelineService.getTimeline(2L, Long.MAX_VALUE, 10), is(new long[] {1L}));
+		verify(tweetRepo, never()).getRecentTweetIds(anyLong(), anyInt());
+	}
+
+	@Test
+	public void shouldNotCopyFollowersOfAuthorsOverThreshold() {
+
+		when(followerGraph.getFollowerCount(9L)).thenReturn(3);
+		homeTimelineService.onTweetsCreated(9L, 7L, 8L);
+		assertThat(homeTimelineService.isCelebrity(9L), is(true));
+		verify(followerGraph, never()).getFollowers(anyLong());
+	}
+
+	@Test
+	public void shouldMergeSortedListsNewestFirst() {
+
+		long[] merged = TimelineMerger.merge(Arrays.asList(new long[] {9L, 5L, 1L}, EMPTY, new long[] {8L, 5L, 2L}, new long[] {7L}), 5);
+		assertThat(merged, is(new long[] {9L, 8L, 7L, 5L, 2L}));
+		assertThat(TimelineMerger.merge(Collections.singletonList(EMPTY), 5), is(EMPTY));
+	}
+
+	private void tweet(long authorId, long tweetId, long... followerIds) {
+		lenient().when(followerGraph.getFollowerCount(authorId)).thenReturn(followerIds.length);
+		lenient().when(followerGraph.getFollowers(authorId)).thenReturn(followerIds);
+		homeTimelineService.onTweetsCreated(authorId, tweetId);
+	}
+}
@@ -0,0 +1,132 @@
+package com.twitter.trends;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.twitter.dto.TrendDTO;
+import com.twitter.trends.TrendingTopics.Window;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class TrendingTopicsTest {
+
+	private TrendingTopics trendingTopics;
+	private long now;
+
+	@Before
+	public void setup() {
+		now = 1_000_000_000_000L;
+		trendingTopics = new TrendingTopics();
+		trendingTopics.topK = 3;
+		trendingTopics.clock = () -> now;
+		trendingTopics.afterSingletonsInstantiated();
+	}
+
+	@Test
+	public void shouldExtractHashtagsAndMentionsOnce() {
+
+		assertThat(TopicExtractor.extract("#Travel to #Delhi with @SGore, #travel! mail a@b.c #"),
+				contains("#travel", "#delhi", "@sgore"));
+		assertThat(TopicExtractor.extract("no topics here"), is(empty()));
+	}
+
+	@Test
+	public void shouldRankTopicsOfWindow() {
+
+		tweet("#delhi #travel", 3);
+		tweet("#food", 1);
+		tweet("@gasaw #travel", 2);
+		trendingTopics.refresh();
+
+		List<TrendDTO> trends = trendingTopics.getTrends(Window.FIVE_MINUTES, 10);
+		assertThat(topics(trends), contains("#travel", "#delhi", "@gasaw"));
+		assertThat(trends.get(0).getTweetCount(), is(5L));
+		assertThat(topics(trendingTopics.getTrends(Window.ONE_DAY, 1)), contains("#travel"));
+	}
+
+	@Test
+	public void shouldSlideWindowsBucketByBucket() {
+
+		tweet("#old", 2);
+		now += 6 * 60_000L;
+		tweet("#new", 1);
+		trendingTopics.refresh();
+
+		assertThat(topics(trendingTopics.getTrends(Window.FIVE_MINUTES, 10)), contains("#new"));
+		assertThat(topics(trendingTopics.getTrends(Window.ONE_HOUR, 10)), contains("#old", "#new"));
+		now += 25 * 3_600_000L;
+		trendingTopics.refresh();
+		assertThat(trendingTopics.getTrends(Window.ONE_DAY, 10), is(empty()));
+	}
+
+	@Test
+	public void shouldServeLastRefreshOnly() {
+
+		tweet("#first", 1);
+		assertThat(trendingTopics.getTrends(Window.ONE_HOUR, 10), is(empty()));
+		trendingTopics.refresh();
+		assertThat(topics(trendingTopics.getTrends(Window.ONE_HOUR, 10)), contains("#first"));
+		tweet("#second", 2);
+		assertThat(topics(trendingTopics.getTrends(Window.ONE_HOUR, 10)), contains("#first"));
+		trendingTopics.refresh();
+		assertThat(topics(trendingTopics.getTrends(Window.ONE_HOUR, 10)), contains("#second", "#first"));
+	}
+
+	@Test
+	public void shouldKeepHeaviestTopicsOfBucket() {
+
+		tweet("#a", 2);
+		tweet("#b", 3);
+		tweet("#c", 1);
+		// Lighter than the top-K, left out
+		tweet("#d", 1);
+		// Heavier than the lightest of the top-K, replaces it
+		tweet("#e", 4);
+		tweet("#a", 3);
+		trendingTopics.refresh();
+
+		List<TrendDTO> trends = trendingTopics.getTrends(Window.FIVE_MINUTES, 10);
+		assertThat(topics(trends), contains("#a", "#e", "#b"));
+		assertThat(trends.get(0).getTweetCount(), is(5L));
+	}
+
+	@Test
+	public void shouldCountDistinctTopicsWithinBoundedSketch() {
+
+		CountMinSketch sketch = new CountMinSketch(4, 64);
+		for (int i = 0; i < 10_000; i++) {
+			sketch.add("#tag" + i);
+		}
+		for (int i = 0; i < 500; i++) {
+			sketch.add("#hot");
+		}
+		// Never under the true count
+		assertThat(sketch.estimate("#hot") >= 500, is(true));
+		assertThat(sketch.estimate("#tag1") >= 1, is(true));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectUnknownWindow() {
+		Window.of("7d");
+	}
+
+	private void tweet(String text, int times) {
+		for (int i = 0; i < times; i++) {
+			trendingTopics.onTweetCreated(text);
+		}
+	}
+
+	private static List<String> topics(List<TrendDTO> trends) {
+		return trends.stream().map(TrendDTO::getTopic).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,43 @@
+package com.twitter.username;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class BloomFilterTest {
+
+	@Test
+	public void shouldNeverMissPutValues() {
+
+		BloomFilter filter = new BloomFilter(1_000, 0.01);
+		for (int i = 0; i < 1_000; i++) {
+			filter.put("user" + i);
+		}
+		for (int i = 0; i < 1_000; i++) {
+			assertThat(filter.mightContain("user" + i), is(true));
+		}
+		assertThat(filter.hashes(), is(7));
+	}
+
+	@Test
+	public void shouldKeepFalsePositivesNearRate() {
+
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("user" + i);
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain("other" + i)) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives, lessThan(200));
+	}
+}
@@ -0,0 +1,75 @@
+package com.twitter.username;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * @author gauri sawant
+ *
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UserNameRegistryTest {
+
+	@InjectMocks
+	private UserNameRegistry userNameRegistry;
+
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+
+	@Before
+	public void setup() throws Exception {
+		userNameRegistry.expectedUsers = 100;
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getString(1)).thenReturn("gasaw", "sgore");
+		when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(2L);
+		doAnswer(invocation -> {
+			RowCallbackHandler handler = invocation.getArgument(1);
+			handler.processRow(rs);
+			handler.processRow(rs);
+			return null;
+		}).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+		userNameRegistry.afterSingletonsInstantiated();
+	}
+
+	@Test
+	public void shouldLoadTakenNames() {
+
+		assertThat(userNameRegistry.size(), is(2));
+		assertThat(userNameRegistry.isAvailable("gasaw"), is(false));
+		assertThat(userNameRegistry.isAvailable("sgore"), is(false));
+		assertThat(userNameRegistry.isAvailable("skulk"), is(true));
+	}
+
+	@Test
+	public void shouldReserveNameOnce() {
+
+		assertThat(userNameRegistry.reserve("skulk"), is(true));
+		assertThat(userNameRegistry.reserve("skulk"), is(false));
+		assertThat(userNameRegistry.isAvailable("skulk"), is(false));
+	}
+
+	@Test
+	public void shouldFreeReleasedName() {
+
+		userNameRegistry.release("gasaw");
+		assertThat(userNameRegistry.isAvailable("gasaw"), is(true));
+		assertThat(userNameRegistry.reserve("gasaw"), is(true));
+	}
+}
@@ -0,0 +1,87 @@
+package com.twitter.version;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author gauri sawant
+ *
+ */
+public class ResourceVersionsTest {
+
+	private final ResourceVersions resourceVersions = new ResourceVersions();
+
+	@Test
+	public void shouldChangeTagsOfChangedUserOnly() {
+
+		String tweets = resourceVersions.tweetsTag(1L);
+		String followers = resourceVersions.followersTag(1L);
+		String otherTweets = resourceVersions.tweetsTag(2L);
+
+		resourceVersions.onTweetsChanged(1L);
+		assertThat(resourceVersions.tweetsTag(1L), is(not(tweets)));
+		assertThat(resourceVersions.followersTag(1L), is(followers));
+		assertThat(resourceVersions.tweetsTag(2L), is(otherTweets));
+	}
+
+	@Test
+	public void shouldChangeTweetsTagWhenFollowersChange() {
+
+		String tweets = resourceVersions.tweetsTag(1L);
+		String followers = resourceVersions.followersTag(1L);
+
+		resourceVersions.onFollowersChanged(1L);
+		assertThat(resourceVersions.followersTag(1L), is(not(followers)));
+		assertThat(resourceVersions.tweetsTag(1L), is(not(tweets)));
+	}
+
+	@Test
+	public void shouldNotReuseTagsOfDeletedUser() {
+
+		String initial = resourceVersions.tweetsTag(1L);
+		resourceVersions.onTweetsChanged(1L);
+		String changed = resourceVersions.tweetsTag(1L);
+		String users = resourceVersions.usersTag();
+
+		resourceVersions.onUserDeleted(1L, Arrays.asList(2L));
+		assertThat(resourceVersions.tweetsTag(1L), is(not(initial)));
+		assertThat(resourceVersions.tweetsTag(1L), is(not(changed)));
+		assertThat(resourceVersions.usersTag(), is(not(users)));
+	}
+
+	@Test
+	public void shouldChangeOnlyUsersTagWhenUserCreated() {
+
+		String tweets = resourceVersions.tweetsTag(1L);
+		String followers = resourceVersions.followersTag(1L);
+		String users = resourceVersions.usersTag();
+
+		resourceVersions.onUsersChanged();
+		assertThat(resourceVersions.usersTag(), is(not(users)));
+		assertThat(resourceVersions.tweetsTag(1L), is(tweets));
+		assertThat(resourceVersions.followersTag(1L), is(followers));
+	}
+
+	@Test
+	public void shouldChangeTagsOfRelatedUsersWhenUserDeleted() {
+
+		String related = resourceVersions.followersTag(2L);
+		String unrelated = resourceVersions.tweetsTag(3L);
+
+		resourceVersions.onUserDeleted(1L, Arrays.asList(2L));
+		assertThat(resourceVersions.followersTag(2L), is(not(related)));
+		assertThat(resourceVersions.tweetsTag(3L), is(unrelated));
+	}
+
+	@Test
+	public void shouldNotReuseTagsAcrossRestarts() throws InterruptedException {
+
+		Thread.sleep(2L);
+		assertThat(new ResourceVersions().usersTag(), is(not(resourceVersions.usersTag())));
+	}
+}